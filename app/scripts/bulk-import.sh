@@ -0,0 +1,58 @@
+#!/usr/bin/env bash
+# イベント一括登録APIの処理時間を確認するスクリプト
+# 使い方: scripts/bulk-import.sh [イベント数] [1イベントあたりの参加者数]
+# 事前に docker compose up -d でPostgreSQLとアプリケーションを起動しておく
+# 一括登録APIは管理者のみ利用できるため、アプリケーションは app.admin-usernames=bulk-user-1 を指定して起動する
+#（bulk-user-1 のトークンで登録する。docker compose では APP_ADMIN_USERNAMES=bulk-user-1 docker compose up -d）
+# 参加者用のユーザーは bulk-user-1 ～ bulk-user-N として登録する（登録済みの場合はそのまま使う）
+set -euo pipefail
+
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+EVENTS="${1:-10000}"
+PARTICIPANTS="${2:-5}"
+PASSWORD="password123"
+
+# 参加者用ユーザーを登録し、ログインしてトークンとIDを取得
+login() {
+  curl -s -X POST "$BASE_URL/api/auth/register" -H 'Content-Type: application/json' \
+    -d "{\"username\":\"$1\",\"password\":\"$PASSWORD\"}" > /dev/null
+  curl -s -X POST "$BASE_URL/api/auth/login" -H 'Content-Type: application/json' \
+    -d "{\"username\":\"$1\",\"password\":\"$PASSWORD\"}"
+}
+
+USER_IDS=()
+TOKEN=""
+for i in $(seq 1 "$PARTICIPANTS"); do
+  RESPONSE=$(login "bulk-user-$i")
+  USER_IDS+=("$(echo "$RESPONSE" | python3 -c 'import json,sys; print(json.load(sys.stdin)["id"])')")
+  if [ -z "$TOKEN" ]; then
+    TOKEN=$(echo "$RESPONSE" | python3 -c 'import json,sys; print(json.load(sys.stdin)["token"])')
+  fi
+done
+CATEGORY_ID=$(curl -s "$BASE_URL/api/categories" | python3 -c 'import json,sys; print(json.load(sys.stdin)[0]["id"])')
+
+# リクエストボディを生成（定員は参加者数の半分にして、確定とキャンセル待ちの両方を登録する）
+BODY=$(mktemp)
+trap 'rm -f "$BODY"' EXIT
+python3 - "$EVENTS" "$CATEGORY_ID" "$(( PARTICIPANTS / 2 ))" "${USER_IDS[@]}" > "$BODY" <<'PY'
+import datetime, json, sys
+count, category_id, capacity = int(sys.argv[1]), int(sys.argv[2]), int(sys.argv[3])
+user_ids = [int(i) for i in sys.argv[4:]]
+date = (datetime.datetime.now() + datetime.timedelta(days=30)).replace(microsecond=0)
+events = [{
+    "title": f"一括登録イベント{i}",
+    "description": "一括登録APIの確認用イベント",
+    "eventDate": (date + datetime.timedelta(minutes=i)).isoformat(),
+    "location": "東京都",
+    "categoryId": category_id,
+    "capacity": capacity,
+    "participantUserIds": user_ids,
+} for i in range(count)]
+json.dump({"events": events}, sys.stdout, ensure_ascii=False)
+PY
+
+echo "イベント${EVENTS}件（参加者${PARTICIPANTS}人ずつ）を登録します"
+curl -s -X POST "$BASE_URL/api/events/import" \
+  -H "Authorization: Bearer $TOKEN" -H 'Content-Type: application/json' \
+  --data-binary "@$BODY"
+echo
@@ -0,0 +1,69 @@
+#!/usr/bin/env bash
+# イベント一括登録で、JDBCバッチの有無による処理時間を比較するスクリプト
+# 使い方: scripts/import-benchmark.sh [イベント数] [1イベントあたりの参加者数] [計測回数]
+# 事前に ./gradlew bootJar でjarを作成し、docker compose up -d postgres でPostgreSQLを起動しておく
+# モードごとにアプリケーションを起動し直し、1回目（ウォームアップ）を除いた計測回数分 scripts/bulk-import.sh を実行する
+#   batched  : hibernate.jdbc.batch_size=50、reWriteBatchedInserts=true（application.propertiesの設定）
+#   unbatched: hibernate.jdbc.batch_size=1（1行ごとにINSERTを送信。IDの採番はどちらもシーケンスから50件ずつ）
+# 実行環境と各回のレスポンスは build/import-benchmark/ に保存し、最後に処理時間の中央値の比較表を表示する
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+EVENTS="${1:-10000}"
+PARTICIPANTS="${2:-5}"
+RUNS="${3:-5}"
+BASE_URL="http://localhost:8080"
+DB_URL="jdbc:postgresql://localhost:5432/eventshare"
+JAR=$(ls build/libs/*.jar | grep -v plain | head -n 1)
+OUT=build/import-benchmark
+mkdir -p "$OUT"
+
+APP_PID=""
+trap '[ -n "$APP_PID" ] && kill "$APP_PID" 2>/dev/null || true' EXIT
+
+# 実行環境（結果と一緒に記録する）
+{
+  echo "OS: $(uname -srm)"
+  echo "CPU: $(grep -m1 'model name' /proc/cpuinfo 2>/dev/null | cut -d: -f2 | xargs || sysctl -n machdep.cpu.brand_string) ($(getconf _NPROCESSORS_ONLN) cores)"
+  echo "メモリ: $(awk '/MemTotal/ {printf "%.1f GB", $2 / 1024 / 1024}' /proc/meminfo 2>/dev/null || true)"
+  echo "Java: $(java -version 2>&1 | head -n 1)"
+  echo "PostgreSQL: $(docker compose exec -T postgres postgres --version 2>/dev/null || echo unknown)"
+  echo "件数: イベント${EVENTS}件 × 参加者${PARTICIPANTS}人 / 計測${RUNS}回"
+} | tee "$OUT/environment.txt"
+
+run() {
+  local mode="$1" batch_size="$2" url="$3"
+  echo "== $mode (hibernate.jdbc.batch_size=$batch_size) =="
+  java -jar "$JAR" --spring.jpa.show-sql=false --app.admin-usernames=bulk-user-1 \
+    --spring.jpa.properties.hibernate.jdbc.batch_size="$batch_size" \
+    --spring.datasource.url="$url" > "$OUT/$mode.log" 2>&1 &
+  APP_PID=$!
+  until curl -s -o /dev/null "$BASE_URL/api/categories"; do sleep 1; done
+
+  : > "$OUT/$mode.jsonl"
+  for i in $(seq 0 "$RUNS"); do
+    RESULT=$(scripts/bulk-import.sh "$EVENTS" "$PARTICIPANTS" | tail -n 1)
+    # 1回目はウォームアップ（JITコンパイル・接続プールの準備）
+    if [ "$i" -gt 0 ]; then
+      echo "$RESULT" >> "$OUT/$mode.jsonl"
+    fi
+  done
+
+  kill "$APP_PID"
+  wait "$APP_PID" 2>/dev/null || true
+  APP_PID=""
+}
+
+run batched 50 "$DB_URL?reWriteBatchedInserts=true"
+run unbatched 1 "$DB_URL"
+
+python3 - "$OUT" <<'PY'
+import json, statistics, sys
+out = sys.argv[1]
+print(f"{'モード':<10}{'行数':>10}{'処理時間(ms)':>14}{'行/秒':>10}")
+for mode in ("batched", "unbatched"):
+    results = [json.loads(line) for line in open(f"{out}/{mode}.jsonl")]
+    rows = results[0]["eventCount"] + results[0]["participationCount"]
+    elapsed = statistics.median(r["elapsedMillis"] for r in results)
+    print(f"{mode:<10}{rows:>10}{elapsed:>14.0f}{rows * 1000 / elapsed:>10.0f}")
+PY
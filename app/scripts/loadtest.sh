@@ -0,0 +1,59 @@
+#!/usr/bin/env bash
+# プラットフォームスレッドと仮想スレッドで、高い同時実行数でのスループット・p99を比較するスクリプト
+# 使い方: scripts/loadtest.sh [同時接続数] [計測時間]
+# 事前に ./gradlew bootJar でjarを作成し、docker compose up -d postgres でPostgreSQLを起動しておく（k6が必要）
+# モードごとにアプリケーションを起動し直し、ウォームアップの後に scripts/loadtest/read-mix.js を実行する
+# 結果（k6のサマリー）は build/loadtest/<モード>.json、実行環境は build/loadtest/environment.txt に保存し、最後に比較表を表示する
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+VUS="${1:-1000}"
+DURATION="${2:-2m}"
+BASE_URL="http://localhost:8080"
+JAR=$(ls build/libs/*.jar | grep -v plain | head -n 1)
+OUT=build/loadtest
+mkdir -p "$OUT"
+
+APP_PID=""
+trap '[ -n "$APP_PID" ] && kill "$APP_PID" 2>/dev/null || true' EXIT
+
+# 実行環境（結果と一緒に記録する）
+{
+  echo "OS: $(uname -srm)"
+  echo "CPU: $(grep -m1 'model name' /proc/cpuinfo 2>/dev/null | cut -d: -f2 | xargs || sysctl -n machdep.cpu.brand_string) ($(getconf _NPROCESSORS_ONLN) cores)"
+  echo "メモリ: $(awk '/MemTotal/ {printf "%.1f GB", $2 / 1024 / 1024}' /proc/meminfo 2>/dev/null || true)"
+  echo "Java: $(java -version 2>&1 | head -n 1)"
+  echo "PostgreSQL: $(docker compose exec -T postgres postgres --version 2>/dev/null || echo unknown)"
+} | tee "$OUT/environment.txt"
+
+run() {
+  local mode="$1" virtual="$2"
+  echo "== $mode (spring.threads.virtual.enabled=$virtual) =="
+  java -jar "$JAR" --spring.threads.virtual.enabled="$virtual" --spring.jpa.show-sql=false > "$OUT/$mode.log" 2>&1 &
+  APP_PID=$!
+  until curl -s -o /dev/null "$BASE_URL/api/categories"; do sleep 1; done
+
+  # ウォームアップ（JITコンパイル・接続プールの準備）
+  k6 run --quiet -e BASE_URL="$BASE_URL" -e VUS=50 -e DURATION=30s scripts/loadtest/read-mix.js > /dev/null
+  k6 run --quiet -e BASE_URL="$BASE_URL" -e VUS="$VUS" -e DURATION="$DURATION" \
+    --summary-export "$OUT/$mode.json" scripts/loadtest/read-mix.js > /dev/null || true
+
+  kill "$APP_PID"
+  wait "$APP_PID" 2>/dev/null || true
+  APP_PID=""
+}
+
+run platform false
+run virtual true
+
+python3 - "$OUT" "$VUS" "$DURATION" <<'PY'
+import json, sys
+out, vus, duration = sys.argv[1:]
+print(f"同時接続数 {vus} / 計測時間 {duration}")
+print(f"{'モード':<10}{'req/s':>10}{'p50(ms)':>10}{'p99(ms)':>10}{'失敗率':>10}")
+for mode in ("platform", "virtual"):
+    metrics = json.load(open(f"{out}/{mode}.json"))["metrics"]
+    duration_ = metrics["http_req_duration"]
+    print(f"{mode:<10}{metrics['http_reqs']['rate']:>10.1f}{duration_['p(50)']:>10.1f}"
+          f"{duration_['p(99)']:>10.1f}{metrics['http_req_failed']['value']:>10.2%}")
+PY
@@ -0,0 +1,64 @@
+// イベント閲覧の負荷試験（k6）
+// イベント一覧 → イベント詳細 → 写真一覧 → 参加者一覧（認証あり）の順に呼び出す（各リクエストはDBアクセスを含む）
+// 使い方: k6 run -e VUS=1000 -e DURATION=2m scripts/loadtest/read-mix.js
+// プラットフォームスレッドと仮想スレッドの比較は scripts/loadtest.sh で行う
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const EVENTS = Number(__ENV.EVENTS || 50);
+
+export const options = {
+  scenarios: {
+    read_mix: {
+      executor: 'constant-vus',
+      vus: Number(__ENV.VUS || 1000),
+      duration: __ENV.DURATION || '2m',
+    },
+  },
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+  thresholds: {
+    http_req_failed: ['rate<0.01'],
+  },
+};
+
+const JSON_HEADERS = { 'Content-Type': 'application/json' };
+
+// 負荷試験用のユーザーでログインし、イベントがEVENTS件に満たない場合は作成する
+export function setup() {
+  const credentials = JSON.stringify({ username: 'loadtest-user', password: 'password123' });
+  http.post(`${BASE_URL}/api/auth/register`, credentials, { headers: JSON_HEADERS });
+  const login = http.post(`${BASE_URL}/api/auth/login`, credentials, { headers: JSON_HEADERS });
+  const token = login.json('token');
+  const auth = { headers: { ...JSON_HEADERS, Authorization: `Bearer ${token}` } };
+
+  const categoryId = http.get(`${BASE_URL}/api/categories`).json('0.id');
+  let eventIds = http.get(`${BASE_URL}/api/events?limit=100`).json('content.#.id') || [];
+  const eventDate = new Date(Date.now() + 30 * 24 * 60 * 60 * 1000).toISOString().slice(0, 19);
+  for (let i = eventIds.length; i < EVENTS; i++) {
+    const created = http.post(`${BASE_URL}/api/events`, JSON.stringify({
+      title: `負荷試験イベント${i}`,
+      description: '負荷試験用のイベント',
+      eventDate,
+      location: '東京都',
+      categoryId,
+      capacity: 100,
+    }), auth);
+    const eventId = created.json('id');
+    http.post(`${BASE_URL}/api/events/${eventId}/participate`, null, auth);
+    eventIds.push(eventId);
+  }
+  return { token, eventIds: eventIds.slice(0, EVENTS) };
+}
+
+export default function (data) {
+  const eventId = data.eventIds[Math.floor(Math.random() * data.eventIds.length)];
+  const auth = { headers: { Authorization: `Bearer ${data.token}` } };
+  const responses = http.batch([
+    ['GET', `${BASE_URL}/api/events?limit=20`, null, { tags: { name: 'events' } }],
+    ['GET', `${BASE_URL}/api/events/${eventId}`, null, { tags: { name: 'event' } }],
+    ['GET', `${BASE_URL}/api/photos/event/${eventId}`, null, { tags: { name: 'photos' } }],
+    ['GET', `${BASE_URL}/api/events/${eventId}/participants?limit=20`, null, { ...auth, tags: { name: 'participants' } }],
+  ]);
+  responses.forEach((res) => check(res, { 'status is 200': (r) => r.status === 200 }));
+}
@@ -0,0 +1,70 @@
+package com.eventshare.app.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/*
+JWT認証1リクエストあたりのトークン検証コストのベンチマーク
+before: 以前のフィルターの処理（validateTokenとgetUsernameFromTokenで、毎回鍵とパーサーを作り直して2回パース）
+after : 起動時に生成した鍵とパーサーで1回だけパース
+実行: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtTokenProviderBenchmark {
+    private static final String SECRET = "benchmarkSecretKeyForJwtTokenGenerationInEventShareApplication123!@#";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        jwtTokenProvider = new JwtTokenProvider();
+        setField("jwtSecret", SECRET);
+        setField("jwtExpirationInMs", 86400000);
+        jwtTokenProvider.init();
+
+        User principal = new User("benchmark-user", "password", Collections.emptyList());
+        token = jwtTokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    //以前の処理：鍵とパーサーを毎回生成して、検証とユーザー名取得で2回パース
+    @Benchmark
+    public String before() {
+        Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token);
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+    }
+
+    //現在の処理：キャッシュしたパーサーで1回だけパース
+    @Benchmark
+    public String after() {
+        Claims claims = jwtTokenProvider.parseClaims(token);
+        return claims.getSubject();
+    }
+
+    //@Valueで注入されるフィールドを設定
+    private void setField(String name, Object value) throws Exception {
+        Field field = JwtTokenProvider.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(jwtTokenProvider, value);
+    }
+}
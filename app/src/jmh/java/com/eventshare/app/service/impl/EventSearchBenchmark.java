@@ -0,0 +1,137 @@
+package com.eventshare.app.service.impl;
+
+import com.eventshare.app.dto.response.EventSearchDocument;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+キーワード検索のベンチマーク（100万件のイベント）
+likeTitle     : 以前の処理（GET /api/events?keyword= の先頭ページ。タイトルの LIKE '%キーワード%' を開催日時順に20件）
+likeAllFields : 検索インデックスと同じ範囲（タイトル・説明・開催場所・カテゴリ名）をLIKEで検索した場合
+index         : 検索インデックスで関連度順の上位20件を取得
+LIKEはH2のインメモリDBで計測する（本番のPostgreSQLでも前方一致以外のLIKEはインデックスが効かず全件走査になる点は同じ）
+実行: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EventSearchBenchmark {
+    private static final String[] PLACES = {"東京", "大阪", "横浜", "名古屋", "札幌", "福岡", "京都", "神戸", "仙台", "広島"};
+    private static final String[] TOPICS = {"ジャズ", "ロック", "写真", "野球", "お笑い", "将棋", "ランニング", "読書", "カメラ", "料理",
+            "ボードゲーム", "プログラミング", "ヨガ", "登山", "映画"};
+    private static final String[] KINDS = {"フェス", "交流会", "勉強会", "ライブ", "大会", "撮影会", "ワークショップ", "観戦会"};
+    private static final String[] CATEGORIES = {"音楽", "写真・カメラ", "野球", "お笑い", "その他"};
+    private static final String[] PHRASES = {"初心者歓迎です", "雨天決行", "参加費無料", "お気軽にご参加ください",
+            "持ち物は不要です", "途中参加も可能です", "定員になり次第締め切ります"};
+
+    @Param({"1000000"})
+    public int eventCount;
+
+    @Param({"ジャズ", "横浜ジャズ", "ワークショップ"})
+    public String keyword;
+
+    private Connection connection;
+    private PreparedStatement likeTitle;
+    private PreparedStatement likeAllFields;
+    private EventSearchIndex eventSearchIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:searchbench;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS events");
+            statement.execute("CREATE TABLE events (id BIGINT PRIMARY KEY, title VARCHAR(255), " +
+                    "description VARCHAR(1000), location VARCHAR(255), category_name VARCHAR(255), event_date TIMESTAMP)");
+        }
+        eventSearchIndex = new EventSearchIndex(null);
+
+        //同じ乱数列でDBとインデックスに同じ内容を登録
+        Random random = new Random(42);
+        LocalDateTime baseDate = LocalDateTime.of(2025, 1, 1, 0, 0);
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO events (id, title, description, location, category_name, event_date) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (long id = 1; id <= eventCount; id++) {
+                String place = pick(random, PLACES);
+                String title = place + pick(random, TOPICS) + pick(random, KINDS) + " vol." + (id % 100);
+                String description = pick(random, TOPICS) + "好きが集まる" + pick(random, KINDS) + "です。"
+                        + pick(random, PHRASES) + "。" + pick(random, PHRASES) + "。";
+                String location = place + "駅前";
+                String category = pick(random, CATEGORIES);
+
+                insert.setLong(1, id);
+                insert.setString(2, title);
+                insert.setString(3, description);
+                insert.setString(4, location);
+                insert.setString(5, category);
+                insert.setTimestamp(6, Timestamp.valueOf(baseDate.plusMinutes(random.nextInt(525600))));
+                insert.addBatch();
+                if (id % 10000 == 0) {
+                    insert.executeBatch();
+                }
+                eventSearchIndex.index(new EventSearchDocument(id, title, description, location, null, category));
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+
+        likeTitle = connection.prepareStatement(
+                "SELECT id FROM events WHERE title LIKE ? ORDER BY event_date, id LIMIT 20");
+        likeAllFields = connection.prepareStatement(
+                "SELECT id FROM events WHERE title LIKE ? OR description LIKE ? OR location LIKE ? OR category_name LIKE ? " +
+                "ORDER BY event_date, id LIMIT 20");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        connection.close();
+    }
+
+    //以前の処理：タイトルの部分一致を開催日時順に
+    @Benchmark
+    public List<Long> likeTitle() throws Exception {
+        likeTitle.setString(1, "%" + keyword + "%");
+        return collectIds(likeTitle);
+    }
+
+    //4項目の部分一致を開催日時順に
+    @Benchmark
+    public List<Long> likeAllFields() throws Exception {
+        String pattern = "%" + keyword + "%";
+        for (int i = 1; i <= 4; i++) {
+            likeAllFields.setString(i, pattern);
+        }
+        return collectIds(likeAllFields);
+    }
+
+    //検索インデックス：4項目を対象に関連度順の上位20件
+    @Benchmark
+    public List<Long> index() {
+        return eventSearchIndex.search(keyword, 20);
+    }
+
+    private static List<Long> collectIds(PreparedStatement statement) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                ids.add(resultSet.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,45 @@
+package com.eventshare.app.config;
+
+import com.eventshare.app.service.impl.AccountPurgeJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/*
+未完了のユーザーのデータ削除を定期的に再開する
+起動直後と、その後 account.purge.sweep-interval ごとに、待機中のジョブと一定時間（account.purge.stale-after）進捗の更新がない実行中のジョブを探し、
+アプリケーションのタスクエグゼキュータで実行する
+（サーバーの停止・処理の中断で実行中のまま残ったジョブも、stale-after経過後にどのサーバーからでも再開される）
+実行権はAccountPurgeJob.runで取得するため、他のサーバー・スレッドで実行中のジョブは実行しない
+ */
+@Component
+public class AccountPurgeSweeper {
+    private final AccountPurgeJob accountPurgeJob;
+    private final TaskExecutor taskExecutor;
+
+    @Autowired
+    public AccountPurgeSweeper(AccountPurgeJob accountPurgeJob,
+                               @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.accountPurgeJob = accountPurgeJob;
+        this.taskExecutor = taskExecutor;
+    }
+
+    //再開が必要なジョブをエグゼキュータに登録（登録したジョブ数を返す）
+    @Scheduled(initialDelayString = "${account.purge.sweep-initial-delay:10s}",
+            fixedDelayString = "${account.purge.sweep-interval:1m}")
+    public int sweep() {
+        List<Long> userIds = accountPurgeJob.findResumable();
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        System.out.println("未完了のユーザーのデータ削除を再開します（" + userIds.size() + "件）");
+        for (Long userId : userIds) {
+            taskExecutor.execute(() -> accountPurgeJob.run(userId));
+        }
+        return userIds.size();
+    }
+}
@@ -0,0 +1,16 @@
+package com.eventshare.app.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/*
+非同期処理の設定
+@Asyncのメソッドは Spring Boot が自動構成するタスクエグゼキュータで実行される
+spring.threads.virtual.enabled=true の場合はタスクごとに仮想スレッドを作成し、false の場合はスレッドプール（spring.task.execution.pool.*）で実行する
+どちらの場合も同時実行数は8までとし（spring.task.execution.simple.concurrency-limit / プールの既定値）、
+バックグラウンド処理がDB接続プールを使い切ってリクエストの処理を待たせないようにする
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
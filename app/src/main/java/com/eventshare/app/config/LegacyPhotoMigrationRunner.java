@@ -0,0 +1,55 @@
+package com.eventshare.app.config;
+
+import com.eventshare.app.service.impl.LegacyPhotoMigrator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/*
+導入前の写真ファイルをハッシュの2階層の保存先に移行するコマンド
+file.storage.migrate-legacy.enabled=true で起動すると、起動後にバックグラウンドで移行を開始する
+アプリケーションは通常どおりリクエストを受け付けるため、停止せずに移行できる
+（例: java -jar app.jar --file.storage.migrate-legacy.enabled=true）
+移行済みの写真は対象外になるため、途中で停止しても再度起動すれば続きから移行する
+ */
+@Component
+@ConditionalOnProperty(name = "file.storage.migrate-legacy.enabled", havingValue = "true")
+public class LegacyPhotoMigrationRunner implements CommandLineRunner {
+    private final LegacyPhotoMigrator legacyPhotoMigrator;
+    private final int batchSize;
+    private final Duration pause;
+
+    @Autowired
+    public LegacyPhotoMigrationRunner(LegacyPhotoMigrator legacyPhotoMigrator,
+                                      @Value("${file.storage.migrate-legacy.batch-size:100}") int batchSize,
+                                      @Value("${file.storage.migrate-legacy.pause:200ms}") Duration pause) {
+        this.legacyPhotoMigrator = legacyPhotoMigrator;
+        this.batchSize = batchSize;
+        this.pause = pause;
+    }
+
+    @Override
+    public void run(String... args) {
+        Thread thread = new Thread(this::migrate, "legacy-photo-migration");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void migrate() {
+        System.out.println("写真ファイルの移行を開始します（" + batchSize + "件ずつ）");
+        try {
+            LegacyPhotoMigrator.Result result = legacyPhotoMigrator.migrateAll(batchSize, pause.toMillis());
+            System.out.println("写真ファイルの移行が完了しました: 移行 " + result.migrated() + "件 / 不在 "
+                    + result.missing() + "件 / 失敗 " + result.failed() + "件");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("写真ファイルの移行を中断しました");
+        } catch (RuntimeException e) {
+            System.out.println("写真ファイルの移行に失敗しました: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.eventshare.app.config;
+
+import com.eventshare.app.service.impl.PhotoFileCleaner;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+後片付けが済んでいない写真ファイルを定期的に削除する
+起動後 file.cleanup.sweep-initial-delay と、その後 file.cleanup.sweep-interval ごとに PhotoFileCleaner.sweep を
+アプリケーションのタスクエグゼキュータで実行する（件数が多くても他の定期実行を待たせない）
+前回の実行が終わっていない場合は何もしない
+ */
+@Component
+public class PhotoFileCleanupSweeper {
+    private final PhotoFileCleaner photoFileCleaner;
+    private final TaskExecutor taskExecutor;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Autowired
+    public PhotoFileCleanupSweeper(PhotoFileCleaner photoFileCleaner,
+                                   @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.photoFileCleaner = photoFileCleaner;
+        this.taskExecutor = taskExecutor;
+    }
+
+    //実行を登録した場合はtrue
+    @Scheduled(initialDelayString = "${file.cleanup.sweep-initial-delay:1m}",
+            fixedDelayString = "${file.cleanup.sweep-interval:1h}")
+    public boolean sweep() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            taskExecutor.execute(() -> {
+                try {
+                    photoFileCleaner.sweep();
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,85 @@
+package com.eventshare.app.config;
+
+import com.eventshare.app.service.PhotoStorage;
+import com.eventshare.app.service.impl.S3PhotoStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
+
+/*
+S3互換ストレージの設定（file.storage.type=s3 のときのみ有効）
+endpointを指定するとMinIO等のS3互換ストレージに接続する（未指定ならAWS S3）
+アクセスキーを指定しない場合は、環境変数・IAMロール等の標準の認証情報を使う
+ */
+@Configuration
+@ConditionalOnProperty(name = "file.storage.type", havingValue = "s3")
+public class S3Config {
+    @Value("${file.storage.s3.region:ap-northeast-1}")
+    private String region;
+
+    @Value("${file.storage.s3.endpoint:}")
+    private String endpoint;
+
+    //署名付きURLのホスト（ブラウザから見たストレージのURL。未指定ならendpointと同じ）
+    @Value("${file.storage.s3.public-endpoint:}")
+    private String publicEndpoint;
+
+    @Value("${file.storage.s3.access-key:}")
+    private String accessKey;
+
+    @Value("${file.storage.s3.secret-key:}")
+    private String secretKey;
+
+    //MinIO等はバケット名をホスト名ではなくパスに含める
+    @Value("${file.storage.s3.path-style-access:false}")
+    private boolean pathStyleAccess;
+
+    @Bean(destroyMethod = "close")
+    public S3Client s3Client() {
+        var builder = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentialsProvider())
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(pathStyleAccess).build());
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public S3Presigner s3Presigner() {
+        var builder = S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentialsProvider())
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(pathStyleAccess).build());
+        String presignEndpoint = publicEndpoint.isBlank() ? endpoint : publicEndpoint;
+        if (!presignEndpoint.isBlank()) {
+            builder.endpointOverride(URI.create(presignEndpoint));
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public PhotoStorage photoStorage(S3Client s3Client, S3Presigner s3Presigner,
+                                     @Value("${file.storage.s3.bucket}") String bucket) {
+        return new S3PhotoStorage(s3Client, s3Presigner, bucket);
+    }
+
+    private AwsCredentialsProvider credentialsProvider() {
+        if (accessKey.isBlank()) {
+            return DefaultCredentialsProvider.builder().build();
+        }
+        return StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+    }
+}
@@ -0,0 +1,13 @@
+package com.eventshare.app.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/*
+定期実行の設定
+@Scheduledのメソッドは Spring Boot が自動構成するスケジューラ（spring.task.scheduling.*）で実行される
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
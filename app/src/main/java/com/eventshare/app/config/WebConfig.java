@@ -0,0 +1,29 @@
+package com.eventshare.app.config;
+
+import com.eventshare.app.security.CurrentUserArgumentResolver;
+import com.eventshare.app.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/*
+Spring MVCの設定
+@CurrentUserでログイン中のユーザーをコントローラーの引数に渡すリゾルバーを登録
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    private final UserService userService;
+
+    @Autowired
+    public WebConfig(UserService userService) {
+        this.userService = userService;
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new CurrentUserArgumentResolver(userService));
+    }
+}
@@ -1,5 +1,6 @@
 package com.eventshare.app.controller;
 
+import com.eventshare.app.dto.response.CategoryCacheStats;
 import com.eventshare.app.entity.Event;
 import com.eventshare.app.entity.EventCategory;
 import com.eventshare.app.service.EventCategoryService;
@@ -34,6 +35,15 @@ public class EventCategoryController {
         }
     }
 
+    /*
+    カテゴリキャッシュの統計情報取得
+    GET /api/categories/cache-stats
+     */
+    @GetMapping("/cache-stats")
+    public ResponseEntity<CategoryCacheStats> getCacheStats() {
+        return ResponseEntity.ok(eventCategoryService.getCacheStats());
+    }
+
     /*
     カテゴリ詳細取得
     GET /api/categories/{id}
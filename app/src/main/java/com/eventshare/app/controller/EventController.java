@@ -1,23 +1,29 @@
 package com.eventshare.app.controller;
 
+import com.eventshare.app.dto.request.EventCursor;
 import com.eventshare.app.dto.request.EventRequest;
+import com.eventshare.app.dto.request.SearchCursor;
+import com.eventshare.app.dto.response.CursorPage;
 import com.eventshare.app.dto.response.EventResponse;
+import com.eventshare.app.dto.response.PhotoCleanupProgress;
 import com.eventshare.app.entity.Event;
 import com.eventshare.app.entity.EventCategory;
 import com.eventshare.app.entity.User;
+import com.eventshare.app.security.CurrentUser;
 import com.eventshare.app.service.EventCategoryService;
 import com.eventshare.app.service.EventParticipationService;
 import com.eventshare.app.service.EventService;
-import com.eventshare.app.service.UserService;
+import com.eventshare.app.service.PhotoService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /*
@@ -36,50 +42,51 @@ public class EventController {
 
     private final EventService eventService;
     private final EventCategoryService eventCategoryService;
-    private final UserService userService;
     private final EventParticipationService eventParticipationService;
+    private final PhotoService photoService;
 
     @Autowired
     public EventController(EventService eventService,
                            EventCategoryService eventCategoryService,
-                           UserService userService,
-                           EventParticipationService eventParticipationService) {
+                           EventParticipationService eventParticipationService,
+                           PhotoService photoService) {
         this.eventService = eventService;
         this.eventCategoryService = eventCategoryService;
-        this.userService = userService;
         this.eventParticipationService = eventParticipationService;
+        this.photoService = photoService;
     }
 
     /*
      1.イベント一覧取得API
-     GET /api/events
+     GET /api/events?cursor={nextCursor}&limit={件数}
+     開催日時順のキーセットページネーション。レスポンスのnextCursorを次回リクエストのcursorに指定する
+     keyword指定時はタイトル・説明・開催場所・カテゴリ名を対象に検索し、関連度順に返す
      */
     @GetMapping
     public ResponseEntity<?> getAllEvents(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) String keyword) {
         try {
-            List<Event> events;
+            CursorPage<EventResponse> events;
 
             // フィルタリング条件に応じてイベントを取得
             if (categoryId != null) {
                 EventCategory category = eventCategoryService.getCategoryById(categoryId);
-                events = eventService.getEventsByCategory(category);
+                events = eventService.getEventsPageByCategory(category, EventCursor.decode(cursor), limit);
             } else if (keyword != null && !keyword.trim().isEmpty()) {
-                events = eventService.getEventsByKeyword(keyword);
+                events = eventService.searchEvents(keyword, SearchCursor.decode(cursor), limit);
             } else {
-                events = eventService.getAllEvents();
+                events = eventService.getEventsPage(EventCursor.decode(cursor), limit);
             }
 
-            // EventをEventResponseに変換
-            List<EventResponse> eventResponses = events.stream()
-                    .map(this::convertToEventResponse)
-                    .collect(Collectors.toList());
-
-            return ResponseEntity.ok(eventResponses);
+            // 参加者数をセット（一括集計）
+            return ResponseEntity.ok(withParticipantCounts(events));
 
+        } catch (IllegalArgumentException e) {
+            //カーソルの形式不正はクライアントのエラー
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("イベント取得中にエラーが発生しました: " + e.getMessage());
@@ -111,12 +118,8 @@ public class EventController {
      POST /api/events
      */
     @PostMapping
-    public ResponseEntity<?> createEvent(@Valid @RequestBody EventRequest eventRequest) {
+    public ResponseEntity<?> createEvent(@Valid @RequestBody EventRequest eventRequest, @CurrentUser User creator) {
         try {
-            // 現在ログインしているユーザーを取得
-            String username = SecurityContextHolder.getContext().getAuthentication().getName();
-            User creator = userService.getUserByUsername(username);
-
             // カテゴリを取得
             EventCategory category = eventCategoryService.getCategoryById(eventRequest.getCategoryId());
 
@@ -153,17 +156,14 @@ public class EventController {
      */
     @PutMapping("/{id}")
     public ResponseEntity<?> updateEvent(@PathVariable Long id,
-                                         @Valid @RequestBody EventRequest eventRequest) {
+                                         @Valid @RequestBody EventRequest eventRequest,
+                                         @CurrentUser Long currentUserId) {
         try {
-            // 現在ログインしているユーザーを取得
-            String username = SecurityContextHolder.getContext().getAuthentication().getName();
-            User currentUser = userService.getUserByUsername(username);
-
             // 更新対象のイベントを取得
             Event existingEvent = eventService.getEventById(id);
 
             // 作成者かどうかをチェック
-            if (!existingEvent.getCreator().getId().equals(currentUser.getId())) {
+            if (!existingEvent.getCreator().getId().equals(currentUserId)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body("イベントの更新権限がありません");
             }
@@ -201,17 +201,13 @@ public class EventController {
      DELETE /api/events/{id}
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteEvent(@PathVariable Long id) {
+    public ResponseEntity<?> deleteEvent(@PathVariable Long id, @CurrentUser Long currentUserId) {
         try {
-            // 現在ログインしているユーザーを取得
-            String username = SecurityContextHolder.getContext().getAuthentication().getName();
-            User currentUser = userService.getUserByUsername(username);
-
             // 削除対象のイベントを取得
             Event existingEvent = eventService.getEventById(id);
 
             // 作成者かどうかをチェック
-            if (!existingEvent.getCreator().getId().equals(currentUser.getId())) {
+            if (!existingEvent.getCreator().getId().equals(currentUserId)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body("イベントの削除権限がありません");
             }
@@ -232,19 +228,21 @@ public class EventController {
 
     /*
      6.今後のイベント検索API
-     GET /api/events/upcoming
+     GET /api/events/upcoming?cursor={nextCursor}&limit={件数}
      */
     @GetMapping("/upcoming")
-    public ResponseEntity<?> getUpcomingEvents() {
+    public ResponseEntity<?> getUpcomingEvents(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
         try {
-            List<Event> upcomingEvents = eventService.getEventsByDateAfter(LocalDateTime.now());
+            CursorPage<EventResponse> upcomingEvents = eventService.getEventsPageByDateAfter(
+                    LocalDateTime.now(), EventCursor.decode(cursor), limit);
 
-            List<EventResponse> eventResponses = upcomingEvents.stream()
-                    .map(this::convertToEventResponse)
-                    .collect(Collectors.toList());
-
-            return ResponseEntity.ok(eventResponses);
+            return ResponseEntity.ok(withParticipantCounts(upcomingEvents));
 
+        } catch (IllegalArgumentException e) {
+            //カーソルの形式不正はクライアントのエラー
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("今後のイベント取得中にエラーが発生しました: " + e.getMessage());
@@ -252,9 +250,40 @@ public class EventController {
     }
 
     /*
-     EventエンティティをEventResponseに変換するヘルパーメソッド
+     7.写真ファイルの後片付け状況API
+     GET /api/events/{id}/photo-cleanup
+     イベント削除後にバックグラウンドで行う写真ファイルの削除の進捗を返す（写真がなかった場合・記録が破棄された場合は404）
+     */
+    @GetMapping("/{id}/photo-cleanup")
+    public ResponseEntity<?> getPhotoCleanupProgress(@PathVariable Long id) {
+        Optional<PhotoCleanupProgress> progress = photoService.getPhotoCleanupProgress(id);
+        if (progress.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(progress.get());
+    }
+
+    /*
+     一覧取得で得たEventResponseのページに参加者数をセットするヘルパーメソッド
+     参加者数はイベントごとに問い合わせず、1回のGROUP BYクエリでまとめて取得する
+     */
+    private CursorPage<EventResponse> withParticipantCounts(CursorPage<EventResponse> events) {
+        List<Long> eventIds = events.getContent().stream()
+                .map(EventResponse::getId)
+                .collect(Collectors.toList());
+        Map<Long, Integer> participantCounts = eventParticipationService.getParticipantCountsByEventIds(eventIds);
+        events.getContent().forEach(event -> event.setParticipantCount(participantCounts.getOrDefault(event.getId(), 0)));
+        return events;
+    }
+
+    /*
+     EventエンティティをEventResponseに変換するヘルパーメソッド（単一イベント用）
      */
     private EventResponse convertToEventResponse(Event event) {
+        return convertToEventResponse(event, eventParticipationService.getParticipantCountForEvent(event));
+    }
+
+    private EventResponse convertToEventResponse(Event event, int participantCount) {
         EventResponse response = new EventResponse();
         response.setId(event.getId());
         response.setTitle(event.getTitle());
@@ -284,7 +313,7 @@ public class EventController {
         }
 
         // 参加者数をセット
-        response.setParticipantCount(eventParticipationService.getParticipantCountForEvent(event));
+        response.setParticipantCount(participantCount);
 
         return response;
     }
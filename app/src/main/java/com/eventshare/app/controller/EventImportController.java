@@ -0,0 +1,53 @@
+package com.eventshare.app.controller;
+
+import com.eventshare.app.dto.request.EventImportRequest;
+import com.eventshare.app.dto.response.ImportResult;
+import com.eventshare.app.entity.User;
+import com.eventshare.app.security.CurrentUser;
+import com.eventshare.app.service.EventImportService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/*
+ イベント一括登録APIエンドポイントを提供するコントローラー
+ 1.イベント一括登録
+ */
+@RestController
+@RequestMapping("/api/events/import")
+@CrossOrigin(origins = "*")
+public class EventImportController {
+
+    private final EventImportService eventImportService;
+
+    @Autowired
+    public EventImportController(EventImportService eventImportService) {
+        this.eventImportService = eventImportService;
+    }
+
+    /*
+     1.イベント一括登録API
+     POST /api/events/import
+     ログインユーザーを作成者としてイベントと参加登録をまとめて登録する（最大10000件、参加者は1イベントあたり1000人まで）
+     他のユーザーを参加者として登録できるため、管理者（app.admin-usernames）のみ利用可（SecurityConfigで制限）
+     すべて1トランザクションで登録し、1件でも失敗した場合は何も登録しない
+     */
+    @PostMapping
+    public ResponseEntity<?> importEvents(@Valid @RequestBody EventImportRequest request, @CurrentUser User creator) {
+        try {
+            //コミットまで含めた処理時間を計測
+            long start = System.nanoTime();
+            ImportResult result = eventImportService.importEvents(request.getEvents(), creator);
+            result.setElapsed((System.nanoTime() - start) / 1_000_000);
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(result);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body("イベント一括登録に失敗しました: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("イベント一括登録中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+}
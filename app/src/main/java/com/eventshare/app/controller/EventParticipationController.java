@@ -1,20 +1,22 @@
 package com.eventshare.app.controller;
 
+import com.eventshare.app.dto.request.EventCursor;
+import com.eventshare.app.dto.request.ParticipationCursor;
+import com.eventshare.app.dto.response.CursorPage;
 import com.eventshare.app.dto.response.EventParticipationResponse;
 import com.eventshare.app.entity.Event;
 import com.eventshare.app.entity.EventParticipation;
 import com.eventshare.app.entity.User;
+import com.eventshare.app.security.CurrentUser;
 import com.eventshare.app.service.EventParticipationService;
 import com.eventshare.app.service.EventService;
-import com.eventshare.app.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
 
 /*
  イベント参加関連のAPIエンドポイントを提供するコントローラー
@@ -30,15 +32,12 @@ import java.util.stream.Collectors;
 public class EventParticipationController {
     private final EventService eventService;
     private final EventParticipationService eventParticipationService;
-    private final UserService userService;
 
     @Autowired
     public EventParticipationController(EventService eventService,
-                                        EventParticipationService eventParticipationService,
-                                        UserService userService) {
+                                        EventParticipationService eventParticipationService) {
         this.eventService = eventService;
         this.eventParticipationService = eventParticipationService;
-        this.userService = userService;
     }
 
     /*
@@ -46,12 +45,8 @@ public class EventParticipationController {
      POST /api/events/{id}/participate
     */
     @PostMapping("/{id}/participate")
-    public ResponseEntity<?> participateEvent(@PathVariable Long id) {
+    public ResponseEntity<?> participateEvent(@PathVariable Long id, @CurrentUser User user) {
         try {
-            //セキュリティコンテキスからログイン中のユーザー名取得
-            String username = SecurityContextHolder.getContext().getAuthentication().getName();
-            User user = userService.getUserByUsername(username);//ユーザー名を利用してuserServiceからユーザー情報取得
-
             //URLパラメータのIDからイベント情報を取得
             Event event = eventService.getEventById(id);
 
@@ -83,12 +78,8 @@ public class EventParticipationController {
     DELETE /api/events/{id}/participate
     */
     @DeleteMapping("/{id}/participate")
-    public ResponseEntity<?> cancelParticipation(@PathVariable Long id){
+    public ResponseEntity<?> cancelParticipation(@PathVariable Long id, @CurrentUser User user){
         try {
-            //セキュリティコンテキスからログイン中のユーザー名取得
-            String username = SecurityContextHolder.getContext().getAuthentication().getName();
-            User user = userService.getUserByUsername(username);//ユーザー名を利用してuserServiceからユーザー情報取得
-
             //URLパラメータのIDからイベント情報を取得
             Event event = eventService.getEventById(id);
 
@@ -117,19 +108,21 @@ public class EventParticipationController {
 
     /*
     3. イベント参加者一覧取得API
-    GET /api/events/{id}/participants
+    GET /api/events/{id}/participants?status={CONFIRMED|WAITING|CANCELLED}&cursor={nextCursor}&limit={件数}
+    登録順のキーセットページネーション。レスポンスのnextCursorを次回リクエストのcursorに指定する
+    参加者・イベント・ユーザーは1回のクエリでまとめて取得する（参加者数に関係なくクエリ数は一定）
     */
     @GetMapping("/{id}/participants")
-    public ResponseEntity<?> getEventParticipants(@PathVariable Long id){
+    public ResponseEntity<?> getEventParticipants(@PathVariable Long id,
+                                                  @RequestParam(required = false) String status,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "50") int limit){
         try {
-            //idからイベント取得
+            //idからイベント取得（存在チェック）
             Event event = eventService.getEventById(id);
-            //イベントから参加者取得
-            List<EventParticipation> participations = eventParticipationService.getParticipationByEvent(event);
-            //レスポンス用意にDTOに変換
-            List<EventParticipationResponse> responses = participations.stream()//各要素へのストリーム処理
-                    .map(this::convertToParticipationResponse)//各参加記録をレスポンスDTO用に変換
-                    .collect(Collectors.toList());//リストに集約
+            //イベントの参加者を1ページ分取得（レスポンス用DTOとして直接取得）
+            CursorPage<EventParticipationResponse> responses = eventParticipationService.getParticipantsPage(
+                    event.getId(), parseStatus(status), ParticipationCursor.decode(cursor), limit);
             return ResponseEntity.ok(responses);//okを返還
 
         }catch (RuntimeException e){
@@ -142,21 +135,18 @@ public class EventParticipationController {
 
     /*
     4. ユーザーの参加イベント一覧取得API
-    GET /api/events/my-participations
+    GET /api/events/my-participations?status={CONFIRMED|WAITING|CANCELLED}&cursor={nextCursor}&limit={件数}
+    開催日時順のキーセットページネーション
     */
     @GetMapping("/my-participations")
-    public ResponseEntity<?> getMyparticipations(){
+    public ResponseEntity<?> getMyparticipations(@CurrentUser Long userId,
+                                                 @RequestParam(required = false) String status,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(defaultValue = "50") int limit){
         try {
-            //セキュリティコンテキスからログイン中のユーザー名取得
-            String username = SecurityContextHolder.getContext().getAuthentication().getName();
-            User user = userService.getUserByUsername(username);//ユーザー名を利用してuserServiceからユーザー情報取得
-
-            //特定のイベントに参加している全ユーザーを取得
-            List<EventParticipation> participations = eventParticipationService.getParticipationByUser(user);
-            //レスポンス用意にDTOに変換
-            List<EventParticipationResponse> responses = participations.stream()//各要素へのストリーム処理
-                    .map(this::convertToParticipationResponse)//各参加記録をレスポンスDTO用に変換
-                    .collect(Collectors.toList());//リストに集約
+            //ログイン中のユーザーの参加イベントを1ページ分取得（ユーザーの読み込みは不要）
+            CursorPage<EventParticipationResponse> responses = eventParticipationService.getUserParticipationsPage(
+                    userId, parseStatus(status), EventCursor.decode(cursor), limit);
             return ResponseEntity.ok(responses);//okを返還
 
         }catch (RuntimeException e){
@@ -172,12 +162,8 @@ public class EventParticipationController {
     GET /api/events/{id}/participation-status
     */
     @GetMapping("/{id}/participation-status")
-    public ResponseEntity<?> getParticipationStatus(@PathVariable Long id){
+    public ResponseEntity<?> getParticipationStatus(@PathVariable Long id, @CurrentUser User user){
         try {
-            //現在ログインしているユーザーを取得
-            String username = SecurityContextHolder.getContext().getAuthentication().getName();
-            User user = userService.getUserByUsername(username);
-
             //URLパラメータのIDからイベント情報を取得
             Event event = eventService.getEventById(id);
 
@@ -194,6 +180,18 @@ public class EventParticipationController {
         }
     }
 
+    //ステータスの絞り込み条件を変換（未指定はnull、不正な値はエラー）
+    private EventParticipation.ParticipationStatus parseStatus(String status) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
+        try {
+            return EventParticipation.ParticipationStatus.valueOf(status.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("不正なステータスです: " + status);
+        }
+    }
+
     /*
      EventParticipationエンティティをEventParticipationResponseに変換するヘルパーメソッド
      */
@@ -1,23 +1,31 @@
 package com.eventshare.app.controller;
 
+import com.eventshare.app.dto.response.PhotoFileInfo;
+import com.eventshare.app.dto.response.PhotoUploadResult;
 import com.eventshare.app.entity.Event;
 import com.eventshare.app.entity.Photo;
 import com.eventshare.app.entity.User;
+import com.eventshare.app.security.CurrentUser;
 import com.eventshare.app.service.EventService;
 import com.eventshare.app.service.PhotoService;
-import com.eventshare.app.service.UserService;
-import org.apache.tika.Tika;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpHeaders;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
 
+import java.net.URI;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @RestController
@@ -26,14 +34,11 @@ import java.util.stream.Collectors;
 public class PhotoController {
     private final PhotoService photoService;
     private final EventService eventService;
-    private final UserService userService;
-    private final Tika tika = new Tika();
 
     @Autowired
-    public PhotoController(PhotoService photoService, EventService eventService, UserService userService){
+    public PhotoController(PhotoService photoService, EventService eventService){
         this.photoService = photoService;
         this.eventService = eventService;
-        this.userService = userService;
     }
 
     /*
@@ -44,13 +49,10 @@ public class PhotoController {
     public ResponseEntity<?> uploadPhoto(
             @PathVariable Long eventId,
             @RequestParam("file") MultipartFile file,
-            @RequestParam(value = "caption", required = false) String caption
+            @RequestParam(value = "caption", required = false) String caption,
+            @CurrentUser User user
             ){
         try {
-            //ユーザー取得
-            String username = SecurityContextHolder.getContext().getAuthentication().getName();
-            User user = userService.getUserByUsername(username);
-
             //イベント取得
             Event event = eventService.getEventById(eventId);
 
@@ -70,6 +72,46 @@ public class PhotoController {
                     .body("写真のアップロード中にエラーが発生しました: " + e.getMessage());
         }
     }
+    /*
+     1-2.写真を一括アップロード
+     POST /api/photos/upload/{eventId}/batch
+     filesに複数のファイル、captionsにファイルと同じ順番でキャプションを指定する（最大100件）
+     ファイルごとの成否を返す（一部のファイルが失敗しても他のファイルは登録される）
+     */
+    @PostMapping("/upload/{eventId}/batch")
+    public ResponseEntity<?> uploadPhotos(
+            @PathVariable Long eventId,
+            MultipartHttpServletRequest request,
+            @CurrentUser User user
+            ){
+        try {
+            //イベントを先に確認（マルチパートは遅延解析のため、存在しないイベントならアップロード本体を解析しない）
+            Event event = eventService.getEventById(eventId);
+
+            //ファイルとキャプションを取得
+            List<MultipartFile> files = request.getFiles("files");
+            String[] captions = request.getParameterValues("captions");
+
+            //写真を一括アップロード
+            List<PhotoUploadResult> results = photoService.uploadPhotos(
+                    files, captions != null ? Arrays.asList(captions) : List.of(), event, user);
+
+            //レスポンス用DTO
+            List<BatchUploadResponse> responses = results.stream()
+                    .map(this::convertToBatchUploadResponse)
+                    .collect(Collectors.toList());
+
+            return ResponseEntity.ok(responses);
+        }catch (RuntimeException e){
+            //400エラー
+            return ResponseEntity.badRequest().body("写真の一括アップロードに失敗しました: " + e.getMessage());
+        }catch (Exception e){
+            //500エラー
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("写真の一括アップロード中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
     /*
      2. イベントの写真一覧取得API
      GET /api/photos/event/{eventId}
@@ -99,28 +141,67 @@ public class PhotoController {
     /*
      3. 写真ファイル取得API
      GET /api/photos/file/{filename}
+     ファイルはディスクからストリーミングで返す
+     Rangeヘッダー付きのリクエストにはSpringが206 Partial Contentで該当部分のみ返す（Content-Length・Accept-Rangesも自動設定）
+     Content-Typeはアップロード時に判定して保存した値を使う（リクエストごとのファイル判定はしない）
+     If-None-Match / If-Modified-Sinceが一致する場合はファイルに触れずに304 Not Modifiedを返す
+     sizeパラメータ（thumb / medium）で縮小版を返す。縮小版の生成前は元ファイルを返す
+     保存先がS3互換ストレージの場合は、期限付きURLへ302でリダイレクトする
      */
     @GetMapping("/file/{filename}")
-    public ResponseEntity<byte[]> getPhotoFile(@PathVariable String filename){
+    public ResponseEntity<Resource> getPhotoFile(
+            @PathVariable String filename,
+            @RequestParam(value = "size", defaultValue = "original") String size,
+            WebRequest webRequest){
         try {
-            //ファイルデータの取得
-            byte[] photoData = photoService.getPhotoFile(filename);
+            //配信サイズの判定
+            Photo.Size requestedSize = parseSize(size);
+            if (requestedSize == null) {
+                return ResponseEntity.badRequest().build();
+            }
 
-            //TikaでContent-Typeを推測
-            String contentType = detectContentType(photoData, filename);
+            //配信用メタ情報の取得（キャッシュ済みならDBにもアクセスしない）
+            PhotoFileInfo fileInfo = photoService.getPhotoFileInfo(filename);
 
             //画像かどうかチェック
-            if (!contentType.startsWith("image/")) {
+            if (!fileInfo.getMimeType().startsWith("image/")) {
                 return ResponseEntity.badRequest().build();
             }
 
-            //ヘッダー情報を設定
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Content-Type", contentType);//タイプ設定
-            headers.set("Content-Length", String.valueOf(photoData.length));//サイズ設定
-            headers.setCacheControl("public, max-age=3600");//1時間キャッシュ
+            //縮小版が未生成の場合は元ファイルを返す（後で縮小版に切り替わるよう長期キャッシュはしない）
+            boolean fallback = requestedSize != Photo.Size.ORIGINAL && !Boolean.TRUE.equals(fileInfo.getDerivativesReady());
+            Photo.Size servedSize = fallback ? Photo.Size.ORIGINAL : requestedSize;
+
+            //保存ファイル名はUUIDで内容が変わらないため、1年間キャッシュし再検証も不要とする
+            CacheControl cacheControl = fallback
+                    ? CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic()
+                    : CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+            //クライアントのキャッシュが最新なら304を返す（ETag・Last-Modifiedはレスポンスに設定される）
+            if (webRequest.checkNotModified(fileInfo.getEtag(servedSize), fileInfo.getLastModified())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+            }
+
+            //保存先が期限付きURLに対応している場合は、保存先から直接取得させる（アプリを経由してファイルを転送しない）
+            //URLは期限があるため、リダイレクト自体は共有キャッシュに保存させない
+            Optional<URI> fileUrl = photoService.getPhotoFileUrl(filename, servedSize);
+            if (fileUrl.isPresent()) {
+                return ResponseEntity.status(HttpStatus.FOUND)
+                        .location(fileUrl.get())
+                        .cacheControl(CacheControl.maxAge(Duration.ofMinutes(1)).cachePrivate())
+                        .build();
+            }
+
+            //ファイルの取得（中身はまだ読み込まない）
+            Resource photoFile = photoService.getPhotoFile(filename, servedSize);
+
+            //縮小版はJPEGで保存している
+            String contentType = servedSize == Photo.Size.ORIGINAL ? fileInfo.getMimeType() : MediaType.IMAGE_JPEG_VALUE;
 
-            return new ResponseEntity<>(photoData, headers, HttpStatus.OK);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(contentType))//タイプ設定
+                    .cacheControl(cacheControl)
+                    .body(photoFile);
 
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();//メッセージなし
@@ -132,12 +213,8 @@ public class PhotoController {
      DELETE /api/photos/{photoId}
      */
     @DeleteMapping("/{photoId}")
-    public ResponseEntity<?> deletePhoto(@PathVariable Long photoId) {
+    public ResponseEntity<?> deletePhoto(@PathVariable Long photoId, @CurrentUser User user) {
         try {
-            //ユーザー取得
-            String username = SecurityContextHolder.getContext().getAuthentication().getName();
-            User user = userService.getUserByUsername(username);
-
             //写真を削除
             photoService.deletePhoto(photoId, user);
 
@@ -165,6 +242,13 @@ public class PhotoController {
         response.setUploadedAt(photo.getUploadedAt());
         response.setEventId(photo.getEvent().getId());
 
+        //配信URL（縮小版は生成前でも元ファイルが返るため常に設定する）
+        String fileUrl = "/api/photos/file/" + photo.getFilename();
+        response.setUrl(fileUrl);
+        response.setThumbnailUrl(fileUrl + "?size=thumb");
+        response.setMediumUrl(fileUrl + "?size=medium");
+        response.setDerivativesReady(Boolean.TRUE.equals(photo.getDerivativesReady()));
+
         //アップロード者の情報を設定
         UploaderInfo uploaderInfo = new UploaderInfo();
         uploaderInfo.setId(photo.getUploadedBy().getId());
@@ -174,6 +258,20 @@ public class PhotoController {
         return response;  //画面表示用の安全なオブジェクトを返す
     }
 
+    /*
+    一括アップロードの結果をBatchUploadResponseに変換
+    */
+    private BatchUploadResponse convertToBatchUploadResponse(PhotoUploadResult result) {
+        BatchUploadResponse response = new BatchUploadResponse();
+        response.setOriginalFilename(result.getOriginalFilename());
+        response.setSuccess(result.isSuccess());
+        if (result.isSuccess()) {
+            response.setPhoto(convertToPhotoResponse(result.getPhoto()));
+        }
+        response.setError(result.getError());
+        return response;
+    }
+
     /*
     写真情報レスポンス用のDTO
      */
@@ -187,6 +285,10 @@ public class PhotoController {
         private LocalDateTime uploadedAt;
         private Long eventId;  //Eventエンティティ全体ではなく、IDのみ
         private UploaderInfo uploadedBy;  //Userエンティティ全体ではなく、必要な情報のみ
+        private String url;  //元ファイルのURL
+        private String thumbnailUrl;  //サムネイルのURL
+        private String mediumUrl;  //中サイズのURL
+        private boolean derivativesReady;  //縮小版の生成が完了しているか
 
         //GettersとSetters
         public Long getId() { return id; }
@@ -215,6 +317,40 @@ public class PhotoController {
 
         public UploaderInfo getUploadedBy() { return uploadedBy; }
         public void setUploadedBy(UploaderInfo uploadedBy) { this.uploadedBy = uploadedBy; }
+
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+
+        public String getThumbnailUrl() { return thumbnailUrl; }
+        public void setThumbnailUrl(String thumbnailUrl) { this.thumbnailUrl = thumbnailUrl; }
+
+        public String getMediumUrl() { return mediumUrl; }
+        public void setMediumUrl(String mediumUrl) { this.mediumUrl = mediumUrl; }
+
+        public boolean isDerivativesReady() { return derivativesReady; }
+        public void setDerivativesReady(boolean derivativesReady) { this.derivativesReady = derivativesReady; }
+    }
+
+    /*
+    一括アップロードのファイルごとの結果用DTO
+    */
+    public static class BatchUploadResponse {
+        private String originalFilename;
+        private boolean success;
+        private PhotoResponse photo;  //成功時のみ
+        private String error;  //失敗時のみ
+
+        public String getOriginalFilename() { return originalFilename; }
+        public void setOriginalFilename(String originalFilename) { this.originalFilename = originalFilename; }
+
+        public boolean isSuccess() { return success; }
+        public void setSuccess(boolean success) { this.success = success; }
+
+        public PhotoResponse getPhoto() { return photo; }
+        public void setPhoto(PhotoResponse photo) { this.photo = photo; }
+
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
     }
 
     /*
@@ -232,28 +368,13 @@ public class PhotoController {
     }
 
     /*
-    Tikaでファイル形式を判定
+    sizeパラメータを配信サイズに変換（不正な値はnull）
      */
-    private String detectContentType(byte[] data, String filename){
+    private Photo.Size parseSize(String size) {
         try {
-            return tika.detect(data, filename);
-        } catch (Exception e) {
-            return fallbackDetection(filename);
+            return Photo.Size.valueOf(size.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
         }
     }
-
-    /*
-    フォールバック（予備プラン）
-     */
-    private String fallbackDetection(String filename) {
-        if (filename == null) return "application/octet-stream";//よくわからないファイルとして返す
-
-        String lowerCase = filename.toLowerCase();//小文字にする
-        if (lowerCase.endsWith(".jpg") || lowerCase.endsWith(".jpeg")) return "image/jpeg";
-        if (lowerCase.endsWith(".png")) return "image/png";
-        if (lowerCase.endsWith(".gif")) return "image/gif";
-        if (lowerCase.endsWith(".webp")) return "image/webp";
-
-        return "application/octet-stream";
-    }
 }
@@ -1,19 +1,23 @@
 package com.eventshare.app.controller;
 
+import com.eventshare.app.entity.AccountPurge;
 import com.eventshare.app.entity.User;
+import com.eventshare.app.security.CurrentUser;
 import com.eventshare.app.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.Optional;
 
 /*
 ユーザー情報取得の
 1.現在ログイン中のユーザー情報を取得
 2.ユーザー情報の更新
+3.退会（ユーザー削除）
+4.退会の処理状況を取得
  */
 @RestController
 @RequestMapping("/api/users")
@@ -31,12 +35,8 @@ public class UserController {
     GET /api/users/me
      */
     @GetMapping("/me")
-    public ResponseEntity<?> getCurrentUser(){
+    public ResponseEntity<?> getCurrentUser(@CurrentUser User user){
         try {
-            // 現在ログインしているユーザーを取得
-            String username = SecurityContextHolder.getContext().getAuthentication().getName();
-            User user = userService.getUserByUsername(username);
-
             //パスワードを除いたユーザー情報のレスポンス
             UserInfoResponse userInfo = new UserInfoResponse();
             userInfo.setId(user.getId());
@@ -58,12 +58,8 @@ public class UserController {
     PUT /api/user/me
      */
     @PutMapping("/me")
-    public ResponseEntity<?> updateCurrentUser(@RequestBody UserUpdateRequest request){
+    public ResponseEntity<?> updateCurrentUser(@RequestBody UserUpdateRequest request, @CurrentUser User user){
         try{
-            // 現在ログインしているユーザーを取得
-            String username = SecurityContextHolder.getContext().getAuthentication().getName();
-            User user = userService.getUserByUsername(username);
-
             //自己紹介の更新
             if (request.getBio() != null){
                 user.setBio(request.getBio());
@@ -87,6 +83,37 @@ public class UserController {
         }
     }
 
+    /*
+    3.退会（ユーザー削除）
+    DELETE /api/users/me
+    受け付けた時点で応答し（202 Accepted）、参加情報・写真・作成したイベントはバックグラウンドで削除する
+     */
+    @DeleteMapping("/me")
+    public ResponseEntity<?> deleteCurrentUser(@CurrentUser Long userId){
+        try {
+            AccountPurge purge = userService.deleteUser(userId);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(purge);
+        }catch (RuntimeException e){
+            return ResponseEntity.badRequest().body("退会に失敗しました：　" + e.getMessage());
+        }catch (Exception e){
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("退会処理中にエラーが発生しました：　" + e.getMessage());
+        }
+    }
+
+    /*
+    4.退会の処理状況を取得
+    GET /api/users/me/deletion
+    トークンの失効確認（app.jwt.revocation-check.enabled）が無効の場合は、ユーザーの削除後も有効期限内のトークンで確認できる
+     */
+    @GetMapping("/me/deletion")
+    public ResponseEntity<?> getDeletionStatus(@CurrentUser Long userId){
+        Optional<AccountPurge> purge = userService.getDeletionStatus(userId);
+        if (purge.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(purge.get());
+    }
+
     /*
     ユーザー情報表示用のレスポンス内部クラス
     パスワードなどの情報は含まない
@@ -0,0 +1,36 @@
+package com.eventshare.app.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ イベント一括登録リクエストのためのDTOクラス
+ イベントごとにイベント作成と同じ項目と、参加登録するユーザーIDの一覧を受け取る
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventImportRequest {
+    @Valid
+    @NotEmpty(message = "登録するイベントを1件以上指定してください")
+    @Size(max = 10000, message = "一度に登録できるイベントは10000件までです")
+    private List<Item> events = new ArrayList<>();
+
+    //登録するイベント1件分
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    @NoArgsConstructor
+    public static class Item extends EventRequest {
+        //参加登録するユーザーのID（先頭から定員まで確定、残りはキャンセル待ち）
+        @Size(max = 1000, message = "参加登録できるユーザーは1イベントあたり1000人までです")
+        private List<Long> participantUserIds = new ArrayList<>();
+    }
+}
@@ -0,0 +1,59 @@
+package com.eventshare.app.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/*
+ イベント参加者一覧のキーセットページネーション用カーソル
+ 参加者は登録順（登録日時, ID）に並べ、前ページの最後の参加情報の位置を保持する
+ クライアントにはEventCursorと同様にBase64URLでエンコードした文字列（nextCursor）として渡す
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParticipationCursor {
+    private LocalDateTime createdAt;
+    private Long id;
+
+    /*
+     カーソルをクライアントに返すトークン文字列に変換
+     */
+    public String encode() {
+        if (createdAt == null || id == null) {
+            throw new IllegalStateException("カーソルの登録日時・IDが未設定です");
+        }
+        String raw = createdAt.toString() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /*
+     クライアントから受け取ったトークン文字列をカーソルに復元
+     未指定の場合は先頭ページを表すnullを返す
+     形式が不正な場合はIllegalArgumentException（コントローラーで400エラーにする）
+     */
+    public static ParticipationCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("不正なカーソルです");
+            }
+            return new ParticipationCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            //Base64の形式不正・数値変換失敗・日時変換失敗
+            throw new IllegalArgumentException("不正なカーソルです");
+        }
+    }
+}
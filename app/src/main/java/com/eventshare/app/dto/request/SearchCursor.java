@@ -0,0 +1,55 @@
+package com.eventshare.app.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/*
+ キーワード検索結果のページネーション用カーソル
+ 検索結果は関連度順で開催日時のキーセットが使えないため、何件目まで返したか（オフセット）を保持する
+ クライアントにはEventCursorと同様にBase64URLでエンコードした文字列（nextCursor）として渡す
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchCursor {
+    private static final String PREFIX = "search|";
+
+    private int offset;
+
+    /*
+     カーソルをクライアントに返すトークン文字列に変換
+     */
+    public String encode() {
+        String raw = PREFIX + offset;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /*
+     クライアントから受け取ったトークン文字列をカーソルに復元
+     未指定の場合は先頭ページを表すnullを返す
+     形式が不正な場合はIllegalArgumentException（コントローラーで400エラーにする）
+     */
+    public static SearchCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("不正なカーソルです");
+            }
+            int offset = Integer.parseInt(raw.substring(PREFIX.length()));
+            if (offset < 0) {
+                throw new IllegalArgumentException("不正なカーソルです");
+            }
+            return new SearchCursor(offset);
+        } catch (IllegalArgumentException e) {
+            //Base64の形式不正・数値変換失敗
+            throw new IllegalArgumentException("不正なカーソルです");
+        }
+    }
+}
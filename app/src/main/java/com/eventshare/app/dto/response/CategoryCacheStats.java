@@ -0,0 +1,19 @@
+package com.eventshare.app.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+カテゴリキャッシュの統計情報DTO
+ヒット率の確認用
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryCacheStats {
+    private long hits;      //キャッシュから返した回数
+    private long misses;    //キャッシュになくDBを参照した回数
+    private long reloads;   //スナップショットを読み込み直した回数
+    private int size;       //キャッシュしているカテゴリ数
+}
@@ -0,0 +1,32 @@
+package com.eventshare.app.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*
+ キーセットページネーションのレスポンス用DTOクラス
+ 1ページ分のデータと、次ページを取得するためのカーソルを返す
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;     //このページのデータ
+    private String nextCursor;   //次ページ取得用のカーソル（最終ページの場合はnull）
+    private boolean hasNext;     //次ページが存在するか
+
+    /*
+     ページ情報はそのままに中身だけを別の型に変換する（エンティティ→レスポンスDTOなど）
+     */
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> converter) {
+        List<R> converted = content.stream()
+                .map(converter)
+                .collect(Collectors.toList());
+        return new CursorPage<>(converted, nextCursor, hasNext);
+    }
+}
@@ -14,6 +14,7 @@ public class EventParticipationResponse {
     private Long id;
     private Long eventId;
     private String eventTitle;
+    private LocalDateTime eventDate;
     private Long userId;
     private String username;
     private String status;
@@ -23,6 +24,23 @@ public class EventParticipationResponse {
     //ユーザー情報
     private UserInfo user;
 
+    /*
+     JPQLのコンストラクタ式（SELECT new ...）用のコンストラクタ
+     参加者一覧・参加イベント一覧ではエンティティを読み込まず、イベント・ユーザーをJOINした1回のクエリでこのDTOを直接組み立てる
+     */
+    public EventParticipationResponse(Long id, Long eventId, String eventTitle, LocalDateTime eventDate,
+                                      Long userId, String username,
+                                      EventParticipation.ParticipationStatus status, LocalDateTime participatedAt) {
+        this.id = id;
+        this.eventId = eventId;
+        this.eventTitle = eventTitle;
+        this.eventDate = eventDate;
+        this.userId = userId;
+        this.username = username;
+        this.status = status.toString();
+        this.participatedAt = participatedAt;
+    }
+
     /*
     イベント情報の内部クラス
      */
@@ -32,6 +32,27 @@ public class EventResponse {
     // 参加者数
     private Integer participantCount;
 
+    /*
+     JPQLのコンストラクタ式（SELECT new ...）用のコンストラクタ
+     一覧取得ではエンティティを読み込まず、必要なカラムだけをJOIN1回で取得してこのDTOを直接組み立てる
+     参加者数は別途一括集計してセットする
+     */
+    public EventResponse(Long id, String title, String description, LocalDateTime eventDate, String location,
+                         Integer capacity, LocalDateTime createdAt, LocalDateTime updatedAt,
+                         Long categoryId, String categoryName, String categoryDescription,
+                         Long creatorId, String creatorUsername, String creatorProfilePicture) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.eventDate = eventDate;
+        this.location = location;
+        this.capacity = capacity;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.category = new CategoryInfo(categoryId, categoryName, categoryDescription);
+        this.creator = new CreatorInfo(creatorId, creatorUsername, creatorProfilePicture);
+    }
+
     /*
      カテゴリ情報の内部クラス
      */
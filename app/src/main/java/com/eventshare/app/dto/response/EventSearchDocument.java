@@ -0,0 +1,30 @@
+package com.eventshare.app.dto.response;
+
+import com.eventshare.app.entity.Event;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+イベント検索インデックスに登録する文書DTO
+検索対象のテキスト項目（タイトル・説明・開催場所・カテゴリ名）のみを保持する
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventSearchDocument {
+    private Long id;                //イベントID
+    private String title;           //タイトル
+    private String description;     //説明
+    private String location;        //開催場所
+    private Long categoryId;        //カテゴリID
+    private String categoryName;    //カテゴリ名
+
+    //イベントエンティティから文書を作成
+    public static EventSearchDocument of(Event event) {
+        Long categoryId = event.getCategory() != null ? event.getCategory().getId() : null;
+        String categoryName = event.getCategory() != null ? event.getCategory().getName() : null;
+        return new EventSearchDocument(event.getId(), event.getTitle(), event.getDescription(),
+                event.getLocation(), categoryId, categoryName);
+    }
+}
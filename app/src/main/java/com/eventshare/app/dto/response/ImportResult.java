@@ -0,0 +1,30 @@
+package com.eventshare.app.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+イベント一括登録の結果DTO
+登録件数と、コミットまで含めた処理時間を返す
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResult {
+    private int eventCount;         //登録したイベント数
+    private int participationCount; //登録した参加登録数
+    private long elapsedMillis;     //処理時間（ミリ秒）
+    private long rowsPerSecond;     //1秒あたりの登録行数（イベント＋参加登録）
+
+    public ImportResult(int eventCount, int participationCount) {
+        this.eventCount = eventCount;
+        this.participationCount = participationCount;
+    }
+
+    //処理時間を設定し、1秒あたりの登録行数を計算
+    public void setElapsed(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+        this.rowsPerSecond = (eventCount + participationCount) * 1000L / Math.max(elapsedMillis, 1);
+    }
+}
@@ -0,0 +1,20 @@
+package com.eventshare.app.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+削除したイベントの写真ファイルの後片付けの進捗DTO
+イベント削除後にバックグラウンドで行うファイル削除の状況確認用
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PhotoCleanupProgress {
+    private Long eventId;       //削除したイベントのID
+    private int total;          //後片付けの対象の写真数
+    private int processed;      //処理済みの写真数（失敗を含む）
+    private int failed;         //ファイルの削除に失敗した写真数
+    private boolean completed;  //すべて処理したか
+}
@@ -0,0 +1,45 @@
+package com.eventshare.app.dto.response;
+
+import com.eventshare.app.entity.Photo;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/*
+写真ファイル配信用のメタ情報DTO
+ファイル取得APIのレスポンスヘッダーに使う情報のみを保持し、メモリ上にキャッシュする
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PhotoFileInfo {
+    private String filename;            //保存ファイル名
+    private String mimeType;            //アップロード時に判定したMIMEタイプ
+    private Long fileSize;              //ファイルサイズ
+    private String contentHash;         //ファイル内容のSHA-256ハッシュ
+    private LocalDateTime uploadedAt;   //アップロード日時
+    private Boolean derivativesReady;   //縮小版の生成が完了しているか
+    private String blobHash;            //保存先のファイルの内容ハッシュ（内容アドレス保存の導入前の写真はnull）
+
+    //強いETag（内容のハッシュから生成。ハッシュ未登録の古いデータは、UUIDで一意かつ内容が変わらない保存ファイル名から生成）
+    public String getEtag() {
+        return getEtag(Photo.Size.ORIGINAL);
+    }
+
+    //配信サイズごとのETag（縮小版は元ファイルと区別するためサイズ名を付ける）
+    public String getEtag(Photo.Size size) {
+        String tag = contentHash != null ? contentHash : filename;
+        if (size != Photo.Size.ORIGINAL) {
+            tag += "-" + size.name().toLowerCase();
+        }
+        return "\"" + tag + "\"";
+    }
+
+    //Last-Modified用のエポックミリ秒（不明な場合は-1）
+    public long getLastModified() {
+        return uploadedAt != null ? uploadedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+}
@@ -0,0 +1,23 @@
+package com.eventshare.app.dto.response;
+
+import com.eventshare.app.entity.Photo;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+写真一括アップロードのファイルごとの結果DTO
+成功した場合は登録した写真、失敗した場合はエラー内容を持つ
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PhotoUploadResult {
+    private String originalFilename; //アップロードされたファイル名
+    private Photo photo;             //登録した写真（失敗時はnull）
+    private String error;            //エラー内容（成功時はnull）
+
+    public boolean isSuccess() {
+        return photo != null;
+    }
+}
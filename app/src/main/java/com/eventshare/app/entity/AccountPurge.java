@@ -0,0 +1,78 @@
+package com.eventshare.app.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/*
+AccountPurgeエンティティ
+退会したユーザーのデータ削除ジョブの状態を管理（ユーザー1人につき1行）
+ユーザーの行を削除した後も状況確認のために残すため、usersへの外部キーは持たない
+ */
+@Entity
+@Table(name = "account_purges",
+        //未完了のジョブを定期的に探して再開するためのインデックス
+        indexes = @Index(name = "idx_account_purges_status", columnList = "status"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountPurge {
+    //削除するユーザーのID
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    //実行中（最後に実行した）段階
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Phase phase;
+
+    //削除した件数（再開した場合も通算する）
+    @Column(name = "deleted_participations", nullable = false)
+    private long deletedParticipations;
+
+    @Column(name = "deleted_photos", nullable = false)
+    private long deletedPhotos;
+
+    @Column(name = "deleted_events", nullable = false)
+    private long deletedEvents;
+
+    //削除に失敗した写真ファイルの数（写真の行は削除済み）
+    @Column(name = "failed_files", nullable = false)
+    private long failedFiles;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "requested_at")
+    private LocalDateTime requestedAt;
+
+    //実行中は各バッチの後に更新する（一定時間更新がなければ停止したとみなして再開する）
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    //削除の段階（この順に実行する）
+    public enum Phase {
+        PARTICIPATIONS,
+        PHOTOS,
+        EVENTS,
+        USER
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -12,14 +13,22 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name="events")
+@Table(name="events",
+        //開催日時順の一覧・カテゴリ指定の一覧・作成者での検索用のインデックス（db/migration/V3と同じ定義）
+        indexes = {
+                @Index(name = "idx_events_event_date", columnList = "event_date, id"),
+                @Index(name = "idx_events_category_event_date", columnList = "category_id, event_date, id"),
+                @Index(name = "idx_events_creator", columnList = "creator_id")
+        })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 
 public class Event {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    //IDはシーケンスから50件単位でまとめて確保する（IDENTITYではINSERTのたびに採番が必要になり、JDBCのバッチ挿入が無効になる）
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "events_seq")
+    @SequenceGenerator(name = "events_seq", sequenceName = "events_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -33,16 +42,23 @@ public class Event {
 
     private String location;
 
-    @ManyToOne
+    //関連は必要な時だけ読み込む（一緒に使う場合はリポジトリのクエリで結合して取得する）
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id", nullable = false)
     private EventCategory category;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "creator_id", nullable = false)
     private User creator;
 
     private Integer capacity;
 
+    //確定済み参加者数（定員チェック用のカウンタ）
+    //参加登録・キャンセル時に条件付きUPDATEでのみ増減させるため、エンティティの保存では更新しない
+    @ColumnDefault("0")
+    @Column(name = "confirmed_count", nullable = false, updatable = false)
+    private Integer confirmedCount = 0;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -1,5 +1,6 @@
 package com.eventshare.app.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -16,7 +17,8 @@ import java.util.List;
 public class EventCategory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_categories_seq")
+    @SequenceGenerator(name = "event_categories_seq", sequenceName = "event_categories_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -25,6 +27,8 @@ public class EventCategory {
     private String description;
 
     // リレーションシップの定義
+    //カテゴリはキャッシュして使い回すため、遅延読み込みのイベント一覧はJSONに含めない
+    @JsonIgnore
     @OneToMany(mappedBy = "category")
     private List<Event> events = new ArrayList<>();
 }
\ No newline at end of file
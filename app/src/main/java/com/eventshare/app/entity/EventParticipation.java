@@ -9,28 +9,41 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "event_participations")
+@Table(name = "event_participations",
+        //同じユーザーが同じイベントに重複して登録されないように一意制約を設定
+        uniqueConstraints = @UniqueConstraint(name = "uk_participation_event_user", columnNames = {"event_id", "user_id"}),
+        //キャンセル待ちを登録順（先着順）に先頭から取り出すためのインデックス
+        indexes = {
+                @Index(name = "idx_participation_event_status_created", columnList = "event_id, status, created_at"),
+                //イベントの参加者一覧（登録順のキーセットページネーション）用
+                @Index(name = "idx_participation_event_created", columnList = "event_id, created_at, id"),
+                //ユーザーの参加イベント一覧・退会時の参加情報削除用
+                @Index(name = "idx_participation_user_created", columnList = "user_id, created_at, id")
+        })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class EventParticipation {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_participations_seq")
+    @SequenceGenerator(name = "event_participations_seq", sequenceName = "event_participations_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    //関連は必要な時だけ読み込む（一覧表示ではリポジトリのクエリで結合して取得する）
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "event_id", nullable = false)
     private Event event;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
     @Enumerated(EnumType.STRING)
     private ParticipationStatus status;
 
+    //参加者一覧の並び順・カーソルに使うため必須
     @CreationTimestamp
-    @Column(name = "created_at", updatable = false)
+    @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     // 参加ステータス
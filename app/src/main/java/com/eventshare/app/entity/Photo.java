@@ -6,6 +6,7 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
@@ -14,7 +15,16 @@ Photoエンティティ
 イベントに投稿された写真情報を管理
  */
 @Entity
-@Table(name = "photos")
+@Table(name = "photos",
+        indexes = {
+                //ファイル取得APIで保存ファイル名から検索するためのインデックス
+                @Index(name = "idx_photos_filename", columnList = "filename", unique = true),
+                //イベント・投稿者ごとの写真一覧（新しい順）用
+                @Index(name = "idx_photos_event_uploaded", columnList = "event_id, uploadedAt DESC"),
+                @Index(name = "idx_photos_uploader_uploaded", columnList = "uploaded_by, uploadedAt DESC"),
+                //保存済みファイルを参照している写真の数（参照数の漏れの回収）用
+                @Index(name = "idx_photos_blob", columnList = "blob_id")
+        })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,7 +32,8 @@ public class Photo {
 
     //主キーを定義
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)//IDは自動採番（AUTO_INCREMENT）で生成
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "photos_seq")//IDはシーケンスで採番（50件単位で確保）
+    @SequenceGenerator(name = "photos_seq", sequenceName = "photos_seq", allocationSize = 50)
     private Long id;
 
     //サーバーに保存される際の実際のファイル名フィールド
@@ -47,10 +58,20 @@ public class Photo {
     private Long fileSize;
 
     //MINEタイプ：ファイル形式を示す情報（ブラウザがどう表示するかの判断に使用）
+    //アップロード時にファイルの先頭バイトから判定した値を保存する
     @Size(max = 50, message = "MINEタイプは50字以内で入力してください")
     @Column(name = "mineType")
     private String mineType;
 
+    //ファイル内容のSHA-256ハッシュ（16進数）：ETagとして使用
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    //サムネイル等の縮小版ファイルの生成が完了しているか（生成はアップロード後にバックグラウンドで行う）
+    @ColumnDefault("false")
+    @Column(name = "derivatives_ready", nullable = false)
+    private Boolean derivativesReady = false;
+
     //日時フィールド
     @Column(name = "uploadedAt")
     private LocalDateTime uploadedAt;
@@ -69,6 +90,12 @@ public class Photo {
     @JoinColumn(name = "uploaded_by", nullable = false)//uploaded_byカラムで結合
     private User uploadedBy;
 
+    //保存済みのファイル 写真（多）：ファイル（１）同じ内容の写真は同じファイルを参照する
+    //内容アドレス保存の導入前にアップロードされた写真はnull（保存ファイル名のファイルを使う）
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "blob_id")
+    private PhotoBlob blob;
+
 
     //初回保存する前に実行するライフサイクルメソッド
     @PrePersist  //データベースに初回保存する直前に実行
@@ -77,4 +104,37 @@ public class Photo {
             uploadedAt = LocalDateTime.now();  //現在日時を自動設定
         }
     }
+
+    // 写真の配信サイズ（縮小版は最大幅に収まるよう縮小したJPEGを元ファイルと同じディレクトリに保存）
+    public enum Size {
+        ORIGINAL(0),
+        THUMB(320),
+        MEDIUM(1024);
+
+        private final int maxWidth;
+
+        Size(int maxWidth) {
+            this.maxWidth = maxWidth;
+        }
+
+        public int getMaxWidth() {
+            return maxWidth;
+        }
+
+        //保存ファイル名から縮小版のファイル名を生成（例: uuid.png → uuid_thumb.jpg）
+        public String derivativeFilename(String filename) {
+            if (this == ORIGINAL) {
+                return filename;
+            }
+            int dot = filename.lastIndexOf('.');
+            String baseName = dot >= 0 ? filename.substring(0, dot) : filename;
+            return baseName + "_" + name().toLowerCase() + ".jpg";
+        }
+
+        //保存先のキーから縮小版のキーを生成（例: 3f/a2/3fa2... → 3f/a2/3fa2..._thumb.jpg）
+        public String derivativeKey(String key) {
+            int slash = key.lastIndexOf('/');
+            return key.substring(0, slash + 1) + derivativeFilename(key.substring(slash + 1));
+        }
+    }
 }
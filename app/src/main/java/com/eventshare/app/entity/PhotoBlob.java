@@ -0,0 +1,45 @@
+package com.eventshare.app.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/*
+PhotoBlobエンティティ
+保存済みの写真ファイル1つ分の情報を管理（同じ内容のファイルは1つだけ保存し、複数の写真から参照する）
+ */
+@Entity
+@Table(name = "photo_blobs",
+        //同じ内容のファイルを重複して登録しないように一意制約を設定
+        uniqueConstraints = @UniqueConstraint(name = "uk_photo_blobs_content_hash", columnNames = "content_hash"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PhotoBlob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "photo_blobs_seq")
+    @SequenceGenerator(name = "photo_blobs_seq", sequenceName = "photo_blobs_seq", allocationSize = 50)
+    private Long id;
+
+    //ファイル内容のSHA-256ハッシュ（16進数）：保存先のパスにも使う
+    @Column(name = "content_hash", length = 64, nullable = false)
+    private String contentHash;
+
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    @Column(name = "mime_type", length = 50)
+    private String mimeType;
+
+    //このファイルを参照している写真の数（0になったらファイルごと削除する）
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount = 0;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,29 @@
+package com.eventshare.app.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/*
+PhotoFileDeletionエンティティ
+行を削除した内容アドレス保存の導入前の写真のうち、ファイルの削除が済んでいないもの（保存ファイル名1つにつき1行）
+写真の行と同じトランザクションで記録し、ファイルを削除したら行も削除する
+後片付けが中断・失敗しても、残った行から定期的に削除し直す（保存済みファイルはphoto_blobsのref_countから判断できるため記録しない）
+ */
+@Entity
+@Table(name = "photo_file_deletions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PhotoFileDeletion {
+    //削除するファイルの保存ファイル名
+    @Id
+    @Column(name = "filename")
+    private String filename;
+
+    @Column(name = "requested_at")
+    private LocalDateTime requestedAt;
+}
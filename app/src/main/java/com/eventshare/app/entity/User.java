@@ -19,7 +19,8 @@ import java.util.List;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -43,11 +44,12 @@ public class User {
 
     /*
     リレーションシップの定義
+    ユーザー削除時の関連データの削除は、カスケードではなく削除ジョブ（AccountPurgeJob）がバッチ単位で行う
      */
-    @OneToMany(mappedBy = "creator", cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "creator")
     private List<Event> createdEvents = new ArrayList<>();
 
-    @OneToMany(mappedBy = "user", cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "user")
     private List<EventParticipation> participations = new ArrayList<>();
 
     //ひとまず使わないからコメントアウト（あとで機能追加する）
@@ -0,0 +1,37 @@
+package com.eventshare.app.listener;
+
+import com.eventshare.app.security.ActiveUserCache;
+import com.eventshare.app.service.impl.AccountPurgeJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/*
+退会したユーザーのデータ削除のワーカー
+退会を受け付けたトランザクションのコミット後に非同期で実行するため、データが多いユーザーでも退会の応答を待たせない
+コミット直後に（応答を返す前に）このサーバーでのユーザーのトークンを無効にする
+ */
+@Component
+public class AccountPurgeListener {
+    private final AccountPurgeJob accountPurgeJob;
+    private final ActiveUserCache activeUserCache;
+
+    @Autowired
+    public AccountPurgeListener(AccountPurgeJob accountPurgeJob, ActiveUserCache activeUserCache) {
+        this.accountPurgeJob = accountPurgeJob;
+        this.activeUserCache = activeUserCache;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void blockTokens(AccountPurgeRequestedEvent event) {
+        activeUserCache.markPurging(event.userId());
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onAccountPurgeRequested(AccountPurgeRequestedEvent event) {
+        accountPurgeJob.run(event.userId());
+    }
+}
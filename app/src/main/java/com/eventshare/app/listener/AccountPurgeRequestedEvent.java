@@ -0,0 +1,8 @@
+package com.eventshare.app.listener;
+
+/*
+退会を受け付けたことを通知するアプリケーションイベント
+ジョブの行を登録したトランザクションのコミット後に、ユーザーのデータ削除を起動する
+ */
+public record AccountPurgeRequestedEvent(Long userId) {
+}
@@ -0,0 +1,10 @@
+package com.eventshare.app.listener;
+
+import com.eventshare.app.dto.response.EventSearchDocument;
+
+/*
+イベントの検索対象の内容が変わったことを通知するアプリケーションイベント
+イベントの作成・更新時は変更後の文書を、削除時はdocumentをnullにして発行し、検索インデックスに反映する
+ */
+public record EventContentChangedEvent(Long eventId, EventSearchDocument document) {
+}
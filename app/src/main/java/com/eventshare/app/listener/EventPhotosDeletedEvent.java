@@ -0,0 +1,12 @@
+package com.eventshare.app.listener;
+
+import com.eventshare.app.dto.response.PhotoFileInfo;
+
+import java.util.List;
+
+/*
+イベントの写真の行をまとめて削除したことを通知するアプリケーションイベント
+削除した写真の配信用メタ情報（保存ファイル名・保存先の内容ハッシュ）を持ち、コミット後にファイルの後片付けを起動する
+ */
+public record EventPhotosDeletedEvent(Long eventId, List<PhotoFileInfo> files) {
+}
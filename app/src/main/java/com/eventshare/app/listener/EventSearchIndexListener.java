@@ -0,0 +1,31 @@
+package com.eventshare.app.listener;
+
+import com.eventshare.app.service.impl.EventSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/*
+検索インデックスの更新
+イベントを変更したトランザクションのコミット後に反映するため、ロールバックされた変更はインデックスに入らない
+インデックスの更新はメモリ上の処理で軽いため、作成直後の検索で見つかるよう同期で実行する
+ */
+@Component
+public class EventSearchIndexListener {
+    private final EventSearchIndex eventSearchIndex;
+
+    @Autowired
+    public EventSearchIndexListener(EventSearchIndex eventSearchIndex) {
+        this.eventSearchIndex = eventSearchIndex;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEventContentChanged(EventContentChangedEvent event) {
+        if (event.document() == null) {
+            eventSearchIndex.remove(event.eventId());
+        } else {
+            eventSearchIndex.index(event.document());
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.eventshare.app.listener;
+
+import com.eventshare.app.dto.response.PhotoFileInfo;
+
+/*
+写真の行を1件削除したことを通知するアプリケーションイベント
+削除した写真の配信用メタ情報（保存ファイル名・保存先の内容ハッシュ）を持ち、コミット後にファイルの削除を起動する
+ */
+public record PhotoDeletedEvent(PhotoFileInfo file) {
+}
@@ -0,0 +1,38 @@
+package com.eventshare.app.listener;
+
+import com.eventshare.app.service.PhotoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/*
+削除した写真ファイルの後片付けのワーカー
+写真の行を削除したトランザクションのコミット後に非同期で実行するため、ファイル数が多くてもイベント削除の応答を待たせない
+ロールバックされた場合はファイルを削除しない（写真の行が戻ってもファイルが失われない）
+ */
+@Component
+public class PhotoFileCleanupListener {
+    private final PhotoService photoService;
+
+    @Autowired
+    public PhotoFileCleanupListener(PhotoService photoService) {
+        this.photoService = photoService;
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onEventPhotosDeleted(EventPhotosDeletedEvent event) {
+        photoService.cleanUpDeletedPhotoFiles(event.eventId(), event.files());
+    }
+
+    //写真1件の削除（失敗した場合は定期的な後片付けで削除し直す）
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPhotoDeleted(PhotoDeletedEvent event) {
+        photoService.deletePhotoFiles(List.of(event.file()));
+    }
+}
@@ -0,0 +1,8 @@
+package com.eventshare.app.listener;
+
+/*
+イベントの座席が空いたことを通知するアプリケーションイベント
+参加確定のキャンセル・ステータス変更・定員の増加時に発行し、キャンセル待ちの繰り上げ処理を起動する
+ */
+public record SeatReleasedEvent(Long eventId) {
+}
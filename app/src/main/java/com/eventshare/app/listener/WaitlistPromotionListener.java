@@ -0,0 +1,32 @@
+package com.eventshare.app.listener;
+
+import com.eventshare.app.service.EventParticipationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/*
+キャンセル待ち繰り上げのワーカー
+座席を解放したトランザクションのコミット後に非同期で実行するため、キャンセル処理の応答を待たせない
+同じイベントで複数の座席が同時に空いた場合も、1回の実行で空いている分をまとめて繰り上げる
+ */
+@Component
+public class WaitlistPromotionListener {
+    private final EventParticipationService eventParticipationService;
+
+    @Autowired
+    public WaitlistPromotionListener(EventParticipationService eventParticipationService) {
+        this.eventParticipationService = eventParticipationService;
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSeatReleased(SeatReleasedEvent event) {
+        int promoted = eventParticipationService.promoteWaitingParticipants(event.eventId());
+        if (promoted > 0) {
+            System.out.println("キャンセル待ちを繰り上げました: イベントID " + event.eventId() + " / " + promoted + "件");
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.eventshare.app.repository;
+
+import com.eventshare.app.entity.AccountPurge;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AccountPurgeRepository extends JpaRepository<AccountPurge, Long> {
+    //再開が必要なジョブのユーザーID（待機中、または一定時間更新がなく停止したとみなせる実行中のジョブ。受付順）
+    @Query("SELECT a.userId FROM AccountPurge a WHERE a.status = com.eventshare.app.entity.AccountPurge.Status.PENDING " +
+            "OR (a.status = com.eventshare.app.entity.AccountPurge.Status.RUNNING AND a.updatedAt < :staleBefore) " +
+            "ORDER BY a.requestedAt ASC")
+    List<Long> findResumableUserIds(@Param("staleBefore") LocalDateTime staleBefore);
+
+    //データ削除が完了していないユーザーのID（完了したユーザーは削除済みのため外部キー制約で検出できる）
+    @Query("SELECT a.userId FROM AccountPurge a WHERE a.status <> com.eventshare.app.entity.AccountPurge.Status.COMPLETED")
+    List<Long> findUnfinishedUserIds();
+
+    /*
+     以下ジョブの状態更新用クエリ
+     各バッチのトランザクションとは別に1文で更新し、ジョブの行のロックを長く保持しない
+     */
+    //実行権を取得（待機中のジョブ、または一定時間更新がなく停止したとみなせるジョブのみ。更新件数が0なら他で実行中）
+    @Transactional
+    @Modifying
+    @Query("UPDATE AccountPurge a SET a.status = com.eventshare.app.entity.AccountPurge.Status.RUNNING, a.updatedAt = :now " +
+            "WHERE a.userId = :userId AND (a.status = com.eventshare.app.entity.AccountPurge.Status.PENDING " +
+            "OR (a.status = com.eventshare.app.entity.AccountPurge.Status.RUNNING AND a.updatedAt < :staleBefore))")
+    int claim(@Param("userId") Long userId, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    //1バッチ分の削除件数を加算
+    @Transactional
+    @Modifying
+    @Query("UPDATE AccountPurge a SET a.phase = :phase, " +
+            "a.deletedParticipations = a.deletedParticipations + :participations, " +
+            "a.deletedPhotos = a.deletedPhotos + :photos, " +
+            "a.deletedEvents = a.deletedEvents + :events, " +
+            "a.failedFiles = a.failedFiles + :failedFiles, " +
+            "a.updatedAt = :now WHERE a.userId = :userId")
+    int recordProgress(@Param("userId") Long userId,
+                       @Param("phase") AccountPurge.Phase phase,
+                       @Param("participations") long participations,
+                       @Param("photos") long photos,
+                       @Param("events") long events,
+                       @Param("failedFiles") long failedFiles,
+                       @Param("now") LocalDateTime now);
+
+    //完了を記録
+    @Transactional
+    @Modifying
+    @Query("UPDATE AccountPurge a SET a.status = com.eventshare.app.entity.AccountPurge.Status.COMPLETED, a.lastError = NULL, " +
+            "a.updatedAt = :now, a.completedAt = :now WHERE a.userId = :userId")
+    int complete(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    //失敗を記録（退会を再度受け付けると待機中に戻して再実行する）
+    @Transactional
+    @Modifying
+    @Query("UPDATE AccountPurge a SET a.status = com.eventshare.app.entity.AccountPurge.Status.FAILED, a.lastError = :error, " +
+            "a.updatedAt = :now WHERE a.userId = :userId")
+    int fail(@Param("userId") Long userId, @Param("error") String error, @Param("now") LocalDateTime now);
+}
@@ -1,23 +1,34 @@
 package com.eventshare.app.repository;
 
+import com.eventshare.app.dto.response.EventParticipationResponse;
 import com.eventshare.app.entity.EventParticipation;
 import com.eventshare.app.entity.Event;
 import com.eventshare.app.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
 @Repository
 public interface EventParticipationRepository extends JpaRepository<EventParticipation, Long> {
-    //特定のイベントの参加者リスト取得
+    //特定のイベントの参加者リスト取得（レスポンスに使うイベント・ユーザーを結合して取得）
+    @EntityGraph(attributePaths = {"event", "user"})
     List<EventParticipation> findByEvent(Event event);
 
-    //特定のユーザーが参加しているイベントリスト取得
+    //特定のユーザーが参加しているイベントリスト取得（レスポンスに使うイベント・ユーザーを結合して取得）
+    @EntityGraph(attributePaths = {"event", "user"})
     List<EventParticipation> findByUser(User user);
 
-    //特定のユーザーと特定のイベントの参加情報を取得
+    //特定のユーザーと特定のイベントの参加情報を取得（レスポンスに使うイベント・ユーザーを結合して取得）
+    @EntityGraph(attributePaths = {"event", "user"})
     List<EventParticipation> findByEventAndUser(Event event, User user);
 
     //特定のユーザーが特定のイベントに参加しているか確認
@@ -25,4 +36,121 @@ public interface EventParticipationRepository extends JpaRepository<EventPartici
 
     //特定のステータスの参加情報を取得
     List<EventParticipation> findByEventAndStatus(Event event, EventParticipation.ParticipationStatus status);
-}
\ No newline at end of file
+
+    //特定のステータスの参加人数を取得（行を読み込まずにCOUNTのみ実行）
+    long countByEventAndStatus(Event event, EventParticipation.ParticipationStatus status);
+
+    //複数イベントの特定ステータスの参加人数を1回のクエリでまとめて集計（[イベントID, 件数]の配列で返す）
+    @Query("SELECT p.event.id, COUNT(p) FROM EventParticipation p " +
+            "WHERE p.event.id IN :eventIds AND p.status = :status GROUP BY p.event.id")
+    List<Object[]> countByEventIdsAndStatus(@Param("eventIds") Collection<Long> eventIds,
+                                            @Param("status") EventParticipation.ParticipationStatus status);
+
+    //特定のステータスの参加情報を登録順（先着順）に先頭から指定件数だけ取得（キャンセル待ちの繰り上げ用）
+    List<EventParticipation> findByEventIdAndStatusOrderByCreatedAtAscIdAsc(Long eventId,
+                                                                           EventParticipation.ParticipationStatus status,
+                                                                           Pageable pageable);
+
+    /*
+     以下参加者一覧・参加イベント一覧用の読み取り専用クエリ（キーセットページネーション）
+     エンティティではなくEventParticipationResponseをコンストラクタ式で直接生成し、イベント・ユーザーはJOIN1回で取得する
+     （参加者数に関係なくクエリは1回で、行ごとの追加SELECTは発生しない）
+     ステータスの指定がない場合は条件を付けないクエリを使い、(event_id, created_at, id) 等のインデックスを並び順のまま読む
+     件数はPageableで指定する（総件数を数えるCOUNTクエリは発行しない）
+     */
+    String PARTICIPATION_RESPONSE_SELECT = "SELECT new com.eventshare.app.dto.response.EventParticipationResponse(" +
+            "p.id, e.id, e.title, e.eventDate, u.id, u.username, p.status, p.createdAt) " +
+            "FROM EventParticipation p JOIN p.event e JOIN p.user u ";
+
+    //イベントの参加者：登録順（登録日時, ID）
+    String PARTICIPANTS_WHERE = "WHERE e.id = :eventId ";
+    String PARTICIPANTS_STATUS = "AND p.status = :status ";
+    String PARTICIPANTS_AFTER_CURSOR = "AND p.createdAt >= :cursorCreatedAt AND (p.createdAt > :cursorCreatedAt OR p.id > :cursorId) ";
+    String PARTICIPANTS_ORDER = "ORDER BY p.createdAt ASC, p.id ASC";
+
+    //イベントの参加者：先頭ページ
+    @Query(PARTICIPATION_RESPONSE_SELECT + PARTICIPANTS_WHERE + PARTICIPANTS_ORDER)
+    List<EventParticipationResponse> findParticipantsFirstPage(@Param("eventId") Long eventId, Pageable pageable);
+
+    //イベントの参加者：カーソル以降
+    @Query(PARTICIPATION_RESPONSE_SELECT + PARTICIPANTS_WHERE + PARTICIPANTS_AFTER_CURSOR + PARTICIPANTS_ORDER)
+    List<EventParticipationResponse> findParticipantsAfterCursor(@Param("eventId") Long eventId,
+                                                                 @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                                 @Param("cursorId") Long cursorId,
+                                                                 Pageable pageable);
+
+    //イベントの参加者（ステータス指定）：先頭ページ
+    @Query(PARTICIPATION_RESPONSE_SELECT + PARTICIPANTS_WHERE + PARTICIPANTS_STATUS + PARTICIPANTS_ORDER)
+    List<EventParticipationResponse> findParticipantsByStatusFirstPage(@Param("eventId") Long eventId,
+                                                                       @Param("status") EventParticipation.ParticipationStatus status,
+                                                                       Pageable pageable);
+
+    //イベントの参加者（ステータス指定）：カーソル以降
+    @Query(PARTICIPATION_RESPONSE_SELECT + PARTICIPANTS_WHERE + PARTICIPANTS_STATUS + PARTICIPANTS_AFTER_CURSOR + PARTICIPANTS_ORDER)
+    List<EventParticipationResponse> findParticipantsByStatusAfterCursor(@Param("eventId") Long eventId,
+                                                                         @Param("status") EventParticipation.ParticipationStatus status,
+                                                                         @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                                         @Param("cursorId") Long cursorId,
+                                                                         Pageable pageable);
+
+    //ユーザーの参加イベント：開催日時順（開催日時, イベントID）。同じイベントへの参加は1件のため並び順は一意に決まる
+    String USER_PARTICIPATIONS_WHERE = "WHERE u.id = :userId ";
+    String USER_PARTICIPATIONS_STATUS = "AND p.status = :status ";
+    String USER_PARTICIPATIONS_AFTER_CURSOR = "AND e.eventDate >= :cursorDate AND (e.eventDate > :cursorDate OR e.id > :cursorId) ";
+    String USER_PARTICIPATIONS_ORDER = "ORDER BY e.eventDate ASC, e.id ASC";
+
+    //ユーザーの参加イベント：先頭ページ
+    @Query(PARTICIPATION_RESPONSE_SELECT + USER_PARTICIPATIONS_WHERE + USER_PARTICIPATIONS_ORDER)
+    List<EventParticipationResponse> findUserParticipationsFirstPage(@Param("userId") Long userId, Pageable pageable);
+
+    //ユーザーの参加イベント：カーソル以降
+    @Query(PARTICIPATION_RESPONSE_SELECT + USER_PARTICIPATIONS_WHERE + USER_PARTICIPATIONS_AFTER_CURSOR + USER_PARTICIPATIONS_ORDER)
+    List<EventParticipationResponse> findUserParticipationsAfterCursor(@Param("userId") Long userId,
+                                                                       @Param("cursorDate") LocalDateTime cursorDate,
+                                                                       @Param("cursorId") Long cursorId,
+                                                                       Pageable pageable);
+
+    //ユーザーの参加イベント（ステータス指定）：先頭ページ
+    @Query(PARTICIPATION_RESPONSE_SELECT + USER_PARTICIPATIONS_WHERE + USER_PARTICIPATIONS_STATUS + USER_PARTICIPATIONS_ORDER)
+    List<EventParticipationResponse> findUserParticipationsByStatusFirstPage(@Param("userId") Long userId,
+                                                                             @Param("status") EventParticipation.ParticipationStatus status,
+                                                                             Pageable pageable);
+
+    //ユーザーの参加イベント（ステータス指定）：カーソル以降
+    @Query(PARTICIPATION_RESPONSE_SELECT + USER_PARTICIPATIONS_WHERE + USER_PARTICIPATIONS_STATUS + USER_PARTICIPATIONS_AFTER_CURSOR + USER_PARTICIPATIONS_ORDER)
+    List<EventParticipationResponse> findUserParticipationsByStatusAfterCursor(@Param("userId") Long userId,
+                                                                               @Param("status") EventParticipation.ParticipationStatus status,
+                                                                               @Param("cursorDate") LocalDateTime cursorDate,
+                                                                               @Param("cursorId") Long cursorId,
+                                                                               Pageable pageable);
+
+    //キャンセル待ちを参加確定に変更（他の処理で変更・削除済みの場合は0件を返す）
+    @Modifying
+    @Query("UPDATE EventParticipation p SET p.status = com.eventshare.app.entity.EventParticipation.ParticipationStatus.CONFIRMED " +
+            "WHERE p.id = :participationId AND p.status = com.eventshare.app.entity.EventParticipation.ParticipationStatus.WAITING")
+    int promoteFromWaiting(@Param("participationId") Long participationId);
+
+    //イベントの参加情報を1文でまとめて削除（イベント削除用。削除件数を返す）
+    @Modifying
+    @Query("DELETE FROM EventParticipation p WHERE p.event.id = :eventId")
+    int deleteByEventId(@Param("eventId") Long eventId);
+
+    /*
+     以下退会したユーザーのデータ削除用クエリ（AccountPurgeJob）
+     削除しながら先頭から取得するため、並び順は指定しない
+     */
+    //ユーザーの参加情報：1バッチ分
+    @Query("SELECT p FROM EventParticipation p WHERE p.user.id = :userId")
+    List<EventParticipation> findBatchByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    //参加確定の場合のみ削除（削除件数が1なら座席を解放する。他の処理でステータスが変わった場合も正しく判定できる）
+    @Modifying
+    @Query("DELETE FROM EventParticipation p WHERE p.id = :participationId " +
+            "AND p.status = com.eventshare.app.entity.EventParticipation.ParticipationStatus.CONFIRMED")
+    int deleteIfConfirmed(@Param("participationId") Long participationId);
+
+    //指定IDの参加情報を1文でまとめて削除
+    @Modifying
+    @Query("DELETE FROM EventParticipation p WHERE p.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
@@ -1,28 +1,157 @@
 package com.eventshare.app.repository;
 
+import com.eventshare.app.dto.response.EventResponse;
+import com.eventshare.app.dto.response.EventSearchDocument;
 import com.eventshare.app.entity.Event;
 import com.eventshare.app.entity.EventCategory;
 import com.eventshare.app.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface EventRepository extends JpaRepository<Event, Long> {
+    /*
+     以下エンティティを返すクエリ
+     カテゴリ・作成者は遅延読み込みのため、レスポンスの組み立てに使うクエリでは@EntityGraphで結合して1回で取得する
+     （トランザクション外での遅延読み込みやイベントごとの追加SELECTを発生させない）
+     */
+    //ID指定（詳細表示用）
+    @EntityGraph(attributePaths = {"category", "creator"})
+    Optional<Event> findDetailById(Long id);
+
+    //ID指定（複数件）
+    @EntityGraph(attributePaths = {"category", "creator"})
+    List<Event> findByIdIn(Collection<Long> ids);
+
+    //すべてのイベント
+    @Override
+    @EntityGraph(attributePaths = {"category", "creator"})
+    List<Event> findAll();
+
     //カテゴリによるイベント検索
+    @EntityGraph(attributePaths = {"category", "creator"})
     List<Event> findByCategory(EventCategory category);
 
+    //特定のカテゴリのイベントが存在するか確認（イベントを読み込まずに判定）
+    boolean existsByCategory(EventCategory category);
+
     //作成者によるイベント検索
+    @EntityGraph(attributePaths = {"category", "creator"})
     List<Event> findByCreator(User creator);
 
     //イベント日時が指定日以降のイベント検索
+    @EntityGraph(attributePaths = {"category", "creator"})
     List<Event> findByEventDateAfter(LocalDateTime date);
 
     //タイトルに特定のキーワードを含むイベント検索
+    @EntityGraph(attributePaths = {"category", "creator"})
     List<Event> findByTitleContaining(String keyword);
 
     //カテゴリと日付による検索
+    @EntityGraph(attributePaths = {"category", "creator"})
     List<Event> findByCategoryAndEventDateAfter(EventCategory category, LocalDateTime date);
+
+    /*
+     以下参加登録の座席管理用クエリ
+     空き確認と座席確保を1文の条件付きUPDATEで行うため、同時リクエストでも定員を超えない
+     （更新件数が1なら確保成功、0なら満席）
+     */
+    //定員に空きがある場合のみ確定済み参加者数を1増やす
+    @Modifying
+    @Query("UPDATE Event e SET e.confirmedCount = e.confirmedCount + 1 " +
+            "WHERE e.id = :eventId AND (e.capacity IS NULL OR e.confirmedCount < e.capacity)")
+    int reserveSeat(@Param("eventId") Long eventId);
+
+    //確定済み参加者数を1減らす
+    @Modifying
+    @Query("UPDATE Event e SET e.confirmedCount = e.confirmedCount - 1 WHERE e.id = :eventId AND e.confirmedCount > 0")
+    int releaseSeat(@Param("eventId") Long eventId);
+
+    //イベントを1文で削除（参加情報・写真は先に削除しておく。エンティティを読み込まないためカスケードは行われない）
+    @Modifying
+    @Query("DELETE FROM Event e WHERE e.id = :eventId")
+    int deleteEventById(@Param("eventId") Long eventId);
+
+    //作成者のイベントのID：1バッチ分（退会したユーザーのデータ削除用。削除しながら先頭から取得するため並び順は指定しない）
+    @Query("SELECT e.id FROM Event e WHERE e.creator.id = :userId")
+    List<Long> findIdsByCreatorId(@Param("userId") Long userId, Pageable pageable);
+
+    /*
+     以下一覧表示用の読み取り専用クエリ（キーセットページネーション）
+     エンティティではなくEventResponseをコンストラクタ式で直接生成し、カテゴリ・作成者はJOIN1回で取得する
+     （永続化コンテキストへの登録や変更検知、作成者の関連コレクションの読み込みが発生しない）
+     並び順は（開催日時, ID）で固定し、前ページ最後の（開催日時, ID）より後ろの行だけを取得する
+     OFFSETを使わないため、何ページ目でも読み飛ばしが発生しない
+     件数はPageableで指定する（総件数を数えるCOUNTクエリは発行しない）
+     */
+    String EVENT_RESPONSE_SELECT = "SELECT new com.eventshare.app.dto.response.EventResponse(" +
+            "e.id, e.title, e.description, e.eventDate, e.location, e.capacity, e.createdAt, e.updatedAt, " +
+            "c.id, c.name, c.description, u.id, u.username, u.profilePicture) " +
+            "FROM Event e JOIN e.category c JOIN e.creator u ";
+    String AFTER_CURSOR = "e.eventDate >= :cursorDate AND (e.eventDate > :cursorDate OR e.id > :cursorId) ";
+    String KEYSET_ORDER = "ORDER BY e.eventDate ASC, e.id ASC";
+
+    //全イベント：先頭ページ
+    @Query(EVENT_RESPONSE_SELECT + KEYSET_ORDER)
+    List<EventResponse> findFirstPage(Pageable pageable);
+
+    //全イベント：カーソル以降
+    @Query(EVENT_RESPONSE_SELECT + "WHERE " + AFTER_CURSOR + KEYSET_ORDER)
+    List<EventResponse> findPageAfterCursor(@Param("cursorDate") LocalDateTime cursorDate,
+                                            @Param("cursorId") Long cursorId,
+                                            Pageable pageable);
+
+    //カテゴリ指定：先頭ページ
+    @Query(EVENT_RESPONSE_SELECT + "WHERE e.category = :category " + KEYSET_ORDER)
+    List<EventResponse> findFirstPageByCategory(@Param("category") EventCategory category, Pageable pageable);
+
+    //カテゴリ指定：カーソル以降
+    @Query(EVENT_RESPONSE_SELECT + "WHERE e.category = :category AND " + AFTER_CURSOR + KEYSET_ORDER)
+    List<EventResponse> findPageByCategoryAfterCursor(@Param("category") EventCategory category,
+                                                      @Param("cursorDate") LocalDateTime cursorDate,
+                                                      @Param("cursorId") Long cursorId,
+                                                      Pageable pageable);
+
+    //指定日時以降：先頭ページ
+    @Query(EVENT_RESPONSE_SELECT + "WHERE e.eventDate > :date " + KEYSET_ORDER)
+    List<EventResponse> findFirstPageByEventDateAfter(@Param("date") LocalDateTime date, Pageable pageable);
+
+    //指定日時以降：カーソル以降
+    @Query(EVENT_RESPONSE_SELECT + "WHERE e.eventDate > :date AND " + AFTER_CURSOR + KEYSET_ORDER)
+    List<EventResponse> findPageByEventDateAfterCursor(@Param("date") LocalDateTime date,
+                                                       @Param("cursorDate") LocalDateTime cursorDate,
+                                                       @Param("cursorId") Long cursorId,
+                                                       Pageable pageable);
+
+    //ID指定（キーワード検索で絞り込んだイベントの取得用。並び順は呼び出し側で検索順位に合わせる）
+    @Query(EVENT_RESPONSE_SELECT + "WHERE e.id IN :ids")
+    List<EventResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /*
+     以下検索インデックス作成用のクエリ
+     検索対象のテキスト項目だけをID順に分割して読み込む（全件をエンティティとして読み込まない）
+     */
+    String SEARCH_DOCUMENT_SELECT = "SELECT new com.eventshare.app.dto.response.EventSearchDocument(" +
+            "e.id, e.title, e.description, e.location, c.id, c.name) " +
+            "FROM Event e LEFT JOIN e.category c ";
+
+    //全イベント：指定ID以降
+    @Query(SEARCH_DOCUMENT_SELECT + "WHERE e.id > :afterId ORDER BY e.id ASC")
+    List<EventSearchDocument> findSearchDocuments(@Param("afterId") Long afterId, Pageable pageable);
+
+    //カテゴリ指定：指定ID以降
+    @Query(SEARCH_DOCUMENT_SELECT + "WHERE c.id = :categoryId AND e.id > :afterId ORDER BY e.id ASC")
+    List<EventSearchDocument> findSearchDocumentsByCategoryId(@Param("categoryId") Long categoryId,
+                                                              @Param("afterId") Long afterId,
+                                                              Pageable pageable);
 }
\ No newline at end of file
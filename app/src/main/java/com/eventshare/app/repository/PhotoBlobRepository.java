@@ -0,0 +1,85 @@
+package com.eventshare.app.repository;
+
+import com.eventshare.app.entity.PhotoBlob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PhotoBlobRepository extends JpaRepository<PhotoBlob, Long> {
+    //内容のハッシュからファイルを取得
+    Optional<PhotoBlob> findByContentHash(String contentHash);
+
+    /*
+     以下参照数の管理用クエリ
+     読み込んでから書き戻すと同時アップロードで参照数がずれるため、1文のUPDATE/DELETEで増減する
+     */
+    //保存済みの内容であれば参照数を1増やす（更新件数が0なら未登録）
+    @Transactional
+    @Modifying
+    @Query("UPDATE PhotoBlob b SET b.refCount = b.refCount + 1 WHERE b.contentHash = :contentHash")
+    int incrementRefCount(@Param("contentHash") String contentHash);
+
+    //参照数を1減らす（行ロックはトランザクション終了まで保持される）
+    @Modifying
+    @Query("UPDATE PhotoBlob b SET b.refCount = b.refCount - 1 WHERE b.id = :blobId AND b.refCount > 0")
+    int decrementRefCount(@Param("blobId") Long blobId);
+
+    //参照がなくなった場合のみ削除（削除件数が1なら最後の参照だった）
+    @Modifying
+    @Query("DELETE FROM PhotoBlob b WHERE b.id = :blobId AND b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("blobId") Long blobId);
+
+    //イベントの写真が参照している分だけ、各ファイルの参照数を1文でまとめて減らす（イベント削除用。写真の行を削除する前に実行する）
+    @Modifying
+    @Query("UPDATE PhotoBlob b SET b.refCount = b.refCount - " +
+            "(SELECT CAST(COUNT(p) AS Integer) FROM Photo p WHERE p.blob = b AND p.event.id = :eventId) " +
+            "WHERE b.id IN (SELECT p.blob.id FROM Photo p WHERE p.event.id = :eventId)")
+    int decrementRefCountsByEvent(@Param("eventId") Long eventId);
+
+    //指定IDの写真が参照している分だけ、各ファイルの参照数を1文でまとめて減らす（写真の行を削除する前に実行する）
+    @Modifying
+    @Query("UPDATE PhotoBlob b SET b.refCount = b.refCount - " +
+            "(SELECT CAST(COUNT(p) AS Integer) FROM Photo p WHERE p.blob = b AND p.id IN :photoIds) " +
+            "WHERE b.id IN (SELECT p.blob.id FROM Photo p WHERE p.id IN :photoIds)")
+    int decrementRefCountsByPhotoIds(@Param("photoIds") Collection<Long> photoIds);
+
+    //内容のハッシュを指定して、参照がなくなった場合のみ削除（削除件数が1なら最後の参照だった）
+    @Modifying
+    @Query("DELETE FROM PhotoBlob b WHERE b.contentHash = :contentHash AND b.refCount <= 0")
+    int deleteIfUnreferencedByContentHash(@Param("contentHash") String contentHash);
+
+    //参照がなくなったまま残っているファイル：指定したハッシュの次から順に取得（後片付けの中断・失敗の回収用）
+    @Query("SELECT b.contentHash FROM PhotoBlob b WHERE b.refCount <= 0 AND b.contentHash > :afterHash " +
+            "ORDER BY b.contentHash ASC")
+    List<String> findUnreferencedContentHashes(@Param("afterHash") String afterHash, Pageable pageable);
+
+    /*
+     以下参照数の漏れの回収用クエリ
+     参照数を増やしてから写真の行を登録するまでの間にサーバーが停止した場合などに、実際に参照している写真の数より多いまま残った参照数を戻す
+     */
+    //参照数が実際に参照している写真の数より多いファイル：指定したハッシュの次から順に取得
+    @Query("SELECT b.contentHash FROM PhotoBlob b WHERE b.refCount > (SELECT COUNT(p) FROM Photo p WHERE p.blob = b) " +
+            "AND b.contentHash > :afterHash ORDER BY b.contentHash ASC")
+    List<String> findOvercountedContentHashes(@Param("afterHash") String afterHash, Pageable pageable);
+
+    //参照数のうち、実際に参照している写真の数を超えている分
+    @Query("SELECT b.refCount - (SELECT CAST(COUNT(p) AS Integer) FROM Photo p WHERE p.blob = b) " +
+            "FROM PhotoBlob b WHERE b.contentHash = :contentHash")
+    Optional<Integer> countExcessReferences(@Param("contentHash") String contentHash);
+
+    //漏れた参照の分だけ参照数を減らす（現在も超過分がleaked以上ある場合のみ。更新件数が0なら何もしない）
+    @Transactional
+    @Modifying
+    @Query("UPDATE PhotoBlob b SET b.refCount = b.refCount - :leaked WHERE b.contentHash = :contentHash " +
+            "AND b.refCount - (SELECT CAST(COUNT(p) AS Integer) FROM Photo p WHERE p.blob = b) >= :leaked")
+    int releaseLeakedReferences(@Param("contentHash") String contentHash, @Param("leaked") int leaked);
+}
@@ -0,0 +1,42 @@
+package com.eventshare.app.repository;
+
+import com.eventshare.app.entity.PhotoFileDeletion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PhotoFileDeletionRepository extends JpaRepository<PhotoFileDeletion, String> {
+    /*
+     以下削除する写真の記録用クエリ（写真の行を削除する前に、同じトランザクションで実行する）
+     写真を1件ずつ読み込まず、INSERT ... SELECTの1文で記録する
+     */
+    //イベントの導入前の写真の保存ファイル名を記録
+    @Modifying
+    @Query("INSERT INTO PhotoFileDeletion (filename, requestedAt) " +
+            "SELECT p.filename, LOCAL DATETIME FROM Photo p WHERE p.event.id = :eventId AND p.blob IS NULL")
+    int insertLegacyFilesByEventId(@Param("eventId") Long eventId);
+
+    //指定IDの導入前の写真の保存ファイル名を記録
+    @Modifying
+    @Query("INSERT INTO PhotoFileDeletion (filename, requestedAt) " +
+            "SELECT p.filename, LOCAL DATETIME FROM Photo p WHERE p.id IN :photoIds AND p.blob IS NULL")
+    int insertLegacyFilesByPhotoIds(@Param("photoIds") Collection<Long> photoIds);
+
+    //削除が済んでいないファイル：指定した保存ファイル名の次から順に取得（主キーのインデックスを使う）
+    @Query("SELECT d.filename FROM PhotoFileDeletion d WHERE d.filename > :afterFilename ORDER BY d.filename ASC")
+    List<String> findFilenamesAfter(@Param("afterFilename") String afterFilename, Pageable pageable);
+
+    //ファイルを削除したら記録も削除
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM PhotoFileDeletion d WHERE d.filename = :filename")
+    int deleteByFilename(@Param("filename") String filename);
+}
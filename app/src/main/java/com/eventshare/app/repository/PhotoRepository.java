@@ -1,27 +1,102 @@
 package com.eventshare.app.repository;
 
+import com.eventshare.app.dto.response.PhotoFileInfo;
 import com.eventshare.app.entity.Event;
 import com.eventshare.app.entity.Photo;
+import com.eventshare.app.entity.PhotoBlob;
 import com.eventshare.app.entity.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PhotoRepository extends JpaRepository<Photo, Long> {
-    //イベントIDで写真一覧を降順で取得
+    //イベントIDで写真一覧を降順で取得（レスポンスに使う投稿者を結合して取得）
+    @EntityGraph(attributePaths = "uploadedBy")
     List<Photo> findByEventOrderByUploadedAtDesc(Event event);
 
     //特定のユーザーがアップロードした写真一覧を降順で取得
+    @EntityGraph(attributePaths = "uploadedBy")
     List<Photo> findByUploadedByOrderByUploadedAtDesc(User user);
 
+    //写真を行ロックして取得（削除時に、移行処理による保存済みファイルの設定と競合しないようにする）
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Photo p WHERE p.id = :photoId")
+    Optional<Photo> findByIdForUpdate(@Param("photoId") Long photoId);
+
     //イベントの写真数を取得（カスタムクエリ）
     @Query("SELECT COUNT(p) FROM Photo p WHERE p.event = :event")
     long countByEvent(@Param("event") Event event);
 
     //特定のイベントで特定のユーザーがアップロードした写真を取得
+    @EntityGraph(attributePaths = "uploadedBy")
     List<Photo> findByEventAndUploadedByOrderByUploadedAtDesc(Event event, User user);
+
+    //保存ファイル名から配信用のメタ情報のみを取得（関連エンティティは読み込まない）
+    @Query("SELECT new com.eventshare.app.dto.response.PhotoFileInfo(p.filename, p.mineType, p.fileSize, p.contentHash, p.uploadedAt, p.derivativesReady, b.contentHash) " +
+            "FROM Photo p LEFT JOIN p.blob b WHERE p.filename = :filename")
+    Optional<PhotoFileInfo> findFileInfoByFilename(@Param("filename") String filename);
+
+    //イベントの全写真の配信用メタ情報を取得（イベント削除時にファイルの後片付けに使う）
+    @Query("SELECT new com.eventshare.app.dto.response.PhotoFileInfo(p.filename, p.mineType, p.fileSize, p.contentHash, p.uploadedAt, p.derivativesReady, b.contentHash) " +
+            "FROM Photo p LEFT JOIN p.blob b WHERE p.event.id = :eventId")
+    List<PhotoFileInfo> findFileInfosByEventId(@Param("eventId") Long eventId);
+
+    //イベントの写真を1文でまとめて削除（保存済みファイルの参照数は先に減らしておく）
+    @Modifying
+    @Query("DELETE FROM Photo p WHERE p.event.id = :eventId")
+    int deleteByEventId(@Param("eventId") Long eventId);
+
+    /*
+     以下退会したユーザーのデータ削除用クエリ（AccountPurgeJob）
+     削除しながら先頭から取得するため、並び順は指定しない
+     */
+    //ユーザーが投稿した写真のID：1バッチ分
+    @Query("SELECT p.id FROM Photo p WHERE p.uploadedBy.id = :userId")
+    List<Long> findIdsByUploadedById(@Param("userId") Long userId, Pageable pageable);
+
+    //指定IDの写真の配信用メタ情報を取得
+    @Query("SELECT new com.eventshare.app.dto.response.PhotoFileInfo(p.filename, p.mineType, p.fileSize, p.contentHash, p.uploadedAt, p.derivativesReady, b.contentHash) " +
+            "FROM Photo p LEFT JOIN p.blob b WHERE p.id IN :ids")
+    List<PhotoFileInfo> findFileInfosByIds(@Param("ids") Collection<Long> ids);
+
+    //指定IDの写真を1文でまとめて削除（保存済みファイルの参照数は先に減らしておく）
+    @Modifying
+    @Query("DELETE FROM Photo p WHERE p.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    //縮小版の生成完了を記録
+    @Transactional
+    @Modifying
+    @Query("UPDATE Photo p SET p.derivativesReady = true WHERE p.id = :photoId")
+    int markDerivativesReady(@Param("photoId") Long photoId);
+
+    /*
+     以下内容アドレス保存の導入前の写真の移行用クエリ（LegacyPhotoMigrator）
+     移行対象はID順に分割して取得し、移行済みの行は条件から外れるため、中断しても続きから再開できる
+     */
+    //保存済みファイルが未設定の写真：指定ID以降
+    @Query("SELECT p FROM Photo p WHERE p.blob IS NULL AND p.id > :afterId ORDER BY p.id ASC")
+    List<Photo> findLegacyPhotos(@Param("afterId") Long afterId, Pageable pageable);
+
+    //移行したファイルを写真に設定（移行中に削除された写真・別の処理で移行済みの写真は更新しない）
+    @Transactional
+    @Modifying
+    @Query("UPDATE Photo p SET p.blob = :blob, p.contentHash = :contentHash, p.derivativesReady = :derivativesReady " +
+            "WHERE p.id = :photoId AND p.blob IS NULL")
+    int assignBlob(@Param("photoId") Long photoId,
+                   @Param("blob") PhotoBlob blob,
+                   @Param("contentHash") String contentHash,
+                   @Param("derivativesReady") boolean derivativesReady);
 }
@@ -2,7 +2,11 @@ package com.eventshare.app.repository;
 
 import com.eventshare.app.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -13,4 +17,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     //ユーザー存在チェック
     boolean existsByUsername(String username);
+
+    //ユーザーを1文で削除（関連するデータは先に削除しておく。エンティティを読み込まないためカスケードは行われない）
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id = :userId")
+    int deleteUserById(@Param("userId") Long userId);
 }
\ No newline at end of file
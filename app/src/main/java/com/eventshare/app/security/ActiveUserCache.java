@@ -0,0 +1,126 @@
+package com.eventshare.app.security;
+
+import com.eventshare.app.repository.AccountPurgeRepository;
+import com.eventshare.app.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+トークンのユーザーが退会・削除されていないかを確認するための短期キャッシュ
+JWTは有効期限まで使えるため、退会を受け付けたユーザー（account_purgesに行がある）のトークンは常に弾く
+（データ削除中に参加・投稿・イベント作成ができると削除が終わらないため）
+削除済みユーザー（usersに行がない）の確認は app.jwt.revocation-check.enabled が有効な場合のみ行う
+確認結果をユーザーIDごとにTTLの間だけ保持し、DBへの問い合わせはTTLごとに最大1回にする
+（同じユーザーの同時の問い合わせは1回にまとめる。期限切れの結果は書き込み時に削除し、保持する件数は最大件数までにする）
+ */
+@Component
+public class ActiveUserCache {
+    private final UserRepository userRepository;
+    private final AccountPurgeRepository accountPurgeRepository;
+
+    //削除済みユーザーの確認を行うか
+    private final boolean enabled;
+
+    //確認結果の保持時間（ミリ秒）
+    private final long ttlMillis;
+
+    //保持する確認結果の最大件数
+    private final int maxEntries;
+
+    //ユーザーID → 確認結果
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    //次に期限切れの確認結果を削除する時刻（TTLごとに1回）
+    private final AtomicLong nextPruneAt = new AtomicLong();
+
+    //ユーザーの状態
+    public enum State {
+        ACTIVE,
+        //退会を受け付けた（データ削除中・削除済み）
+        PURGING,
+        //ユーザーが存在しない
+        DELETED
+    }
+
+    @Autowired
+    public ActiveUserCache(UserRepository userRepository, AccountPurgeRepository accountPurgeRepository,
+                           @Value("${app.jwt.revocation-check.enabled:false}") boolean enabled,
+                           @Value("${app.jwt.revocation-check.ttl-seconds:60}") long ttlSeconds,
+                           @Value("${app.jwt.revocation-check.max-entries:100000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.accountPurgeRepository = accountPurgeRepository;
+        this.enabled = enabled;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+    }
+
+    //ユーザーの状態を取得
+    public State getState(Long userId) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(userId);
+        if (entry != null && entry.expiresAt() >= now) {
+            return entry.state();
+        }
+        //期限切れ・未確認の場合はDBで確認（computeで同じユーザーの更新を直列化し、同時に確認が必要になっても問い合わせは1回）
+        entry = entries.compute(userId, (id, current) ->
+                current != null && current.expiresAt() >= now ? current : new Entry(load(id), now + ttlMillis));
+        prune(now);
+        return entry.state();
+    }
+
+    //ユーザーが有効か（退会・削除されていないか）
+    public boolean isActive(Long userId) {
+        return getState(userId) == State.ACTIVE;
+    }
+
+    //退会を受け付けたユーザーを記録（このサーバーでは即時に、他のサーバーではTTL経過後に弾かれる）
+    public void markPurging(Long userId) {
+        long now = System.currentTimeMillis();
+        entries.put(userId, new Entry(State.PURGING, now + ttlMillis));
+        prune(now);
+    }
+
+    //確認結果を破棄（次回DBで確認し直す）
+    public void evict(Long userId) {
+        entries.remove(userId);
+    }
+
+    /*
+    期限切れの確認結果を削除（TTLごと、または最大件数を超えた場合）
+    期限内の結果だけで最大件数を超えている場合は、超えた分を任意に削除する（次回DBで確認し直すだけ）
+     */
+    private void prune(long now) {
+        long pruneAt = nextPruneAt.get();
+        if (now < pruneAt && entries.size() <= maxEntries) {
+            return;
+        }
+        if (!nextPruneAt.compareAndSet(pruneAt, now + ttlMillis)) {
+            return;
+        }
+        entries.values().removeIf(entry -> entry.expiresAt() < now);
+        Iterator<Long> overflow = entries.keySet().iterator();
+        while (entries.size() > maxEntries && overflow.hasNext()) {
+            overflow.next();
+            overflow.remove();
+        }
+    }
+
+    private State load(Long userId) {
+        if (accountPurgeRepository.existsById(userId)) {
+            return State.PURGING;
+        }
+        if (enabled && !userRepository.existsById(userId)) {
+            return State.DELETED;
+        }
+        return State.ACTIVE;
+    }
+
+    private record Entry(State state, long expiresAt) {
+    }
+}
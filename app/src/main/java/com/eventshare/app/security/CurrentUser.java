@@ -0,0 +1,20 @@
+package com.eventshare.app.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*
+コントローラーの引数にログイン中のユーザーを注入するアノテーション
+引数の型に応じて以下を渡す（CurrentUserArgumentResolverで解決）
+ - Long          : ユーザーID（トークンのクレームから取得、DBアクセスなし）
+ - UserPrincipal : 認証ユーザー情報（DBアクセスなし）
+ - User          : ユーザーエンティティ（1リクエストにつき1回だけDBから読み込む）
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
@@ -0,0 +1,71 @@
+package com.eventshare.app.security;
+
+import com.eventshare.app.entity.User;
+import com.eventshare.app.service.UserService;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/*
+@CurrentUserが付いた引数にログイン中のユーザーを渡すリゾルバー
+ユーザーエンティティはリクエスト属性に保持し、同じリクエスト内で何度参照してもDBアクセスは1回にする
+ */
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+    //読み込んだユーザーを保持するリクエスト属性名
+    private static final String CURRENT_USER_ATTRIBUTE = CurrentUserArgumentResolver.class.getName() + ".USER";
+
+    private final UserService userService;
+
+    public CurrentUserArgumentResolver(UserService userService) {
+        this.userService = userService;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        Class<?> type = parameter.getParameterType();
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+                && (type == Long.class || type == UserPrincipal.class || type == User.class);
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new RuntimeException("ログインが必要です");
+        }
+        Object principal = authentication.getPrincipal();
+        Class<?> type = parameter.getParameterType();
+
+        //トークンから組み立てた認証ユーザーの場合、IDと認証情報はDBにアクセスせずに返す
+        if (principal instanceof UserPrincipal userPrincipal) {
+            if (type == UserPrincipal.class) {
+                return userPrincipal;
+            }
+            if (type == Long.class) {
+                return userPrincipal.getId();
+            }
+        }
+
+        //ユーザーエンティティ（IDはユーザーエンティティから取得）はリクエスト内で1回だけ読み込む
+        User user = (User) webRequest.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (user == null) {
+            user = principal instanceof UserPrincipal userPrincipal
+                    ? userService.getUserById(userPrincipal.getId())
+                    : userService.getUserByUsername(authentication.getName());
+            webRequest.setAttribute(CURRENT_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        if (type == Long.class) {
+            return user.getId();
+        }
+        if (type == UserPrincipal.class) {
+            return UserPrincipal.create(user);
+        }
+        return user;
+    }
+}
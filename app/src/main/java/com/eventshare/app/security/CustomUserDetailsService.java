@@ -1,8 +1,11 @@
 package com.eventshare.app.security;
 
 import com.eventshare.app.entity.User;
+import com.eventshare.app.repository.AccountPurgeRepository;
 import com.eventshare.app.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -10,6 +13,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 
 /*
  Spring SecurityのUserDetailsServiceインターフェースの実装クラス
@@ -18,10 +23,16 @@ import java.util.Collections;
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
     private UserRepository userRepository;
+    private AccountPurgeRepository accountPurgeRepository;
+    //管理者（ROLE_ADMIN）として扱うユーザー名（イベント一括登録などの管理用API）
+    private Set<String> adminUsernames;
 
     @Autowired
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, AccountPurgeRepository accountPurgeRepository,
+                                    @Value("${app.admin-usernames:}") List<String> adminUsernames) {
         this.userRepository = userRepository;
+        this.accountPurgeRepository = accountPurgeRepository;
+        this.adminUsernames = Set.copyOf(adminUsernames);
     }
 
     /*
@@ -33,16 +44,15 @@ public class CustomUserDetailsService implements UserDetailsService {
         //ユーザー名をリポジトリから取得
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("ユーザー名が見つかりません" + username));
+        //退会を受け付けたユーザー（データ削除中）はログインできない
+        if (accountPurgeRepository.existsById(user.getId())) {
+            throw new UsernameNotFoundException("ユーザー名が見つかりません" + username);
+        }
 
-        //取得したユーザー名をUserDetailsオブジェクトに変換して返す
-        return org.springframework.security.core.userdetails.User
-                .withUsername(user.getUsername()) //ユーザー名設定
-                .password(user.getPassword()) //パスワード設定
-                .authorities(Collections.emptyList()) //権限設定
-                .accountExpired(false) //有効期限設定
-                .accountLocked(false) //ロック状態設定
-                .credentialsExpired(false) //認証情報の期限切れ状態の設定
-                .disabled(false) //無効化状態の設定
-                .build(); //ユーザーオブジェクトを実装し実装
+        //取得したユーザーをUserDetailsオブジェクトに変換して返す（トークンに入れるためユーザーIDと権限も保持）
+        if (adminUsernames.contains(user.getUsername())) {
+            return UserPrincipal.create(user, List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        }
+        return UserPrincipal.create(user, Collections.emptyList());
     }
 }
\ No newline at end of file
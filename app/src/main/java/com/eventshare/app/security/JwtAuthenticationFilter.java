@@ -1,5 +1,6 @@
 package com.eventshare.app.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -27,14 +28,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
     //JWTトークンの検証に使用
     private final JwtTokenProvider jwtTokenProvider;
-    //ユーザー情報をデータベースから取得する
+    //ユーザー情報をデータベースから取得する（ユーザーIDを含まない旧形式のトークンのみ）
     private final UserDetailsService userDetailsService;
+    //退会・削除済みユーザーのトークンを弾くための短期キャッシュ
+    private final ActiveUserCache activeUserCache;
 
     //コンストラクタインジェクション
     @Autowired
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService,
+                                   ActiveUserCache activeUserCache) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.userDetailsService = userDetailsService;
+        this.activeUserCache = activeUserCache;
     }
 
     /*
@@ -46,21 +51,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            //トークンが空でなく、かつ期限切れや改ざんがなく正しいか
-            if (StringUtils.hasText(jwt) && jwtTokenProvider.validateToken(jwt)) {
-                //トークン内にあるユーザー名を取り出す
-                String username = jwtTokenProvider.getUsernameFromToken(jwt);
+            //トークンが空でなく、かつ期限切れや改ざんがなく正しいか（パースと署名検証は1回だけ行う）
+            Claims claims = StringUtils.hasText(jwt) ? jwtTokenProvider.parseClaims(jwt) : null;
+            if (claims != null) {
+                //トークンのクレームからユーザー情報を組み立てる（DBにはアクセスしない）
+                UserDetails userDetails = jwtTokenProvider.getPrincipalFromClaims(claims);
+                if (userDetails == null) {
+                    //ユーザーIDを含まない旧形式のトークンは、ユーザー名をもとにDBから詳細情報をロード
+                    userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+                }
 
-                //上記でとってきたユーザー名をもとにDBなどから詳細情報をロード
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                //ユーザー詳細をもとに認証済みである証明のオブジェクトを作成
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities()
-                );
-                //リモートIPアドレスやセッションIDなどの認証の詳細情報をセット
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                //認証オブジェクトをSpring Securityに登録
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                //退会・削除済みユーザーのトークンでないか確認
+                if (!(userDetails instanceof UserPrincipal principal) || isAllowed(principal.getId(), request)) {
+                    //ユーザー詳細をもとに認証済みである証明のオブジェクトを作成
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities()
+                    );
+                    //リモートIPアドレスやセッションIDなどの認証の詳細情報をセット
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    //認証オブジェクトをSpring Securityに登録
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         } catch (Exception ex) {
             logger.error("認証情報をセキュリティコンテキストに設定できませんでした", ex);
@@ -70,6 +81,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /*
+    トークンのユーザーにリクエストを許可するか
+    退会を受け付けたユーザーは、退会の状況確認と失敗した退会の再実行のみ許可する
+     */
+    private boolean isAllowed(Long userId, HttpServletRequest request) {
+        return switch (activeUserCache.getState(userId)) {
+            case ACTIVE -> true;
+            case PURGING -> isDeletionRequest(request);
+            case DELETED -> false;
+        };
+    }
+
+    //退会API（DELETE /api/users/me、GET /api/users/me/deletion）へのリクエストか
+    private boolean isDeletionRequest(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return ("DELETE".equals(request.getMethod()) && "/api/users/me".equals(path))
+                || ("GET".equals(request.getMethod()) && "/api/users/me/deletion".equals(path));
+    }
+
     /*
     リクエストのヘッダーからJWTトークンを抽出するメソッド
      */
@@ -2,16 +2,23 @@ package com.eventshare.app.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /*
 JWTトークンの生成と検証を行うクラス
@@ -24,6 +31,10 @@ public class JwtTokenProvider {
     //エラーやデバッグ情報をログに記録するためのオブジェクト
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
 
+    //ユーザーIDと権限を格納するクレーム名
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_ROLES = "roles";
+
     //トークンの署名に使用する秘密鍵(application.propertiesから)
     @Value("${app.jwt.secret:defaultSecretKey}")
     private String jwtSecret;
@@ -32,11 +43,19 @@ public class JwtTokenProvider {
     @Value("${app.jwt.expiration:86400000}")
     private int jwtExpirationInMs;
 
+    //署名用の秘密鍵と検証用のパーサー（起動時に1回だけ生成し、以降は使い回す。JwtParserはスレッドセーフ）
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
     /*
-    秘密鍵をSecretKeyオブジェクトに変換するメソッド
+    秘密鍵をSecretKeyオブジェクトに変換し、パーサーを生成するメソッド
      */
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey) //パーサーに署名検証用の鍵を設定
+                .build();
     }
 
     /*
@@ -50,11 +69,20 @@ public class JwtTokenProvider {
         Date expireDate = new Date(now.getTime() + jwtExpirationInMs);
 
         //○Jwtトークンの構築
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder();
+        //ユーザーIDと権限をクレームに入れ、リクエストごとにDBからユーザーを読み込まなくてよいようにする
+        if (userDetails instanceof UserPrincipal userPrincipal) {
+            builder.claim(CLAIM_USER_ID, userPrincipal.getId());
+        }
+        builder.claim(CLAIM_ROLES, userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList()));
+
+        return builder
                 .setSubject(userDetails.getUsername()) //subject(ユーザー名)を設定
                 .setIssuedAt(now) //発行時刻を設定
                 .setExpiration(expireDate) //有効期限を設定
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512) //指定したアルゴリズム（HS512）と秘密鍵でトークンに署名
+                .signWith(signingKey, SignatureAlgorithm.HS512) //指定したアルゴリズム（HS512）と秘密鍵でトークンに署名
                 .compact(); //最終的なJWT文字列を生成して返却
     }
 
@@ -63,28 +91,46 @@ public class JwtTokenProvider {
      */
     public String getUsernameFromToken(String token) {
         //トークンを解析してクレームを取得:キーと値のペアで構成される（JSON形式）
-        Claims claims = Jwts.parserBuilder() //JWTパーサーオブジェクト(解析)を作成
-                .setSigningKey(getSigningKey()) //パーサーに署名検証用の鍵を設定
-                .build()
+        Claims claims = jwtParser
                 .parseClaimsJws(token) //JWTトークン文字列を解析し、検証する
                 .getBody(); //解析結果からペイロード部分（Claims）を取得
 
         return claims.getSubject(); //トークン作成時に設定したsubject（ユーザー名）を取得して返却
     }
 
+    /*
+    検証済みのクレームから認証ユーザーを組み立てる（DBは参照しない）
+    (ユーザーIDを含まない旧形式のトークンの場合はnullを返却)
+     */
+    public UserPrincipal getPrincipalFromClaims(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        if (userId == null) {
+            return null;
+        }
+        List<?> roles = claims.get(CLAIM_ROLES, List.class);
+        Collection<GrantedAuthority> authorities = roles == null ? Collections.emptyList() : roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(String.valueOf(role)))
+                .collect(Collectors.toList());
+        return new UserPrincipal(userId.longValue(), claims.getSubject(), null, authorities);
+    }
+
     /*
     JWTトークンのバリデーションチェック
     (トークンをパースして署名を検証し、正常だったらtrueを返却)
      */
     public boolean validateToken(String token) {
+        return parseClaims(token) != null;
+    }
+
+    /*
+    JWTトークンを1回だけパースして署名と有効期限を検証し、クレームを返却する
+    (不正なトークンの場合はnullを返却)
+     */
+    public Claims parseClaims(String token) {
         try {
             //トークンの署名と中身をパースして検証する（例外が出なければOK）
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (SecurityException ex) { //署名が不正（改ざんされたトークン）
+            return jwtParser.parseClaimsJws(token).getBody();
+        } catch (io.jsonwebtoken.security.SecurityException ex) { //署名が不正（改ざんされたトークン）
             logger.error("無効なJWT署名");
         } catch (MalformedJwtException ex) { //トークンの形式が不正
             logger.error("不正なJWTトークン");
@@ -95,6 +141,6 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) { //空や無効な引数
             logger.error("空または無効なJWTクレーム");
         }
-        return false;
+        return null;
     }
-}
\ No newline at end of file
+}
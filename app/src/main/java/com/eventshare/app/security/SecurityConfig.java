@@ -32,14 +32,18 @@ public class SecurityConfig {
     private final JwtTokenProvider jwtTokenProvider;
     //ユーザー詳細サービス
     private final CustomUserDetailsService customUserDetailsService;
+    //削除済みユーザーの確認用キャッシュ
+    private final ActiveUserCache activeUserCache;
 
     @Autowired
     public SecurityConfig(JwtAuthenticationEntryPoint unauthorizedHandler,
                           JwtTokenProvider jwtTokenProvider,
-                          CustomUserDetailsService customUserDetailsService) {
+                          CustomUserDetailsService customUserDetailsService,
+                          ActiveUserCache activeUserCache) {
         this.unauthorizedHandler = unauthorizedHandler;
         this.jwtTokenProvider = jwtTokenProvider;
         this.customUserDetailsService = customUserDetailsService;
+        this.activeUserCache = activeUserCache;
     }
 
     /*
@@ -48,7 +52,7 @@ public class SecurityConfig {
     //jwtトークンを検証するフィルター
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(jwtTokenProvider, customUserDetailsService);
+        return new JwtAuthenticationFilter(jwtTokenProvider, customUserDetailsService, activeUserCache);
     }
 
     //パスワードエンコーダー
@@ -91,6 +95,9 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.POST, "/api/photos/upload/*").authenticated() //写真アップロードは認証必要
                         .requestMatchers(HttpMethod.DELETE, "/api/photos/*").authenticated()      //写真削除は認証必要
 
+                        //管理者のみ（他のユーザーを参加者として登録できるため）
+                        .requestMatchers(HttpMethod.POST, "/api/events/import").hasRole("ADMIN") //イベント一括登録
+
                         //認証が必要なエンドポイント
                         .requestMatchers("/api/users/**").authenticated() //ユーザー情報関連
                         .requestMatchers("/api/events/*/participate").authenticated() //イベント参加
@@ -0,0 +1,55 @@
+package com.eventshare.app.security;
+
+import com.eventshare.app.entity.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/*
+認証済みユーザーを表すクラス（SecurityContextに登録するprincipal）
+ユーザーIDを保持するため、JWTのクレームだけから組み立ててもDBを参照せずにユーザーを特定できる
+ */
+public class UserPrincipal implements UserDetails {
+    private final Long id;
+    private final String username;
+    private final String password; //JWTから組み立てた場合はnull
+    private final Collection<? extends GrantedAuthority> authorities;
+
+    public UserPrincipal(Long id, String username, String password, Collection<? extends GrantedAuthority> authorities) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.authorities = authorities;
+    }
+
+    //ログイン時：DBから取得したユーザーから生成
+    public static UserPrincipal create(User user) {
+        return create(user, Collections.emptyList());
+    }
+
+    //ログイン時：権限を付与して生成（管理者など）
+    public static UserPrincipal create(User user, Collection<? extends GrantedAuthority> authorities) {
+        return new UserPrincipal(user.getId(), user.getUsername(), user.getPassword(), authorities);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+}
@@ -1,5 +1,6 @@
 package com.eventshare.app.service;
 
+import com.eventshare.app.dto.response.CategoryCacheStats;
 import com.eventshare.app.entity.EventCategory;
 
 import java.util.List;
@@ -25,4 +26,7 @@ public interface EventCategoryService {
 
     //指定された名前のカテゴリが存在するか確認
     boolean existsByName(String name);
+
+    //カテゴリキャッシュの統計情報を取得
+    CategoryCacheStats getCacheStats();
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.eventshare.app.service;
+
+import com.eventshare.app.dto.request.EventImportRequest;
+import com.eventshare.app.dto.response.ImportResult;
+import com.eventshare.app.entity.User;
+
+import java.util.List;
+
+public interface EventImportService {
+    //イベントと参加登録をまとめて登録（1件でも失敗した場合は何も登録しない）
+    ImportResult importEvents(List<EventImportRequest.Item> items, User creator);
+}
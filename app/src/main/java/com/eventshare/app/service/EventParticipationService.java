@@ -1,10 +1,16 @@
 package com.eventshare.app.service;
 
+import com.eventshare.app.dto.request.EventCursor;
+import com.eventshare.app.dto.request.ParticipationCursor;
+import com.eventshare.app.dto.response.CursorPage;
+import com.eventshare.app.dto.response.EventParticipationResponse;
 import com.eventshare.app.entity.Event;
 import com.eventshare.app.entity.EventParticipation;
 import com.eventshare.app.entity.User;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface EventParticipationService {
     //イベントの参加情報を取得
@@ -13,6 +19,14 @@ public interface EventParticipationService {
     //ユーザーの参加イベント一覧を取得
     List<EventParticipation> getParticipationByUser(User user);
 
+    //イベントの参加者一覧をページ単位で取得（登録順。statusがnullの場合はすべてのステータス、cursorがnullの場合は先頭ページ）
+    CursorPage<EventParticipationResponse> getParticipantsPage(Long eventId, EventParticipation.ParticipationStatus status,
+                                                               ParticipationCursor cursor, int limit);
+
+    //ユーザーの参加イベント一覧をページ単位で取得（開催日時順。statusがnullの場合はすべてのステータス）
+    CursorPage<EventParticipationResponse> getUserParticipationsPage(Long userId, EventParticipation.ParticipationStatus status,
+                                                                     EventCursor cursor, int limit);
+
     //特定のイベントと特定のユーザーの参加情報を取得
     List<EventParticipation> getParticipationByEventAndUser(Event event, User user);
 
@@ -22,6 +36,9 @@ public interface EventParticipationService {
     //参加キャンセル
     void cancelParticipation(Long participationId);
 
+    //ユーザーの参加情報を最大batchSize件削除（退会時のデータ削除用。参加確定の座席は解放する。削除した件数を返す）
+    int deleteParticipationsByUser(Long userId, int batchSize);
+
     //参加ステータス変更
     EventParticipation updateParticipationStatus(Long participationId, EventParticipation.ParticipationStatus status);
 
@@ -30,4 +47,10 @@ public interface EventParticipationService {
 
     //特定イベントの参加人数を取得
     int getParticipantCountForEvent(Event event);
+
+    //空いている座席の数だけキャンセル待ちを先着順に参加確定へ繰り上げ（繰り上げた件数を返す）
+    int promoteWaitingParticipants(Long eventId);
+
+    //イベントIDを指定して参加人数をまとめて取得（一覧表示用DTOから集計する場合）
+    Map<Long, Integer> getParticipantCountsByEventIds(Collection<Long> eventIds);
 }
\ No newline at end of file
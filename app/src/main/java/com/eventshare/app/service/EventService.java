@@ -1,5 +1,9 @@
 package com.eventshare.app.service;
 
+import com.eventshare.app.dto.request.EventCursor;
+import com.eventshare.app.dto.request.SearchCursor;
+import com.eventshare.app.dto.response.CursorPage;
+import com.eventshare.app.dto.response.EventResponse;
 import com.eventshare.app.entity.Event;
 import com.eventshare.app.entity.EventCategory;
 import com.eventshare.app.entity.User;
@@ -32,9 +36,23 @@ public interface EventService {
     //日付によるイベント検索
     List<Event> getEventsByDateAfter(LocalDateTime date);
 
-    //キーワードによるイベント検索
+    //キーワードによるイベント検索（関連度順）
     List<Event> getEventsByKeyword(String keyword);
 
     //カテゴリと日付による検索
     List<Event> getEventsByCategoryAndDateAfter(EventCategory category, LocalDateTime date);
+
+    //イベント一覧をページ単位で取得（cursorがnullの場合は先頭ページ）
+    //一覧表示用の読み取り専用DTOを返す（参加者数は未設定）
+    CursorPage<EventResponse> getEventsPage(EventCursor cursor, int limit);
+
+    //カテゴリによるイベント検索（ページ単位）
+    CursorPage<EventResponse> getEventsPageByCategory(EventCategory category, EventCursor cursor, int limit);
+
+    //キーワードによるイベント検索（関連度順・ページ単位）
+    //タイトル・説明・開催場所・カテゴリ名を対象に検索インデックスで検索する
+    CursorPage<EventResponse> searchEvents(String keyword, SearchCursor cursor, int limit);
+
+    //日付によるイベント検索（ページ単位）
+    CursorPage<EventResponse> getEventsPageByDateAfter(LocalDateTime date, EventCursor cursor, int limit);
 }
\ No newline at end of file
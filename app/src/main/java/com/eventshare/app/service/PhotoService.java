@@ -1,12 +1,18 @@
 package com.eventshare.app.service;
 
+import com.eventshare.app.dto.response.PhotoCleanupProgress;
+import com.eventshare.app.dto.response.PhotoFileInfo;
+import com.eventshare.app.dto.response.PhotoUploadResult;
 import com.eventshare.app.entity.Event;
 import com.eventshare.app.entity.Photo;
 import com.eventshare.app.entity.User;
 import org.hibernate.boot.archive.scan.internal.ScanResultImpl;
+import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Optional;
 
 public interface PhotoService {
 
@@ -14,14 +20,41 @@ public interface PhotoService {
     //写真をアップロードして保存
     Photo uploadPhoto(MultipartFile file, String caption, Event event, User user);
 
+    //複数の写真をまとめてアップロード（ファイルごとの成否を返す。キャプションはファイルと同じ順番）
+    List<PhotoUploadResult> uploadPhotos(List<MultipartFile> files, List<String> captions, Event event, User user);
+
     //指定されたイベントの写真一覧を取得（新しい順)
     List<Photo> getPhotosByEvent(Event event);
 
     //写真を削除
     void deletePhoto(Long photoId, User user);
 
-    //写真ファイルのバイナリデータを取得
-    byte[] getPhotoFile(String filename);
+    //イベントの写真をまとめて削除（イベント削除用。ファイルはコミット後にバックグラウンドで削除する）
+    int deletePhotosByEvent(Long eventId);
+
+    //削除したイベントの写真ファイルを後片付け（写真の行の削除のコミット後に呼び出す）
+    PhotoCleanupProgress cleanUpDeletedPhotoFiles(Long eventId, List<PhotoFileInfo> files);
+
+    //削除したイベントの写真ファイルの後片付けの進捗（記録がなければ空）
+    Optional<PhotoCleanupProgress> getPhotoCleanupProgress(Long eventId);
+
+    //ユーザーが投稿した写真を最大batchSize件削除（退会時のデータ削除用。削除した写真の配信用メタ情報を返す）
+    List<PhotoFileInfo> deletePhotosByUploader(Long userId, int batchSize);
+
+    //削除した写真のファイルを削除（写真の行の削除のコミット後に呼び出す。失敗した件数を返す）
+    int deletePhotoFiles(List<PhotoFileInfo> files);
+
+    //写真ファイルをリソースとして取得（メモリに読み込まずディスクからストリーミングで返すため）
+    Resource getPhotoFile(String filename);
+
+    //指定サイズの写真ファイル（縮小版）をリソースとして取得
+    Resource getPhotoFile(String filename, Photo.Size size);
+
+    //指定サイズの写真ファイルを保存先から直接取得できる期限付きURL（対応していない保存先は空）
+    Optional<URI> getPhotoFileUrl(String filename, Photo.Size size);
+
+    //写真ファイルの配信用メタ情報（MIMEタイプ・サイズ等）を取得
+    PhotoFileInfo getPhotoFileInfo(String filename);
 
     //写真をIDで取得
     Photo getPhotoById(Long photoId);
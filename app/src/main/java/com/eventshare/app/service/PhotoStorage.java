@@ -0,0 +1,41 @@
+package com.eventshare.app.service;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/*
+写真ファイルの保存先
+キー（例: 3f/a2/3fa2...）でファイルを保存・取得する
+ローカルディスク（FileSystemPhotoStorage）とS3互換ストレージ（S3PhotoStorage）の実装があり、file.storage.typeで切り替える
+ */
+public interface PhotoStorage {
+
+    //ローカルの一時ファイルを指定したキーで保存（一時ファイルは保存後に削除される。同じキーがあれば置き換える）
+    void put(String key, Path source, String contentType) throws IOException;
+
+    //ファイルの内容を読み込むストリームを取得
+    InputStream get(String key) throws IOException;
+
+    //配信用のリソースを取得（内容はレスポンス書き込み時に読み込む。存在しない場合はエラー）
+    Resource load(String key);
+
+    //ファイルのサイズと更新日時を取得（存在しない場合は空）
+    Optional<ObjectInfo> stat(String key) throws IOException;
+
+    //ファイルを削除（存在しない場合は何もしない）
+    void delete(String key) throws IOException;
+
+    //アプリケーションを経由せずにファイルを直接取得できる期限付きURL（対応していない保存先は空）
+    Optional<URI> presignedUrl(String key, Duration expiry);
+
+    //保存済みファイルの情報
+    record ObjectInfo(long size, Instant lastModified) {
+    }
+}
@@ -1,8 +1,10 @@
 package com.eventshare.app.service;
 
+import com.eventshare.app.entity.AccountPurge;
 import com.eventshare.app.entity.User;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface UserService {
     //全ユーザーを取得
@@ -20,8 +22,11 @@ public interface UserService {
     //ユーザー更新
     User updateUser(Long id, User user);
 
-    //ユーザー削除
-    void deleteUser(Long id);
+    //ユーザー削除（退会を受け付け、データはバックグラウンドでまとめて削除する。削除ジョブの状態を返す）
+    AccountPurge deleteUser(Long id);
+
+    //ユーザー削除の状況を取得（退会していなければ空）
+    Optional<AccountPurge> getDeletionStatus(Long id);
 
     //指定された名前のユーザーが存在するかチェック
     boolean existsByUsername(String username);
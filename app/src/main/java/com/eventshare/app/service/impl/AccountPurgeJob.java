@@ -0,0 +1,174 @@
+package com.eventshare.app.service.impl;
+
+import com.eventshare.app.dto.response.PhotoFileInfo;
+import com.eventshare.app.entity.AccountPurge;
+import com.eventshare.app.repository.AccountPurgeRepository;
+import com.eventshare.app.repository.EventRepository;
+import com.eventshare.app.repository.UserRepository;
+import com.eventshare.app.security.ActiveUserCache;
+import com.eventshare.app.service.EventParticipationService;
+import com.eventshare.app.service.EventService;
+import com.eventshare.app.service.PhotoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/*
+退会したユーザーのデータを削除するジョブ
+1つのトランザクションでまとめて削除せず、次の順に batchSize 件ずつ別々のトランザクションで削除する
+1.参加情報（参加確定の場合は座席を解放し、キャンセル待ちを繰り上げる）
+2.投稿した写真（各バッチのコミット後にファイルを削除）
+3.作成したイベント（1イベントずつ、参加情報・写真ごと削除。ファイルはイベント削除の後片付けで削除される）
+4.ユーザー
+各段階は「残っている行を削除する」処理のため、中断した場合も最初の段階からやり直せば続きから削除できる
+削除中にユーザーのデータが追加されてユーザーを削除できなかった場合は、最初の段階からやり直す
+バッチの間はpause待機し、他のリクエストの処理を妨げないようにする
+ */
+@Component
+public class AccountPurgeJob {
+    //ユーザーの削除をやり直す最大回数
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final AccountPurgeRepository accountPurgeRepository;
+    private final EventParticipationService eventParticipationService;
+    private final PhotoService photoService;
+    private final EventService eventService;
+    private final EventRepository eventRepository;
+    private final UserRepository userRepository;
+    private final ActiveUserCache activeUserCache;
+    private final int batchSize;
+    private final Duration pause;
+    private final Duration staleAfter;
+
+    @Autowired
+    public AccountPurgeJob(AccountPurgeRepository accountPurgeRepository,
+                           EventParticipationService eventParticipationService,
+                           PhotoService photoService,
+                           EventService eventService,
+                           EventRepository eventRepository,
+                           UserRepository userRepository,
+                           ActiveUserCache activeUserCache,
+                           @Value("${account.purge.batch-size:100}") int batchSize,
+                           @Value("${account.purge.pause:100ms}") Duration pause,
+                           @Value("${account.purge.stale-after:10m}") Duration staleAfter) {
+        this.accountPurgeRepository = accountPurgeRepository;
+        this.eventParticipationService = eventParticipationService;
+        this.photoService = photoService;
+        this.eventService = eventService;
+        this.eventRepository = eventRepository;
+        this.userRepository = userRepository;
+        this.activeUserCache = activeUserCache;
+        this.batchSize = batchSize;
+        this.pause = pause;
+        this.staleAfter = staleAfter;
+    }
+
+    /*
+    ユーザーのデータを削除
+    他で実行中のジョブ（staleAfterの間に進捗の更新があるもの）は実行しない
+    実行した場合はtrueを返す
+     */
+    public boolean run(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (accountPurgeRepository.claim(userId, now, now.minus(staleAfter)) == 0) {
+            return false;
+        }
+        System.out.println("ユーザーのデータ削除を開始します: ユーザーID " + userId);
+        try {
+            for (int attempt = 1; ; attempt++) {
+                purgeParticipations(userId);
+                purgePhotos(userId);
+                purgeEvents(userId);
+                try {
+                    record(userId, AccountPurge.Phase.USER, 0, 0, 0, 0);
+                    userRepository.deleteUserById(userId);
+                    break;
+                } catch (DataIntegrityViolationException e) {
+                    //削除中に参加・投稿・作成されたデータが残っている
+                    if (attempt >= MAX_ATTEMPTS) {
+                        throw new RuntimeException("ユーザーのデータが追加され続けているため削除できません");
+                    }
+                }
+            }
+            activeUserCache.evict(userId);
+            accountPurgeRepository.complete(userId, LocalDateTime.now());
+            System.out.println("ユーザーのデータ削除が完了しました: ユーザーID " + userId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            //実行中のまま残し、staleAfter経過後にAccountPurgeSweeperが再開する
+            System.out.println("ユーザーのデータ削除を中断しました: ユーザーID " + userId);
+        } catch (RuntimeException e) {
+            accountPurgeRepository.fail(userId, truncate(e.getMessage()), LocalDateTime.now());
+            System.out.println("ユーザーのデータ削除に失敗しました: ユーザーID " + userId + " " + e.getMessage());
+        }
+        return true;
+    }
+
+    //再開が必要なジョブ（待機中、またはstaleAfterの間進捗の更新がない実行中のジョブ）のユーザーID
+    public List<Long> findResumable() {
+        return accountPurgeRepository.findResumableUserIds(LocalDateTime.now().minus(staleAfter));
+    }
+
+    //1.参加情報
+    private void purgeParticipations(Long userId) throws InterruptedException {
+        while (true) {
+            int deleted = eventParticipationService.deleteParticipationsByUser(userId, batchSize);
+            if (deleted == 0) {
+                return;
+            }
+            record(userId, AccountPurge.Phase.PARTICIPATIONS, deleted, 0, 0, 0);
+            pause();
+        }
+    }
+
+    //2.投稿した写真（行の削除をコミットしてからファイルを削除）
+    private void purgePhotos(Long userId) throws InterruptedException {
+        while (true) {
+            List<PhotoFileInfo> deleted = photoService.deletePhotosByUploader(userId, batchSize);
+            if (deleted.isEmpty()) {
+                return;
+            }
+            int failedFiles = photoService.deletePhotoFiles(deleted);
+            record(userId, AccountPurge.Phase.PHOTOS, 0, deleted.size(), 0, failedFiles);
+            pause();
+        }
+    }
+
+    //3.作成したイベント
+    private void purgeEvents(Long userId) throws InterruptedException {
+        while (true) {
+            List<Long> eventIds = eventRepository.findIdsByCreatorId(userId, PageRequest.of(0, batchSize));
+            if (eventIds.isEmpty()) {
+                return;
+            }
+            for (Long eventId : eventIds) {
+                eventService.deleteEvent(eventId);
+            }
+            record(userId, AccountPurge.Phase.EVENTS, 0, 0, eventIds.size(), 0);
+            pause();
+        }
+    }
+
+    private void record(Long userId, AccountPurge.Phase phase, long participations, long photos, long events, long failedFiles) {
+        accountPurgeRepository.recordProgress(userId, phase, participations, photos, events, failedFiles, LocalDateTime.now());
+    }
+
+    private void pause() throws InterruptedException {
+        if (!pause.isZero()) {
+            Thread.sleep(pause.toMillis());
+        }
+    }
+
+    private String truncate(String message) {
+        if (message == null || message.length() <= 1000) {
+            return message;
+        }
+        return message.substring(0, 1000);
+    }
+}
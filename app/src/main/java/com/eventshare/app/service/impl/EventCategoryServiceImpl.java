@@ -1,79 +1,196 @@
 package com.eventshare.app.service.impl;
 
+import com.eventshare.app.dto.response.CategoryCacheStats;
 import com.eventshare.app.entity.EventCategory;
 import com.eventshare.app.repository.EventCategoryRepository;
+import com.eventshare.app.repository.EventRepository;
 import com.eventshare.app.service.EventCategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
+/*
+カテゴリは件数が少なく変更もまれなため、全件のスナップショットをメモリに保持して読み取りはDBにアクセスしない
+スナップショットは変更不可で、作成・更新・削除のたびにDBから読み込み直して丸ごと差し替える（読み取り側はロック不要）
+起動時はDataLoaderのgetAllCategories()で読み込まれる
+変更と読み込み直しはlockで1つずつ行う（DBアクセスを含むため、仮想スレッドをキャリアスレッドに固定するsynchronizedは使わない）
+ */
 @Service
 public class EventCategoryServiceImpl implements EventCategoryService {
     //リポジトリの依存性の注入
     private final EventCategoryRepository eventCategoryRepository;
+    private final EventRepository eventRepository;
+    private final EventSearchIndex eventSearchIndex;
+
+    //カテゴリ全件のスナップショット（未読み込みの場合はnull）
+    private final AtomicReference<CategorySnapshot> snapshot = new AtomicReference<>();
+
+    //変更・読み込み直しの排他制御
+    private final ReentrantLock lock = new ReentrantLock();
+
+    //キャッシュの統計情報
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
 
     //コンストラクタインジェクション
     @Autowired
-    public EventCategoryServiceImpl(EventCategoryRepository eventCategoryRepository) {
+    public EventCategoryServiceImpl(EventCategoryRepository eventCategoryRepository, EventRepository eventRepository,
+                                    EventSearchIndex eventSearchIndex) {
         this.eventCategoryRepository = eventCategoryRepository;
+        this.eventRepository = eventRepository;
+        this.eventSearchIndex = eventSearchIndex;
     }
 
     //以下メソッド実装
     @Override
     public List<EventCategory> getAllCategories() {
-        return eventCategoryRepository.findAll();
+        hits.incrementAndGet();
+        return currentSnapshot().all();
     }
 
     @Override
     public EventCategory getCategoryById(Long id) {
-        return eventCategoryRepository.findById(id)
+        EventCategory category = currentSnapshot().byId().get(id);
+        if (category != null) {
+            hits.incrementAndGet();
+            return category;
+        }
+        //キャッシュにない場合は他のサーバーで作成された可能性があるためDBを確認
+        misses.incrementAndGet();
+        EventCategory found = eventCategoryRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("カテゴリが見つかりません。ID: " + id));
+        reload();
+        return found;
     }
 
     @Override
     public EventCategory getCategoryByName(String name) {
-        return eventCategoryRepository.findByName(name)
+        EventCategory category = currentSnapshot().byName().get(name);
+        if (category != null) {
+            hits.incrementAndGet();
+            return category;
+        }
+        misses.incrementAndGet();
+        EventCategory found = eventCategoryRepository.findByName(name)
                 .orElseThrow(() -> new RuntimeException("カテゴリが見つかりません。名前: " + name));
+        reload();
+        return found;
     }
 
     @Override
     public EventCategory createCategory(EventCategory category) {
-        if (eventCategoryRepository.existsByName(category.getName())) {
-            throw new RuntimeException("そのカテゴリ名はすでに存在します：　" + category.getName());
+        lock.lock();
+        try {
+            if (eventCategoryRepository.existsByName(category.getName())) {
+                throw new RuntimeException("そのカテゴリ名はすでに存在します：　" + category.getName());
+            }
+            EventCategory saved = eventCategoryRepository.save(category);
+            reload();
+            return saved;
+        } finally {
+            lock.unlock();
         }
-        return eventCategoryRepository.save(category);
     }
 
     @Override
     public EventCategory updateCategory(Long id, EventCategory category) {
-        //更新対象を取得
-        EventCategory existingCategory = getCategoryById(id);
+        lock.lock();
+        try {
+            //更新対象を取得（キャッシュ上のオブジェクトは共有されているため変更せず、DBから取得する）
+            EventCategory existingCategory = eventCategoryRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("カテゴリが見つかりません。ID: " + id));
 
-        //「変更がある」かつ「すでに存在している」場合は例外をスロー
-        if (!existingCategory.getName().equals(category.getName()) &&
-                eventCategoryRepository.existsByName(category.getName())) {
-            throw new RuntimeException("そのカテゴリ名はすでに存在します：　" + category.getName());
+            //「変更がある」かつ「すでに存在している」場合は例外をスロー
+            if (!existingCategory.getName().equals(category.getName()) &&
+                    eventCategoryRepository.existsByName(category.getName())) {
+                throw new RuntimeException("そのカテゴリ名はすでに存在します：　" + category.getName());
+            }
+            //更新情報をセット
+            boolean renamed = !existingCategory.getName().equals(category.getName());
+            existingCategory.setName(category.getName());
+            existingCategory.setDescription(category.getDescription());
+            EventCategory saved = eventCategoryRepository.save(existingCategory);
+            reload();
+            //カテゴリ名は検索対象のため、名前が変わった場合はカテゴリ内のイベントを検索インデックスに登録し直す
+            if (renamed) {
+                eventSearchIndex.reindexCategory(id);
+            }
+            return saved;
+        } finally {
+            lock.unlock();
         }
-        //更新情報をセット
-        existingCategory.setName(category.getName());
-        existingCategory.setDescription(category.getDescription());
-        return eventCategoryRepository.save(existingCategory);
     }
 
     @Override
     public void deleteCategory(Long id) {
-        //更新対象を取得
-        EventCategory category = getCategoryById(id);
+        lock.lock();
+        try {
+            //更新対象を取得
+            EventCategory category = eventCategoryRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("カテゴリが見つかりません。ID: " + id));
 
-        if (!category.getEvents().isEmpty()) {
-            throw new RuntimeException("このカテゴリには関連するイベントがあるため削除できません");
+            if (eventRepository.existsByCategory(category)) {
+                throw new RuntimeException("このカテゴリには関連するイベントがあるため削除できません");
+            }
+            eventCategoryRepository.delete(category);
+            reload();
+        } finally {
+            lock.unlock();
         }
-        eventCategoryRepository.delete(category);
     }
 
     @Override
     public boolean existsByName(String name) {
+        if (currentSnapshot().byName().containsKey(name)) {
+            hits.incrementAndGet();
+            return true;
+        }
+        misses.incrementAndGet();
         return eventCategoryRepository.existsByName(name);
     }
-}
\ No newline at end of file
+
+    @Override
+    public CategoryCacheStats getCacheStats() {
+        CategorySnapshot current = snapshot.get();
+        return new CategoryCacheStats(hits.get(), misses.get(), reloads.get(), current == null ? 0 : current.all().size());
+    }
+
+    //現在のスナップショットを取得（初回のみDBから読み込む）
+    private CategorySnapshot currentSnapshot() {
+        CategorySnapshot current = snapshot.get();
+        return current != null ? current : reload();
+    }
+
+    //DBから全件を読み込み、スナップショットを差し替える
+    private CategorySnapshot reload() {
+        lock.lock();
+        try {
+            List<EventCategory> categories = eventCategoryRepository.findAll();
+            Map<Long, EventCategory> byId = new HashMap<>();
+            Map<String, EventCategory> byName = new HashMap<>();
+            for (EventCategory category : categories) {
+                byId.put(category.getId(), category);
+                byName.put(category.getName(), category);
+            }
+            CategorySnapshot loaded = new CategorySnapshot(List.copyOf(categories), Map.copyOf(byId), Map.copyOf(byName));
+            snapshot.set(loaded);
+            reloads.incrementAndGet();
+            return loaded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //カテゴリ全件のスナップショット（変更不可）
+    private record CategorySnapshot(List<EventCategory> all,
+                                    Map<Long, EventCategory> byId,
+                                    Map<String, EventCategory> byName) {
+    }
+}
@@ -0,0 +1,159 @@
+package com.eventshare.app.service.impl;
+
+import com.eventshare.app.dto.request.EventImportRequest;
+import com.eventshare.app.dto.response.EventSearchDocument;
+import com.eventshare.app.dto.response.ImportResult;
+import com.eventshare.app.entity.Event;
+import com.eventshare.app.entity.EventParticipation;
+import com.eventshare.app.entity.User;
+import com.eventshare.app.listener.EventContentChangedEvent;
+import com.eventshare.app.repository.AccountPurgeRepository;
+import com.eventshare.app.repository.EventParticipationRepository;
+import com.eventshare.app.repository.EventRepository;
+import com.eventshare.app.repository.UserRepository;
+import com.eventshare.app.service.EventCategoryService;
+import com.eventshare.app.service.EventImportService;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+イベント一括登録サービス
+IDはシーケンスからまとめて採番されるため、INSERTはhibernate.jdbc.batch_sizeの件数ずつJDBCバッチで送られる
+CHUNK_SIZE件ごとにflushして永続化コンテキストを空にし、大量登録でもメモリ使用量と変更検知のコストを一定に保つ
+ */
+@Service
+public class EventImportServiceImpl implements EventImportService {
+    //1回のflushで書き込むイベント数
+    static final int CHUNK_SIZE = 1000;
+
+    private final EventRepository eventRepository;
+    private final EventParticipationRepository eventParticipationRepository;
+    private final UserRepository userRepository;
+    private final AccountPurgeRepository accountPurgeRepository;
+    private final EventCategoryService eventCategoryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+
+    @Autowired
+    public EventImportServiceImpl(EventRepository eventRepository,
+                                  EventParticipationRepository eventParticipationRepository,
+                                  UserRepository userRepository,
+                                  AccountPurgeRepository accountPurgeRepository,
+                                  EventCategoryService eventCategoryService,
+                                  ApplicationEventPublisher eventPublisher,
+                                  EntityManager entityManager) {
+        this.eventRepository = eventRepository;
+        this.eventParticipationRepository = eventParticipationRepository;
+        this.userRepository = userRepository;
+        this.accountPurgeRepository = accountPurgeRepository;
+        this.eventCategoryService = eventCategoryService;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public ImportResult importEvents(List<EventImportRequest.Item> items, User creator) {
+        //書き込み前にすべての入力を確認（途中で失敗して大量のINSERTが無駄にならないように）
+        LocalDateTime now = LocalDateTime.now();
+        //退会を受け付けたユーザー（データ削除中）は参加者として登録しない（削除済みの参加情報を作り直さないように）
+        Set<Long> purgingUserIds = new HashSet<>(accountPurgeRepository.findUnfinishedUserIds());
+        for (int i = 0; i < items.size(); i++) {
+            validate(items.get(i), i + 1, now, purgingUserIds);
+        }
+
+        int eventCount = 0;
+        int participationCount = 0;
+        for (int from = 0; from < items.size(); from += CHUNK_SIZE) {
+            List<EventImportRequest.Item> chunk = items.subList(from, Math.min(from + CHUNK_SIZE, items.size()));
+            List<Event> events = new ArrayList<>(chunk.size());
+            List<EventParticipation> participations = new ArrayList<>();
+
+            for (EventImportRequest.Item item : chunk) {
+                Event event = toEvent(item, creator);
+                //先頭から定員までを確定、残りをキャンセル待ちとして登録し、確定済み参加者数も登録時に設定する
+                int confirmed = 0;
+                for (Long userId : new LinkedHashSet<>(item.getParticipantUserIds())) {
+                    EventParticipation participation = new EventParticipation();
+                    participation.setEvent(event);
+                    //参照だけを作成（ユーザーをSELECTしない。存在しないIDは外部キー制約で検出）
+                    participation.setUser(userRepository.getReferenceById(userId));
+                    if (event.getCapacity() == null || confirmed < event.getCapacity()) {
+                        participation.setStatus(EventParticipation.ParticipationStatus.CONFIRMED);
+                        confirmed++;
+                    } else {
+                        participation.setStatus(EventParticipation.ParticipationStatus.WAITING);
+                    }
+                    participations.add(participation);
+                }
+                event.setConfirmedCount(confirmed);
+                events.add(event);
+            }
+
+            eventRepository.saveAll(events);
+            eventParticipationRepository.saveAll(participations);
+            try {
+                eventParticipationRepository.flush();
+            } catch (DataIntegrityViolationException e) {
+                throw new RuntimeException("存在しないユーザーIDが参加者に含まれています");
+            }
+
+            //コミット後に検索インデックスへ登録
+            for (Event event : events) {
+                eventPublisher.publishEvent(new EventContentChangedEvent(event.getId(), EventSearchDocument.of(event)));
+            }
+            eventCount += events.size();
+            participationCount += participations.size();
+            entityManager.clear();
+        }
+
+        System.out.println("イベント一括登録: イベント" + eventCount + "件、参加登録" + participationCount + "件");
+        return new ImportResult(eventCount, participationCount);
+    }
+
+    //イベント作成時と同じ条件で入力を確認（何件目かをエラーメッセージに含める）
+    private void validate(EventImportRequest.Item item, int number, LocalDateTime now, Set<Long> purgingUserIds) {
+        if (item.getParticipantUserIds() == null) {
+            item.setParticipantUserIds(new ArrayList<>());
+        }
+        if (item.getEventDate().isBefore(now)) {
+            throw new RuntimeException(number + "件目: イベント開催日時は未来の日時を指定してください");
+        }
+        if (item.getCapacity() != null && item.getCapacity() < 0) {
+            throw new RuntimeException(number + "件目: 定員は0以上で指定してください");
+        }
+        if (item.getParticipantUserIds().contains(null)) {
+            throw new RuntimeException(number + "件目: 参加者のユーザーIDが指定されていません");
+        }
+        for (Long userId : item.getParticipantUserIds()) {
+            if (purgingUserIds.contains(userId)) {
+                throw new RuntimeException(number + "件目: 退会したユーザーは参加者に登録できません: " + userId);
+            }
+        }
+        //存在しないカテゴリはここでエラー（カテゴリはキャッシュから取得するためDBへの問い合わせは発生しない）
+        eventCategoryService.getCategoryById(item.getCategoryId());
+    }
+
+    private Event toEvent(EventImportRequest.Item item, User creator) {
+        Event event = new Event();
+        event.setTitle(item.getTitle());
+        event.setDescription(item.getDescription());
+        event.setEventDate(item.getEventDate());
+        event.setLocation(item.getLocation());
+        event.setCapacity(item.getCapacity());
+        event.setCategory(eventCategoryService.getCategoryById(item.getCategoryId()));
+        event.setCreator(creator);
+        return event;
+    }
+}
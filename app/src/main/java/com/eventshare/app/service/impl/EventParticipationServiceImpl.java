@@ -1,24 +1,51 @@
 package com.eventshare.app.service.impl;
 
+import com.eventshare.app.dto.request.EventCursor;
+import com.eventshare.app.dto.request.ParticipationCursor;
+import com.eventshare.app.dto.response.CursorPage;
+import com.eventshare.app.dto.response.EventParticipationResponse;
 import com.eventshare.app.entity.Event;
 import com.eventshare.app.entity.EventParticipation;
 import com.eventshare.app.entity.User;
+import com.eventshare.app.listener.SeatReleasedEvent;
 import com.eventshare.app.repository.EventParticipationRepository;
+import com.eventshare.app.repository.EventRepository;
 import com.eventshare.app.service.EventParticipationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class EventParticipationServiceImpl implements EventParticipationService {
     //リポジトリの依存性注入
     private final EventParticipationRepository eventParticipationRepository;
+    private final EventRepository eventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    //キャンセル待ちを一度に読み込む件数
+    private static final int PROMOTION_BATCH_SIZE = 50;
+    //参加者一覧・参加イベント一覧の1ページあたりの最大取得件数
+    private static final int MAX_PAGE_SIZE = 100;
 
     //コンストラクタインジェクション
     @Autowired
-    public EventParticipationServiceImpl(EventParticipationRepository eventParticipationRepository) {
+    public EventParticipationServiceImpl(EventParticipationRepository eventParticipationRepository,
+                                         EventRepository eventRepository,
+                                         ApplicationEventPublisher eventPublisher) {
         this.eventParticipationRepository = eventParticipationRepository;
+        this.eventRepository = eventRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     //以下メソッド実装
@@ -32,49 +59,141 @@ public class EventParticipationServiceImpl implements EventParticipationService
         return eventParticipationRepository.findByUser(user);
     }
 
+    /*
+    イベントの参加者一覧（ページ単位）
+    参加者数に関係なく、イベント・ユーザーを結合した1回のクエリで1ページ分のレスポンスを取得する
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<EventParticipationResponse> getParticipantsPage(Long eventId, EventParticipation.ParticipationStatus status,
+                                                                      ParticipationCursor cursor, int limit) {
+        int pageSize = normalizeLimit(limit);
+        List<EventParticipationResponse> rows;
+        if (status == null) {
+            rows = cursor == null
+                    ? eventParticipationRepository.findParticipantsFirstPage(eventId, lookAhead(pageSize))
+                    : eventParticipationRepository.findParticipantsAfterCursor(eventId,
+                            cursor.getCreatedAt(), cursor.getId(), lookAhead(pageSize));
+        } else {
+            rows = cursor == null
+                    ? eventParticipationRepository.findParticipantsByStatusFirstPage(eventId, status, lookAhead(pageSize))
+                    : eventParticipationRepository.findParticipantsByStatusAfterCursor(eventId, status,
+                            cursor.getCreatedAt(), cursor.getId(), lookAhead(pageSize));
+        }
+        return toCursorPage(rows, pageSize, last -> new ParticipationCursor(last.getParticipatedAt(), last.getId()).encode());
+    }
+
+    //ユーザーの参加イベント一覧（ページ単位）
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<EventParticipationResponse> getUserParticipationsPage(Long userId, EventParticipation.ParticipationStatus status,
+                                                                            EventCursor cursor, int limit) {
+        int pageSize = normalizeLimit(limit);
+        List<EventParticipationResponse> rows;
+        if (status == null) {
+            rows = cursor == null
+                    ? eventParticipationRepository.findUserParticipationsFirstPage(userId, lookAhead(pageSize))
+                    : eventParticipationRepository.findUserParticipationsAfterCursor(userId,
+                            cursor.getEventDate(), cursor.getId(), lookAhead(pageSize));
+        } else {
+            rows = cursor == null
+                    ? eventParticipationRepository.findUserParticipationsByStatusFirstPage(userId, status, lookAhead(pageSize))
+                    : eventParticipationRepository.findUserParticipationsByStatusAfterCursor(userId, status,
+                            cursor.getEventDate(), cursor.getId(), lookAhead(pageSize));
+        }
+        return toCursorPage(rows, pageSize, last -> new EventCursor(last.getEventDate(), last.getEventId()).encode());
+    }
+
     @Override
     public List<EventParticipation> getParticipationByEventAndUser(Event event, User user) {
         return eventParticipationRepository.findByEventAndUser(event, user);
     }
 
+    /*
+     参加登録
+     1.定員の空き確認と座席確保を条件付きUPDATE1文で行う（同時リクエストでも定員を超えない）
+     2.確保できた場合は参加確定、できなかった場合はキャンセル待ちとして登録
+     3.同一ユーザーの同時リクエストによる二重登録は(event_id, user_id)の一意制約で防ぐ
+     */
     @Override
+    @Transactional
     public EventParticipation participateEvent(Event event, User user) {
         if (eventParticipationRepository.existsByEventAndUser(event, user)) {
             throw new RuntimeException("このイベントにはすでに参加しています");
         }
-        //定員確認（定員が設定されている場合）
-        if (event.getCapacity() != null) {
-            //このイベントでの現在の参加者数を取得
-            int currentParticipants = getParticipantCountForEvent(event);
-            //定員オーバー（キャンセル待ち）：イベント情報とユーザー情報とステータスをセット
-            if (currentParticipants >= event.getCapacity()) {
-                EventParticipation participation = new EventParticipation();
-                participation.setEvent(event);
-                participation.setStatus(EventParticipation.ParticipationStatus.WAITING);
-                participation.setUser(user);
-                return eventParticipationRepository.save(participation);
-            }
-        }
-        //通常登録：イベント情報とユーザー情報とステータスをセット
+        //定員に空きがあれば座席を確保（定員未設定の場合は常に確保できる）
+        boolean seatReserved = eventRepository.reserveSeat(event.getId()) == 1;
+
+        //座席を確保できれば参加確定、満席ならキャンセル待ち：イベント情報とユーザー情報とステータスをセット
         EventParticipation participation = new EventParticipation();
         participation.setEvent(event);
-        participation.setStatus(EventParticipation.ParticipationStatus.CONFIRMED);
+        participation.setStatus(seatReserved
+                ? EventParticipation.ParticipationStatus.CONFIRMED
+                : EventParticipation.ParticipationStatus.WAITING);
         participation.setUser(user);
-        return eventParticipationRepository.save(participation);
+        try {
+            return eventParticipationRepository.saveAndFlush(participation);
+        } catch (DataIntegrityViolationException e) {
+            //一意制約違反（同時に登録された）の場合は例外でトランザクションごとロールバックし、確保した座席も戻す
+            throw new RuntimeException("このイベントにはすでに参加しています");
+        }
     }
 
     @Override
+    @Transactional
     public void cancelParticipation(Long participationId) {
         EventParticipation participation = eventParticipationRepository.findById(participationId)
                 .orElseThrow(() -> new RuntimeException("参加情報が見つかりません。ID：　" + participationId));
         //参加記録を削除
         eventParticipationRepository.delete(participation);
+        //参加確定だった場合は座席を解放し、コミット後にキャンセル待ちの繰り上げを起動
+        if (participation.getStatus() == EventParticipation.ParticipationStatus.CONFIRMED) {
+            releaseSeat(participation.getEvent().getId());
+        }
     }
 
+    /*
+     ユーザーの参加情報をまとめて削除（1バッチ分）
+     参加確定の参加情報は1件ずつ条件付きDELETEで削除し、削除できた場合のみ座席を解放する
+     （同時に繰り上げ・キャンセルされても座席数がずれない）。残りはIDを指定した1文で削除する
+     */
     @Override
+    @Transactional
+    public int deleteParticipationsByUser(Long userId, int batchSize) {
+        List<EventParticipation> batch = eventParticipationRepository.findBatchByUserId(userId, PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int deleted = 0;
+        for (EventParticipation participation : batch) {
+            if (eventParticipationRepository.deleteIfConfirmed(participation.getId()) == 1) {
+                releaseSeat(participation.getEvent().getId());
+                deleted++;
+            }
+        }
+        List<Long> ids = batch.stream().map(EventParticipation::getId).collect(Collectors.toList());
+        return deleted + eventParticipationRepository.deleteByIds(ids);
+    }
+
+    @Override
+    @Transactional
     public EventParticipation updateParticipationStatus(Long participationId, EventParticipation.ParticipationStatus status) {
         EventParticipation participation = eventParticipationRepository.findById(participationId)
                 .orElseThrow(() -> new RuntimeException("参加情報が見つかりません。ID：　" + participationId));
+        EventParticipation.ParticipationStatus currentStatus = participation.getStatus();
+        Long eventId = participation.getEvent().getId();
+
+        //参加確定への変更は座席を確保できた場合のみ許可
+        if (status == EventParticipation.ParticipationStatus.CONFIRMED
+                && currentStatus != EventParticipation.ParticipationStatus.CONFIRMED
+                && eventRepository.reserveSeat(eventId) == 0) {
+            throw new RuntimeException("定員に達しているため参加確定にできません");
+        }
+        //参加確定からの変更は座席を解放
+        if (currentStatus == EventParticipation.ParticipationStatus.CONFIRMED
+                && status != EventParticipation.ParticipationStatus.CONFIRMED) {
+            releaseSeat(eventId);
+        }
         //ステータスを変更する
         participation.setStatus(status);
         return eventParticipationRepository.save(participation);
@@ -87,7 +206,82 @@ public class EventParticipationServiceImpl implements EventParticipationService
 
     @Override
     public int getParticipantCountForEvent(Event event) {
-        List<EventParticipation> confirmedParticipations = eventParticipationRepository.findByEventAndStatus(event, EventParticipation.ParticipationStatus.CONFIRMED);
-        return confirmedParticipations.size();
+        return (int) eventParticipationRepository.countByEventAndStatus(event, EventParticipation.ParticipationStatus.CONFIRMED);
+    }
+
+    /*
+    キャンセル待ちの繰り上げ
+    1.座席を1つ確保してから、先着順で先頭のキャンセル待ちを参加確定に変更する（1件あたりインデックス参照と更新のみ）
+    2.座席を確保できなくなるか、キャンセル待ちがいなくなるまで繰り返す
+    3.座席確保でイベント行がロックされるため、同じイベントの繰り上げ処理は同時に実行されない
+     */
+    @Override
+    @Transactional
+    public int promoteWaitingParticipants(Long eventId) {
+        int promoted = 0;
+        while (true) {
+            List<EventParticipation> waitingList = eventParticipationRepository
+                    .findByEventIdAndStatusOrderByCreatedAtAscIdAsc(eventId,
+                            EventParticipation.ParticipationStatus.WAITING, PageRequest.of(0, PROMOTION_BATCH_SIZE));
+            if (waitingList.isEmpty()) {
+                return promoted;
+            }
+            for (EventParticipation waiting : waitingList) {
+                //満席なら終了
+                if (eventRepository.reserveSeat(eventId) == 0) {
+                    return promoted;
+                }
+                if (eventParticipationRepository.promoteFromWaiting(waiting.getId()) == 1) {
+                    promoted++;
+                } else {
+                    //読み込み後にキャンセルされていた場合は確保した座席を戻す
+                    eventRepository.releaseSeat(eventId);
+                }
+            }
+            if (waitingList.size() < PROMOTION_BATCH_SIZE) {
+                return promoted;
+            }
+        }
+    }
+
+    @Override
+    public Map<Long, Integer> getParticipantCountsByEventIds(Collection<Long> eventIds) {
+        Map<Long, Integer> counts = new HashMap<>();
+        //空のIN句はDBによってエラーになるためクエリを発行しない
+        if (eventIds.isEmpty()) {
+            return counts;
+        }
+
+        //GROUP BYで一括集計した結果をイベントIDごとのマップに詰め替える
+        List<Long> distinctIds = eventIds.stream().distinct().collect(Collectors.toList());
+        for (Object[] row : eventParticipationRepository.countByEventIdsAndStatus(distinctIds, EventParticipation.ParticipationStatus.CONFIRMED)) {
+            counts.put((Long) row[0], ((Long) row[1]).intValue());
+        }
+        return counts;
+    }
+
+    //取得件数を1〜MAX_PAGE_SIZEの範囲に丸める
+    private int normalizeLimit(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+    }
+
+    //次ページの有無を判定するため、ページサイズより1件多く取得する
+    private Pageable lookAhead(int pageSize) {
+        return PageRequest.of(0, pageSize + 1);
+    }
+
+    //先読みした結果をページとカーソルに変換する
+    private CursorPage<EventParticipationResponse> toCursorPage(List<EventParticipationResponse> rows, int pageSize,
+                                                                Function<EventParticipationResponse, String> cursorOf) {
+        boolean hasNext = rows.size() > pageSize;
+        List<EventParticipationResponse> content = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(content.get(content.size() - 1)) : null;
+        return new CursorPage<>(content, nextCursor, hasNext);
+    }
+
+    //座席を解放し、繰り上げ処理に通知（通知はコミット後に非同期で処理される）
+    private void releaseSeat(Long eventId) {
+        eventRepository.releaseSeat(eventId);
+        eventPublisher.publishEvent(new SeatReleasedEvent(eventId));
     }
-}
\ No newline at end of file
+}
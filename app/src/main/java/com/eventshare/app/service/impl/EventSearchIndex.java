@@ -0,0 +1,397 @@
+package com.eventshare.app.service.impl;
+
+import com.eventshare.app.dto.response.EventSearchDocument;
+import com.eventshare.app.repository.EventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/*
+イベントのキーワード検索用の転置インデックス（アプリケーション内に保持）
+タイトル・説明・開催場所・カテゴリ名をEventSearchTokenizerで分割し、トークンごとに含まれるイベントの一覧を持つ
+検索語のトークンをすべて含むイベントだけを対象に、BM25に近いスコア（まれな語・タイトルでの一致ほど高い）で並べる
+LIKE '%キーワード%' と違い全件走査が発生しないため、件数が増えても検索時間はヒット件数に比例する程度に収まる
+
+起動時（Webサーバーがリクエストの受け付けを始める前）にDBから全件を読み込み、以降はイベントの作成・更新・削除のコミット後に差分を反映する
+作り直しの間に反映された差分は記録しておき、新しいインデックスに適用してから差し替える（作り直し中の変更を失わない）
+インデックスはサーバーごとに持つため、複数台構成では他のサーバーでの変更は再起動まで反映されない
+ */
+@Component
+public class EventSearchIndex implements SmartLifecycle {
+    //起動の順番（Webサーバーの起動より前に作成を終え、空のインデックスで検索に応答しないようにする）
+    private static final int STARTUP_PHASE = 0;
+
+    //フィールドごとの重み（タイトルでの一致を最も重視する）
+    private static final int TITLE_WEIGHT = 4;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int LOCATION_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    //BM25の語頻度の飽和パラメータ
+    private static final double K1 = 1.2;
+
+    //起動時の読み込み件数（1回のクエリあたり）
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final EventRepository eventRepository;
+
+    //検索は読み取りロック、登録・削除は書き込みロックで保護する
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private IndexData data = new IndexData();
+
+    //作り直し中に反映した差分（作り直し中でなければnull。書き込みロックで保護する）
+    private List<Consumer<IndexData>> pendingUpdates;
+
+    //作り直しを同時に1つだけ実行する
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile boolean running;
+
+    @Autowired
+    public EventSearchIndex(EventRepository eventRepository) {
+        this.eventRepository = eventRepository;
+    }
+
+    //起動時にインデックスを作成（完了するまでWebサーバーを起動しない）
+    @Override
+    public void start() {
+        rebuild();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return STARTUP_PHASE;
+    }
+
+    /*
+    DBの全イベントからインデックスを作り直す
+    新しいインデックスを別に作ってから差し替えるため、作成中も検索は古いインデックスで応答する
+    作成中に登録・削除されたイベントは、差し替える前に新しいインデックスにも反映する
+     */
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            setPendingUpdates(new ArrayList<>());
+            IndexData fresh = new IndexData();
+            try {
+                long afterId = 0L;
+                List<EventSearchDocument> batch;
+                do {
+                    batch = eventRepository.findSearchDocuments(afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+                    for (EventSearchDocument document : batch) {
+                        fresh.add(document.getId(), termWeights(document));
+                        afterId = document.getId();
+                    }
+                } while (batch.size() == LOAD_BATCH_SIZE);
+            } catch (RuntimeException e) {
+                setPendingUpdates(null);
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                pendingUpdates.forEach(update -> update.accept(fresh));
+                pendingUpdates = null;
+                data = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            System.out.println("検索インデックスを作成しました: " + fresh.liveCount() + "件");
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /*
+    カテゴリに属するイベントを登録し直す（カテゴリ名の変更時）
+     */
+    public void reindexCategory(Long categoryId) {
+        long afterId = 0L;
+        List<EventSearchDocument> batch;
+        do {
+            batch = eventRepository.findSearchDocumentsByCategoryId(categoryId, afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            for (EventSearchDocument document : batch) {
+                index(document);
+                afterId = document.getId();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+    }
+
+    //イベントを登録（登録済みの場合は置き換え）
+    public void index(EventSearchDocument document) {
+        //トークン分割はロックの外で行う
+        Map<String, Integer> terms = termWeights(document);
+        apply(index -> {
+            index.remove(document.getId());
+            index.add(document.getId(), terms);
+        });
+    }
+
+    //イベントをインデックスから削除
+    public void remove(Long eventId) {
+        apply(index -> index.remove(eventId));
+    }
+
+    /*
+    キーワードに一致するイベントIDを関連度の高い順に最大maxResults件返す
+    同じスコアの場合はIDの大きい（新しい）イベントを先にする
+     */
+    public List<Long> search(String keyword, int maxResults) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(EventSearchTokenizer.tokenize(keyword)));
+        if (terms.isEmpty() || maxResults <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return data.search(terms, maxResults);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //登録されているイベント数
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return data.liveCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //現在のインデックスに差分を反映（作り直し中は新しいインデックスにも適用するため記録しておく）
+    private void apply(Consumer<IndexData> update) {
+        lock.writeLock().lock();
+        try {
+            update.accept(data);
+            if (pendingUpdates != null) {
+                pendingUpdates.add(update);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void setPendingUpdates(List<Consumer<IndexData>> updates) {
+        lock.writeLock().lock();
+        try {
+            pendingUpdates = updates;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //文書のトークンごとの重み（フィールドの重み×出現回数の合計）
+    private static Map<String, Integer> termWeights(EventSearchDocument document) {
+        Map<String, Integer> weights = new HashMap<>();
+        addTerms(weights, document.getTitle(), TITLE_WEIGHT);
+        addTerms(weights, document.getCategoryName(), CATEGORY_WEIGHT);
+        addTerms(weights, document.getLocation(), LOCATION_WEIGHT);
+        addTerms(weights, document.getDescription(), DESCRIPTION_WEIGHT);
+        return weights;
+    }
+
+    private static void addTerms(Map<String, Integer> weights, String text, int weight) {
+        for (String term : EventSearchTokenizer.tokenize(text)) {
+            weights.merge(term, weight, Integer::sum);
+        }
+    }
+
+    /*
+    インデックス本体
+    イベントIDの代わりに登録順の連番（文書番号）で管理し、トークンごとの転置リストは文書番号の昇順に並ぶ
+    1文字の検索語用に、漢字・かなの1文字ごとの転置リスト（その文字を含むトークンのうち最大の重み）も登録時に作っておく
+    削除は削除済みフラグを立てるだけにし、削除済みが一定割合を超えたら転置リストを詰め直す
+     */
+    private static final class IndexData {
+        private final Map<String, Postings> postings = new HashMap<>();
+        private final Map<String, Postings> characterPostings = new HashMap<>();
+        private final Map<Long, Integer> docByEventId = new HashMap<>();
+        private long[] eventIds = new long[1024];  //文書番号→イベントID
+        private final BitSet deleted = new BitSet();
+        private int docCount;       //採番済みの文書数（削除済みを含む）
+        private int deletedCount;   //削除済みの文書数
+
+        int liveCount() {
+            return docCount - deletedCount;
+        }
+
+        void add(long eventId, Map<String, Integer> terms) {
+            if (docCount == eventIds.length) {
+                eventIds = Arrays.copyOf(eventIds, eventIds.length * 2);
+            }
+            int doc = docCount++;
+            eventIds[doc] = eventId;
+            docByEventId.put(eventId, doc);
+            Map<String, Integer> characters = new HashMap<>();
+            for (Map.Entry<String, Integer> term : terms.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), key -> new Postings()).add(doc, term.getValue());
+                term.getKey().codePoints().forEach(codePoint -> {
+                    String character = Character.toString(codePoint);
+                    if (EventSearchTokenizer.isSingleCjk(character)) {
+                        characters.merge(character, term.getValue(), Math::max);
+                    }
+                });
+            }
+            for (Map.Entry<String, Integer> character : characters.entrySet()) {
+                characterPostings.computeIfAbsent(character.getKey(), key -> new Postings()).add(doc, character.getValue());
+            }
+        }
+
+        void remove(long eventId) {
+            Integer doc = docByEventId.remove(eventId);
+            if (doc == null) {
+                return;
+            }
+            deleted.set(doc);
+            deletedCount++;
+            if (deletedCount > Math.max(1024, docCount / 4)) {
+                compact();
+            }
+        }
+
+        List<Long> search(List<String> terms, int maxResults) {
+            //各トークンの転置リストを取得（1つでも該当がなければ結果なし）
+            List<Postings> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Postings list = EventSearchTokenizer.isSingleCjk(term) ? characterPostings.get(term) : postings.get(term);
+                if (list == null || list.size == 0) {
+                    return List.of();
+                }
+                lists.add(list);
+            }
+            //短い転置リストから順に突き合わせる
+            lists.sort(Comparator.comparingInt(list -> list.size));
+            double[] idf = new double[lists.size()];
+            int n = liveCount();
+            for (int i = 0; i < lists.size(); i++) {
+                int df = lists.get(i).size;
+                idf[i] = Math.log(1 + (Math.max(n - df, 0) + 0.5) / (df + 0.5));
+            }
+
+            //スコア上位maxResults件を保持（先頭が最もスコアの低い結果）
+            PriorityQueue<ScoredDoc> top = new PriorityQueue<>(ScoredDoc.RANKING.reversed());
+            Postings shortest = lists.get(0);
+            int[] cursors = new int[lists.size()];
+            candidates:
+            for (int p = 0; p < shortest.size; p++) {
+                int doc = shortest.docs[p];
+                if (deleted.get(doc)) {
+                    continue;
+                }
+                double score = idf[0] * saturate(shortest.weights[p]);
+                for (int i = 1; i < lists.size(); i++) {
+                    Postings list = lists.get(i);
+                    int found = Arrays.binarySearch(list.docs, cursors[i], list.size, doc);
+                    if (found < 0) {
+                        //次の候補は必ずこの文書番号より大きいため、探索開始位置を進めておく
+                        cursors[i] = -found - 1;
+                        continue candidates;
+                    }
+                    cursors[i] = found + 1;
+                    score += idf[i] * saturate(list.weights[found]);
+                }
+                top.offer(new ScoredDoc(eventIds[doc], score));
+                if (top.size() > maxResults) {
+                    top.poll();
+                }
+            }
+
+            List<ScoredDoc> ranked = new ArrayList<>(top);
+            ranked.sort(ScoredDoc.RANKING);
+            List<Long> result = new ArrayList<>(ranked.size());
+            for (ScoredDoc scored : ranked) {
+                result.add(scored.eventId());
+            }
+            return result;
+        }
+
+        //削除済みの文書を転置リストから取り除き、文書番号を詰め直す
+        private void compact() {
+            int[] renumbered = new int[docCount];
+            int next = 0;
+            for (int doc = 0; doc < docCount; doc++) {
+                if (deleted.get(doc)) {
+                    renumbered[doc] = -1;
+                } else {
+                    renumbered[doc] = next;
+                    eventIds[next] = eventIds[doc];
+                    next++;
+                }
+            }
+            postings.values().removeIf(list -> list.compact(renumbered) == 0);
+            characterPostings.values().removeIf(list -> list.compact(renumbered) == 0);
+            docByEventId.replaceAll((eventId, doc) -> renumbered[doc]);
+            docCount = next;
+            deletedCount = 0;
+            deleted.clear();
+        }
+
+        //語頻度の寄与を頭打ちにする（同じ語が何度も出てくる文書だけが極端に上位にならないように）
+        private static double saturate(int weight) {
+            return weight * (K1 + 1) / (weight + K1);
+        }
+    }
+
+    //1トークン分の転置リスト（文書番号と重みを並列の配列で保持）
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int[] weights = new int[4];
+        private int size;
+
+        void add(int doc, int weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+        }
+
+        //削除済みを除いて番号を振り直し、残った件数を返す
+        int compact(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = renumbered[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    weights[kept] = weights[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+
+    private record ScoredDoc(long eventId, double score) {
+        //スコアの高い順、同点ならIDの大きい順
+        static final Comparator<ScoredDoc> RANKING = Comparator.comparingDouble(ScoredDoc::score).reversed()
+                .thenComparing(Comparator.comparingLong(ScoredDoc::eventId).reversed());
+    }
+}
@@ -0,0 +1,73 @@
+package com.eventshare.app.service.impl;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/*
+イベント検索用のトークナイザー
+日本語は単語の区切りがないため、漢字・ひらがな・カタカナの連続は2文字ずつずらした組（バイグラム）に分割する
+  例：「東京ジャズ」→「東京」「京ジ」「ジャ」「ャズ」
+英数字は連続部分を1語として扱い、記号・空白は区切りとして捨てる
+表記ゆれを吸収するため、事前にNFKC正規化（全角英数・半角カナの統一）と小文字化を行う
+インデックス登録時と検索時で同じ分割を行うため、検索語のバイグラムがすべて含まれる文書は検索語を部分文字列として含む
+ */
+public final class EventSearchTokenizer {
+
+    private EventSearchTokenizer() {
+    }
+
+    //テキストをトークンの列に分割（重複はそのまま残す）
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        int[] codePoints = normalized.codePoints().toArray();
+        int i = 0;
+        while (i < codePoints.length) {
+            int start = i;
+            if (isCjk(codePoints[i])) {
+                //日本語の連続部分：1文字だけならそのまま、2文字以上ならバイグラムに分割
+                while (i < codePoints.length && isCjk(codePoints[i])) {
+                    i++;
+                }
+                if (i - start == 1) {
+                    tokens.add(new String(codePoints, start, 1));
+                } else {
+                    for (int j = start; j < i - 1; j++) {
+                        tokens.add(new String(codePoints, j, 2));
+                    }
+                }
+            } else if (Character.isLetterOrDigit(codePoints[i])) {
+                //英数字の連続部分は1語
+                while (i < codePoints.length && Character.isLetterOrDigit(codePoints[i]) && !isCjk(codePoints[i])) {
+                    i++;
+                }
+                tokens.add(new String(codePoints, start, i - start));
+            } else {
+                //記号・空白は区切り
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    //1文字だけの日本語トークンか（検索時はその文字を含むバイグラムすべてに一致させる）
+    public static boolean isSingleCjk(String token) {
+        return token.codePointCount(0, token.length()) == 1 && isCjk(token.codePointAt(0));
+    }
+
+    //漢字・ひらがな・カタカナ（長音記号・繰り返し記号を含む）か
+    private static boolean isCjk(int codePoint) {
+        if (codePoint == 'ー' || codePoint == '々') {
+            return true;
+        }
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA;
+    }
+}
@@ -1,27 +1,58 @@
 package com.eventshare.app.service.impl;
 
+import com.eventshare.app.dto.request.EventCursor;
+import com.eventshare.app.dto.request.SearchCursor;
+import com.eventshare.app.dto.response.CursorPage;
+import com.eventshare.app.dto.response.EventResponse;
+import com.eventshare.app.dto.response.EventSearchDocument;
 import com.eventshare.app.entity.Event;
 import com.eventshare.app.entity.EventCategory;
 import com.eventshare.app.entity.User;
+import com.eventshare.app.listener.EventContentChangedEvent;
+import com.eventshare.app.listener.SeatReleasedEvent;
+import com.eventshare.app.repository.EventParticipationRepository;
 import com.eventshare.app.repository.EventRepository;
 import com.eventshare.app.service.EventService;
+import com.eventshare.app.service.PhotoService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.time.LocalDateTime;
 
 @Service
 @Transactional
 public class EventServiceImpl implements EventService {
+    //1ページあたりの最大取得件数
+    private static final int MAX_PAGE_SIZE = 100;
+    //キーワード検索で返す最大件数（関連度の低い結果まで深くページングさせない）
+    private static final int MAX_SEARCH_RESULTS = 1000;
+
     //リポジトリの依存性注入
     private final EventRepository eventRepository;
+    private final EventParticipationRepository eventParticipationRepository;
+    private final PhotoService photoService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EventSearchIndex eventSearchIndex;
 
     //コンストラクタインジェクション
     @Autowired
-    public EventServiceImpl(EventRepository eventRepository) {
+    public EventServiceImpl(EventRepository eventRepository, EventParticipationRepository eventParticipationRepository,
+                            PhotoService photoService, ApplicationEventPublisher eventPublisher,
+                            EventSearchIndex eventSearchIndex) {
         this.eventRepository = eventRepository;
+        this.eventParticipationRepository = eventParticipationRepository;
+        this.photoService = photoService;
+        this.eventPublisher = eventPublisher;
+        this.eventSearchIndex = eventSearchIndex;
     }
 
     @Override
@@ -31,7 +62,7 @@ public class EventServiceImpl implements EventService {
 
     @Override
     public Event getEventById(Long id) {
-        return eventRepository.findById(id)
+        return eventRepository.findDetailById(id)
                 .orElseThrow(() -> new RuntimeException("イベントが見つかりません。ID: " + id));
     }
 
@@ -47,7 +78,10 @@ public class EventServiceImpl implements EventService {
             throw new RuntimeException("定員は0以上で指定してください");
         }
 
-        return eventRepository.save(event);
+        Event savedEvent = eventRepository.save(event);
+        //コミット後に検索インデックスへ登録
+        eventPublisher.publishEvent(new EventContentChangedEvent(savedEvent.getId(), EventSearchDocument.of(savedEvent)));
+        return savedEvent;
     }
 
     @Override
@@ -65,6 +99,12 @@ public class EventServiceImpl implements EventService {
             throw new RuntimeException("定員は0以上で指定してください");
         }
 
+        //定員が増えた（または無制限になった）場合は、コミット後にキャンセル待ちの繰り上げを起動
+        Integer oldCapacity = updatingEvent.getCapacity();
+        if (oldCapacity != null && (event.getCapacity() == null || event.getCapacity() > oldCapacity)) {
+            eventPublisher.publishEvent(new SeatReleasedEvent(id));
+        }
+
         //イベント更新
         updatingEvent.setTitle(event.getTitle());
         updatingEvent.setDescription(event.getDescription());
@@ -73,21 +113,34 @@ public class EventServiceImpl implements EventService {
         updatingEvent.setCapacity(event.getCapacity());
         updatingEvent.setCategory(event.getCategory());
 
-        return eventRepository.save(updatingEvent);
+        Event savedEvent = eventRepository.save(updatingEvent);
+        //コミット後に検索インデックスを更新
+        eventPublisher.publishEvent(new EventContentChangedEvent(id, EventSearchDocument.of(savedEvent)));
+        return savedEvent;
     }
 
+    /*
+     イベント削除
+     参加情報・写真はエンティティを読み込まず、event_idを条件にした1文のDELETEでまとめて削除する
+     （関連コレクションを読み込んで1行ずつ削除するカスケードは使わない）
+     写真のファイルはコミット後にバックグラウンドで削除するため、参加者・写真が多いイベントでもトランザクションを長く保持しない
+     */
     @Override
     public void deleteEvent(Long id) {
-        Event event = getEventById(id);
+        if (!eventRepository.existsById(id)) {
+            throw new RuntimeException("イベントが見つかりません。ID: " + id);
+        }
 
-        //イベント削除前に参加者がいるかチェック
-        if (!event.getParticipations().isEmpty()) {
+        int participants = eventParticipationRepository.deleteByEventId(id);
+        if (participants > 0) {
             //参加者がいる場合の処理（現在は警告のみ）
             //実際は参加者への通知やキャンセル処理が必要
-            System.out.println("警告: 参加者がいるイベントを削除します。ID: " + id);
+            System.out.println("警告: 参加者がいるイベントを削除しました。ID: " + id + " / 参加者 " + participants + "件");
         }
-
-        eventRepository.delete(event);
+        photoService.deletePhotosByEvent(id);
+        eventRepository.deleteEventById(id);
+        //コミット後に検索インデックスから削除
+        eventPublisher.publishEvent(new EventContentChangedEvent(id, null));
     }
 
     @Override
@@ -106,12 +159,103 @@ public class EventServiceImpl implements EventService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Event> getEventsByKeyword(String keyword) {
-        return eventRepository.findByTitleContaining(keyword);
+        //検索インデックスで関連度順のIDを求め、その順に並べて返す
+        List<Long> rankedIds = eventSearchIndex.search(keyword, MAX_SEARCH_RESULTS);
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+        return inRankOrder(rankedIds, eventRepository.findByIdIn(rankedIds), Event::getId);
     }
 
     @Override
     public List<Event> getEventsByCategoryAndDateAfter(EventCategory category, LocalDateTime date) {
         return eventRepository.findByCategoryAndEventDateAfter(category, date);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<EventResponse> getEventsPage(EventCursor cursor, int limit) {
+        int pageSize = normalizeLimit(limit);
+        List<EventResponse> events = cursor == null
+                ? eventRepository.findFirstPage(lookAhead(pageSize))
+                : eventRepository.findPageAfterCursor(cursor.getEventDate(), cursor.getId(), lookAhead(pageSize));
+        return toCursorPage(events, pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<EventResponse> getEventsPageByCategory(EventCategory category, EventCursor cursor, int limit) {
+        int pageSize = normalizeLimit(limit);
+        List<EventResponse> events = cursor == null
+                ? eventRepository.findFirstPageByCategory(category, lookAhead(pageSize))
+                : eventRepository.findPageByCategoryAfterCursor(category, cursor.getEventDate(), cursor.getId(), lookAhead(pageSize));
+        return toCursorPage(events, pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<EventResponse> searchEvents(String keyword, SearchCursor cursor, int limit) {
+        int pageSize = normalizeLimit(limit);
+        int offset = cursor == null ? 0 : cursor.getOffset();
+        int end = Math.min(offset + pageSize, MAX_SEARCH_RESULTS);
+        if (offset >= end) {
+            return new CursorPage<>(List.of(), null, false);
+        }
+
+        //次ページの有無を判定するため1件多く検索する
+        List<Long> rankedIds = eventSearchIndex.search(keyword, Math.min(end + 1, MAX_SEARCH_RESULTS));
+        boolean hasNext = rankedIds.size() > end;
+        List<Long> pageIds = rankedIds.subList(Math.min(offset, rankedIds.size()), Math.min(end, rankedIds.size()));
+        List<EventResponse> content = pageIds.isEmpty()
+                ? List.of()
+                : inRankOrder(pageIds, eventRepository.findResponsesByIdIn(pageIds), EventResponse::getId);
+        String nextCursor = hasNext ? new SearchCursor(end).encode() : null;
+        return new CursorPage<>(content, nextCursor, hasNext);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<EventResponse> getEventsPageByDateAfter(LocalDateTime date, EventCursor cursor, int limit) {
+        int pageSize = normalizeLimit(limit);
+        List<EventResponse> events = cursor == null
+                ? eventRepository.findFirstPageByEventDateAfter(date, lookAhead(pageSize))
+                : eventRepository.findPageByEventDateAfterCursor(date, cursor.getEventDate(), cursor.getId(), lookAhead(pageSize));
+        return toCursorPage(events, pageSize);
+    }
+
+    /*
+    以下プライベートメソッド
+     */
+    //取得件数を1〜MAX_PAGE_SIZEの範囲に丸める
+    private int normalizeLimit(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+    }
+
+    //次ページの有無を判定するため、ページサイズより1件多く取得する
+    private Pageable lookAhead(int pageSize) {
+        return PageRequest.of(0, pageSize + 1);
+    }
+
+    //IDで取得した結果を検索順位の順に並べ直す（検索後に削除されたイベントは除く）
+    private <T> List<T> inRankOrder(List<Long> rankedIds, List<T> rows, Function<T, Long> idOf) {
+        Map<Long, T> byId = rows.stream().collect(Collectors.toMap(idOf, Function.identity()));
+        return rankedIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    //先読みした結果をページとカーソルに変換する
+    private CursorPage<EventResponse> toCursorPage(List<EventResponse> events, int pageSize) {
+        boolean hasNext = events.size() > pageSize;
+        List<EventResponse> content = hasNext ? events.subList(0, pageSize) : events;
+        String nextCursor = null;
+        if (hasNext) {
+            EventResponse last = content.get(content.size() - 1);
+            nextCursor = new EventCursor(last.getEventDate(), last.getId()).encode();
+        }
+        return new CursorPage<>(content, nextCursor, hasNext);
+    }
 }
\ No newline at end of file
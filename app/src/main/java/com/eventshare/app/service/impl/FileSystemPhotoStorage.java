@@ -0,0 +1,98 @@
+package com.eventshare.app.service.impl;
+
+import com.eventshare.app.service.PhotoStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/*
+ローカルディスクに写真ファイルを保存する実装（file.storage.type=local、既定）
+キーはアップロードディレクトリからの相対パスとして扱う
+ */
+@Component
+@ConditionalOnProperty(name = "file.storage.type", havingValue = "local", matchIfMissing = true)
+public class FileSystemPhotoStorage implements PhotoStorage {
+    private final Path rootDirectory;
+
+    public FileSystemPhotoStorage(@Value("${file.upload.directory:uploads/photos}") String uploadDirectory) {
+        this.rootDirectory = Paths.get(uploadDirectory).toAbsolutePath().normalize();
+    }
+
+    //一時ファイルを保存先に移動（同じファイルシステムであれば名前の変更のみで、内容はコピーしない）
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            //別のファイルシステムの場合は同じディレクトリにコピーしてから置き換える（書き込み途中のファイルを見せない）
+            Path copying = target.resolveSibling(UUID.randomUUID() + ".tmp");
+            Files.copy(source, copying);
+            Files.move(copying, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(source);
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public Resource load(String key) {
+        Path path = resolve(key);
+        if (!Files.isRegularFile(path)) {
+            throw new RuntimeException("ファイルが見つかりません: " + key);
+        }
+        return new FileSystemResource(path);
+    }
+
+    @Override
+    public Optional<ObjectInfo> stat(String key) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(resolve(key), BasicFileAttributes.class);
+            return attributes.isRegularFile()
+                    ? Optional.of(new ObjectInfo(attributes.size(), attributes.lastModifiedTime().toInstant()))
+                    : Optional.empty();
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    //ローカルディスクのファイルはアプリケーションから配信する
+    @Override
+    public Optional<URI> presignedUrl(String key, Duration expiry) {
+        return Optional.empty();
+    }
+
+    //キーをアップロードディレクトリ内のパスに変換（ディレクトリ外を指すキーはエラー）
+    private Path resolve(String key) {
+        Path path = rootDirectory.resolve(key).normalize();
+        if (!path.startsWith(rootDirectory) || path.equals(rootDirectory)) {
+            throw new RuntimeException("ファイルが見つかりません: " + key);
+        }
+        return path;
+    }
+}
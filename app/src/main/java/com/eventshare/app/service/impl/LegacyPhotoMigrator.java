@@ -0,0 +1,168 @@
+package com.eventshare.app.service.impl;
+
+import com.eventshare.app.entity.Photo;
+import com.eventshare.app.entity.PhotoBlob;
+import com.eventshare.app.repository.PhotoRepository;
+import com.eventshare.app.service.PhotoStorage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/*
+内容アドレス保存の導入前にアップロードされた写真を、ハッシュの2階層の保存先に移行するクラス
+アップロードディレクトリ直下に保存ファイル名で置かれたファイルを、1件ずつ次の順で移行する
+1.ファイルを読み込みながらハッシュを計算し、保存済みファイル（photo_blobs）として登録（同じ内容が保存済みなら参照数を増やす）
+2.縮小版が生成済みであれば新しい保存先にコピー（同じ内容の縮小版が既にあればそれを使う）
+3.写真に保存済みファイルを設定し、配信用メタ情報のキャッシュを破棄
+4.旧ファイル（縮小版を含む）を削除
+旧ファイルは写真の行を更新した後に削除するため、移行中のどの時点でもどちらかの保存先からファイルを配信できる
+（別のサーバーに古い配信用メタ情報が残っている場合は、PhotoServiceImplが旧ファイルの取得に失敗した時点で読み直す）
+ */
+@Component
+public class LegacyPhotoMigrator {
+    private final PhotoRepository photoRepository;
+    private final PhotoBlobStore photoBlobStore;
+    private final PhotoDerivativeGenerator photoDerivativeGenerator;
+    private final PhotoStorage photoStorage;
+    private final PhotoFileInfoCache fileInfoCache;
+
+    //移行結果（移行した件数・ファイルが見つからなかった件数・失敗した件数）
+    public record Result(long migrated, long missing, long failed) {
+        Result plus(Result other) {
+            return new Result(migrated + other.migrated, missing + other.missing, failed + other.failed);
+        }
+    }
+
+    private enum Outcome { MIGRATED, MISSING, FAILED }
+
+    @Autowired
+    public LegacyPhotoMigrator(PhotoRepository photoRepository, PhotoBlobStore photoBlobStore,
+                               PhotoDerivativeGenerator photoDerivativeGenerator, PhotoStorage photoStorage,
+                               PhotoFileInfoCache fileInfoCache) {
+        this.photoRepository = photoRepository;
+        this.photoBlobStore = photoBlobStore;
+        this.photoDerivativeGenerator = photoDerivativeGenerator;
+        this.photoStorage = photoStorage;
+        this.fileInfoCache = fileInfoCache;
+    }
+
+    /*
+    すべての対象写真を移行
+    batchSize件ずつ取得し、バッチの間はpauseMillis待機してディスク・DBへの負荷を抑える
+    ファイルが見つからない写真・失敗した写真は読み飛ばす（再実行すると再度対象になる）
+     */
+    public Result migrateAll(int batchSize, long pauseMillis) throws InterruptedException {
+        Result total = new Result(0, 0, 0);
+        long afterId = 0L;
+        while (true) {
+            List<Photo> batch = photoRepository.findLegacyPhotos(afterId, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return total;
+            }
+            total = total.plus(migrateBatch(batch));
+            afterId = batch.get(batch.size() - 1).getId();
+            System.out.println("写真ファイルの移行: 移行 " + total.migrated() + "件 / 不在 " + total.missing()
+                    + "件 / 失敗 " + total.failed() + "件（ID " + afterId + " まで）");
+            if (pauseMillis > 0) {
+                Thread.sleep(pauseMillis);
+            }
+        }
+    }
+
+    //1バッチ分の写真を移行
+    private Result migrateBatch(List<Photo> batch) {
+        long migrated = 0;
+        long missing = 0;
+        long failed = 0;
+        for (Photo photo : batch) {
+            switch (migrate(photo)) {
+                case MIGRATED -> migrated++;
+                case MISSING -> missing++;
+                case FAILED -> failed++;
+            }
+        }
+        return new Result(migrated, missing, failed);
+    }
+
+    private Outcome migrate(Photo photo) {
+        String filename = photo.getFilename();
+        try {
+            if (photoStorage.stat(filename).isEmpty()) {
+                System.out.println("移行元のファイルが見つかりません: " + filename);
+                return Outcome.MISSING;
+            }
+
+            //1.ハッシュを計算して保存済みファイルとして登録
+            PhotoBlobStore.StagedFile staged;
+            try (InputStream stream = photoStorage.get(filename)) {
+                staged = photoBlobStore.stage(stream);
+            }
+            PhotoBlob blob;
+            try {
+                blob = photoBlobStore.acquire(staged, photo.getMineType());
+            } catch (IOException | RuntimeException e) {
+                photoBlobStore.discard(staged);
+                throw e;
+            }
+            String key = PhotoBlobStore.keyOf(blob.getContentHash());
+
+            boolean derivativesReady;
+            try {
+                //2.縮小版を新しい保存先へ（コピーできない場合は生成し直す）
+                derivativesReady = photoBlobStore.derivativesExist(blob.getContentHash())
+                        || (Boolean.TRUE.equals(photo.getDerivativesReady()) && copyDerivatives(filename, key));
+
+                //3.写真に設定（移行中に削除・移行された写真であれば、今回の参照を取り消す）
+                if (photoRepository.assignBlob(photo.getId(), blob, blob.getContentHash(), derivativesReady) == 0) {
+                    photoBlobStore.release(blob);
+                    return Outcome.MISSING;
+                }
+            } catch (IOException | RuntimeException e) {
+                photoBlobStore.release(blob);
+                throw e;
+            }
+            //旧保存先を指すメタ情報を配信に使わせない
+            fileInfoCache.remove(filename);
+            if (!derivativesReady) {
+                //生成が完了したら縮小版を配信させる
+                photoDerivativeGenerator.generateAsync(photo, key)
+                        .thenAccept(ready -> fileInfoCache.remove(filename));
+            }
+
+            //4.旧ファイルを削除
+            photoStorage.delete(filename);
+            photoDerivativeGenerator.deleteDerivatives(filename);
+            return Outcome.MIGRATED;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("写真ファイルの移行に失敗しました: " + filename + " " + e.getMessage());
+            return Outcome.FAILED;
+        }
+    }
+
+    //旧保存先の縮小版を新しい保存先にコピー（1つでも見つからなければfalse）
+    private boolean copyDerivatives(String filename, String key) throws IOException {
+        for (Photo.Size size : Photo.Size.values()) {
+            if (size == Photo.Size.ORIGINAL) {
+                continue;
+            }
+            String legacyKey = size.derivativeKey(filename);
+            if (photoStorage.stat(legacyKey).isEmpty()) {
+                return false;
+            }
+            PhotoBlobStore.StagedFile copy;
+            try (InputStream stream = photoStorage.get(legacyKey)) {
+                copy = photoBlobStore.stage(stream);
+            }
+            try {
+                photoStorage.put(size.derivativeKey(key), copy.path(), "image/jpeg");
+            } finally {
+                photoBlobStore.discard(copy);
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,236 @@
+package com.eventshare.app.service.impl;
+
+import com.eventshare.app.entity.Photo;
+import com.eventshare.app.entity.PhotoBlob;
+import com.eventshare.app.repository.PhotoBlobRepository;
+import com.eventshare.app.service.PhotoStorage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/*
+写真ファイルを内容のハッシュで保存するクラス
+1.アップロードされたファイルをローカルの一時ファイルに書き込みながらSHA-256ハッシュを計算
+2.ハッシュから決まるキー（例: 3f/a2/3fa2...）で保存先（PhotoStorage）に送り、参照数を管理
+  同じ内容のファイルが保存済みの場合は参照数を増やすだけで、一時ファイルは削除する
+3.写真の削除時は参照数を減らし、最後の参照がなくなった場合のみファイルを削除
+キーはハッシュの先頭2文字・次の2文字で2階層に分け、1つのディレクトリにファイルが集中しないようにする
+ */
+@Component
+public class PhotoBlobStore {
+    //ハッシュ確定前の一時ファイルを置くディレクトリ（ローカル保存では保存先と同じファイルシステムに置き、移動を名前の変更だけで済ませる）
+    private static final String STAGING_DIRECTORY = "staging";
+
+    private final PhotoBlobRepository photoBlobRepository;
+    private final PhotoDerivativeGenerator photoDerivativeGenerator;
+    private final PhotoStorage photoStorage;
+    private final Path stagingDirectory;
+
+    //一時ファイルに書き込んだアップロードファイル
+    public record StagedFile(Path path, String contentHash, long size) {
+    }
+
+    @Autowired
+    public PhotoBlobStore(PhotoBlobRepository photoBlobRepository,
+                          PhotoDerivativeGenerator photoDerivativeGenerator,
+                          PhotoStorage photoStorage,
+                          @Value("${file.upload.directory:uploads/photos}") String uploadDirectory) {
+        this.photoBlobRepository = photoBlobRepository;
+        this.photoDerivativeGenerator = photoDerivativeGenerator;
+        this.photoStorage = photoStorage;
+        this.stagingDirectory = Paths.get(uploadDirectory, STAGING_DIRECTORY);
+    }
+
+    //ストリームを一時ファイルに書き込み、同時にSHA-256ハッシュを計算
+    public StagedFile stage(InputStream inputStream) throws IOException {
+        Files.createDirectories(stagingDirectory);
+        Path stagedPath = stagingDirectory.resolve(UUID.randomUUID() + ".tmp");
+        MessageDigest digest = newSha256();
+        try (InputStream digestStream = new DigestInputStream(inputStream, digest)) {
+            long size = Files.copy(digestStream, stagedPath);
+            return new StagedFile(stagedPath, HexFormat.of().formatHex(digest.digest()), size);
+        } catch (IOException e) {
+            Files.deleteIfExists(stagedPath);
+            throw e;
+        }
+    }
+
+    /*
+    一時ファイルを保存済みファイルとして登録し、参照数を1増やす
+    各クエリはそれぞれのトランザクションで実行する（同時に同じ内容が登録された場合に、一意制約違反から参照数の加算に切り替えるため）
+    ファイルは行を登録する前に配置し、行が見えた時点で必ずファイルが存在するようにする
+     */
+    public PhotoBlob acquire(StagedFile staged, String mimeType) throws IOException {
+        String contentHash = staged.contentHash();
+        String key = keyOf(contentHash);
+
+        //保存済みの内容であれば参照数を増やすだけ
+        if (photoBlobRepository.incrementRefCount(contentHash) > 0) {
+            return reuse(staged, key, mimeType);
+        }
+
+        //新しい内容：保存先に送ってから登録
+        photoStorage.put(key, staged.path(), mimeType);
+        PhotoBlob blob = new PhotoBlob();
+        blob.setContentHash(contentHash);
+        blob.setFileSize(staged.size());
+        blob.setMimeType(mimeType);
+        blob.setRefCount(1);
+        try {
+            return photoBlobRepository.saveAndFlush(blob);
+        } catch (DataIntegrityViolationException e) {
+            //同じ内容が同時に登録された場合は、その行の参照数を増やす（ファイルは同じ内容なので置き換わっても問題ない）
+            if (photoBlobRepository.incrementRefCount(contentHash) == 0) {
+                throw new RuntimeException("ファイルの登録に失敗しました");
+            }
+            return findByContentHash(contentHash);
+        }
+    }
+
+    /*
+    参照数を1減らし、最後の参照であればファイル（縮小版を含む）と行を削除
+    写真の行を登録できなかった場合の取り消し用（acquireで増やした参照を戻す）。他のトランザクションの中からは呼び出さない
+    （写真の削除は参照数の減算だけを写真の行と同じトランザクションで行い、ファイルはコミット後にdeleteIfUnreferencedで削除する）
+    ファイルは行ロックを持ったまま（コミット前に）削除し、同じ内容の再アップロードが削除済みの行を見てから
+    ファイルを配置するよう順序を保証する
+     */
+    @Transactional
+    public boolean release(PhotoBlob blob) {
+        photoBlobRepository.decrementRefCount(blob.getId());
+        if (photoBlobRepository.deleteIfUnreferenced(blob.getId()) == 0) {
+            return false;
+        }
+        String key = keyOf(blob.getContentHash());
+        try {
+            photoStorage.delete(key);
+            photoDerivativeGenerator.deleteDerivatives(key);
+        } catch (IOException e) {
+            throw new RuntimeException("ファイルの削除に失敗しました: " + e.getMessage());
+        }
+        return true;
+    }
+
+    /*
+    イベントの写真が参照している分だけ参照数をまとめて減らす（写真の行を削除する前に、同じトランザクションで呼び出す）
+    ファイルの削除は行わず、参照数が0になったファイルはコミット後にdeleteIfUnreferencedで削除する
+     */
+    @Transactional
+    public int releaseAllByEvent(Long eventId) {
+        return photoBlobRepository.decrementRefCountsByEvent(eventId);
+    }
+
+    //指定IDの写真が参照している分だけ参照数をまとめて減らす（releaseAllByEventと同じく、ファイルは後で削除する）
+    @Transactional
+    public int releaseAllByPhotoIds(Collection<Long> photoIds) {
+        return photoBlobRepository.decrementRefCountsByPhotoIds(photoIds);
+    }
+
+    //参照がなくなったまま残っているファイルの内容ハッシュ（afterHashの次からlimit件）
+    public List<String> findUnreferenced(String afterHash, int limit) {
+        return photoBlobRepository.findUnreferencedContentHashes(afterHash, PageRequest.of(0, limit));
+    }
+
+    //参照数が実際に参照している写真の数より多いファイルの内容ハッシュ（afterHashの次からlimit件）
+    public List<String> findOvercounted(String afterHash, int limit) {
+        return photoBlobRepository.findOvercountedContentHashes(afterHash, PageRequest.of(0, limit));
+    }
+
+    //参照数のうち、実際に参照している写真の数を超えている分（行がなければ0）
+    public int countExcessReferences(String contentHash) {
+        return photoBlobRepository.countExcessReferences(contentHash).orElse(0);
+    }
+
+    /*
+    漏れた参照の分だけ参照数を減らす（減らした場合はtrue）
+    現在の超過分がleaked以上ある場合のみ減らすため、その間に増えた参照（登録中のアップロード）は減らさない
+    参照数が0になったファイルは、続けてdeleteIfUnreferencedで削除する
+     */
+    public boolean releaseLeakedReferences(String contentHash, int leaked) {
+        return photoBlobRepository.releaseLeakedReferences(contentHash, leaked) > 0;
+    }
+
+    /*
+    参照数が0になっていればファイル（縮小版を含む）と行を削除
+    releaseと同じく、ファイルは行ロックを持ったまま（コミット前に）削除する
+    削除までの間に同じ内容がアップロードされて参照数が増えた場合は何もしない
+     */
+    @Transactional
+    public boolean deleteIfUnreferenced(String contentHash) {
+        if (photoBlobRepository.deleteIfUnreferencedByContentHash(contentHash) == 0) {
+            return false;
+        }
+        String key = keyOf(contentHash);
+        try {
+            photoStorage.delete(key);
+            photoDerivativeGenerator.deleteDerivatives(key);
+        } catch (IOException e) {
+            throw new RuntimeException("ファイルの削除に失敗しました: " + e.getMessage());
+        }
+        return true;
+    }
+
+    //登録しなかった一時ファイルを削除
+    public void discard(StagedFile staged) {
+        try {
+            Files.deleteIfExists(staged.path());
+        } catch (IOException e) {
+            System.out.println("一時ファイルの削除に失敗しました: " + staged.path() + " " + e.getMessage());
+        }
+    }
+
+    //内容のハッシュから保存先のキーを生成（例: 3fa2... → 3f/a2/3fa2...）
+    public static String keyOf(String contentHash) {
+        return contentHash.substring(0, 2) + "/" + contentHash.substring(2, 4) + "/" + contentHash;
+    }
+
+    //同じ内容の縮小版が生成済みか（生成済みであれば新しい写真でも作り直さずに使う）
+    public boolean derivativesExist(String contentHash) throws IOException {
+        String key = keyOf(contentHash);
+        for (Photo.Size size : Photo.Size.values()) {
+            if (size != Photo.Size.ORIGINAL && photoStorage.stat(size.derivativeKey(key)).isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //保存済みの内容を参照する場合、一時ファイルは不要（ファイルが失われていた場合だけ一時ファイルで補う）
+    private PhotoBlob reuse(StagedFile staged, String key, String mimeType) throws IOException {
+        if (photoStorage.stat(key).isPresent()) {
+            Files.deleteIfExists(staged.path());
+        } else {
+            photoStorage.put(key, staged.path(), mimeType);
+        }
+        return findByContentHash(staged.contentHash());
+    }
+
+    private PhotoBlob findByContentHash(String contentHash) {
+        return photoBlobRepository.findByContentHash(contentHash)
+                .orElseThrow(() -> new RuntimeException("ファイルが見つかりません: " + contentHash));
+    }
+
+    //SHA-256のMessageDigestを生成する関数
+    private MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256が利用できません", e);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.eventshare.app.service.impl;
+
+import com.eventshare.app.entity.Photo;
+import com.eventshare.app.repository.PhotoRepository;
+import com.eventshare.app.service.PhotoStorage;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+写真の縮小版（サムネイル・中サイズ）を生成するクラス
+アップロードの応答を遅らせないよう、専用のスレッドプールでバックグラウンド実行する
+ */
+@Component
+public class PhotoDerivativeGenerator {
+    //縮小版のJPEG画質
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final PhotoRepository photoRepository;
+    private final PhotoStorage photoStorage;
+    private final ExecutorService executor;
+
+    @Autowired
+    public PhotoDerivativeGenerator(PhotoRepository photoRepository, PhotoStorage photoStorage,
+                                    @Value("${file.derivative.threads:2}") int threads) {
+        this.photoRepository = photoRepository;
+        this.photoStorage = photoStorage;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "photo-derivative-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    //縮小版の生成をバックグラウンドで開始（生成できた場合はtrueで完了する）
+    //縮小版は元ファイルのキーから作ったキー（例: 3f/a2/3fa2..._thumb.jpg）で保存する
+    public CompletableFuture<Boolean> generateAsync(Photo photo, String originalKey) {
+        Long photoId = photo.getId();
+        return CompletableFuture.supplyAsync(() -> generate(photoId, originalKey), executor);
+    }
+
+    /*
+    縮小版の生成
+    1.デコード時に間引き読み込みを行い、元画像を全画素ヒープに展開しない
+    2.中サイズ→サムネイルの順に縮小してJPEGで保存
+    3.生成完了をDBに記録
+    ImageIOで読めない形式（WebP等）は縮小版を作らず、元ファイルを配信する
+     */
+    public boolean generate(Long photoId, String originalKey) {
+        try {
+            BufferedImage source = readSubsampled(originalKey, Photo.Size.MEDIUM.getMaxWidth());
+            if (source == null) {
+                return false;
+            }
+            for (Photo.Size size : new Photo.Size[]{Photo.Size.MEDIUM, Photo.Size.THUMB}) {
+                BufferedImage resized = resize(source, size.getMaxWidth());
+                //一時ファイルに書き出してから保存先に送る
+                Path temporary = Files.createTempFile("photo-derivative-", ".jpg");
+                try {
+                    writeJpeg(resized, temporary);
+                    photoStorage.put(size.derivativeKey(originalKey), temporary, "image/jpeg");
+                } finally {
+                    Files.deleteIfExists(temporary);
+                }
+            }
+            photoRepository.markDerivativesReady(photoId);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("縮小版の生成に失敗しました: " + originalKey + " " + e.getMessage());
+            return false;
+        }
+    }
+
+    //縮小版ファイルを削除
+    public void deleteDerivatives(String originalKey) throws IOException {
+        for (Photo.Size size : Photo.Size.values()) {
+            if (size != Photo.Size.ORIGINAL) {
+                photoStorage.delete(size.derivativeKey(originalKey));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    //目標幅の2倍を下回らない範囲で間引いて画像を読み込む（読めない形式はnull）
+    private BufferedImage readSubsampled(String key, int targetWidth) throws IOException {
+        try (InputStream stream = photoStorage.get(key);
+             ImageInputStream input = ImageIO.createImageInputStream(stream)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int step = Math.max(1, reader.getWidth(0) / (targetWidth * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    //最大幅に収まるよう縦横比を保って縮小（透過部分は白で塗りつぶす）
+    private BufferedImage resize(BufferedImage source, int maxWidth) {
+        int width = Math.min(maxWidth, source.getWidth());
+        int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    //JPEGで保存
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
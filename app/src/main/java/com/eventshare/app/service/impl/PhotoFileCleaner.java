@@ -0,0 +1,250 @@
+package com.eventshare.app.service.impl;
+
+import com.eventshare.app.dto.response.PhotoCleanupProgress;
+import com.eventshare.app.dto.response.PhotoFileInfo;
+import com.eventshare.app.repository.PhotoFileDeletionRepository;
+import com.eventshare.app.service.PhotoStorage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/*
+削除した写真のファイルを後片付けするクラス
+写真の行はイベント削除・退会時のデータ削除のトランザクションで削除済み（保存済みファイルの参照数も減らし済み）のため、ここではファイルのみを扱う
+1.保存済みファイル（photo_blobs）を参照していた写真：参照数が0になっていればファイル（縮小版を含む）と行を削除
+  同じ内容を別のイベントの写真が参照している場合は残す
+2.内容アドレス保存の導入前の写真：保存ファイル名のファイル（縮小版を含む）を削除し、削除待ちの記録（photo_file_deletions）も削除
+  記録は写真の行を削除するトランザクションでrecordLegacyFilesBy...により作成する
+batchSize件ずつ処理し、バッチの間はpause待機してストレージへの負荷を抑える
+進捗はイベントごとに保持し、ログとgetProgressで確認できる
+後片付けが中断・失敗した場合やサーバーが停止した場合に残ったファイルは、sweepで参照数0以下の保存済みファイルと
+削除待ちの記録から探して削除する（定期実行はPhotoFileCleanupSweeper）
+アップロードで参照数を増やした後、写真の行を登録する前にサーバーが停止した場合などに漏れた参照数も、sweepで戻してから削除する
+ */
+@Component
+public class PhotoFileCleaner {
+    //進捗を保持するイベント数（古いものから破棄する）
+    private static final int MAX_TRACKED_EVENTS = 100;
+
+    private final PhotoBlobStore photoBlobStore;
+    private final PhotoDerivativeGenerator photoDerivativeGenerator;
+    private final PhotoStorage photoStorage;
+    private final PhotoFileDeletionRepository photoFileDeletionRepository;
+    private final int batchSize;
+    private final Duration pause;
+
+    //前回のsweepで参照数が実際の参照より多かったファイル（内容ハッシュ → 超過分）
+    private volatile Map<String, Integer> suspectedLeaks = Map.of();
+
+    private final Map<Long, PhotoCleanupProgress> progressByEvent = Collections.synchronizedMap(
+            new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, PhotoCleanupProgress> eldest) {
+                    return size() > MAX_TRACKED_EVENTS;
+                }
+            });
+
+    @Autowired
+    public PhotoFileCleaner(PhotoBlobStore photoBlobStore, PhotoDerivativeGenerator photoDerivativeGenerator,
+                            PhotoStorage photoStorage, PhotoFileDeletionRepository photoFileDeletionRepository,
+                            @Value("${file.cleanup.batch-size:100}") int batchSize,
+                            @Value("${file.cleanup.pause:100ms}") Duration pause) {
+        this.photoBlobStore = photoBlobStore;
+        this.photoDerivativeGenerator = photoDerivativeGenerator;
+        this.photoStorage = photoStorage;
+        this.photoFileDeletionRepository = photoFileDeletionRepository;
+        this.batchSize = batchSize;
+        this.pause = pause;
+    }
+
+    //削除したイベントの写真ファイルをすべて後片付け（最終的な進捗を返す）
+    public PhotoCleanupProgress cleanUp(Long eventId, List<PhotoFileInfo> files) {
+        int processed = 0;
+        int failed = 0;
+        updateProgress(eventId, files.size(), processed, failed);
+        try {
+            for (int start = 0; start < files.size(); start += batchSize) {
+                List<PhotoFileInfo> batch = files.subList(start, Math.min(start + batchSize, files.size()));
+                failed += deleteFiles(batch);
+                processed += batch.size();
+                updateProgress(eventId, files.size(), processed, failed);
+                System.out.println("写真ファイルの後片付け: イベントID " + eventId + " / " + processed + "件 / "
+                        + files.size() + "件（失敗 " + failed + "件）");
+                if (processed < files.size() && !pause.isZero()) {
+                    Thread.sleep(pause.toMillis());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("写真ファイルの後片付けを中断しました: イベントID " + eventId);
+            return progressByEvent.get(eventId);
+        }
+        PhotoCleanupProgress result = new PhotoCleanupProgress(eventId, files.size(), processed, failed, true);
+        progressByEvent.put(eventId, result);
+        return result;
+    }
+
+    //イベントの後片付けの進捗（記録がなければ空）
+    public Optional<PhotoCleanupProgress> getProgress(Long eventId) {
+        return Optional.ofNullable(progressByEvent.get(eventId));
+    }
+
+    //イベントの導入前の写真のファイルを削除待ちとして記録（写真の行を削除する前に、同じトランザクションで呼び出す）
+    @Transactional
+    public int recordLegacyFilesByEvent(Long eventId) {
+        return photoFileDeletionRepository.insertLegacyFilesByEventId(eventId);
+    }
+
+    //指定IDの導入前の写真のファイルを削除待ちとして記録（recordLegacyFilesByEventと同じく、写真の行を削除する前に呼び出す）
+    @Transactional
+    public int recordLegacyFilesByPhotoIds(Collection<Long> photoIds) {
+        return photoFileDeletionRepository.insertLegacyFilesByPhotoIds(photoIds);
+    }
+
+    /*
+    後片付けが済んでいないファイルを探して削除（削除を試みた件数を返す）
+    1.参照数が実際の参照より多いままの保存済みファイルの参照数を戻す（reconcileReferences）
+    2.参照数が0以下のまま残っている保存済みファイル
+    3.削除待ちの記録が残っている導入前の写真のファイル
+    それぞれキーの順にbatchSize件ずつ取得し、失敗したものは読み飛ばして次回の実行で再度対象にする
+    コミット直後の後片付けと重なった場合も、参照数の条件付き削除・存在しないファイルの削除は何もしないため問題ない
+     */
+    public int sweep() {
+        int processed = 0;
+        int failed = 0;
+        try {
+            reconcileReferences();
+            String afterHash = "";
+            while (true) {
+                List<String> hashes = photoBlobStore.findUnreferenced(afterHash, batchSize);
+                if (hashes.isEmpty()) {
+                    break;
+                }
+                for (String hash : hashes) {
+                    if (!deleteBlob(hash)) {
+                        failed++;
+                    }
+                }
+                processed += hashes.size();
+                afterHash = hashes.get(hashes.size() - 1);
+                pauseBetweenBatches();
+            }
+            String afterFilename = "";
+            while (true) {
+                List<String> filenames = photoFileDeletionRepository.findFilenamesAfter(afterFilename, PageRequest.of(0, batchSize));
+                if (filenames.isEmpty()) {
+                    break;
+                }
+                for (String filename : filenames) {
+                    if (!deleteLegacyFile(filename)) {
+                        failed++;
+                    }
+                }
+                processed += filenames.size();
+                afterFilename = filenames.get(filenames.size() - 1);
+                pauseBetweenBatches();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("残った写真ファイルの削除を中断しました");
+        }
+        if (processed > 0) {
+            System.out.println("残った写真ファイルを削除しました: " + processed + "件（失敗 " + failed + "件）");
+        }
+        return processed;
+    }
+
+    /*
+    漏れた参照数を戻す（戻したファイルの件数を返す）
+    アップロード中は参照数を増やしてから写真の行を登録するため、その瞬間だけ参照数が実際の参照より多く見える
+    登録中のアップロードの分を減らさないよう、前回と今回のsweepの両方で超過していたファイルについて、小さい方の超過分だけ減らす
+     */
+    private int reconcileReferences() throws InterruptedException {
+        Map<String, Integer> previous = suspectedLeaks;
+        Map<String, Integer> observed = new HashMap<>();
+        int released = 0;
+        String afterHash = "";
+        while (true) {
+            List<String> hashes = photoBlobStore.findOvercounted(afterHash, batchSize);
+            if (hashes.isEmpty()) {
+                break;
+            }
+            for (String hash : hashes) {
+                int excess = photoBlobStore.countExcessReferences(hash);
+                int leaked = Math.min(previous.getOrDefault(hash, 0), excess);
+                if (leaked > 0 && photoBlobStore.releaseLeakedReferences(hash, leaked)) {
+                    released++;
+                    System.out.println("漏れた参照数を戻しました: " + PhotoBlobStore.keyOf(hash) + " " + leaked + "件");
+                } else if (excess > 0) {
+                    observed.put(hash, excess);
+                }
+            }
+            afterHash = hashes.get(hashes.size() - 1);
+            pauseBetweenBatches();
+        }
+        suspectedLeaks = observed;
+        return released;
+    }
+
+    //削除した写真のファイルを削除（失敗した件数を返す）
+    public int deleteFiles(List<PhotoFileInfo> files) {
+        int failed = 0;
+        for (PhotoFileInfo file : files) {
+            if (!deleteFiles(file)) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    //写真1件分のファイルを削除（失敗した場合はfalse）
+    private boolean deleteFiles(PhotoFileInfo file) {
+        return file.getBlobHash() != null ? deleteBlob(file.getBlobHash()) : deleteLegacyFile(file.getFilename());
+    }
+
+    //参照がなくなっていれば保存済みファイルを削除（失敗した場合はfalse）
+    private boolean deleteBlob(String contentHash) {
+        try {
+            photoBlobStore.deleteIfUnreferenced(contentHash);
+            return true;
+        } catch (RuntimeException e) {
+            System.out.println("写真ファイルの削除に失敗しました: " + PhotoBlobStore.keyOf(contentHash) + " " + e.getMessage());
+            return false;
+        }
+    }
+
+    //導入前の写真のファイルを削除し、削除待ちの記録も削除（失敗した場合は記録を残してfalse）
+    private boolean deleteLegacyFile(String filename) {
+        try {
+            photoStorage.delete(filename);
+            photoDerivativeGenerator.deleteDerivatives(filename);
+            photoFileDeletionRepository.deleteByFilename(filename);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("写真ファイルの削除に失敗しました: " + filename + " " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void pauseBetweenBatches() throws InterruptedException {
+        if (!pause.isZero()) {
+            Thread.sleep(pause.toMillis());
+        }
+    }
+
+    private void updateProgress(Long eventId, int total, int processed, int failed) {
+        progressByEvent.put(eventId, new PhotoCleanupProgress(eventId, total, processed, failed, false));
+    }
+}
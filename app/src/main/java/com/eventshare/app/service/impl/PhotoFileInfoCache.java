@@ -0,0 +1,40 @@
+package com.eventshare.app.service.impl;
+
+import com.eventshare.app.dto.response.PhotoFileInfo;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+写真ファイルの配信用メタ情報のキャッシュ
+保存ファイル名 → 配信用メタ情報（写真ファイルは内容が変わらないため、削除・移行・縮小版の生成時のみ無効化）
+配信（PhotoServiceImpl）と導入前の写真の移行（LegacyPhotoMigrator）で共有し、移行した写真はその場で無効化する
+最大件数を超えたら最も古く参照されたものから削除する
+ */
+@Component
+public class PhotoFileInfoCache {
+    //最大件数
+    private static final int MAX_SIZE = 10_000;
+
+    private final Map<String, PhotoFileInfo> cache = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PhotoFileInfo> eldest) {
+                    return size() > MAX_SIZE;
+                }
+            });
+
+    public PhotoFileInfo get(String filename) {
+        return cache.get(filename);
+    }
+
+    public void put(String filename, PhotoFileInfo info) {
+        cache.put(filename, info);
+    }
+
+    public void remove(String filename) {
+        cache.remove(filename);
+    }
+}
@@ -1,35 +1,96 @@
 package com.eventshare.app.service.impl;
 
+import com.eventshare.app.dto.response.PhotoCleanupProgress;
+import com.eventshare.app.dto.response.PhotoFileInfo;
+import com.eventshare.app.dto.response.PhotoUploadResult;
 import com.eventshare.app.entity.Event;
 import com.eventshare.app.entity.Photo;
+import com.eventshare.app.entity.PhotoBlob;
 import com.eventshare.app.entity.User;
+import com.eventshare.app.listener.EventPhotosDeletedEvent;
+import com.eventshare.app.listener.PhotoDeletedEvent;
 import com.eventshare.app.repository.PhotoRepository;
 import com.eventshare.app.service.PhotoService;
+import com.eventshare.app.service.PhotoStorage;
+import jakarta.annotation.PreDestroy;
+import org.apache.tika.Tika;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class PhotoServiceImpl implements PhotoService {
     //リポジトリの依存性の注入
     private final PhotoRepository photoRepository;
+    private final PhotoDerivativeGenerator photoDerivativeGenerator;
+    private final PhotoBlobStore photoBlobStore;
+    private final PhotoStorage photoStorage;
+    private final PhotoFileCleaner photoFileCleaner;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Tika tika = new Tika();
 
-    @Value("${file.upload.directory:uploads/photos}")
-    private String uploadDirectory;
+    //保存ファイル名 → 配信用メタ情報のキャッシュ
+    private final PhotoFileInfoCache fileInfoCache;
+
+    //一括アップロードで受け付ける最大ファイル数
+    public static final int MAX_BATCH_FILES = 100;
+
+    //署名付きURLの有効期限
+    @Value("${file.storage.presign-expiry:10m}")
+    private Duration presignExpiry = Duration.ofMinutes(10);
+
+    //一括アップロードの検証・書き込み用スレッドプール
+    //スレッド数と待ち行列に上限を設け、あふれた分はリクエストのスレッド自身で処理する（ディスクへの同時書き込み数を抑える）
+    private final ExecutorService uploadExecutor;
 
     //コンストラクタインジェクション
     @Autowired
-    public PhotoServiceImpl(PhotoRepository photoRepository){
+    public PhotoServiceImpl(PhotoRepository photoRepository, PhotoDerivativeGenerator photoDerivativeGenerator,
+                            PhotoBlobStore photoBlobStore, PhotoStorage photoStorage,
+                            PhotoFileCleaner photoFileCleaner, PhotoFileInfoCache fileInfoCache,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${file.upload.threads:4}") int uploadThreads){
         this.photoRepository = photoRepository;
+        this.photoDerivativeGenerator = photoDerivativeGenerator;
+        this.photoBlobStore = photoBlobStore;
+        this.photoStorage = photoStorage;
+        this.photoFileCleaner = photoFileCleaner;
+        this.fileInfoCache = fileInfoCache;
+        this.eventPublisher = eventPublisher;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.uploadExecutor = new ThreadPoolExecutor(uploadThreads, uploadThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(MAX_BATCH_FILES), runnable -> {
+                    Thread thread = new Thread(runnable, "photo-upload-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdown();
     }
 
     /*
@@ -38,40 +99,68 @@ public class PhotoServiceImpl implements PhotoService {
     //写真を保存するメソッド
     @Override
     public Photo uploadPhoto(MultipartFile file, String caption, Event event, User user){
+        Photo photo = storeFile(file, caption, event, user);
+        Photo savedPhoto;
         try {
-            //バリデーションチェック
-            validateFile(file);
-
-            //アップロード先のディレクトリを準備
-            Path uploadPath = Paths.get(uploadDirectory);
-            if (!Files.exists(uploadPath)){//ファイルディレクトリが存在しない場合
-                Files.createDirectories(uploadPath);
-            }
-
-            //ファイル名生成
-            String originalFilename = file.getOriginalFilename();//元のファイル名
-            String fileExtension = getFileExtension(originalFilename);
-            String filename = UUID.randomUUID().toString() + fileExtension;
+            savedPhoto = photoRepository.save(photo);
+        } catch (RuntimeException e) {
+            //登録できなかった場合はファイルの参照を戻す
+            photoBlobStore.release(photo.getBlob());
+            throw e;
+        }
+        startDerivatives(savedPhoto);
+        return savedPhoto;
+    }
 
-            //ファイルをディスクに保存
-            Path filePath = uploadPath.resolve(filename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+    /*
+    写真の一括アップロード
+    1.各ファイルの検証・ディスクへの書き込みを専用スレッドプールで並列に実行
+    2.成功したファイルの写真情報を1トランザクションでまとめて登録（INSERTはJDBCバッチで送信）
+    3.縮小版の生成をバックグラウンドで開始
+    失敗したファイルはエラー内容を結果に含め、他のファイルの登録は続ける
+     */
+    @Override
+    public List<PhotoUploadResult> uploadPhotos(List<MultipartFile> files, List<String> captions, Event event, User user) {
+        if (files.isEmpty()) {
+            throw new RuntimeException("ファイルが選択されていません");
+        }
+        if (files.size() > MAX_BATCH_FILES) {
+            throw new RuntimeException("一度にアップロードできるファイルは" + MAX_BATCH_FILES + "件までです");
+        }
 
-            //データベースに写真情報を保存
-            Photo photo = new Photo();
-            photo.setFilename(filename);
-            photo.setUploadFilename(originalFilename);
-            photo.setCaption(caption);
-            photo.setFileSize(file.getSize());
-            photo.setMineType(file.getContentType());
-            photo.setEvent(event);
-            photo.setUploadedBy(user);
+        //検証・書き込みを並列に開始（キャプションはファイルと同じ順番で対応させる）
+        List<CompletableFuture<Photo>> futures = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            String caption = i < captions.size() ? captions.get(i) : null;
+            futures.add(CompletableFuture.supplyAsync(() -> storeFile(file, caption, event, user), uploadExecutor));
+        }
 
-            return photoRepository.save(photo);
+        //すべての書き込みの完了を待ち、ファイルごとの結果をまとめる
+        List<PhotoUploadResult> results = new ArrayList<>(files.size());
+        List<Photo> storedPhotos = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            String originalFilename = files.get(i).getOriginalFilename();
+            try {
+                Photo photo = futures.get(i).join();
+                storedPhotos.add(photo);
+                results.add(new PhotoUploadResult(originalFilename, photo, null));
+            } catch (CompletionException e) {
+                results.add(new PhotoUploadResult(originalFilename, null, e.getCause().getMessage()));
+            }
+        }
 
-        } catch (IOException e){
-            throw new RuntimeException("ファイルの保存に失敗しました: " + e.getMessage());
+        if (!storedPhotos.isEmpty()) {
+            try {
+                photoRepository.saveAll(storedPhotos);
+            } catch (RuntimeException e) {
+                //登録できなかった場合はファイルの参照を戻す（他の写真から参照されていないファイルは削除される）
+                storedPhotos.forEach(photo -> photoBlobStore.release(photo.getBlob()));
+                throw new RuntimeException("写真情報の保存に失敗しました: " + e.getMessage());
+            }
+            storedPhotos.forEach(this::startDerivatives);
         }
+        return results;
     }
 
     //イベントから写真を取得
@@ -80,10 +169,17 @@ public class PhotoServiceImpl implements PhotoService {
         return photoRepository.findByEventOrderByUploadedAtDesc(event);
     }
 
-    //写真を削除
+    /*
+    写真を削除
+    移行処理（LegacyPhotoMigrator）が同時に保存済みファイルを設定した場合に旧ファイルの削除を選ばないよう、
+    写真の行をロックして最新の状態を読み込んでから、削除するファイルを決める
+    トランザクション内では参照数の減算・削除待ちの記録・行の削除のみ行い、ファイルはコミット後に削除する
+    （PhotoFileCleanupListener。コミットに失敗して写真の行が戻った場合にファイルだけが失われないように）
+     */
     @Override
+    @Transactional
     public void deletePhoto(Long photoId, User user) {
-        Photo photo = photoRepository.findById(photoId)
+        Photo photo = photoRepository.findByIdForUpdate(photoId)
                 .orElseThrow(() -> new RuntimeException("写真が見つかりません"));
 
         //投稿者本人かイベント作成者のみ削除可能
@@ -92,29 +188,132 @@ public class PhotoServiceImpl implements PhotoService {
             throw new RuntimeException("写真を削除する権限がありません");
         }
 
-        try {
-            //ファイルを削除
-            Path filePath = Paths.get(uploadDirectory, photo.getFilename());
-            Files.deleteIfExists(filePath);
+        //イベント単位の削除と同じく、参照数を減らし（導入前の写真はファイルを削除待ちとして記録し）てから写真の行を削除
+        //参照数が0になったファイル・導入前の写真のファイルは、コミット後に削除する（失敗した場合は定期的な後片付けで削除）
+        List<Long> photoIds = List.of(photo.getId());
+        List<PhotoFileInfo> files = photoRepository.findFileInfosByIds(photoIds);
+        photoBlobStore.releaseAllByPhotoIds(photoIds);
+        photoFileCleaner.recordLegacyFilesByPhotoIds(photoIds);
+        photoRepository.deleteByIds(photoIds);
+        fileInfoCache.remove(photo.getFilename());
+        files.forEach(file -> eventPublisher.publishEvent(new PhotoDeletedEvent(file)));
+    }
 
-            //データベースから削除
-            photoRepository.delete(photo);
-        } catch (IOException e){
-            throw new RuntimeException("ファイルの削除に失敗しました: " + e.getMessage());
+    /*
+     イベントの写真をまとめて削除
+     1.保存済みファイルの参照数を、イベントの写真が参照している分だけ1文で減らす
+     2.写真の行をevent_idを条件にした1文で削除（写真を1件ずつ読み込んで削除しない。導入前の写真のファイルは削除待ちとして記録しておく）
+     3.ファイルの削除はコミット後にバックグラウンドで行う（PhotoFileCleanupListener）
+     */
+    @Override
+    @Transactional
+    public int deletePhotosByEvent(Long eventId) {
+        List<PhotoFileInfo> files = photoRepository.findFileInfosByEventId(eventId);
+        if (files.isEmpty()) {
+            return 0;
+        }
+        photoBlobStore.releaseAllByEvent(eventId);
+        photoFileCleaner.recordLegacyFilesByEvent(eventId);
+        int deleted = photoRepository.deleteByEventId(eventId);
+        eventPublisher.publishEvent(new EventPhotosDeletedEvent(eventId, files));
+        return deleted;
+    }
+
+    @Override
+    public PhotoCleanupProgress cleanUpDeletedPhotoFiles(Long eventId, List<PhotoFileInfo> files) {
+        //削除した写真の配信用メタ情報をキャッシュから外す（以降は見つからない扱いになる）
+        files.forEach(file -> fileInfoCache.remove(file.getFilename()));
+        return photoFileCleaner.cleanUp(eventId, files);
+    }
+
+    @Override
+    public Optional<PhotoCleanupProgress> getPhotoCleanupProgress(Long eventId) {
+        return photoFileCleaner.getProgress(eventId);
+    }
+
+    /*
+     ユーザーが投稿した写真をまとめて削除（1バッチ分）
+     イベント単位の削除と同じく、参照数の減算・写真の行の削除をそれぞれ1文で行う
+     ファイルは呼び出し元がコミット後にdeletePhotoFilesで削除する
+     */
+    @Override
+    @Transactional
+    public List<PhotoFileInfo> deletePhotosByUploader(Long userId, int batchSize) {
+        List<Long> photoIds = photoRepository.findIdsByUploadedById(userId, PageRequest.of(0, batchSize));
+        if (photoIds.isEmpty()) {
+            return List.of();
         }
+        List<PhotoFileInfo> files = photoRepository.findFileInfosByIds(photoIds);
+        photoBlobStore.releaseAllByPhotoIds(photoIds);
+        photoFileCleaner.recordLegacyFilesByPhotoIds(photoIds);
+        photoRepository.deleteByIds(photoIds);
+        return files;
     }
 
     @Override
-    public byte[] getPhotoFile(String filename) {
+    public int deletePhotoFiles(List<PhotoFileInfo> files) {
+        files.forEach(file -> fileInfoCache.remove(file.getFilename()));
+        return photoFileCleaner.deleteFiles(files);
+    }
+
+    /*
+    写真ファイルの取得
+    ファイル全体をヒープに読み込まず、レスポンス書き込み時に保存先から少しずつ送る
+    （Rangeリクエストの部分送信もこのリソースからSpringが行う）
+     */
+    @Override
+    public Resource getPhotoFile(String filename) {
+        return getPhotoFile(filename, Photo.Size.ORIGINAL);
+    }
+
+    /*
+    導入前の写真のファイルが見つからない場合は、移行処理（LegacyPhotoMigrator）でハッシュの階層に移動済みの可能性があるため
+    キャッシュを破棄してDBから取り直す（移行中も配信を止めない）
+    ファイルの存在確認は保存先からの取得時に行われるため、見つかった場合は追加の確認をしない
+     */
+    @Override
+    public Resource getPhotoFile(String filename, Photo.Size size) {
+        PhotoFileInfo info = getPhotoFileInfo(filename);
         try {
-            Path filePath = Paths.get(uploadDirectory, filename);
-            if (!Files.exists(filePath)) {
-                throw new RuntimeException("ファイルが見つかりません: " + filename);
+            return photoStorage.load(storageKey(info, size));
+        } catch (RuntimeException e) {
+            if (info.getBlobHash() != null) {
+                throw e;
             }
-            return Files.readAllBytes(filePath);
-        } catch (IOException e) {
-            throw new RuntimeException("ファイルの読み込みに失敗しました: " + e.getMessage());
+            fileInfoCache.remove(filename);
+            PhotoFileInfo reloaded = getPhotoFileInfo(filename);
+            if (reloaded.getBlobHash() == null) {
+                throw e;
+            }
+            return photoStorage.load(storageKey(reloaded, size));
+        }
+    }
+
+    //保存先から直接取得できる期限付きURL（ローカル保存の場合は空）
+    //移行した写真のキャッシュは移行処理が破棄するため、ここではファイルの存在を確認しない
+    @Override
+    public Optional<URI> getPhotoFileUrl(String filename, Photo.Size size) {
+        return photoStorage.presignedUrl(storageKey(getPhotoFileInfo(filename), size), presignExpiry);
+    }
+
+    /*
+    写真ファイルの配信用メタ情報を取得
+    初回のみDBから読み込み、以降はメモリ上のキャッシュから返す
+     */
+    @Override
+    public PhotoFileInfo getPhotoFileInfo(String filename) {
+        PhotoFileInfo cached = fileInfoCache.get(filename);
+        if (cached != null) {
+            return cached;
         }
+        PhotoFileInfo info = photoRepository.findFileInfoByFilename(filename)
+                .orElseThrow(() -> new RuntimeException("ファイルが見つかりません: " + filename));
+        //MIMEタイプ未登録の古いデータは拡張子から判定
+        if (info.getMimeType() == null) {
+            info.setMimeType(fallbackDetection(filename));
+        }
+        fileInfoCache.put(filename, info);
+        return info;
     }
 
     @Override
@@ -142,6 +341,72 @@ public class PhotoServiceImpl implements PhotoService {
     以下プライベートメソッド
     実装の詳細
      */
+    /*
+    ファイルを検証して保存し、未登録の写真情報を返す
+    アップロードされたファイルは一時ファイルから少しずつ読み込んで書き込む（ファイル全体をヒープに読み込まない）
+    同じ内容のファイルが保存済みであれば新たには保存せず、そのファイルを参照する
+     */
+    private Photo storeFile(MultipartFile file, String caption, Event event, User user) {
+        try {
+            //バリデーションチェック
+            validateFile(file);
+
+            //ファイルの先頭バイトから形式を判定し、申告された形式と一致するか確認
+            String mimeType = detectMimeType(file);
+
+            //書き込みと同時にSHA-256ハッシュを計算し、内容のハッシュで保存（ハッシュはETagにも使う）
+            PhotoBlobStore.StagedFile staged;
+            try (InputStream inputStream = file.getInputStream()) {
+                staged = photoBlobStore.stage(inputStream);
+            }
+            PhotoBlob blob;
+            try {
+                blob = photoBlobStore.acquire(staged, mimeType);
+            } catch (IOException | RuntimeException e) {
+                photoBlobStore.discard(staged);
+                throw e;
+            }
+
+            //写真ごとの公開ファイル名を生成（保存先のファイルは同じ内容の写真で共有する）
+            String originalFilename = file.getOriginalFilename();//元のファイル名
+            String filename = UUID.randomUUID().toString() + getFileExtension(originalFilename);
+
+            //写真情報を作成（データベースへの登録は呼び出し側で行う）
+            Photo photo = new Photo();
+            photo.setFilename(filename);
+            photo.setUploadFilename(originalFilename);
+            photo.setCaption(caption);
+            photo.setFileSize(staged.size());
+            photo.setMineType(mimeType);
+            photo.setContentHash(blob.getContentHash());
+            photo.setBlob(blob);
+            //同じ内容の縮小版が生成済みであればそのまま使う
+            photo.setDerivativesReady(photoBlobStore.derivativesExist(blob.getContentHash()));
+            photo.setEvent(event);
+            photo.setUploadedBy(user);
+            return photo;
+
+        } catch (IOException e){
+            throw new RuntimeException("ファイルの保存に失敗しました: " + e.getMessage());
+        }
+    }
+
+    //保存先のキー（内容のハッシュから決まる。導入前の写真はアップロードディレクトリ直下の保存ファイル名のまま）
+    private String storageKey(PhotoFileInfo info, Photo.Size size) {
+        String key = info.getBlobHash() != null ? PhotoBlobStore.keyOf(info.getBlobHash()) : info.getFilename();
+        return size.derivativeKey(key);
+    }
+
+    //縮小版をバックグラウンドで生成（完了したら配信用メタ情報のキャッシュを破棄して縮小版を配信させる）
+    private void startDerivatives(Photo photo) {
+        if (Boolean.TRUE.equals(photo.getDerivativesReady())) {
+            return;
+        }
+        String filename = photo.getFilename();
+        photoDerivativeGenerator.generateAsync(photo, PhotoBlobStore.keyOf(photo.getContentHash()))
+                .thenAccept(ready -> fileInfoCache.remove(filename));
+    }
+
     //バリデーションチェックの関数
     private void validateFile(MultipartFile file){
         //空じゃないか
@@ -156,13 +421,54 @@ public class PhotoServiceImpl implements PhotoService {
         }
 
         //ファイル形式
-        String contentType = file.getContentType();
+        String contentType = normalizeContentType(file.getContentType());
         if (contentType == null || !isValidImageType(contentType)){
             throw new RuntimeException("ファイルの形式が不適切です。PEG、PNG、GIF、WebPのみアップロード可能です");
         }
     }
 
+    //ファイルの先頭バイトからMIMEタイプを判定する関数（Tikaは判定に必要な先頭部分のみ読み込む）
+    private String detectMimeType(MultipartFile file) throws IOException {
+        String detected;
+        try (InputStream inputStream = file.getInputStream()) {
+            detected = tika.detect(inputStream, file.getOriginalFilename());
+        }
+        if (!isValidImageType(detected)) {
+            throw new RuntimeException("ファイルの形式が不適切です。PEG、PNG、GIF、WebPのみアップロード可能です");
+        }
+        if (!detected.equals(normalizeContentType(file.getContentType()))) {
+            throw new RuntimeException("ファイルの内容が指定された形式と一致しません");
+        }
+        return detected;
+    }
+
+    //拡張子からMIMEタイプを判定する関数
+    private String fallbackDetection(String filename) {
+        String lowerCase = filename.toLowerCase();//小文字にする
+        if (lowerCase.endsWith(".jpg") || lowerCase.endsWith(".jpeg")) return "image/jpeg";
+        if (lowerCase.endsWith(".png")) return "image/png";
+        if (lowerCase.endsWith(".gif")) return "image/gif";
+        if (lowerCase.endsWith(".webp")) return "image/webp";
+
+        return "application/octet-stream";
+    }
+
     //ファイル形式が有効かチェックする関数
+    //申告された形式を比較用にそろえる（パラメータ・大文字小文字の違いを除き、ブラウザが使う別名を正式な名前にする）
+    //例: "image/JPEG; charset=binary" → "image/jpeg"、"image/pjpeg" → "image/jpeg"、"image/x-png" → "image/png"
+    private static String normalizeContentType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        int parameters = contentType.indexOf(';');
+        String type = (parameters >= 0 ? contentType.substring(0, parameters) : contentType).trim().toLowerCase(Locale.ROOT);
+        return switch (type) {
+            case "image/jpg", "image/pjpeg" -> "image/jpeg";
+            case "image/x-png" -> "image/png";
+            default -> type;
+        };
+    }
+
     private boolean isValidImageType(String contentType){
         return contentType.equals("image/jpeg") ||
                 contentType.equals("image/png") ||
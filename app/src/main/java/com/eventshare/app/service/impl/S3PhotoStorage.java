@@ -0,0 +1,238 @@
+package com.eventshare.app.service.impl;
+
+import com.eventshare.app.service.PhotoStorage;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.ContentStreamProvider;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/*
+S3互換ストレージ（AWS S3、MinIO等）に写真ファイルを保存する実装（file.storage.type=s3）
+クライアントはS3Configで作成する
+1.保存：一定サイズを超えるファイルはマルチパートアップロードで分割して送信する
+  各パートはローカルの一時ファイルの該当範囲から直接読み込むため、ファイル全体をヒープに載せない
+2.配信：期限付きURL（署名付きURL）を発行し、ブラウザがストレージから直接取得する（ファイルの内容がアプリケーションを通らない）
+ */
+public class S3PhotoStorage implements PhotoStorage {
+    //マルチパートアップロードの1パートの大きさ（S3の最小は5MB）
+    static final long PART_SIZE = 8L * 1024 * 1024;
+
+    private final S3Client s3Client;
+    private final S3Presigner s3Presigner;
+    private final String bucket;
+
+    public S3PhotoStorage(S3Client s3Client, S3Presigner s3Presigner, String bucket) {
+        this.s3Client = s3Client;
+        this.s3Presigner = s3Presigner;
+        this.bucket = bucket;
+    }
+
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        long size = Files.size(source);
+        try {
+            if (size <= PART_SIZE) {
+                s3Client.putObject(request -> request.bucket(bucket).key(key).contentType(contentType),
+                        RequestBody.fromFile(source));
+            } else {
+                putMultipart(key, source, size, contentType);
+            }
+        } catch (SdkException e) {
+            throw new IOException("ストレージへの保存に失敗しました: " + key, e);
+        }
+        Files.deleteIfExists(source);
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        try {
+            return s3Client.getObject(request -> request.bucket(bucket).key(key));
+        } catch (NoSuchKeyException e) {
+            throw new IOException("ファイルが見つかりません: " + key, e);
+        } catch (SdkException e) {
+            throw new IOException("ストレージからの読み込みに失敗しました: " + key, e);
+        }
+    }
+
+    //内容はレスポンス書き込み時にストレージから読み込む（署名付きURLを使わない場合の配信用）
+    @Override
+    public Resource load(String key) {
+        try {
+            ObjectInfo info = stat(key).orElseThrow(() -> new RuntimeException("ファイルが見つかりません: " + key));
+            return new S3ObjectResource(key, info);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Optional<ObjectInfo> stat(String key) throws IOException {
+        try {
+            HeadObjectResponse head = s3Client.headObject(request -> request.bucket(bucket).key(key));
+            return Optional.of(new ObjectInfo(head.contentLength(), head.lastModified()));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        } catch (S3Exception e) {
+            //HEADはエラー本文を返さないため、404が汎用の例外になる場合がある
+            if (e.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw new IOException("ストレージの確認に失敗しました: " + key, e);
+        } catch (SdkException e) {
+            throw new IOException("ストレージの確認に失敗しました: " + key, e);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            s3Client.deleteObject(request -> request.bucket(bucket).key(key));
+        } catch (SdkException e) {
+            throw new IOException("ストレージからの削除に失敗しました: " + key, e);
+        }
+    }
+
+    @Override
+    public Optional<URI> presignedUrl(String key, Duration expiry) {
+        try {
+            return Optional.of(s3Presigner.presignGetObject(request -> request
+                    .signatureDuration(expiry)
+                    .getObjectRequest(object -> object.bucket(bucket).key(key)))
+                    .url().toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /*
+    マルチパートアップロード
+    パートごとに一時ファイルの該当範囲を読み込むストリームを渡す（再送時も同じ範囲を開き直せる）
+    途中で失敗した場合はアップロードを中止し、送信済みのパートを残さない
+     */
+    private void putMultipart(String key, Path source, long size, String contentType) {
+        String uploadId = s3Client.createMultipartUpload(request -> request.bucket(bucket).key(key).contentType(contentType))
+                .uploadId();
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            int partNumber = 1;
+            for (long offset = 0; offset < size; offset += PART_SIZE, partNumber++) {
+                long length = Math.min(PART_SIZE, size - offset);
+                long partOffset = offset;
+                int number = partNumber;
+                ContentStreamProvider provider = () -> openRange(source, partOffset, length);
+                String etag = s3Client.uploadPart(request -> request.bucket(bucket).key(key)
+                                .uploadId(uploadId).partNumber(number).contentLength(length),
+                        RequestBody.fromContentProvider(provider, length, contentType)).eTag();
+                parts.add(CompletedPart.builder().partNumber(number).eTag(etag).build());
+            }
+            s3Client.completeMultipartUpload(request -> request.bucket(bucket).key(key).uploadId(uploadId)
+                    .multipartUpload(upload -> upload.parts(parts)));
+        } catch (RuntimeException e) {
+            s3Client.abortMultipartUpload(request -> request.bucket(bucket).key(key).uploadId(uploadId));
+            throw e;
+        }
+    }
+
+    //ファイルの指定範囲だけを読み込むストリーム
+    private static InputStream openRange(Path source, long offset, long length) {
+        try {
+            FileChannel channel = FileChannel.open(source);
+            channel.position(offset);
+            return new RangeInputStream(Channels.newInputStream(channel), length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //指定した長さまでで読み込みを終えるストリーム
+    private static class RangeInputStream extends FilterInputStream {
+        private long remaining;
+
+        RangeInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+    }
+
+    //ストレージ上のファイルを表すリソース（サイズ・更新日時は取得済みの情報を返す）
+    private class S3ObjectResource extends AbstractResource {
+        private final String key;
+        private final ObjectInfo info;
+
+        S3ObjectResource(String key, ObjectInfo info) {
+            this.key = key;
+            this.info = info;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return get(key);
+        }
+
+        @Override
+        public long contentLength() {
+            return info.size();
+        }
+
+        @Override
+        public long lastModified() {
+            return info.lastModified().toEpochMilli();
+        }
+
+        @Override
+        public String getFilename() {
+            return key.substring(key.lastIndexOf('/') + 1);
+        }
+
+        @Override
+        public String getDescription() {
+            return "S3 object [" + bucket + "/" + key + "]";
+        }
+    }
+}
@@ -1,22 +1,34 @@
 package com.eventshare.app.service.impl;
 
+import com.eventshare.app.entity.AccountPurge;
 import com.eventshare.app.entity.User;
+import com.eventshare.app.listener.AccountPurgeRequestedEvent;
+import com.eventshare.app.repository.AccountPurgeRepository;
 import com.eventshare.app.repository.UserRepository;
 import com.eventshare.app.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class UserServiceImpl implements UserService {
     //リポジトリの依存性注入
     private final UserRepository userRepository;
+    private final AccountPurgeRepository accountPurgeRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     //コンストラクタインジェクション
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, AccountPurgeRepository accountPurgeRepository,
+                           ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
+        this.accountPurgeRepository = accountPurgeRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     //以下メソッド実装
@@ -63,11 +75,44 @@ public class UserServiceImpl implements UserService {
         return userRepository.save(existingUser);
     }
 
+    /*
+     ユーザー削除
+     関連データをカスケードで読み込んで1トランザクションで削除せず、削除ジョブを登録してコミット後にバックグラウンドで削除する
+     （AccountPurgeJob）。受け付けた時点で新たなログインはできなくなる
+     受付済みの場合は登録済みのジョブを返す（失敗したジョブは再実行する）
+     */
     @Override
-    public void deleteUser(Long id) {
-        //更新対象を取得
-        User user = getUserById(id);
-        userRepository.delete(user);
+    @Transactional
+    public AccountPurge deleteUser(Long id) {
+        Optional<AccountPurge> existing = accountPurgeRepository.findById(id);
+        if (existing.isPresent()) {
+            AccountPurge purge = existing.get();
+            if (purge.getStatus() == AccountPurge.Status.FAILED) {
+                purge.setStatus(AccountPurge.Status.PENDING);
+                purge.setUpdatedAt(LocalDateTime.now());
+                eventPublisher.publishEvent(new AccountPurgeRequestedEvent(id));
+            }
+            return purge;
+        }
+        if (!userRepository.existsById(id)) {
+            throw new RuntimeException("ユーザーが見つかりません。ID: " + id);
+        }
+
+        AccountPurge purge = new AccountPurge();
+        purge.setUserId(id);
+        purge.setStatus(AccountPurge.Status.PENDING);
+        purge.setPhase(AccountPurge.Phase.PARTICIPATIONS);
+        purge.setRequestedAt(LocalDateTime.now());
+        purge.setUpdatedAt(purge.getRequestedAt());
+        AccountPurge saved = accountPurgeRepository.save(purge);
+        //コミット後にデータ削除を開始
+        eventPublisher.publishEvent(new AccountPurgeRequestedEvent(id));
+        return saved;
+    }
+
+    @Override
+    public Optional<AccountPurge> getDeletionStatus(Long id) {
+        return accountPurgeRepository.findById(id);
     }
 
     @Override
@@ -0,0 +1,52 @@
+-- 初期スキーマ（ddl-auto=update で管理していた時点のテーブル構成）
+-- 既存のDBではテーブルが作成済みのため、IF NOT EXISTS により何もしない
+CREATE TABLE IF NOT EXISTS users (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username        VARCHAR(255)  NOT NULL,
+    password        VARCHAR(255)  NOT NULL,
+    profile_picture VARCHAR(255),
+    bio             VARCHAR(1000),
+    created_at      TIMESTAMP(6),
+    updated_at      TIMESTAMP(6),
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+CREATE TABLE IF NOT EXISTS event_categories (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL,
+    description VARCHAR(255),
+    CONSTRAINT uk_event_categories_name UNIQUE (name)
+);
+
+CREATE TABLE IF NOT EXISTS events (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title       VARCHAR(255)  NOT NULL,
+    description VARCHAR(2000),
+    event_date  TIMESTAMP(6)  NOT NULL,
+    location    VARCHAR(255),
+    category_id BIGINT        NOT NULL REFERENCES event_categories (id),
+    creator_id  BIGINT        NOT NULL REFERENCES users (id),
+    capacity    INTEGER,
+    created_at  TIMESTAMP(6),
+    updated_at  TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS event_participations (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_id   BIGINT       NOT NULL REFERENCES events (id),
+    user_id    BIGINT       NOT NULL REFERENCES users (id),
+    status     VARCHAR(255) CHECK (status IN ('CONFIRMED', 'WAITING', 'CANCELLED')),
+    created_at TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS photos (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    filename        VARCHAR(255) NOT NULL,
+    upload_filename VARCHAR(255),
+    caption         VARCHAR(500),
+    file_size       BIGINT,
+    mine_type       VARCHAR(50),
+    uploaded_at     TIMESTAMP(6),
+    event_id        BIGINT       NOT NULL REFERENCES events (id),
+    uploaded_by     BIGINT       NOT NULL REFERENCES users (id)
+);
@@ -0,0 +1,30 @@
+-- 参加者数カウンタ・写真のハッシュ/縮小版フラグと、それに伴う制約・インデックス
+-- ddl-auto=update で追加済みの既存DBでも流せるよう、すべて IF NOT EXISTS で作成する
+
+-- 一意制約の追加前に、以前の参加処理の競合で重複して登録された参加情報を削除する
+-- 同じイベント・ユーザーの組では最も早い登録（登録日時, ID）を残す（登録日時のない行は最も早いものとして扱う）
+DELETE FROM event_participations p
+USING event_participations q
+WHERE p.event_id = q.event_id
+  AND p.user_id = q.user_id
+  AND (COALESCE(p.created_at, TIMESTAMP '1970-01-01 00:00:00'), p.id)
+    > (COALESCE(q.created_at, TIMESTAMP '1970-01-01 00:00:00'), q.id);
+
+-- 確定済み参加者数カウンタ（定員チェック用）を追加し、重複を除いた参加テーブルから初期値を計算
+ALTER TABLE events ADD COLUMN IF NOT EXISTS confirmed_count INTEGER NOT NULL DEFAULT 0;
+UPDATE events SET confirmed_count = (
+    SELECT COUNT(*) FROM event_participations p
+    WHERE p.event_id = events.id AND p.status = 'CONFIRMED'
+);
+
+-- 同じユーザーが同じイベントに重複して登録されないように一意制約
+CREATE UNIQUE INDEX IF NOT EXISTS uk_participation_event_user ON event_participations (event_id, user_id);
+-- キャンセル待ちを登録順（先着順）に取り出す・ステータス別の人数を数える
+CREATE INDEX IF NOT EXISTS idx_participation_event_status_created ON event_participations (event_id, status, created_at);
+
+-- 写真のETag用ハッシュと縮小版の生成状況
+ALTER TABLE photos ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+ALTER TABLE photos ADD COLUMN IF NOT EXISTS derivatives_ready BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- ファイル取得APIで保存ファイル名から検索する
+CREATE UNIQUE INDEX IF NOT EXISTS idx_photos_filename ON photos (filename);
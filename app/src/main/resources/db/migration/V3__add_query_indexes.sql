@@ -0,0 +1,26 @@
+-- リポジトリの検索条件・並び順に合わせたインデックス
+-- （PostgreSQLは外部キーに自動でインデックスを作らないため、外部キーでの絞り込みもここで用意する）
+
+-- 開催日時順の一覧（キーセットページネーション）・指定日時以降の検索
+--   findByEventDateAfter, findFirstPage, findPageAfterCursor, findFirstPageByEventDateAfter
+CREATE INDEX IF NOT EXISTS idx_events_event_date ON events (event_date, id);
+
+-- カテゴリ指定の一覧・カテゴリと日付での検索・カテゴリ削除時の存在確認
+--   findByCategory, findByCategoryAndEventDateAfter, findFirstPageByCategory, existsByCategory
+CREATE INDEX IF NOT EXISTS idx_events_category_event_date ON events (category_id, event_date, id);
+
+-- 作成者によるイベント検索
+--   findByCreator
+CREATE INDEX IF NOT EXISTS idx_events_creator ON events (creator_id);
+
+-- ユーザーの参加イベント一覧
+--   findByUser
+CREATE INDEX IF NOT EXISTS idx_participation_user ON event_participations (user_id);
+
+-- イベントの写真一覧（新しい順）・写真数
+--   findByEventOrderByUploadedAtDesc, findByEventAndUploadedByOrderByUploadedAtDesc, countByEvent
+CREATE INDEX IF NOT EXISTS idx_photos_event_uploaded ON photos (event_id, uploaded_at DESC);
+
+-- ユーザーの写真一覧（新しい順）
+--   findByUploadedByOrderByUploadedAtDesc
+CREATE INDEX IF NOT EXISTS idx_photos_uploader_uploaded ON photos (uploaded_by, uploaded_at DESC);
@@ -0,0 +1,23 @@
+-- 主キーの採番をIDENTITYからシーケンス（50件単位で確保）に変更し、JDBCのバッチ挿入を使えるようにする
+-- Hibernateはシーケンスの値を確保済みブロックの末尾として扱う（値Nで N-49〜N を使う）ため、
+-- 既存の最大ID+50から開始して既存の行と重複しないようにする
+
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM users), false);
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS event_categories_seq INCREMENT BY 50;
+SELECT setval('event_categories_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM event_categories), false);
+ALTER TABLE event_categories ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS events_seq INCREMENT BY 50;
+SELECT setval('events_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM events), false);
+ALTER TABLE events ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS event_participations_seq INCREMENT BY 50;
+SELECT setval('event_participations_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM event_participations), false);
+ALTER TABLE event_participations ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS photos_seq INCREMENT BY 50;
+SELECT setval('photos_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM photos), false);
+ALTER TABLE photos ALTER COLUMN id DROP IDENTITY IF EXISTS;
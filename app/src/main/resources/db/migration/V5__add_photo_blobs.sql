@@ -0,0 +1,17 @@
+-- 写真ファイルを内容のハッシュで保存し、同じ内容のファイルを1つにまとめる
+-- photo_blobs: 保存済みのファイル1つにつき1行。ref_countは参照している写真の数
+-- photos.blob_id: 導入前にアップロードされた写真はNULL（保存ファイル名のファイルをそのまま配信する）
+
+CREATE SEQUENCE IF NOT EXISTS photo_blobs_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS photo_blobs (
+    id           BIGINT      PRIMARY KEY,
+    content_hash VARCHAR(64) NOT NULL,
+    file_size    BIGINT      NOT NULL,
+    mime_type    VARCHAR(50),
+    ref_count    INTEGER     NOT NULL DEFAULT 0,
+    created_at   TIMESTAMP(6),
+    CONSTRAINT uk_photo_blobs_content_hash UNIQUE (content_hash)
+);
+
+ALTER TABLE photos ADD COLUMN IF NOT EXISTS blob_id BIGINT REFERENCES photo_blobs (id);
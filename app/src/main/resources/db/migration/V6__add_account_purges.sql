@@ -0,0 +1,21 @@
+-- 退会したユーザーのデータをバックグラウンドで削除するジョブの状態
+-- account_purges: 退会を受け付けたユーザー1人につき1行（ユーザーの行を削除した後も、状況確認のために残す）
+-- 削除の各段階は「残っている行を削除する」処理のため、中断した場合は最初の段階からやり直せばよい
+
+CREATE TABLE IF NOT EXISTS account_purges (
+    user_id                BIGINT       PRIMARY KEY,
+    status                 VARCHAR(20)  NOT NULL CHECK (status IN ('PENDING', 'RUNNING', 'COMPLETED', 'FAILED')),
+    phase                  VARCHAR(20)  NOT NULL CHECK (phase IN ('PARTICIPATIONS', 'PHOTOS', 'EVENTS', 'USER')),
+    deleted_participations BIGINT       NOT NULL DEFAULT 0,
+    deleted_photos         BIGINT       NOT NULL DEFAULT 0,
+    deleted_events         BIGINT       NOT NULL DEFAULT 0,
+    failed_files           BIGINT       NOT NULL DEFAULT 0,
+    last_error             VARCHAR(1000),
+    requested_at           TIMESTAMP(6),
+    updated_at             TIMESTAMP(6),
+    completed_at           TIMESTAMP(6)
+);
+
+-- 起動時に再開するジョブ（未完了）の検索
+--   findByStatusIn
+CREATE INDEX IF NOT EXISTS idx_account_purges_status ON account_purges (status);
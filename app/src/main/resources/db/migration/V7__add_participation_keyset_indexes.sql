@@ -0,0 +1,16 @@
+-- 参加者一覧・参加イベント一覧のキーセットページネーション用インデックス
+-- 並び順（登録日時, ID）のままインデックスを読み、1ページ分だけ取得する（イベント・ユーザーの全参加情報を並べ替えない）
+
+-- 登録日時はカーソルに使うため必須にする（導入前にNULLで登録された行は最も古い扱いにする）
+UPDATE event_participations SET created_at = TIMESTAMP '1970-01-01 00:00:00' WHERE created_at IS NULL;
+ALTER TABLE event_participations ALTER COLUMN created_at SET NOT NULL;
+
+-- イベントの参加者一覧（ステータス指定なし）
+--   findParticipantsFirstPage, findParticipantsAfterCursor
+CREATE INDEX IF NOT EXISTS idx_participation_event_created ON event_participations (event_id, created_at, id);
+
+-- ユーザーの参加イベント一覧・退会時の参加情報削除
+--   findUserParticipationsFirstPage, findUserParticipationsAfterCursor, findBatchByUserId
+-- (user_id) の単独インデックスはこのインデックスの先頭列で代用できるため削除する
+CREATE INDEX IF NOT EXISTS idx_participation_user_created ON event_participations (user_id, created_at, id);
+DROP INDEX IF EXISTS idx_participation_user;
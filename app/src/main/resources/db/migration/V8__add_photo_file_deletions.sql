@@ -0,0 +1,12 @@
+-- 写真ファイルの後片付けが中断・失敗しても、残ったファイルを定期的に削除し直せるようにする
+-- photo_file_deletions: 行を削除した導入前の写真（blob_idがNULL）のうち、ファイルの削除が済んでいないもの
+-- 保存済みファイル（photo_blobs）はref_countが0以下の行から判断できるため記録しない
+
+CREATE TABLE IF NOT EXISTS photo_file_deletions (
+    filename     VARCHAR(255) PRIMARY KEY,
+    requested_at TIMESTAMP(6)
+);
+
+-- 参照がなくなったまま残った保存済みファイルの検索（部分インデックスのため、エンティティには定義しない）
+--   PhotoBlobRepository.findUnreferencedContentHashes
+CREATE INDEX IF NOT EXISTS idx_photo_blobs_unreferenced ON photo_blobs (content_hash) WHERE ref_count <= 0;
@@ -0,0 +1,3 @@
+-- 保存済みファイルを参照している写真の数を数える（参照数の漏れの回収で、ファイルごとに実際の参照数と比較する）
+--   PhotoBlobRepository.findOvercountedContentHashes / countExcessReferences / releaseLeakedReferences
+CREATE INDEX IF NOT EXISTS idx_photos_blob ON photos (blob_id);
@@ -129,18 +129,28 @@ async function userLogin(evt){
     }
 }
 
-//イベントの一覧読み込み処理
-async function loadEvents(){
+//イベント一覧の次ページ取得用カーソル
+let nextEventsCursor = null;
+
+//イベントの一覧読み込み処理（append=trueの場合は次ページを末尾に追加）
+async function loadEvents(append = false){
     try{
-        const response = await fetch('/api/events');
-        const events = await response.json();
+        const params = new URLSearchParams({ limit: 20 });
+        if (append && nextEventsCursor) {
+            params.append('cursor', nextEventsCursor);
+        }
+        const response = await fetch(`/api/events?${params.toString()}`);
+        const page = await response.json();
+        const events = page.content;
         const eventsList = document.getElementById('events-list');
+        nextEventsCursor = page.hasNext ? page.nextCursor : null;
 
-        if (events.length === 0) {
+        if (!append && events.length === 0) {
             eventsList.innerHTML = '<p>現在イベントはありません</p>';
             return;
         }
 
+        let cards;
         if (currentToken) {
             const eventsWithParticipation = await Promise.all(
                 events.map(async (event) => {
@@ -148,9 +158,24 @@ async function loadEvents(){
                     return { ...event, isParticipating: participationStatus };
                 })
             );
-            eventsList.innerHTML = eventsWithParticipation.map(event => createEventCard(event)).join('');
+            cards = eventsWithParticipation.map(event => createEventCard(event)).join('');
         } else {
-            eventsList.innerHTML = events.map(event => createEventCard(event)).join('');
+            cards = events.map(event => createEventCard(event)).join('');
+        }
+
+        //前回の「もっと見る」ボタンを外してからカードを追加
+        const loadMoreButton = document.getElementById('load-more-events');
+        if (loadMoreButton) {
+            loadMoreButton.remove();
+        }
+        if (append) {
+            eventsList.insertAdjacentHTML('beforeend', cards);
+        } else {
+            eventsList.innerHTML = cards;
+        }
+        if (nextEventsCursor) {
+            eventsList.insertAdjacentHTML('beforeend',
+                '<button id="load-more-events" class="nav-btn" onclick="loadEvents(true)">もっと見る</button>');
         }
 
     }catch(error){
@@ -458,20 +483,28 @@ function showEventsList() {
     }
 }
 
-//自分の参加イベント一覧を取得する関数
-async function loadMyParticipations() {
+//参加イベント一覧の次ページ取得用カーソル
+let nextParticipationsCursor = null;
+
+//自分の参加イベント一覧を取得する関数（append=trueの場合は次ページを末尾に追加）
+async function loadMyParticipations(append = false) {
     if (!currentToken) return;
 
     try {
-        const response = await fetch('/api/events/my-participations', {
+        const params = new URLSearchParams({ limit: 20 });
+        if (append && nextParticipationsCursor) {
+            params.append('cursor', nextParticipationsCursor);
+        }
+        const response = await fetch(`/api/events/my-participations?${params.toString()}`, {
             headers: {
                 'Authorization': `Bearer ${currentToken}`
             }
         });
 
         if (response.ok) {
-            const participations = await response.json();
-            displayMyParticipations(participations);
+            const page = await response.json();
+            nextParticipationsCursor = page.hasNext ? page.nextCursor : null;
+            displayMyParticipations(page.content, append);
         } else {
             await handleErrorResponse(response);
         }
@@ -481,21 +514,36 @@ async function loadMyParticipations() {
 }
 
 //参加イベント一覧を表示する関数
-function displayMyParticipations(participations) {
+function displayMyParticipations(participations, append = false) {
     const participationsDiv = document.getElementById('my-participations');
 
-    if (participations.length === 0) {
+    if (!append && participations.length === 0) {
         participationsDiv.innerHTML = '<p>まだイベントに参加していません</p>';
         return;
     }
 
-    participationsDiv.innerHTML = participations.map(participation => `
+    const cards = participations.map(participation => `
         <div class="participation-card">
             <h4>${participation.eventTitle}</h4>
             <p><strong>ステータス:</strong> ${participation.status}</p>
             <p><strong>参加日:</strong> ${new Date(participation.participatedAt).toLocaleDateString()}</p>
         </div>
     `).join('');
+
+    //前回の「もっと見る」ボタンを外してからカードを追加
+    const loadMoreButton = document.getElementById('load-more-participations');
+    if (loadMoreButton) {
+        loadMoreButton.remove();
+    }
+    if (append) {
+        participationsDiv.insertAdjacentHTML('beforeend', cards);
+    } else {
+        participationsDiv.innerHTML = cards;
+    }
+    if (nextParticipationsCursor) {
+        participationsDiv.insertAdjacentHTML('beforeend',
+            '<button id="load-more-participations" class="nav-btn" onclick="loadMyParticipations(true)">もっと見る</button>');
+    }
 }
 
 //app.jsの最後に以下を追加
@@ -246,10 +246,11 @@ function displayPhotos(photos) {
             : '';
 
         photoCard.innerHTML = `
-            <img src="/api/photos/file/${photo.filename}"
+            <img src="${photo.thumbnailUrl || '/api/photos/file/' + photo.filename}"
                  class="photo-image"
                  alt="${photo.caption || ''}"
-                 onclick="openModal('/api/photos/file/${photo.filename}')"
+                 loading="lazy"
+                 onclick="openModal('${photo.mediumUrl || '/api/photos/file/' + photo.filename}')"
                  onerror="this.src='data:image/svg+xml;base64,PHN2ZyB3aWR0aD0iMzAwIiBoZWlnaHQ9IjIwMCIgeG1sbnM9Imh0dHA6Ly93d3cudzMub3JnLzIwMDAvc3ZnIj48cmVjdCB3aWR0aD0iMTAwJSIgaGVpZ2h0PSIxMDAlIiBmaWxsPSIjZjBmMGYwIi8+PHRleHQgeD0iNTAlIiB5PSI1MCUiIGZvbnQtZmFtaWx5PSJBcmlhbCIgZm9udC1zaXplPSIxNCIgZmlsbD0iIzk5OSIgdGV4dC1hbmNob3I9Im1pZGRsZSIgZHk9Ii4zZW0iPuODreODvOODieWksei0peOBl+OBvuOBl+OBnzwvdGV4dD48L3N2Zz4='">
             <div class="photo-info">
                 <div class="photo-caption">${photo.caption || '説明なし'}</div>
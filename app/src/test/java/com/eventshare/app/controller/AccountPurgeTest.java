@@ -0,0 +1,264 @@
+package com.eventshare.app.controller;
+
+import com.eventshare.app.config.AccountPurgeSweeper;
+import com.eventshare.app.entity.AccountPurge;
+import com.eventshare.app.entity.Event;
+import com.eventshare.app.entity.EventCategory;
+import com.eventshare.app.entity.EventParticipation;
+import com.eventshare.app.entity.Photo;
+import com.eventshare.app.entity.User;
+import com.eventshare.app.repository.AccountPurgeRepository;
+import com.eventshare.app.repository.EventCategoryRepository;
+import com.eventshare.app.repository.EventParticipationRepository;
+import com.eventshare.app.repository.EventRepository;
+import com.eventshare.app.repository.PhotoRepository;
+import com.eventshare.app.repository.UserRepository;
+import com.eventshare.app.security.JwtTokenProvider;
+import com.eventshare.app.security.UserPrincipal;
+import com.eventshare.app.service.UserService;
+import com.eventshare.app.service.impl.AccountPurgeJob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+退会したユーザーのデータ削除のテスト（H2）
+参加情報・投稿した写真・作成したイベント・ユーザーがバックグラウンドで削除され、
+他のユーザーのイベントの座席が解放されることを確認する
+中断・失敗したジョブが再開されて完了すること、実行中のジョブを重複して実行しないことも確認する
+（定期実行の再開はテストから呼び出すため、自動では実行されないようにする）
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:accountpurgedb",
+        "account.purge.batch-size=2",
+        "account.purge.pause=0ms",
+        "account.purge.sweep-initial-delay=1h",
+        "file.cleanup.pause=0ms"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class AccountPurgeTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AccountPurgeSweeper accountPurgeSweeper;
+
+    @Autowired
+    private AccountPurgeJob accountPurgeJob;
+
+    @Autowired
+    private AccountPurgeRepository accountPurgeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EventCategoryRepository eventCategoryRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private EventParticipationRepository eventParticipationRepository;
+
+    @Autowired
+    private PhotoRepository photoRepository;
+
+    private User user;
+    private User otherUser;
+    private EventCategory category;
+
+    @BeforeEach
+    void setUp() {
+        user = saveUser();
+        otherUser = saveUser();
+        category = new EventCategory();
+        category.setName("purge-category-" + UUID.randomUUID().toString().substring(0, 8));
+        category = eventCategoryRepository.save(category);
+    }
+
+    //バッチの件数を超えるデータを持つユーザーを削除する
+    @Test
+    void testDeleteUser() throws Exception {
+        //テスト用のデータ（他のユーザーのイベントへの参加確定3件・写真3件、作成したイベント3件）
+        Event otherEvent = null;
+        for (int i = 0; i < 3; i++) {
+            otherEvent = saveEvent(otherUser, 1);
+            saveParticipation(otherEvent, user, EventParticipation.ParticipationStatus.CONFIRMED);
+            savePhoto(otherEvent, user);
+        }
+        for (int i = 0; i < 3; i++) {
+            Event ownEvent = saveEvent(user, 0);
+            saveParticipation(ownEvent, otherUser, EventParticipation.ParticipationStatus.WAITING);
+            savePhoto(ownEvent, otherUser);
+        }
+
+        //テスト実行
+        userService.deleteUser(user.getId());
+
+        //検証
+        AccountPurge purge = awaitCompletion(user.getId());
+        assertEquals(3, purge.getDeletedParticipations());
+        assertEquals(3, purge.getDeletedPhotos());
+        assertEquals(3, purge.getDeletedEvents());
+        assertFalse(userRepository.existsById(user.getId()));
+        assertTrue(eventRepository.findIdsByCreatorId(user.getId(), PageRequest.of(0, 10)).isEmpty());
+        assertEquals(0, eventRepository.findById(otherEvent.getId()).orElseThrow().getConfirmedCount());
+        assertEquals(0, photoRepository.findFileInfosByEventId(otherEvent.getId()).size());
+        assertTrue(userRepository.existsById(otherUser.getId()));
+    }
+
+    //退会を受け付けた後は、発行済みのトークンで退会の状況確認以外のAPIを使えない
+    @Test
+    void testTokenRejectedAfterDeletion() throws Exception {
+        //テスト用のデータ
+        UserPrincipal principal = UserPrincipal.create(user);
+        String token = "Bearer " + jwtTokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        mockMvc.perform(get("/api/users/me").header("Authorization", token)).andExpect(status().isOk());
+
+        //テスト実行
+        userService.deleteUser(user.getId());
+
+        //検証
+        mockMvc.perform(get("/api/users/me").header("Authorization", token)).andExpect(status().is4xxClientError());
+        mockMvc.perform(get("/api/events/my-participations").header("Authorization", token))
+                .andExpect(status().is4xxClientError());
+        mockMvc.perform(get("/api/users/me/deletion").header("Authorization", token)).andExpect(status().isOk());
+        awaitCompletion(user.getId());
+    }
+
+    //サーバーの停止などで実行中のまま止まったジョブは、定期実行で再開して完了する
+    @Test
+    void testSweepResumesStaleRunningPurge() throws Exception {
+        //テスト用のデータ（参加情報の削除の途中で止まったジョブ）
+        Event otherEvent = saveEvent(otherUser, 1);
+        saveParticipation(otherEvent, user, EventParticipation.ParticipationStatus.CONFIRMED);
+        savePhoto(otherEvent, user);
+        savePurge(user.getId(), AccountPurge.Status.RUNNING, LocalDateTime.now().minusHours(1));
+
+        //テスト実行
+        assertTrue(accountPurgeSweeper.sweep() >= 1);
+
+        //検証
+        AccountPurge purge = awaitCompletion(user.getId());
+        assertEquals(1, purge.getDeletedParticipations());
+        assertEquals(1, purge.getDeletedPhotos());
+        assertFalse(userRepository.existsById(user.getId()));
+        assertEquals(0, eventRepository.findById(otherEvent.getId()).orElseThrow().getConfirmedCount());
+    }
+
+    //失敗したジョブは、退会を再度受け付けるとやり直して完了する
+    @Test
+    void testDeleteUserRetriesFailedPurge() throws Exception {
+        //テスト用のデータ
+        savePhoto(saveEvent(otherUser, 0), user);
+        AccountPurge failed = savePurge(user.getId(), AccountPurge.Status.FAILED, LocalDateTime.now().minusMinutes(1));
+        failed.setLastError("テスト用のエラー");
+        accountPurgeRepository.save(failed);
+
+        //テスト実行
+        userService.deleteUser(user.getId());
+
+        //検証
+        AccountPurge purge = awaitCompletion(user.getId());
+        assertEquals(1, purge.getDeletedPhotos());
+        assertNull(purge.getLastError());
+        assertFalse(userRepository.existsById(user.getId()));
+    }
+
+    //他で実行中（進捗の更新が止まっていない）のジョブは実行権を取得できず、再開の対象にもならない
+    @Test
+    void testLiveRunningPurgeIsNotClaimed() {
+        //テスト用のデータ
+        LocalDateTime now = LocalDateTime.now();
+        savePurge(user.getId(), AccountPurge.Status.RUNNING, now);
+
+        //テスト実行・検証
+        assertEquals(0, accountPurgeRepository.claim(user.getId(), now, now.minusMinutes(10)));
+        assertFalse(accountPurgeJob.findResumable().contains(user.getId()));
+        assertFalse(accountPurgeJob.run(user.getId()));
+        assertEquals(AccountPurge.Status.RUNNING, accountPurgeRepository.findById(user.getId()).orElseThrow().getStatus());
+        assertTrue(userRepository.existsById(user.getId()));
+    }
+
+    private AccountPurge savePurge(Long userId, AccountPurge.Status status, LocalDateTime updatedAt) {
+        AccountPurge purge = new AccountPurge();
+        purge.setUserId(userId);
+        purge.setStatus(status);
+        purge.setPhase(AccountPurge.Phase.PARTICIPATIONS);
+        purge.setRequestedAt(updatedAt);
+        purge.setUpdatedAt(updatedAt);
+        return accountPurgeRepository.save(purge);
+    }
+
+    private User saveUser() {
+        User newUser = new User();
+        newUser.setUsername("purge-user-" + UUID.randomUUID().toString().substring(0, 8));
+        newUser.setPassword("password");
+        return userRepository.save(newUser);
+    }
+
+    private Event saveEvent(User creator, int confirmedCount) {
+        Event event = new Event();
+        event.setTitle("退会確認");
+        event.setEventDate(LocalDateTime.now().plusDays(7));
+        event.setCategory(category);
+        event.setCreator(creator);
+        event.setCapacity(10);
+        event.setConfirmedCount(confirmedCount);
+        return eventRepository.save(event);
+    }
+
+    private void saveParticipation(Event event, User participant, EventParticipation.ParticipationStatus status) {
+        EventParticipation participation = new EventParticipation();
+        participation.setEvent(event);
+        participation.setUser(participant);
+        participation.setStatus(status);
+        eventParticipationRepository.save(participation);
+    }
+
+    private void savePhoto(Event event, User uploader) {
+        Photo photo = new Photo();
+        photo.setFilename(UUID.randomUUID() + ".jpg");
+        photo.setUploadFilename("photo.jpg");
+        photo.setFileSize(1L);
+        photo.setMineType("image/jpeg");
+        photo.setEvent(event);
+        photo.setUploadedBy(uploader);
+        photoRepository.save(photo);
+    }
+
+    //コミット後に非同期で行う削除の完了を待つ
+    private AccountPurge awaitCompletion(Long userId) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            AccountPurge purge = userService.getDeletionStatus(userId).orElseThrow();
+            if (purge.getStatus() == AccountPurge.Status.COMPLETED) {
+                return purge;
+            }
+            assertNotEquals(AccountPurge.Status.FAILED, purge.getStatus(), purge.getLastError());
+            Thread.sleep(50);
+        }
+        return fail("ユーザーのデータ削除が完了しません");
+    }
+}
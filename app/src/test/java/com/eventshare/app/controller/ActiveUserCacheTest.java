@@ -0,0 +1,84 @@
+package com.eventshare.app.controller;
+
+import com.eventshare.app.repository.AccountPurgeRepository;
+import com.eventshare.app.repository.UserRepository;
+import com.eventshare.app.security.ActiveUserCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/*
+ActiveUserCacheのテストクラス
+確認結果の保持と、同時の問い合わせを1回にまとめることをテスト
+ */
+@ExtendWith(MockitoExtension.class)
+public class ActiveUserCacheTest {
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private AccountPurgeRepository accountPurgeRepository;
+
+    //同じユーザーの確認が同時に必要になっても、DBへの問い合わせは1回
+    @Test
+    void testGetState_ConcurrentMissesLoadOnce() throws Exception {
+        //モックの設定（DBの確認に時間がかかる）
+        ActiveUserCache cache = new ActiveUserCache(userRepository, accountPurgeRepository, true, 60, 100);
+        when(accountPurgeRepository.existsById(1L)).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return false;
+        });
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        //テスト実行
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ActiveUserCache.State>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.getState(1L);
+                }));
+            }
+            start.countDown();
+
+            //検証
+            for (Future<ActiveUserCache.State> result : results) {
+                assertEquals(ActiveUserCache.State.ACTIVE, result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(accountPurgeRepository, times(1)).existsById(1L);
+        verify(userRepository, times(1)).existsById(1L);
+    }
+
+    //退会を受け付けたユーザーはDBで確認せずに弾き、破棄すると確認し直す
+    @Test
+    void testMarkPurgingAndEvict() {
+        //モックの設定
+        ActiveUserCache cache = new ActiveUserCache(userRepository, accountPurgeRepository, false, 60, 100);
+        when(accountPurgeRepository.existsById(1L)).thenReturn(false);
+
+        //テスト実行・検証
+        cache.markPurging(1L);
+        assertEquals(ActiveUserCache.State.PURGING, cache.getState(1L));
+        verify(accountPurgeRepository, never()).existsById(1L);
+
+        cache.evict(1L);
+        assertTrue(cache.isActive(1L));
+        verify(accountPurgeRepository, times(1)).existsById(1L);
+    }
+}
@@ -0,0 +1,104 @@
+package com.eventshare.app.controller;
+
+import com.eventshare.app.entity.User;
+import com.eventshare.app.security.CurrentUser;
+import com.eventshare.app.security.CurrentUserArgumentResolver;
+import com.eventshare.app.security.UserPrincipal;
+import com.eventshare.app.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/*
+CurrentUserArgumentResolverのテストクラス
+ログイン中のユーザーの解決とリクエスト内でのDBアクセス回数をテスト
+ */
+@ExtendWith(MockitoExtension.class)
+public class CurrentUserArgumentResolverTest {
+    @Mock
+    private UserService userService;
+
+    private CurrentUserArgumentResolver resolver;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new CurrentUserArgumentResolver(userService);
+
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+
+        UserPrincipal principal = new UserPrincipal(1L, "testuser", null, Collections.emptyList());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    //ユーザーIDはトークンの情報から解決し、DBにアクセスしない
+    @Test
+    void testResolveUserId() throws Exception {
+        //テスト実行
+        Object result = resolver.resolveArgument(parameter("userId", Long.class), null,
+                new ServletWebRequest(new MockHttpServletRequest()), null);
+
+        //検証
+        assertEquals(1L, result);
+        verifyNoInteractions(userService);
+    }
+
+    //ユーザーエンティティは同じリクエスト内で1回だけ読み込む
+    @Test
+    void testResolveUser_LoadedOncePerRequest() throws Exception {
+        //モックの設定
+        when(userService.getUserById(1L)).thenReturn(testUser);
+        ServletWebRequest webRequest = new ServletWebRequest(new MockHttpServletRequest());
+
+        //テスト実行
+        Object first = resolver.resolveArgument(parameter("user", User.class), null, webRequest, null);
+        Object second = resolver.resolveArgument(parameter("user", User.class), null, webRequest, null);
+
+        //検証
+        assertSame(testUser, first);
+        assertSame(first, second);
+        verify(userService, times(1)).getUserById(1L);
+        verify(userService, never()).getUserByUsername(any());
+    }
+
+    //@CurrentUserのない引数や対応していない型は対象外
+    @Test
+    void testSupportsParameter() throws Exception {
+        assertTrue(resolver.supportsParameter(parameter("userId", Long.class)));
+        assertTrue(resolver.supportsParameter(parameter("user", User.class)));
+        assertFalse(resolver.supportsParameter(parameter("plain", Long.class)));
+    }
+
+    private MethodParameter parameter(String methodName, Class<?> type) throws NoSuchMethodException {
+        return new MethodParameter(SampleHandler.class.getDeclaredMethod(methodName, type), 0);
+    }
+
+    //テスト用のハンドラーメソッド
+    @SuppressWarnings("unused")
+    private static class SampleHandler {
+        void userId(@CurrentUser Long userId) { }
+        void user(@CurrentUser User user) { }
+        void plain(Long id) { }
+    }
+}
@@ -0,0 +1,126 @@
+package com.eventshare.app.controller;
+
+import com.eventshare.app.dto.response.CategoryCacheStats;
+import com.eventshare.app.entity.EventCategory;
+import com.eventshare.app.repository.EventCategoryRepository;
+import com.eventshare.app.repository.EventRepository;
+import com.eventshare.app.service.impl.EventCategoryServiceImpl;
+import com.eventshare.app.service.impl.EventSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/*
+EventCategoryServiceImplのテストクラス
+カテゴリキャッシュの読み取りと、更新時の再読み込みをテスト
+ */
+@ExtendWith(MockitoExtension.class)
+public class EventCategoryServiceImplTest {
+    @Mock
+    private EventCategoryRepository eventCategoryRepository;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private EventSearchIndex eventSearchIndex;
+
+    @InjectMocks
+    private EventCategoryServiceImpl eventCategoryService;
+
+    private EventCategory music;
+    private EventCategory sports;
+
+    @BeforeEach
+    void setUp() {
+        music = new EventCategory(1L, "音楽", "音楽イベント", new ArrayList<>());
+        sports = new EventCategory(2L, "スポーツ", "スポーツイベント", new ArrayList<>());
+    }
+
+    @Test
+    void testGetCategory_ServedFromCache() {
+        //モックの設定
+        when(eventCategoryRepository.findAll()).thenReturn(List.of(music, sports));
+
+        //テスト実行
+        List<EventCategory> all = eventCategoryService.getAllCategories();
+        EventCategory byId = eventCategoryService.getCategoryById(2L);
+        EventCategory byName = eventCategoryService.getCategoryByName("音楽");
+        boolean exists = eventCategoryService.existsByName("スポーツ");
+
+        //検証（DBへの問い合わせは初回の全件読み込みのみ）
+        assertEquals(2, all.size());
+        assertEquals("スポーツ", byId.getName());
+        assertEquals(1L, byName.getId());
+        assertTrue(exists);
+        verify(eventCategoryRepository, times(1)).findAll();
+        verify(eventCategoryRepository, never()).findById(any());
+        verify(eventCategoryRepository, never()).findByName(any());
+
+        CategoryCacheStats stats = eventCategoryService.getCacheStats();
+        assertEquals(4, stats.getHits());
+        assertEquals(0, stats.getMisses());
+        assertEquals(1, stats.getReloads());
+        assertEquals(2, stats.getSize());
+    }
+
+    @Test
+    void testGetCategoryById_NotFound() {
+        //モックの設定
+        when(eventCategoryRepository.findAll()).thenReturn(List.of(music));
+        when(eventCategoryRepository.findById(99L)).thenReturn(Optional.empty());
+
+        //テスト実行・検証（キャッシュにない場合はDBを確認する）
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> eventCategoryService.getCategoryById(99L));
+        assertEquals("カテゴリが見つかりません。ID: 99", exception.getMessage());
+        assertEquals(1, eventCategoryService.getCacheStats().getMisses());
+    }
+
+    @Test
+    void testCreateCategory_RefreshesCache() {
+        //モックの設定
+        EventCategory comedy = new EventCategory(null, "お笑い", "お笑いライブ", new ArrayList<>());
+        EventCategory savedComedy = new EventCategory(3L, "お笑い", "お笑いライブ", new ArrayList<>());
+        when(eventCategoryRepository.findAll())
+                .thenReturn(List.of(music))
+                .thenReturn(List.of(music, savedComedy));
+        when(eventCategoryRepository.existsByName("お笑い")).thenReturn(false);
+        when(eventCategoryRepository.save(comedy)).thenReturn(savedComedy);
+
+        //テスト実行
+        eventCategoryService.getAllCategories();
+        eventCategoryService.createCategory(comedy);
+        EventCategory result = eventCategoryService.getCategoryById(3L);
+
+        //検証（作成後の読み取りはDBを見ずに新しいスナップショットから返る）
+        assertSame(savedComedy, result);
+        assertEquals(2, eventCategoryService.getAllCategories().size());
+        verify(eventCategoryRepository, never()).findById(any());
+        assertEquals(2, eventCategoryService.getCacheStats().getReloads());
+    }
+
+    @Test
+    void testDeleteCategory_WithEvents() {
+        //モックの設定
+        when(eventCategoryRepository.findById(1L)).thenReturn(Optional.of(music));
+        when(eventRepository.existsByCategory(music)).thenReturn(true);
+
+        //テスト実行・検証
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> eventCategoryService.deleteCategory(1L));
+        assertEquals("このカテゴリには関連するイベントがあるため削除できません", exception.getMessage());
+        verify(eventCategoryRepository, never()).delete(any());
+    }
+}
@@ -2,6 +2,7 @@ package com.eventshare.app.controller;
 
 import com.eventshare.app.config.TestSecurityConfig;
 import com.eventshare.app.dto.request.EventRequest;
+import com.eventshare.app.dto.response.CursorPage;
 import com.eventshare.app.dto.response.EventResponse;
 import com.eventshare.app.entity.Event;
 import com.eventshare.app.entity.EventCategory;
@@ -26,6 +27,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
@@ -97,7 +99,7 @@ public class EventControllerTest {
     イベント一覧取得のテスト
     1. GET /api/events にアクセスできるか
     2. 正常なレスポンス（200 OK）が返るか
-    3. JSON形式で配列が返るか
+    3. JSON形式でページ（content配列とカーソル）が返るか
     4. イベントデータが正しく含まれているか
     5. 参加者数が正しく計算されているか
      */
@@ -105,17 +107,36 @@ public class EventControllerTest {
     @WithMockUser(username = "testuser")
     void testGetAllEvents() throws Exception {
         //モックの動作設定
-        List<Event> events = Arrays.asList(testEvent); //配列をリストに
-        when(eventService.getAllEvents()).thenReturn(events);//getAllEvents()でeventsを返す
-        when(eventParticipationService.getParticipantCountForEvent(any(Event.class))).thenReturn(0);//getParticipantCountForEventが呼ばれたら0を返す
+        EventResponse eventResponse = new EventResponse(testEvent.getId(), testEvent.getTitle(), testEvent.getDescription(),
+                testEvent.getEventDate(), testEvent.getLocation(), testEvent.getCapacity(),
+                testEvent.getCreatedAt(), testEvent.getUpdatedAt(),
+                testCategory.getId(), testCategory.getName(), testCategory.getDescription(),
+                testUser.getId(), testUser.getUsername(), null);//一覧用DTOはリポジトリで直接生成される
+        List<EventResponse> events = Arrays.asList(eventResponse); //配列をリストに
+        when(eventService.getEventsPage(isNull(), anyInt())).thenReturn(new CursorPage<>(events, null, false));//先頭ページでeventsを返す
+        when(eventParticipationService.getParticipantCountsByEventIds(anyCollection())).thenReturn(Map.of());//参加者がいないイベントは集計結果に含まれない
 
         //仮のwebサーバー作ってapiを呼び出し、レスポンスをチェック
         mockMvc.perform(get("/api/events"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[0].title").value("阪神vs巨人"))
-                .andExpect(jsonPath("$[0].participantCount").value(0));
+                .andExpect(jsonPath("$.content").isArray())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.content[0].title").value("阪神vs巨人"))
+                .andExpect(jsonPath("$.content[0].participantCount").value(0))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    /*
+    不正なカーソルでのイベント一覧取得のテスト
+    形式が不正なカーソルはサーバーエラー（500）ではなく400が返るか
+     */
+    @Test
+    @WithMockUser(username = "testuser")
+    void testGetAllEvents_MalformedCursor() throws Exception {
+        mockMvc.perform(get("/api/events").param("cursor", "not*base64"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/events/upcoming").param("cursor", "not*base64"))
+                .andExpect(status().isBadRequest());
     }
 
     /*
@@ -0,0 +1,221 @@
+package com.eventshare.app.controller;
+
+import com.eventshare.app.dto.response.PhotoCleanupProgress;
+import com.eventshare.app.entity.Event;
+import com.eventshare.app.entity.EventCategory;
+import com.eventshare.app.entity.EventParticipation;
+import com.eventshare.app.entity.Photo;
+import com.eventshare.app.entity.PhotoBlob;
+import com.eventshare.app.entity.PhotoFileDeletion;
+import com.eventshare.app.entity.User;
+import com.eventshare.app.repository.EventCategoryRepository;
+import com.eventshare.app.repository.EventParticipationRepository;
+import com.eventshare.app.repository.EventRepository;
+import com.eventshare.app.repository.PhotoBlobRepository;
+import com.eventshare.app.repository.PhotoFileDeletionRepository;
+import com.eventshare.app.repository.PhotoRepository;
+import com.eventshare.app.repository.UserRepository;
+import com.eventshare.app.service.EventService;
+import com.eventshare.app.service.PhotoService;
+import com.eventshare.app.service.PhotoStorage;
+import com.eventshare.app.service.impl.PhotoBlobStore;
+import com.eventshare.app.service.impl.PhotoFileCleaner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+イベント削除のテスト（H2）
+参加情報・写真・保存済みファイルの参照数が1文のクエリでまとめて更新され、
+参照がなくなったファイルの行がコミット後の後片付けで削除されることを確認する
+後片付けが済まずに残ったファイルが、定期実行の処理で削除されることも確認する
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:eventdeletiondb",
+        "file.upload.directory=build/test-uploads/eventdeletion",
+        "file.cleanup.pause=0ms"
+})
+@ActiveProfiles("test")
+public class EventDeletionTest {
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private PhotoService photoService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EventCategoryRepository eventCategoryRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private EventParticipationRepository eventParticipationRepository;
+
+    @Autowired
+    private PhotoRepository photoRepository;
+
+    @Autowired
+    private PhotoBlobRepository photoBlobRepository;
+
+    @Autowired
+    private PhotoFileDeletionRepository photoFileDeletionRepository;
+
+    @Autowired
+    private PhotoFileCleaner photoFileCleaner;
+
+    @Autowired
+    private PhotoStorage photoStorage;
+
+    private User user;
+    private EventCategory category;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        user = new User();
+        user.setUsername("delete-user-" + suffix);
+        user.setPassword("password");
+        user = userRepository.save(user);
+
+        category = new EventCategory();
+        category.setName("delete-category-" + suffix);
+        category = eventCategoryRepository.save(category);
+    }
+
+    //参加情報・写真を含むイベントを削除し、他のイベントの写真が参照するファイルは残す
+    @Test
+    void testDeleteEvent() throws Exception {
+        //テスト用のデータ
+        Event event = saveEvent();
+        Event otherEvent = saveEvent();
+        EventParticipation participation = new EventParticipation();
+        participation.setEvent(event);
+        participation.setUser(user);
+        participation.setStatus(EventParticipation.ParticipationStatus.CONFIRMED);
+        eventParticipationRepository.save(participation);
+
+        PhotoBlob shared = saveBlob(2);
+        PhotoBlob unshared = saveBlob(2);
+        savePhoto(event, shared);
+        savePhoto(event, unshared);
+        savePhoto(event, unshared);
+        savePhoto(otherEvent, shared);
+        String legacyFilename = savePhoto(event, null).getFilename();
+
+        //テスト実行
+        eventService.deleteEvent(event.getId());
+
+        //検証
+        assertFalse(eventRepository.existsById(event.getId()));
+        assertTrue(eventParticipationRepository.findAll().stream()
+                .noneMatch(p -> p.getId().equals(participation.getId())));
+        assertEquals(0, photoRepository.findFileInfosByEventId(event.getId()).size());
+        assertEquals(1, photoRepository.findFileInfosByEventId(otherEvent.getId()).size());
+        PhotoCleanupProgress progress = awaitCleanup(event.getId());
+        assertEquals(4, progress.getTotal());
+        assertEquals(0, progress.getFailed());
+        assertEquals(1, photoBlobRepository.findById(shared.getId()).orElseThrow().getRefCount());
+        assertTrue(photoBlobRepository.findById(unshared.getId()).isEmpty());
+        assertFalse(photoFileDeletionRepository.existsById(legacyFilename));
+    }
+
+    //後片付けが済まずに残ったファイル（参照数0の保存済みファイル・削除待ちの導入前のファイル）を削除する
+    @Test
+    void testSweepDeletesLeftoverFiles() throws Exception {
+        //テスト用のデータ
+        PhotoBlob orphan = saveBlob(0);
+        PhotoBlob referenced = saveBlob(1);
+        String legacyFilename = UUID.randomUUID() + ".jpg";
+        photoStorage.put(legacyFilename, Files.write(Files.createTempFile("legacy", ".jpg"), new byte[]{1}), "image/jpeg");
+        photoFileDeletionRepository.save(new PhotoFileDeletion(legacyFilename, LocalDateTime.now()));
+
+        //テスト実行
+        int processed = photoFileCleaner.sweep();
+
+        //検証
+        assertTrue(processed >= 2);
+        assertTrue(photoBlobRepository.findById(orphan.getId()).isEmpty());
+        assertEquals(1, photoBlobRepository.findById(referenced.getId()).orElseThrow().getRefCount());
+        assertTrue(photoStorage.stat(legacyFilename).isEmpty());
+        assertFalse(photoFileDeletionRepository.existsById(legacyFilename));
+    }
+
+    //参照数を増やした後に写真の行を登録できずに漏れた参照は、2回続けて超過していれば戻してファイルごと削除する
+    @Test
+    void testSweepReleasesLeakedReference() throws Exception {
+        //テスト用のデータ（参照している写真がないのに参照数が1のファイル、参照数どおりのファイル）
+        PhotoBlob leaked = saveBlob(1);
+        String leakedKey = PhotoBlobStore.keyOf(leaked.getContentHash());
+        photoStorage.put(leakedKey, Files.write(Files.createTempFile("leaked", ".jpg"), new byte[]{1}), "image/jpeg");
+        PhotoBlob shared = saveBlob(2);
+        savePhoto(saveEvent(), shared);
+        savePhoto(saveEvent(), shared);
+
+        //テスト実行・検証（1回目は登録中のアップロードと区別できないため残す）
+        photoFileCleaner.sweep();
+        assertEquals(1, photoBlobRepository.findById(leaked.getId()).orElseThrow().getRefCount());
+        assertTrue(photoStorage.stat(leakedKey).isPresent());
+
+        //2回目で参照数を戻し、参照がなくなったファイルを削除する
+        photoFileCleaner.sweep();
+        assertTrue(photoBlobRepository.findById(leaked.getId()).isEmpty());
+        assertTrue(photoStorage.stat(leakedKey).isEmpty());
+        assertEquals(2, photoBlobRepository.findById(shared.getId()).orElseThrow().getRefCount());
+    }
+
+    private Event saveEvent() {
+        Event event = new Event();
+        event.setTitle("削除確認");
+        event.setEventDate(LocalDateTime.now().plusDays(7));
+        event.setCategory(category);
+        event.setCreator(user);
+        event.setCapacity(10);
+        return eventRepository.save(event);
+    }
+
+    private PhotoBlob saveBlob(int refCount) {
+        PhotoBlob blob = new PhotoBlob();
+        blob.setContentHash(UUID.randomUUID().toString().replace("-", ""));
+        blob.setFileSize(1L);
+        blob.setMimeType("image/jpeg");
+        blob.setRefCount(refCount);
+        return photoBlobRepository.save(blob);
+    }
+
+    private Photo savePhoto(Event event, PhotoBlob blob) {
+        Photo photo = new Photo();
+        photo.setFilename(UUID.randomUUID() + ".jpg");
+        photo.setUploadFilename("photo.jpg");
+        photo.setFileSize(1L);
+        photo.setMineType("image/jpeg");
+        photo.setEvent(event);
+        photo.setUploadedBy(user);
+        photo.setBlob(blob);
+        return photoRepository.save(photo);
+    }
+
+    //コミット後に非同期で行う後片付けの完了を待つ
+    private PhotoCleanupProgress awaitCleanup(Long eventId) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            Optional<PhotoCleanupProgress> progress = photoService.getPhotoCleanupProgress(eventId);
+            if (progress.isPresent() && progress.get().isCompleted()) {
+                return progress.get();
+            }
+            Thread.sleep(50);
+        }
+        return fail("写真ファイルの後片付けが完了しません");
+    }
+}
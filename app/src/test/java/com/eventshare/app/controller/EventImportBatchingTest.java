@@ -0,0 +1,120 @@
+package com.eventshare.app.controller;
+
+import com.eventshare.app.dto.request.EventImportRequest;
+import com.eventshare.app.dto.response.ImportResult;
+import com.eventshare.app.entity.EventCategory;
+import com.eventshare.app.entity.User;
+import com.eventshare.app.repository.EventCategoryRepository;
+import com.eventshare.app.repository.UserRepository;
+import com.eventshare.app.service.EventCategoryService;
+import com.eventshare.app.service.EventImportService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+イベント一括登録のINSERTがJDBCバッチで送られることの確認テスト（H2）
+Hibernateの統計情報から、発行したSQL（PreparedStatement）の数と読み込んだエンティティの数を確認する
+1.INSERTはhibernate.jdbc.batch_size（50）件ずつ1つの文で送る（1行ごとに文を作らない）
+2.IDはシーケンスから50件ずつ確保する（1行ごとにシーケンスを問い合わせない）
+3.参加者のユーザー・作成したイベントを1件ずつSELECTしない（クエリは退会中のユーザーの確認の1回のみ）
+計測結果（登録行数・文の数）は標準出力に出す。行数を変えて実行すれば、文の数が行数ではなくバッチ数に比例することを確認できる
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:eventimportbatchdb",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+public class EventImportBatchingTest {
+    //登録するイベント数・1イベントあたりの参加者数（バッチの件数を超える数にする）
+    private static final int EVENTS = 120;
+    private static final int PARTICIPANTS = 2;
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private EventImportService eventImportService;
+
+    @Autowired
+    private EventCategoryService eventCategoryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EventCategoryRepository eventCategoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void testImportEvents_SendsBatchedInserts() {
+        //テスト用のデータ
+        User creator = saveUser();
+        List<Long> participantIds = new ArrayList<>();
+        for (int i = 0; i < PARTICIPANTS; i++) {
+            participantIds.add(saveUser().getId());
+        }
+        EventCategory category = new EventCategory();
+        category.setName("import-category-" + UUID.randomUUID().toString().substring(0, 8));
+        category = eventCategoryRepository.save(category);
+        //カテゴリはキャッシュから取得するため、計測前に読み込んでおく
+        eventCategoryService.getCategoryById(category.getId());
+
+        List<EventImportRequest.Item> items = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            EventImportRequest.Item item = new EventImportRequest.Item();
+            item.setTitle("一括登録イベント" + i);
+            item.setEventDate(LocalDateTime.now().plusDays(7));
+            item.setCategoryId(category.getId());
+            item.setCapacity(1);
+            item.setParticipantUserIds(new ArrayList<>(participantIds));
+            items.add(item);
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        //テスト実行
+        ImportResult result = eventImportService.importEvents(items, creator);
+
+        //検証
+        int rows = EVENTS + EVENTS * PARTICIPANTS;
+        int eventBatches = batches(EVENTS);
+        int participationBatches = batches(EVENTS * PARTICIPANTS);
+        long statements = statistics.getPrepareStatementCount();
+        System.out.println("一括登録の計測: " + rows + "行のINSERT / PreparedStatement " + statements + "個"
+                + "（バッチ " + (eventBatches + participationBatches) + "回）");
+
+        assertEquals(EVENTS, result.getEventCount());
+        assertEquals(EVENTS * PARTICIPANTS, result.getParticipationCount());
+        assertEquals(rows, statistics.getEntityInsertCount());
+        //INSERTはバッチごとに1つ、シーケンスの問い合わせは50件ごとに1回（初回のみ1回多い）、退会中のユーザーの確認が1つ
+        assertTrue(statements <= (eventBatches + 1) * 2L + (participationBatches + 1) * 2L + 1,
+                "1行ごとにSQLを発行しています: " + statements + "個");
+        //ユーザー・イベントを読み込まない（参加者は参照のみ作成する。クエリは退会中のユーザーの確認のみ）
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getEntityFetchCount());
+        assertEquals(1, statistics.getQueryExecutionCount());
+    }
+
+    private static int batches(int rows) {
+        return (rows + BATCH_SIZE - 1) / BATCH_SIZE;
+    }
+
+    private User saveUser() {
+        User user = new User();
+        user.setUsername("import-user-" + UUID.randomUUID().toString().substring(0, 8));
+        user.setPassword("password");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,177 @@
+package com.eventshare.app.controller;
+
+import com.eventshare.app.dto.request.EventImportRequest;
+import com.eventshare.app.dto.response.ImportResult;
+import com.eventshare.app.entity.Event;
+import com.eventshare.app.entity.EventCategory;
+import com.eventshare.app.entity.EventParticipation;
+import com.eventshare.app.entity.User;
+import com.eventshare.app.listener.EventContentChangedEvent;
+import com.eventshare.app.repository.AccountPurgeRepository;
+import com.eventshare.app.repository.EventParticipationRepository;
+import com.eventshare.app.repository.EventRepository;
+import com.eventshare.app.repository.UserRepository;
+import com.eventshare.app.service.EventCategoryService;
+import com.eventshare.app.service.impl.EventImportServiceImpl;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/*
+EventImportServiceImplのテストクラス
+一括登録時の参加ステータスの振り分け、分割flush、入力エラー時の動作をテスト
+ */
+@ExtendWith(MockitoExtension.class)
+public class EventImportServiceImplTest {
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private EventParticipationRepository eventParticipationRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private AccountPurgeRepository accountPurgeRepository;
+
+    @Mock
+    private EventCategoryService eventCategoryService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private EventImportServiceImpl eventImportService;
+
+    private User creator;
+    private EventCategory category;
+
+    @BeforeEach
+    void setUp() {
+        creator = new User();
+        creator.setId(1L);
+        creator.setUsername("creator");
+
+        category = new EventCategory(1L, "音楽", "音楽イベント", new ArrayList<>());
+    }
+
+    @Test
+    void testImportEvents_SplitsConfirmedAndWaiting() {
+        //モックの設定
+        when(eventCategoryService.getCategoryById(1L)).thenReturn(category);
+        when(userRepository.getReferenceById(anyLong())).thenAnswer(invocation -> {
+            User user = new User();
+            user.setId(invocation.getArgument(0));
+            return user;
+        });
+
+        //テスト実行（定員2に対して参加者3人、重複したIDは1人として扱う）
+        EventImportRequest.Item item = item(2, List.of(10L, 11L, 11L, 12L));
+        ImportResult result = eventImportService.importEvents(List.of(item), creator);
+
+        //検証
+        assertEquals(1, result.getEventCount());
+        assertEquals(3, result.getParticipationCount());
+
+        ArgumentCaptor<List<EventParticipation>> participations = ArgumentCaptor.forClass(List.class);
+        verify(eventParticipationRepository).saveAll(participations.capture());
+        List<EventParticipation> saved = participations.getValue();
+        assertEquals(EventParticipation.ParticipationStatus.CONFIRMED, saved.get(0).getStatus());
+        assertEquals(EventParticipation.ParticipationStatus.CONFIRMED, saved.get(1).getStatus());
+        assertEquals(EventParticipation.ParticipationStatus.WAITING, saved.get(2).getStatus());
+        assertEquals(12L, saved.get(2).getUser().getId());
+
+        ArgumentCaptor<List<Event>> events = ArgumentCaptor.forClass(List.class);
+        verify(eventRepository).saveAll(events.capture());
+        assertEquals(2, events.getValue().get(0).getConfirmedCount());
+        assertSame(creator, events.getValue().get(0).getCreator());
+        verify(eventPublisher).publishEvent(any(EventContentChangedEvent.class));
+    }
+
+    @Test
+    void testImportEvents_FlushesPerChunk() {
+        //モックの設定
+        when(eventCategoryService.getCategoryById(1L)).thenReturn(category);
+        List<EventImportRequest.Item> items = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            items.add(item(null, List.of()));
+        }
+
+        //テスト実行
+        ImportResult result = eventImportService.importEvents(items, creator);
+
+        //検証（1000件ごとに書き込んで永続化コンテキストを空にする）
+        assertEquals(2500, result.getEventCount());
+        verify(eventRepository, times(3)).saveAll(anyList());
+        verify(eventParticipationRepository, times(3)).flush();
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    void testImportEvents_PastDate() {
+        //テスト実行・検証（書き込み前にエラーになる）
+        EventImportRequest.Item past = item(null, List.of());
+        past.setEventDate(LocalDateTime.now().minusDays(1));
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> eventImportService.importEvents(List.of(past), creator));
+        assertEquals("1件目: イベント開催日時は未来の日時を指定してください", exception.getMessage());
+        verify(eventRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void testImportEvents_UnknownUser() {
+        //モックの設定
+        when(eventCategoryService.getCategoryById(1L)).thenReturn(category);
+        doThrow(new DataIntegrityViolationException("fk")).when(eventParticipationRepository).flush();
+
+        //テスト実行・検証
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> eventImportService.importEvents(List.of(item(null, List.of(999L))), creator));
+        assertEquals("存在しないユーザーIDが参加者に含まれています", exception.getMessage());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testImportEvents_PurgingUser() {
+        //モックの設定（ユーザー20は退会を受け付けてデータ削除中）
+        when(accountPurgeRepository.findUnfinishedUserIds()).thenReturn(List.of(20L));
+
+        //テスト実行・検証（書き込み前にエラーになる）
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> eventImportService.importEvents(List.of(item(null, List.of(10L, 20L))), creator));
+        assertEquals("1件目: 退会したユーザーは参加者に登録できません: 20", exception.getMessage());
+        verify(eventRepository, never()).saveAll(anyList());
+    }
+
+    private EventImportRequest.Item item(Integer capacity, List<Long> participantUserIds) {
+        EventImportRequest.Item item = new EventImportRequest.Item();
+        item.setTitle("一括登録イベント");
+        item.setEventDate(LocalDateTime.now().plusDays(7));
+        item.setCategoryId(1L);
+        item.setCapacity(capacity);
+        item.setParticipantUserIds(new ArrayList<>(participantUserIds));
+        return item;
+    }
+}
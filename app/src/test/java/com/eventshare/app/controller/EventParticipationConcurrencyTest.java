@@ -0,0 +1,157 @@
+package com.eventshare.app.controller;
+
+import com.eventshare.app.entity.Event;
+import com.eventshare.app.entity.EventCategory;
+import com.eventshare.app.entity.EventParticipation;
+import com.eventshare.app.entity.User;
+import com.eventshare.app.repository.EventCategoryRepository;
+import com.eventshare.app.repository.EventParticipationRepository;
+import com.eventshare.app.repository.EventRepository;
+import com.eventshare.app.repository.UserRepository;
+import com.eventshare.app.service.EventParticipationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+参加登録の同時実行テスト
+数百件の参加リクエストを同時に送っても定員を超えて参加確定にならないこと、二重登録されないことを確認する
+（行ロック待ちでタイムアウトしないようH2のロックタイムアウトを延ばしている）
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:concurrencydb;LOCK_TIMEOUT=30000")
+@ActiveProfiles("test")
+public class EventParticipationConcurrencyTest {
+    private static final int CAPACITY = 50;
+    private static final int USER_COUNT = 300;
+    private static final int THREAD_COUNT = 32;
+
+    @Autowired
+    private EventParticipationService eventParticipationService;
+
+    @Autowired
+    private EventParticipationRepository eventParticipationRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private EventCategoryRepository eventCategoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Event testEvent;
+    private List<User> testUsers;
+
+    @BeforeEach
+    void setUp() {
+        EventCategory category = eventCategoryRepository.findByName("音楽")
+                .orElseGet(() -> {
+                    EventCategory c = new EventCategory();
+                    c.setName("音楽");
+                    return eventCategoryRepository.save(c);
+                });
+
+        testUsers = new ArrayList<>();
+        for (int i = 0; i < USER_COUNT; i++) {
+            User user = new User();
+            user.setUsername("concurrency-user" + i);
+            user.setPassword("password");
+            testUsers.add(user);
+        }
+        testUsers = userRepository.saveAll(testUsers);
+
+        Event event = new Event();
+        event.setTitle("人気イベント");
+        event.setEventDate(LocalDateTime.now().plusDays(7));
+        event.setCategory(category);
+        event.setCreator(testUsers.get(0));
+        event.setCapacity(CAPACITY);
+        testEvent = eventRepository.save(event);
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventParticipationRepository.deleteAll();
+        eventRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    //定員を超える同時参加リクエストでも参加確定は定員までに収まる
+    @Test
+    void testParticipateEvent_NoOverbooking() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger failures = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        //全リクエストを同時に開始する
+        for (User user : testUsers) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    eventParticipationService.participateEvent(testEvent, user);
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        //検証
+        assertEquals(0, failures.get());
+        assertEquals(CAPACITY, eventParticipationRepository.countByEventAndStatus(testEvent, EventParticipation.ParticipationStatus.CONFIRMED));
+        assertEquals(USER_COUNT - CAPACITY, eventParticipationRepository.countByEventAndStatus(testEvent, EventParticipation.ParticipationStatus.WAITING));
+        assertEquals(CAPACITY, eventRepository.findById(testEvent.getId()).orElseThrow().getConfirmedCount());
+    }
+
+    //同一ユーザーの同時参加リクエストでも参加記録は1件だけ作成される
+    @Test
+    void testParticipateEvent_NoDuplicate() throws Exception {
+        User user = testUsers.get(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    eventParticipationService.participateEvent(testEvent, user);
+                } catch (RuntimeException e) {
+                    //二重登録エラーは想定どおり
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        //検証（重複した登録で確保された座席はロールバックされている）
+        assertEquals(1, eventParticipationRepository.countByEventAndStatus(testEvent, EventParticipation.ParticipationStatus.CONFIRMED));
+        assertEquals(1, eventRepository.findById(testEvent.getId()).orElseThrow().getConfirmedCount());
+    }
+}
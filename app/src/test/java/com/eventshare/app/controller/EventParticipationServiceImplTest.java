@@ -0,0 +1,267 @@
+package com.eventshare.app.controller;
+
+import com.eventshare.app.dto.request.EventCursor;
+import com.eventshare.app.dto.request.ParticipationCursor;
+import com.eventshare.app.dto.response.CursorPage;
+import com.eventshare.app.dto.response.EventParticipationResponse;
+import com.eventshare.app.entity.Event;
+import com.eventshare.app.entity.EventParticipation;
+import com.eventshare.app.entity.User;
+import com.eventshare.app.listener.SeatReleasedEvent;
+import com.eventshare.app.repository.EventParticipationRepository;
+import com.eventshare.app.repository.EventRepository;
+import com.eventshare.app.service.impl.EventParticipationServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/*
+EventParticipationServiceImplのテストクラス
+参加登録・参加人数集計のビジネスロジックをテスト
+ */
+@ExtendWith(MockitoExtension.class)
+public class EventParticipationServiceImplTest {
+    @Mock
+    private EventParticipationRepository eventParticipationRepository;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private EventParticipationServiceImpl eventParticipationService;
+
+    private Event testEvent1;
+    private Event testEvent2;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testEvent1 = new Event();
+        testEvent1.setId(1L);
+        testEvent1.setTitle("event1");
+
+        testEvent2 = new Event();
+        testEvent2.setId(2L);
+        testEvent2.setTitle("event2");
+
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+    }
+
+    //単一イベントの参加人数はCOUNTクエリで取得する
+    @Test
+    void testGetParticipantCountForEvent() {
+        //モックの設定
+        when(eventParticipationRepository.countByEventAndStatus(testEvent1, EventParticipation.ParticipationStatus.CONFIRMED))
+                .thenReturn(5L);
+
+        //テスト実行
+        int result = eventParticipationService.getParticipantCountForEvent(testEvent1);
+
+        //検証
+        assertEquals(5, result);
+        verify(eventParticipationRepository, never()).findByEventAndStatus(any(), any());
+    }
+
+    //座席を確保できた場合は参加確定で登録される
+    @Test
+    void testParticipateEvent_SeatReserved() {
+        //モックの設定
+        when(eventParticipationRepository.existsByEventAndUser(testEvent1, testUser)).thenReturn(false);
+        when(eventRepository.reserveSeat(1L)).thenReturn(1);
+        when(eventParticipationRepository.saveAndFlush(any(EventParticipation.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        //テスト実行
+        EventParticipation result = eventParticipationService.participateEvent(testEvent1, testUser);
+
+        //検証
+        assertEquals(EventParticipation.ParticipationStatus.CONFIRMED, result.getStatus());
+        verify(eventParticipationRepository, never()).countByEventAndStatus(any(), any());
+    }
+
+    //満席の場合はキャンセル待ちで登録される
+    @Test
+    void testParticipateEvent_Full() {
+        //モックの設定
+        when(eventParticipationRepository.existsByEventAndUser(testEvent1, testUser)).thenReturn(false);
+        when(eventRepository.reserveSeat(1L)).thenReturn(0);
+        when(eventParticipationRepository.saveAndFlush(any(EventParticipation.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        //テスト実行
+        EventParticipation result = eventParticipationService.participateEvent(testEvent1, testUser);
+
+        //検証
+        assertEquals(EventParticipation.ParticipationStatus.WAITING, result.getStatus());
+    }
+
+    //一意制約違反は二重登録エラーとして扱う
+    @Test
+    void testParticipateEvent_Duplicate() {
+        //モックの設定
+        when(eventParticipationRepository.existsByEventAndUser(testEvent1, testUser)).thenReturn(false);
+        when(eventRepository.reserveSeat(1L)).thenReturn(1);
+        when(eventParticipationRepository.saveAndFlush(any(EventParticipation.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_participation_event_user"));
+
+        //テスト実行・検証
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> eventParticipationService.participateEvent(testEvent1, testUser));
+        assertEquals("このイベントにはすでに参加しています", exception.getMessage());
+    }
+
+    //参加確定のキャンセルでは座席を解放する
+    @Test
+    void testCancelParticipation_ReleasesSeat() {
+        //モックの設定
+        EventParticipation participation = new EventParticipation();
+        participation.setId(10L);
+        participation.setEvent(testEvent1);
+        participation.setUser(testUser);
+        participation.setStatus(EventParticipation.ParticipationStatus.CONFIRMED);
+        when(eventParticipationRepository.findById(10L)).thenReturn(Optional.of(participation));
+
+        //テスト実行
+        eventParticipationService.cancelParticipation(10L);
+
+        //検証
+        verify(eventParticipationRepository, times(1)).delete(participation);
+        verify(eventRepository, times(1)).releaseSeat(1L);
+        verify(eventPublisher, times(1)).publishEvent(new SeatReleasedEvent(1L));
+    }
+
+    //キャンセル待ちのキャンセルでは座席を解放しない
+    @Test
+    void testCancelParticipation_Waiting() {
+        //モックの設定
+        EventParticipation participation = new EventParticipation();
+        participation.setId(11L);
+        participation.setEvent(testEvent1);
+        participation.setUser(testUser);
+        participation.setStatus(EventParticipation.ParticipationStatus.WAITING);
+        when(eventParticipationRepository.findById(11L)).thenReturn(Optional.of(participation));
+
+        //テスト実行
+        eventParticipationService.cancelParticipation(11L);
+
+        //検証
+        verify(eventRepository, never()).releaseSeat(any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    //空いた座席の数だけ先着順にキャンセル待ちを繰り上げる
+    @Test
+    void testPromoteWaitingParticipants() {
+        //モックの設定（キャンセル待ち3件に対し空き座席は2つ）
+        EventParticipation waiting1 = new EventParticipation();
+        waiting1.setId(21L);
+        EventParticipation waiting2 = new EventParticipation();
+        waiting2.setId(22L);
+        EventParticipation waiting3 = new EventParticipation();
+        waiting3.setId(23L);
+        when(eventParticipationRepository.findByEventIdAndStatusOrderByCreatedAtAscIdAsc(eq(1L),
+                eq(EventParticipation.ParticipationStatus.WAITING), any(Pageable.class)))
+                .thenReturn(Arrays.asList(waiting1, waiting2, waiting3));
+        when(eventRepository.reserveSeat(1L)).thenReturn(1, 1, 0);
+        when(eventParticipationRepository.promoteFromWaiting(anyLong())).thenReturn(1);
+
+        //テスト実行
+        int result = eventParticipationService.promoteWaitingParticipants(1L);
+
+        //検証
+        assertEquals(2, result);
+        verify(eventParticipationRepository).promoteFromWaiting(21L);
+        verify(eventParticipationRepository).promoteFromWaiting(22L);
+        verify(eventParticipationRepository, never()).promoteFromWaiting(23L);
+        verify(eventParticipationRepository, never()).findByEventAndStatus(any(), any());
+    }
+
+    //読み込み後にキャンセルされたキャンセル待ちは飛ばし、確保した座席を戻す
+    @Test
+    void testPromoteWaitingParticipants_AlreadyCancelled() {
+        //モックの設定
+        EventParticipation waiting1 = new EventParticipation();
+        waiting1.setId(21L);
+        when(eventParticipationRepository.findByEventIdAndStatusOrderByCreatedAtAscIdAsc(eq(1L),
+                eq(EventParticipation.ParticipationStatus.WAITING), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(waiting1));
+        when(eventRepository.reserveSeat(1L)).thenReturn(1);
+        when(eventParticipationRepository.promoteFromWaiting(21L)).thenReturn(0);
+
+        //テスト実行
+        int result = eventParticipationService.promoteWaitingParticipants(1L);
+
+        //検証
+        assertEquals(0, result);
+        verify(eventRepository, times(1)).releaseSeat(1L);
+    }
+
+    //参加者一覧: 1件多く取得して次ページの有無を判定し、最後の行の登録日時・IDをカーソルにする
+    @Test
+    void testGetParticipantsPage() {
+        //モックの設定
+        LocalDateTime base = LocalDateTime.of(2025, 5, 1, 10, 0);
+        List<EventParticipationResponse> rows = Arrays.asList(
+                participationRow(11L, base),
+                participationRow(12L, base.plusMinutes(1)),
+                participationRow(13L, base.plusMinutes(2)));
+        when(eventParticipationRepository.findParticipantsByStatusFirstPage(eq(1L),
+                eq(EventParticipation.ParticipationStatus.CONFIRMED), any(Pageable.class)))
+                .thenReturn(rows);
+
+        //テスト実行
+        CursorPage<EventParticipationResponse> page = eventParticipationService.getParticipantsPage(1L,
+                EventParticipation.ParticipationStatus.CONFIRMED, null, 2);
+
+        //検証
+        assertEquals(2, page.getContent().size());
+        assertTrue(page.isHasNext());
+        ParticipationCursor next = ParticipationCursor.decode(page.getNextCursor());
+        assertEquals(12L, next.getId());
+        assertEquals(base.plusMinutes(1), next.getCreatedAt());
+    }
+
+    //参加イベント一覧: ステータス未指定ならステータスの条件なしのクエリを使う、最終ページはカーソルなし
+    @Test
+    void testGetUserParticipationsPage_AfterCursor() {
+        //モックの設定
+        LocalDateTime eventDate = LocalDateTime.of(2025, 6, 1, 18, 0);
+        EventCursor cursor = new EventCursor(eventDate, 1L);
+        when(eventParticipationRepository.findUserParticipationsAfterCursor(eq(1L), eq(eventDate), eq(1L), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(participationRow(21L, eventDate)));
+
+        //テスト実行
+        CursorPage<EventParticipationResponse> page = eventParticipationService.getUserParticipationsPage(1L, null, cursor, 20);
+
+        //検証
+        assertEquals(1, page.getContent().size());
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+        verify(eventParticipationRepository, never()).findUserParticipationsFirstPage(any(), any(Pageable.class));
+        verify(eventParticipationRepository, never()).findUserParticipationsByStatusAfterCursor(any(), any(), any(), any(), any(Pageable.class));
+    }
+
+    private EventParticipationResponse participationRow(Long id, LocalDateTime createdAt) {
+        return new EventParticipationResponse(id, testEvent2.getId(), testEvent2.getTitle(), createdAt,
+                testUser.getId(), testUser.getUsername(), EventParticipation.ParticipationStatus.CONFIRMED, createdAt);
+    }
+}
@@ -0,0 +1,138 @@
+package com.eventshare.app.controller;
+
+import com.eventshare.app.dto.response.EventSearchDocument;
+import com.eventshare.app.repository.EventRepository;
+import com.eventshare.app.service.impl.EventSearchIndex;
+import com.eventshare.app.service.impl.EventSearchTokenizer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/*
+EventSearchIndexのテストクラス
+日本語の分割、関連度順の並び、登録・削除の反映をテスト
+ */
+@ExtendWith(MockitoExtension.class)
+public class EventSearchIndexTest {
+    @Mock
+    private EventRepository eventRepository;
+
+    @InjectMocks
+    private EventSearchIndex eventSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        eventSearchIndex.index(new EventSearchDocument(1L, "東京ジャズフェスティバル", "屋外の音楽イベントです", "東京都渋谷区", 1L, "音楽"));
+        eventSearchIndex.index(new EventSearchDocument(2L, "大阪写真散歩", "ジャズ喫茶を巡りながら撮影します", "大阪市", 2L, "写真・カメラ"));
+        eventSearchIndex.index(new EventSearchDocument(3L, "草野球大会", "初心者歓迎", "横浜スタジアム", 3L, "野球"));
+    }
+
+    @Test
+    void testTokenize_Bigram() {
+        //日本語はバイグラム、英数字は1語、全角英数は半角に正規化
+        assertEquals(List.of("東京", "京ジ", "ジャ", "ャズ"), EventSearchTokenizer.tokenize("東京ジャズ"));
+        assertEquals(List.of("jazz", "2025", "ライ", "イブ"), EventSearchTokenizer.tokenize("ＪＡＺＺ 2025 ライブ！"));
+        assertEquals(List.of("音"), EventSearchTokenizer.tokenize("音"));
+        assertTrue(EventSearchTokenizer.tokenize("  ").isEmpty());
+    }
+
+    @Test
+    void testSearch_RankedByRelevance() {
+        //テスト実行
+        List<Long> result = eventSearchIndex.search("ジャズ", 10);
+
+        //検証（タイトルに含むイベントが説明にだけ含むイベントより上位）
+        assertEquals(List.of(1L, 2L), result);
+    }
+
+    @Test
+    void testSearch_AllTermsRequired() {
+        //検索語のバイグラムをすべて含むイベントだけが対象
+        assertEquals(List.of(1L), eventSearchIndex.search("東京ジャズ", 10));
+        assertTrue(eventSearchIndex.search("東京野球", 10).isEmpty());
+    }
+
+    @Test
+    void testSearch_LocationAndCategory() {
+        //開催場所・カテゴリ名も検索対象
+        assertEquals(List.of(3L), eventSearchIndex.search("横浜", 10));
+        assertEquals(List.of(2L), eventSearchIndex.search("カメラ", 10));
+        //1文字の検索語はその文字を含むイベントすべてに一致
+        assertEquals(List.of(1L), eventSearchIndex.search("音", 10));
+    }
+
+    @Test
+    void testSearch_SingleCharacter() {
+        //1文字の検索語は登録時に作った文字ごとの転置リストで検索し、更新・削除も反映される
+        assertEquals(List.of(1L, 2L), eventSearchIndex.search("ズ", 10));
+        assertEquals(List.of(3L), eventSearchIndex.search("草", 10));
+
+        eventSearchIndex.index(new EventSearchDocument(3L, "ナイター観戦", "初心者歓迎", "横浜スタジアム", 3L, "野球"));
+        assertTrue(eventSearchIndex.search("草", 10).isEmpty());
+        assertEquals(List.of(3L), eventSearchIndex.search("野", 10));
+
+        eventSearchIndex.remove(1L);
+        assertEquals(List.of(2L), eventSearchIndex.search("ズ", 10));
+    }
+
+    @Test
+    void testSearch_MaxResults() {
+        assertEquals(List.of(1L), eventSearchIndex.search("ジャズ", 1));
+    }
+
+    @Test
+    void testIndexAndRemove() {
+        //更新：タイトルを変えると古い内容では見つからない
+        eventSearchIndex.index(new EventSearchDocument(3L, "ナイター観戦", "初心者歓迎", "横浜スタジアム", 3L, "野球"));
+        assertTrue(eventSearchIndex.search("草野球", 10).isEmpty());
+        assertEquals(List.of(3L), eventSearchIndex.search("ナイター", 10));
+
+        //削除
+        eventSearchIndex.remove(1L);
+        assertEquals(List.of(2L), eventSearchIndex.search("ジャズ", 10));
+        assertEquals(2, eventSearchIndex.size());
+    }
+
+    @Test
+    void testRebuild() {
+        //モックの設定
+        when(eventRepository.findSearchDocuments(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(new EventSearchDocument(10L, "写真展", null, null, 2L, "写真・カメラ")));
+
+        //テスト実行
+        eventSearchIndex.rebuild();
+
+        //検証（DBの内容で作り直される）
+        assertEquals(1, eventSearchIndex.size());
+        assertEquals(List.of(10L), eventSearchIndex.search("写真", 10));
+        assertTrue(eventSearchIndex.search("ジャズ", 10).isEmpty());
+    }
+
+    @Test
+    void testRebuild_KeepsUpdatesDuringRebuild() {
+        //モックの設定（DBからの読み込み中に、別のスレッドでイベントが作成・削除された場合）
+        when(eventRepository.findSearchDocuments(eq(0L), any(Pageable.class))).thenAnswer(invocation -> {
+            eventSearchIndex.index(new EventSearchDocument(20L, "写真教室", null, null, 2L, "写真・カメラ"));
+            eventSearchIndex.remove(10L);
+            return List.of(new EventSearchDocument(10L, "写真展", null, null, 2L, "写真・カメラ"));
+        });
+
+        //テスト実行
+        eventSearchIndex.rebuild();
+
+        //検証（読み込み中の作成・削除が新しいインデックスにも反映される）
+        assertEquals(List.of(20L), eventSearchIndex.search("写真", 10));
+        assertEquals(1, eventSearchIndex.size());
+    }
+}
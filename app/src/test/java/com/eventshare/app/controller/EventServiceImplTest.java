@@ -1,9 +1,18 @@
 package com.eventshare.app.controller;
 
+import com.eventshare.app.dto.request.EventCursor;
+import com.eventshare.app.dto.request.ParticipationCursor;
+import com.eventshare.app.dto.request.SearchCursor;
+import com.eventshare.app.dto.response.CursorPage;
+import com.eventshare.app.dto.response.EventResponse;
 import com.eventshare.app.entity.Event;
 import com.eventshare.app.entity.EventCategory;
 import com.eventshare.app.entity.User;
+import com.eventshare.app.listener.SeatReleasedEvent;
+import com.eventshare.app.repository.EventParticipationRepository;
 import com.eventshare.app.repository.EventRepository;
+import com.eventshare.app.service.PhotoService;
+import com.eventshare.app.service.impl.EventSearchIndex;
 import com.eventshare.app.service.impl.EventServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,9 +20,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,6 +42,18 @@ public class EventServiceImplTest {
     @Mock
     private EventRepository eventRepository;
 
+    @Mock
+    private EventParticipationRepository eventParticipationRepository;
+
+    @Mock
+    private PhotoService photoService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EventSearchIndex eventSearchIndex;
+
     @InjectMocks
     private EventServiceImpl eventService;
 
@@ -80,7 +105,7 @@ public class EventServiceImplTest {
     @Test
     void testGetEventById_Success() {
         //モックの設定
-        when(eventRepository.findById(1L)).thenReturn(Optional.of(testEvent));
+        when(eventRepository.findDetailById(1L)).thenReturn(Optional.of(testEvent));
 
         //テスト実行
         Event result = eventService.getEventById(1L);
@@ -88,21 +113,21 @@ public class EventServiceImplTest {
         //検証
         assertEquals("testtitle", result.getTitle());//タイトル正しいか
         assertEquals(testUser.getId(), result.getCreator().getId());
-        verify(eventRepository, times(1)).findById(1L);
+        verify(eventRepository, times(1)).findDetailById(1L);
     }
 
     //IDからイベント取得テスト（失敗）
     @Test
     void testGetEventById_NotFound() {
         //モックの設定
-        when(eventRepository.findById(999L)).thenReturn(Optional.empty());
+        when(eventRepository.findDetailById(999L)).thenReturn(Optional.empty());
 
         //テストの実行(assertThrows(期待するクラス, 例外を投げるはずのクラス))
         RuntimeException runtimeException = assertThrows(RuntimeException.class,
                 () -> eventService.getEventById(999L));
 
         assertEquals("イベントが見つかりません。ID: 999", runtimeException.getMessage());//例外メッセージチェック
-        verify(eventRepository, times(1)).findById(999L);
+        verify(eventRepository, times(1)).findDetailById(999L);
     }
 
     //イベント作成(成功)テスト
@@ -162,30 +187,70 @@ public class EventServiceImplTest {
         updatedEvent.setCategory(testCategory);
 
         //モックの設定
-        when(eventRepository.findById(1L)).thenReturn(Optional.of(testEvent));//既存のイベント取得
+        when(eventRepository.findDetailById(1L)).thenReturn(Optional.of(testEvent));//既存のイベント取得
         when(eventRepository.save(any(Event.class))).thenReturn(testEvent);//更新処理の保存
 
         //テスト実行
         Event result = eventService.updateEvent(1L, updatedEvent);
 
         //検証
-        verify(eventRepository, times(1)).findById(1L);
+        verify(eventRepository, times(1)).findDetailById(1L);
         verify(eventRepository, times(1)).save(any(Event.class));
         assertEquals("updatedTitle", result.getTitle());
     }
 
-    //イベント削除成功テスト
+    //定員を増やした場合はキャンセル待ちの繰り上げを起動する
+    @Test
+    void testUpdateEvent_CapacityIncreased() {
+        //更新後のイベント準備
+        Event updatedEvent = new Event();
+        updatedEvent.setTitle("testtitle");
+        updatedEvent.setEventDate(LocalDateTime.now().plusDays(10));
+        updatedEvent.setCapacity(60);
+        updatedEvent.setCategory(testCategory);
+
+        //モックの設定
+        when(eventRepository.findDetailById(1L)).thenReturn(Optional.of(testEvent));
+        when(eventRepository.save(any(Event.class))).thenReturn(testEvent);
+
+        //テスト実行
+        eventService.updateEvent(1L, updatedEvent);
+
+        //検証
+        verify(eventPublisher, times(1)).publishEvent(any(SeatReleasedEvent.class));
+    }
+
+    //イベント削除成功テスト（参加情報・写真・イベントをそれぞれ1文で削除し、エンティティは読み込まない）
     @Test
     void testDeleteEvent_Success() {
         //モックの設定
-        when(eventRepository.findById(1L)).thenReturn(Optional.of(testEvent));//削除対象のイベントが存在するか
+        when(eventRepository.existsById(1L)).thenReturn(true);//削除対象のイベントが存在するか
+        when(eventParticipationRepository.deleteByEventId(1L)).thenReturn(3);
 
         //テスト実行
         eventService.deleteEvent(1L);
 
         //検証
-        verify(eventRepository, times(1)).findById(1L);
-        verify(eventRepository, times(1)).delete(testEvent);
+        verify(eventParticipationRepository, times(1)).deleteByEventId(1L);
+        verify(photoService, times(1)).deletePhotosByEvent(1L);
+        verify(eventRepository, times(1)).deleteEventById(1L);
+        verify(eventRepository, never()).findDetailById(1L);
+        verify(eventRepository, never()).delete(any(Event.class));
+    }
+
+    //存在しないイベントは削除しない
+    @Test
+    void testDeleteEvent_NotFound() {
+        //モックの設定
+        when(eventRepository.existsById(1L)).thenReturn(false);
+
+        //テスト実行
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> eventService.deleteEvent(1L));
+
+        //検証
+        assertTrue(exception.getMessage().contains("イベントが見つかりません"));
+        verify(eventParticipationRepository, never()).deleteByEventId(any());
+        verify(eventRepository, never()).deleteEventById(any());
     }
 
     //カテゴリ指定でのイベント検索テスト
@@ -245,17 +310,56 @@ public class EventServiceImplTest {
         //キーワード準備
         String keyword = "test";
 
-        //モックの設定
-        List<Event> events = Arrays.asList(testEvent);
-        when(eventRepository.findByTitleContaining(keyword)).thenReturn(events);
+        //2件目のイベント
+        Event otherEvent = new Event();
+        otherEvent.setId(2L);
+        otherEvent.setTitle("othertitle");
+        otherEvent.setDescription("test");
+
+        //モックの設定（検索インデックスの順位とDBの返却順が異なる）
+        when(eventSearchIndex.search(eq(keyword), anyInt())).thenReturn(Arrays.asList(1L, 2L));
+        when(eventRepository.findByIdIn(Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(otherEvent, testEvent));
 
         //テスト実行
         List<Event> result = eventService.getEventsByKeyword(keyword);
 
+        //検証（検索インデックスの順位どおりに並ぶ）
+        assertEquals(2, result.size());
+        assertEquals(1L, result.get(0).getId());
+        assertEquals(2L, result.get(1).getId());
+        verify(eventRepository, never()).findByTitleContaining(keyword);//LIKE検索は行わない
+    }
+
+    //キーワード検索（ページ単位・次ページあり）
+    @Test
+    void testSearchEvents_HasNext() {
+        //モックの設定（ページサイズ1件に対して2件ヒット）
+        when(eventSearchIndex.search("test", 2)).thenReturn(Arrays.asList(1L, 2L));
+        when(eventRepository.findResponsesByIdIn(List.of(1L))).thenReturn(Arrays.asList(toEventResponse(testEvent)));
+
+        //テスト実行
+        CursorPage<EventResponse> result = eventService.searchEvents("test", null, 1);
+
         //検証
-        assertEquals(1, result.size());
-        assertTrue(result.get(0).getTitle().contains(keyword));
-        verify(eventRepository, times(1)).findByTitleContaining(keyword);
+        assertEquals(1, result.getContent().size());
+        assertEquals(1L, result.getContent().get(0).getId());
+        assertTrue(result.isHasNext());
+        assertEquals(1, SearchCursor.decode(result.getNextCursor()).getOffset());
+    }
+
+    //キーワード検索（該当なし）
+    @Test
+    void testSearchEvents_NoMatch() {
+        //モックの設定
+        when(eventSearchIndex.search("none", 21)).thenReturn(List.of());
+
+        //テスト実行
+        CursorPage<EventResponse> result = eventService.searchEvents("none", null, 20);
+
+        //検証
+        assertTrue(result.getContent().isEmpty());
+        assertFalse(result.isHasNext());
+        verify(eventRepository, never()).findResponsesByIdIn(any());
     }
 
     //複合検索
@@ -278,4 +382,77 @@ public class EventServiceImplTest {
         assertTrue(result.get(0).getEventDate().isAfter(targetTime));
         verify(eventRepository, times(1)).findByCategoryAndEventDateAfter(testCategory, targetTime);
     }
+
+    //ページ単位のイベント取得（次ページあり）
+    @Test
+    void testGetEventsPage_HasNext() {
+        //一覧用DTOを2件準備（ページサイズ1件に対して2件返る＝次ページあり）
+        EventResponse first = toEventResponse(testEvent);
+        Event nextEvent = new Event();
+        nextEvent.setId(2L);
+        nextEvent.setTitle("nexttitle");
+        nextEvent.setEventDate(testEvent.getEventDate().plusDays(1));
+        nextEvent.setCategory(testCategory);
+        nextEvent.setCreator(testUser);
+        EventResponse second = toEventResponse(nextEvent);
+
+        //モックの設定
+        when(eventRepository.findFirstPage(any(Pageable.class))).thenReturn(Arrays.asList(first, second));
+
+        //テスト実行
+        CursorPage<EventResponse> result = eventService.getEventsPage(null, 1);
+
+        //検証
+        assertEquals(1, result.getContent().size());
+        assertEquals("testuser", result.getContent().get(0).getCreator().getUsername());
+        assertTrue(result.isHasNext());
+        EventCursor cursor = EventCursor.decode(result.getNextCursor());
+        assertEquals(testEvent.getId(), cursor.getId());//カーソルはページ最後のイベントを指す
+        assertEquals(testEvent.getEventDate(), cursor.getEventDate());
+        verify(eventRepository, never()).findAll();//全件取得は行わない
+    }
+
+    //カーソル指定でのページ取得（最終ページ）
+    @Test
+    void testGetEventsPage_LastPage() {
+        //カーソル準備
+        EventCursor cursor = new EventCursor(testEvent.getEventDate().minusDays(1), 10L);
+
+        //モックの設定
+        when(eventRepository.findPageAfterCursor(eq(cursor.getEventDate()), eq(10L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(toEventResponse(testEvent)));
+
+        //テスト実行
+        CursorPage<EventResponse> result = eventService.getEventsPage(cursor, 20);
+
+        //検証
+        assertEquals(1, result.getContent().size());
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+    }
+
+    //形式が不正なカーソルはIllegalArgumentException（コントローラーで400エラーにする）
+    @Test
+    void testDecodeCursor_Malformed() {
+        String notBase64 = "not*base64";
+        String noSeparator = Base64.getUrlEncoder().encodeToString("2025-01-01T10:00".getBytes(StandardCharsets.UTF_8));
+        String badDate = Base64.getUrlEncoder().encodeToString("yesterday|1".getBytes(StandardCharsets.UTF_8));
+
+        //テスト実行・検証
+        for (String token : List.of(notBase64, noSeparator, badDate)) {
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> EventCursor.decode(token));
+            assertEquals("不正なカーソルです", exception.getMessage());
+        }
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode(badDate));
+        assertThrows(IllegalArgumentException.class, () -> ParticipationCursor.decode(noSeparator));
+    }
+
+    //リポジトリのコンストラクタ式と同じ形で一覧用DTOを作成
+    private EventResponse toEventResponse(Event event) {
+        return new EventResponse(event.getId(), event.getTitle(), event.getDescription(), event.getEventDate(),
+                event.getLocation(), event.getCapacity(), event.getCreatedAt(), event.getUpdatedAt(),
+                event.getCategory().getId(), event.getCategory().getName(), event.getCategory().getDescription(),
+                event.getCreator().getId(), event.getCreator().getUsername(), event.getCreator().getProfilePicture());
+    }
 }
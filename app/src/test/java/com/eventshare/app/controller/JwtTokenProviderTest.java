@@ -0,0 +1,94 @@
+package com.eventshare.app.controller;
+
+import com.eventshare.app.security.JwtTokenProvider;
+import com.eventshare.app.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+JwtTokenProviderのテストクラス
+トークンの生成と1回のパースでの検証をテスト
+ */
+public class JwtTokenProviderTest {
+    private JwtTokenProvider jwtTokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", "testSecretKeyForJwtTokenGenerationInEventShareApplicationTest123!@#");
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpirationInMs", 86400000);
+        jwtTokenProvider.init();
+    }
+
+    //生成したトークンからクレームを取得できる
+    @Test
+    void testParseClaims_Valid() {
+        String token = generateToken("testuser");
+
+        //テスト実行
+        Claims claims = jwtTokenProvider.parseClaims(token);
+
+        //検証
+        assertNotNull(claims);
+        assertEquals("testuser", claims.getSubject());
+        assertTrue(jwtTokenProvider.validateToken(token));
+    }
+
+    //改ざんされたトークンはnullを返す
+    @Test
+    void testParseClaims_Tampered() {
+        String token = generateToken("testuser");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        //テスト実行・検証
+        assertNull(jwtTokenProvider.parseClaims(tampered));
+        assertFalse(jwtTokenProvider.validateToken(tampered));
+    }
+
+    //不正な形式のトークンはnullを返す
+    @Test
+    void testParseClaims_Malformed() {
+        assertNull(jwtTokenProvider.parseClaims("not-a-jwt"));
+    }
+
+    //ユーザーIDを含むトークンからDBを参照せずに認証ユーザーを組み立てられる
+    @Test
+    void testGetPrincipalFromClaims() {
+        UserPrincipal principal = new UserPrincipal(42L, "testuser", "password", Collections.emptyList());
+        String token = jwtTokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        //テスト実行
+        UserPrincipal result = jwtTokenProvider.getPrincipalFromClaims(jwtTokenProvider.parseClaims(token));
+
+        //検証
+        assertNotNull(result);
+        assertEquals(42L, result.getId());
+        assertEquals("testuser", result.getUsername());
+        assertNull(result.getPassword());
+        assertTrue(result.getAuthorities().isEmpty());
+    }
+
+    //ユーザーIDを含まない旧形式のトークンはnullを返す
+    @Test
+    void testGetPrincipalFromClaims_LegacyToken() {
+        String token = generateToken("testuser");
+
+        //テスト実行・検証
+        assertNull(jwtTokenProvider.getPrincipalFromClaims(jwtTokenProvider.parseClaims(token)));
+    }
+
+    private String generateToken(String username) {
+        User principal = new User(username, "password", Collections.emptyList());
+        return jwtTokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,248 @@
+package com.eventshare.app.controller;
+
+import com.eventshare.app.dto.response.EventSearchDocument;
+import com.eventshare.app.entity.Event;
+import com.eventshare.app.entity.EventCategory;
+import com.eventshare.app.entity.EventParticipation;
+import com.eventshare.app.entity.Photo;
+import com.eventshare.app.entity.User;
+import com.eventshare.app.repository.EventCategoryRepository;
+import com.eventshare.app.repository.EventParticipationRepository;
+import com.eventshare.app.repository.EventRepository;
+import com.eventshare.app.repository.PhotoRepository;
+import com.eventshare.app.repository.UserRepository;
+import com.eventshare.app.security.UserPrincipal;
+import com.eventshare.app.service.EventParticipationService;
+import com.eventshare.app.service.EventService;
+import com.eventshare.app.service.PhotoService;
+import com.eventshare.app.service.impl.EventSearchIndex;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/*
+コントローラーで遅延読み込みが発生しないことの確認テスト
+Open Session in Viewを無効にした状態で各APIを呼び出し、次の2点を確認する
+1.レスポンスの組み立てに必要な関連エンティティがサービス層で読み込まれている（未読み込みの関連に触れると例外でエラー応答になる）
+2.トランザクションの外（コントローラー・JSON変換）でSQLが発行されていない
+APIから呼び出されていないエンティティを返す検索（カテゴリ・作成者・ユーザーの写真等）も、
+戻り値のレスポンスに使う関連に触れてSQLが発行されないことを確認する
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:lazyloaddb",
+        "spring.jpa.open-in-view=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.eventshare.app.controller.LazyLoadingOutsideServiceTest$OutsideTransactionCapture"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class LazyLoadingOutsideServiceTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EventCategoryRepository eventCategoryRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private EventParticipationRepository eventParticipationRepository;
+
+    @Autowired
+    private PhotoRepository photoRepository;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EventParticipationService eventParticipationService;
+
+    @Autowired
+    private PhotoService photoService;
+
+    @Autowired
+    private EventSearchIndex eventSearchIndex;
+
+    private User user;
+    private Event event;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        user = new User();
+        user.setUsername("lazy-user-" + suffix);
+        user.setPassword("password");
+        user = userRepository.save(user);
+
+        EventCategory category = new EventCategory();
+        category.setName("lazy-category-" + suffix);
+        category = eventCategoryRepository.save(category);
+
+        event = new Event();
+        event.setTitle("遅延読み込み確認");
+        event.setEventDate(LocalDateTime.now().plusDays(7));
+        event.setCategory(category);
+        event.setCreator(user);
+        event.setCapacity(10);
+        event = eventRepository.save(event);
+
+        EventParticipation participation = new EventParticipation();
+        participation.setEvent(event);
+        participation.setUser(user);
+        participation.setStatus(EventParticipation.ParticipationStatus.CONFIRMED);
+        eventParticipationRepository.save(participation);
+
+        Photo photo = new Photo();
+        photo.setFilename(UUID.randomUUID() + ".jpg");
+        photo.setUploadFilename("photo.jpg");
+        photo.setFileSize(1L);
+        photo.setMineType("image/jpeg");
+        photo.setEvent(event);
+        photo.setUploadedBy(user);
+        photoRepository.save(photo);
+    }
+
+    @Test
+    void testEventDetail() throws Exception {
+        perform(get("/api/events/" + event.getId()))
+                .andExpect(jsonPath("$.category.name").value(event.getCategory().getName()))
+                .andExpect(jsonPath("$.creator.username").value(user.getUsername()));
+    }
+
+    @Test
+    void testEventList() throws Exception {
+        perform(get("/api/events").param("limit", "100"))
+                .andExpect(jsonPath("$.content[?(@.id == %s)].category.name", event.getId())
+                        .value(hasItem(event.getCategory().getName())))
+                .andExpect(jsonPath("$.content[?(@.id == %s)].creator.username", event.getId())
+                        .value(hasItem(user.getUsername())));
+    }
+
+    @Test
+    void testEventListByCategory() throws Exception {
+        perform(get("/api/events").param("categoryId", event.getCategory().getId().toString()))
+                .andExpect(jsonPath("$.content[0].category.name").value(event.getCategory().getName()))
+                .andExpect(jsonPath("$.content[0].creator.username").value(user.getUsername()));
+    }
+
+    @Test
+    void testEventKeywordSearch() throws Exception {
+        //直接保存したイベントのため、検索インデックスには手動で登録する
+        eventSearchIndex.index(EventSearchDocument.of(event));
+        perform(get("/api/events").param("keyword", event.getCategory().getName()))
+                .andExpect(jsonPath("$.content[0].id").value(event.getId()))
+                .andExpect(jsonPath("$.content[0].creator.username").value(user.getUsername()));
+    }
+
+    @Test
+    void testUpcomingEvents() throws Exception {
+        perform(get("/api/events/upcoming").param("limit", "100"))
+                .andExpect(jsonPath("$.content[?(@.id == %s)].category.name", event.getId())
+                        .value(hasItem(event.getCategory().getName())));
+    }
+
+    @Test
+    void testParticipationStatus() throws Exception {
+        perform(get("/api/events/" + event.getId() + "/participation-status").with(user(UserPrincipal.create(user))))
+                .andExpect(jsonPath("$.participating").value(true));
+    }
+
+    @Test
+    void testEventFinders() {
+        LocalDateTime now = LocalDateTime.now();
+        Function<Event, Object> response = e -> e.getCategory().getName() + e.getCreator().getUsername();
+        assertNoLazyLoading("getAllEvents", eventService.getAllEvents(), response);
+        assertNoLazyLoading("getEventsByCategory", eventService.getEventsByCategory(event.getCategory()), response);
+        assertNoLazyLoading("getEventsByCreator", eventService.getEventsByCreator(user), response);
+        assertNoLazyLoading("getEventsByDateAfter", eventService.getEventsByDateAfter(now), response);
+        assertNoLazyLoading("getEventsByCategoryAndDateAfter",
+                eventService.getEventsByCategoryAndDateAfter(event.getCategory(), now), response);
+    }
+
+    @Test
+    void testParticipationAndPhotoFinders() {
+        Function<EventParticipation, Object> participation = p -> p.getEvent().getTitle() + p.getUser().getUsername();
+        assertNoLazyLoading("getParticipationByEvent", eventParticipationService.getParticipationByEvent(event), participation);
+        assertNoLazyLoading("getParticipationByUser", eventParticipationService.getParticipationByUser(user), participation);
+        assertNoLazyLoading("getParticipationByEventAndUser",
+                eventParticipationService.getParticipationByEventAndUser(event, user), participation);
+
+        Function<Photo, Object> photo = p -> p.getEvent().getId() + p.getUploadedBy().getUsername();
+        assertNoLazyLoading("getPhotosByUser", photoService.getPhotosByUser(user), photo);
+        assertNoLazyLoading("getPhotosByEventAndUser", photoService.getPhotosByEventAndUser(event, user), photo);
+    }
+
+    @Test
+    void testEventParticipants() throws Exception {
+        perform(get("/api/events/" + event.getId() + "/participants").with(user(UserPrincipal.create(user))))
+                .andExpect(jsonPath("$.content[0].username").value(user.getUsername()))
+                .andExpect(jsonPath("$.content[0].eventTitle").value("遅延読み込み確認"));
+    }
+
+    @Test
+    void testMyParticipations() throws Exception {
+        perform(get("/api/events/my-participations").with(user(UserPrincipal.create(user))))
+                .andExpect(jsonPath("$.content[0].eventTitle").value("遅延読み込み確認"));
+    }
+
+    @Test
+    void testEventPhotos() throws Exception {
+        perform(get("/api/photos/event/" + event.getId()))
+                .andExpect(jsonPath("$[0].uploadedBy.username").value(user.getUsername()));
+    }
+
+    //リクエストを実行し、成功したこととトランザクション外でSQLが発行されていないことを確認
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        OutsideTransactionCapture.STATEMENTS.clear();
+        ResultActions result = mockMvc.perform(request).andExpect(status().isOk());
+        List<String> statements = new ArrayList<>(OutsideTransactionCapture.STATEMENTS);
+        assertTrue(statements.isEmpty(), "トランザクション外でSQLが発行されています（遅延読み込み）\n" + String.join("\n", statements));
+        return result;
+    }
+
+    //サービスの戻り値のレスポンスに使う関連に触れ、読み込み済みであること（SQLが発行されないこと）を確認
+    private <T> void assertNoLazyLoading(String name, List<T> results, Function<T, Object> response) {
+        assertFalse(results.isEmpty(), name + ": 結果がありません");
+        OutsideTransactionCapture.STATEMENTS.clear();
+        results.forEach(response::apply);
+        assertTrue(OutsideTransactionCapture.STATEMENTS.isEmpty(),
+                name + ": 戻り値の関連を遅延読み込みしています\n" + String.join("\n", OutsideTransactionCapture.STATEMENTS));
+    }
+
+    //トランザクションの外で発行されたSQLを記録する
+    public static class OutsideTransactionCapture implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.eventshare.app.controller;
+
+import com.eventshare.app.entity.Photo;
+import com.eventshare.app.entity.PhotoBlob;
+import com.eventshare.app.repository.PhotoBlobRepository;
+import com.eventshare.app.repository.PhotoRepository;
+import com.eventshare.app.service.impl.FileSystemPhotoStorage;
+import com.eventshare.app.service.impl.LegacyPhotoMigrator;
+import com.eventshare.app.service.impl.PhotoBlobStore;
+import com.eventshare.app.service.impl.PhotoDerivativeGenerator;
+import com.eventshare.app.service.impl.PhotoFileInfoCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/*
+LegacyPhotoMigratorのテストクラス
+導入前の写真ファイルがハッシュの2階層の保存先に移行されることをテスト
+ */
+@ExtendWith(MockitoExtension.class)
+public class LegacyPhotoMigratorTest {
+    private static final byte[] CONTENT = "legacy photo".getBytes();
+
+    @Mock
+    private PhotoRepository photoRepository;
+
+    @Mock
+    private PhotoBlobRepository photoBlobRepository;
+
+    @Mock
+    private PhotoDerivativeGenerator photoDerivativeGenerator;
+
+    @Mock
+    private PhotoFileInfoCache fileInfoCache;
+
+    private LegacyPhotoMigrator migrator;
+
+    @TempDir
+    Path uploadDirectory;
+
+    private Photo photo;
+
+    @BeforeEach
+    void setUp() {
+        FileSystemPhotoStorage photoStorage = new FileSystemPhotoStorage(uploadDirectory.toString());
+        PhotoBlobStore photoBlobStore = new PhotoBlobStore(photoBlobRepository, photoDerivativeGenerator, photoStorage, uploadDirectory.toString());
+        migrator = new LegacyPhotoMigrator(photoRepository, photoBlobStore, photoDerivativeGenerator, photoStorage, fileInfoCache);
+
+        photo = new Photo();
+        photo.setId(1L);
+        photo.setFilename("legacy.png");
+        photo.setMineType("image/png");
+        photo.setDerivativesReady(true);
+        when(photoRepository.findLegacyPhotos(eq(0L), any(Pageable.class))).thenReturn(List.of(photo));
+        when(photoRepository.findLegacyPhotos(eq(1L), any(Pageable.class))).thenReturn(List.of());
+    }
+
+    //元ファイル・縮小版が新しい保存先に移り、旧ファイルが削除される（旧保存先を指す配信用メタ情報も破棄する）
+    @Test
+    void testMigrateAll() throws Exception {
+        //モックの設定
+        Files.write(uploadDirectory.resolve("legacy.png"), CONTENT);
+        Files.write(uploadDirectory.resolve("legacy_thumb.jpg"), "thumb".getBytes());
+        Files.write(uploadDirectory.resolve("legacy_medium.jpg"), "medium".getBytes());
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(CONTENT));
+        when(photoBlobRepository.saveAndFlush(any(PhotoBlob.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(photoRepository.assignBlob(eq(1L), any(PhotoBlob.class), eq(hash), eq(true))).thenReturn(1);
+
+        //テスト実行
+        LegacyPhotoMigrator.Result result = migrator.migrateAll(10, 0);
+
+        //検証
+        assertEquals(new LegacyPhotoMigrator.Result(1, 0, 0), result);
+        Path blobDirectory = uploadDirectory.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4));
+        assertArrayEquals(CONTENT, Files.readAllBytes(blobDirectory.resolve(hash)));
+        assertTrue(Files.exists(blobDirectory.resolve(hash + "_thumb.jpg")));
+        assertTrue(Files.exists(blobDirectory.resolve(hash + "_medium.jpg")));
+        assertFalse(Files.exists(uploadDirectory.resolve("legacy.png")));
+        verify(photoDerivativeGenerator).deleteDerivatives("legacy.png");
+        verify(photoDerivativeGenerator, never()).generateAsync(any(Photo.class), anyString());
+        verify(fileInfoCache).remove("legacy.png");
+    }
+
+    //縮小版がない写真は移行後に生成し、生成が完了したら配信用メタ情報を再度破棄する
+    @Test
+    void testMigrateAll_GeneratesDerivatives() throws Exception {
+        //モックの設定
+        Files.write(uploadDirectory.resolve("legacy.png"), CONTENT);
+        photo.setDerivativesReady(false);
+        when(photoBlobRepository.saveAndFlush(any(PhotoBlob.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(photoRepository.assignBlob(eq(1L), any(PhotoBlob.class), anyString(), eq(false))).thenReturn(1);
+        CompletableFuture<Boolean> generation = new CompletableFuture<>();
+        when(photoDerivativeGenerator.generateAsync(eq(photo), anyString())).thenReturn(generation);
+
+        //テスト実行
+        LegacyPhotoMigrator.Result result = migrator.migrateAll(10, 0);
+        verify(fileInfoCache, times(1)).remove("legacy.png");
+        generation.complete(true);
+
+        //検証
+        assertEquals(new LegacyPhotoMigrator.Result(1, 0, 0), result);
+        verify(fileInfoCache, times(2)).remove("legacy.png");
+    }
+
+    //ファイルが見つからない写真は変更しない
+    @Test
+    void testMigrateAll_MissingFile() throws Exception {
+        //テスト実行
+        LegacyPhotoMigrator.Result result = migrator.migrateAll(10, 0);
+
+        //検証
+        assertEquals(new LegacyPhotoMigrator.Result(0, 1, 0), result);
+        verify(photoRepository, never()).assignBlob(any(), any(), any(), anyBoolean());
+        verify(photoBlobRepository, never()).saveAndFlush(any(PhotoBlob.class));
+    }
+
+    //移行中に写真が削除された場合は、登録したファイルの参照を取り消して旧ファイルを残す
+    @Test
+    void testMigrateAll_PhotoDeletedDuringMigration() throws Exception {
+        //モックの設定
+        Files.write(uploadDirectory.resolve("legacy.png"), CONTENT);
+        photo.setDerivativesReady(false);
+        when(photoBlobRepository.saveAndFlush(any(PhotoBlob.class))).thenAnswer(inv -> {
+            PhotoBlob blob = inv.getArgument(0);
+            blob.setId(5L);
+            return blob;
+        });
+        when(photoRepository.assignBlob(eq(1L), any(PhotoBlob.class), anyString(), eq(false))).thenReturn(0);
+        when(photoBlobRepository.deleteIfUnreferenced(5L)).thenReturn(1);
+
+        //テスト実行
+        LegacyPhotoMigrator.Result result = migrator.migrateAll(10, 0);
+
+        //検証
+        assertEquals(new LegacyPhotoMigrator.Result(0, 1, 0), result);
+        verify(photoBlobRepository).decrementRefCount(5L);
+        assertTrue(Files.exists(uploadDirectory.resolve("legacy.png")));
+        verify(photoDerivativeGenerator, never()).generateAsync(any(Photo.class), anyString());
+        verify(fileInfoCache, never()).remove(anyString());
+    }
+}
@@ -0,0 +1,94 @@
+package com.eventshare.app.controller;
+
+import com.eventshare.app.entity.Photo;
+import com.eventshare.app.repository.PhotoRepository;
+import com.eventshare.app.service.impl.FileSystemPhotoStorage;
+import com.eventshare.app.service.impl.PhotoDerivativeGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/*
+PhotoDerivativeGeneratorのテストクラス
+縮小版の生成と保存をテスト
+ */
+@ExtendWith(MockitoExtension.class)
+public class PhotoDerivativeGeneratorTest {
+    @Mock
+    private PhotoRepository photoRepository;
+
+    private PhotoDerivativeGenerator generator;
+
+    @TempDir
+    Path uploadDirectory;
+
+    @BeforeEach
+    void setUp() {
+        generator = new PhotoDerivativeGenerator(photoRepository, new FileSystemPhotoStorage(uploadDirectory.toString()), 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        generator.shutdown();
+    }
+
+    //サムネイル・中サイズが最大幅に収まるJPEGで保存され、生成完了が記録される
+    @Test
+    void testGenerate() throws Exception {
+        //テスト用の横長画像（2400x1200）
+        Path original = uploadDirectory.resolve("abc.png");
+        ImageIO.write(new BufferedImage(2400, 1200, BufferedImage.TYPE_INT_ARGB), "png", original.toFile());
+
+        //テスト実行
+        boolean result = generator.generate(1L, "abc.png");
+
+        //検証
+        assertTrue(result);
+        BufferedImage thumb = ImageIO.read(uploadDirectory.resolve("abc_thumb.jpg").toFile());
+        BufferedImage medium = ImageIO.read(uploadDirectory.resolve("abc_medium.jpg").toFile());
+        assertEquals(320, thumb.getWidth());
+        assertEquals(160, thumb.getHeight());
+        assertEquals(1024, medium.getWidth());
+        verify(photoRepository, times(1)).markDerivativesReady(1L);
+    }
+
+    //元画像が最大幅より小さい場合は拡大しない
+    @Test
+    void testGenerate_SmallImage() throws Exception {
+        Path original = uploadDirectory.resolve("small.png");
+        ImageIO.write(new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB), "png", original.toFile());
+
+        //テスト実行
+        generator.generate(2L, "small.png");
+
+        //検証
+        assertEquals(200, ImageIO.read(uploadDirectory.resolve("small_medium.jpg").toFile()).getWidth());
+    }
+
+    //読み込めない形式は縮小版を作らない
+    @Test
+    void testGenerate_Unreadable() throws Exception {
+        Path original = uploadDirectory.resolve("broken.webp");
+        Files.write(original, "not an image".getBytes());
+
+        //テスト実行
+        boolean result = generator.generate(3L, "broken.webp");
+
+        //検証
+        assertFalse(result);
+        assertFalse(Files.exists(uploadDirectory.resolve("broken_thumb.jpg")));
+        verify(photoRepository, never()).markDerivativesReady(any());
+    }
+}
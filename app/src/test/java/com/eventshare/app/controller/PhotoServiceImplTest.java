@@ -0,0 +1,416 @@
+package com.eventshare.app.controller;
+
+import com.eventshare.app.dto.response.PhotoCleanupProgress;
+import com.eventshare.app.dto.response.PhotoFileInfo;
+import com.eventshare.app.dto.response.PhotoUploadResult;
+import com.eventshare.app.entity.Event;
+import com.eventshare.app.entity.Photo;
+import com.eventshare.app.entity.PhotoBlob;
+import com.eventshare.app.entity.User;
+import com.eventshare.app.listener.EventPhotosDeletedEvent;
+import com.eventshare.app.listener.PhotoDeletedEvent;
+import com.eventshare.app.repository.PhotoBlobRepository;
+import com.eventshare.app.repository.PhotoFileDeletionRepository;
+import com.eventshare.app.repository.PhotoRepository;
+import com.eventshare.app.service.impl.FileSystemPhotoStorage;
+import com.eventshare.app.service.impl.PhotoBlobStore;
+import com.eventshare.app.service.impl.PhotoDerivativeGenerator;
+import com.eventshare.app.service.impl.PhotoFileCleaner;
+import com.eventshare.app.service.impl.PhotoFileInfoCache;
+import com.eventshare.app.service.impl.PhotoServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/*
+PhotoServiceImplのテストクラス
+写真アップロード時の形式判定と配信用メタ情報の取得をテスト
+ */
+@ExtendWith(MockitoExtension.class)
+public class PhotoServiceImplTest {
+    //PNGファイルの先頭バイト（シグネチャ＋IHDRチャンク）
+    private static final byte[] PNG_HEADER = {
+            (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n',
+            0, 0, 0, 13, 'I', 'H', 'D', 'R', 0, 0, 0, 1, 0, 0, 0, 1, 8, 2, 0, 0, 0
+    };
+
+    @Mock
+    private PhotoRepository photoRepository;
+
+    @Mock
+    private PhotoDerivativeGenerator photoDerivativeGenerator;
+
+    @Mock
+    private PhotoBlobRepository photoBlobRepository;
+
+    @Mock
+    private PhotoFileDeletionRepository photoFileDeletionRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private PhotoServiceImpl photoService;
+
+    @TempDir
+    Path uploadDirectory;
+
+    private Event testEvent;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        FileSystemPhotoStorage photoStorage = new FileSystemPhotoStorage(uploadDirectory.toString());
+        PhotoBlobStore photoBlobStore = new PhotoBlobStore(photoBlobRepository, photoDerivativeGenerator, photoStorage, uploadDirectory.toString());
+        PhotoFileCleaner photoFileCleaner = new PhotoFileCleaner(photoBlobStore, photoDerivativeGenerator, photoStorage,
+                photoFileDeletionRepository, 1, Duration.ZERO);
+        photoService = new PhotoServiceImpl(photoRepository, photoDerivativeGenerator, photoBlobStore, photoStorage,
+                photoFileCleaner, new PhotoFileInfoCache(), eventPublisher, 2);
+
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+
+        testEvent = new Event();
+        testEvent.setId(1L);
+        testEvent.setTitle("testtitle");
+    }
+
+    //ファイルの内容から判定したMIMEタイプが保存される
+    @Test
+    void testUploadPhoto_StoresDetectedType() {
+        //モックの設定
+        MockMultipartFile file = new MockMultipartFile("file", "photo.png", "image/png", PNG_HEADER);
+        stubNewBlobs();
+        when(photoRepository.save(any(Photo.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(photoDerivativeGenerator.generateAsync(any(Photo.class), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(true));
+
+        //テスト実行
+        Photo result = photoService.uploadPhoto(file, "caption", testEvent, testUser);
+
+        //検証
+        assertEquals("image/png", result.getMineType());
+        verify(photoDerivativeGenerator, times(1)).generateAsync(eq(result), anyString());
+    }
+
+    //アップロード時にファイル内容のSHA-256ハッシュが保存される
+    @Test
+    void testUploadPhoto_StoresContentHash() throws Exception {
+        //モックの設定
+        MockMultipartFile file = new MockMultipartFile("file", "photo.png", "image/png", PNG_HEADER);
+        stubNewBlobs();
+        when(photoRepository.save(any(Photo.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(photoDerivativeGenerator.generateAsync(any(Photo.class), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(true));
+
+        //テスト実行
+        Photo result = photoService.uploadPhoto(file, "caption", testEvent, testUser);
+
+        //検証
+        String expected = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(PNG_HEADER));
+        assertEquals(expected, result.getContentHash());
+        assertEquals("\"" + expected + "\"",
+                new PhotoFileInfo(result.getFilename(), result.getMineType(), result.getFileSize(), result.getContentHash(), null, false, result.getContentHash()).getEtag());
+    }
+
+    //申告された形式の別名・パラメータ付きの指定は、正式な形式として扱う
+    @Test
+    void testUploadPhoto_AcceptsTypeAliases() {
+        //モックの設定
+        stubNewBlobs();
+        when(photoRepository.save(any(Photo.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(photoDerivativeGenerator.generateAsync(any(Photo.class), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(true));
+
+        for (String declared : List.of("image/x-png", "IMAGE/PNG", "image/png; charset=binary")) {
+            MockMultipartFile file = new MockMultipartFile("file", "photo.png", declared, PNG_HEADER);
+
+            //テスト実行
+            Photo result = photoService.uploadPhoto(file, "caption", testEvent, testUser);
+
+            //検証
+            assertEquals("image/png", result.getMineType(), declared);
+        }
+    }
+
+    //申告された形式とファイルの内容が一致しない場合はエラー
+    @Test
+    void testUploadPhoto_TypeMismatch() {
+        //PNGの内容をJPEGとして申告
+        MockMultipartFile file = new MockMultipartFile("file", "photo.jpg", "image/jpeg", PNG_HEADER);
+
+        //テスト実行・検証
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> photoService.uploadPhoto(file, "caption", testEvent, testUser));
+        assertEquals("ファイルの内容が指定された形式と一致しません", exception.getMessage());
+        verify(photoRepository, never()).save(any(Photo.class));
+    }
+
+    //画像でないファイルは申告された形式に関係なくエラー
+    @Test
+    void testUploadPhoto_NotImage() {
+        MockMultipartFile file = new MockMultipartFile("file", "note.txt", "image/png", "not an image".getBytes());
+
+        //テスト実行・検証
+        assertThrows(RuntimeException.class,
+                () -> photoService.uploadPhoto(file, "caption", testEvent, testUser));
+        verify(photoRepository, never()).save(any(Photo.class));
+    }
+
+    //一括アップロード：成功したファイルはまとめて登録し、失敗したファイルはエラー内容を返す
+    @Test
+    void testUploadPhotos_PerFileResults() throws Exception {
+        //モックの設定
+        MockMultipartFile first = new MockMultipartFile("files", "first.png", "image/png", PNG_HEADER);
+        MockMultipartFile invalid = new MockMultipartFile("files", "note.txt", "text/plain", "text".getBytes());
+        MockMultipartFile second = new MockMultipartFile("files", "second.png", "image/png", PNG_HEADER);
+        stubNewBlobs();
+        when(photoRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+        when(photoDerivativeGenerator.generateAsync(any(Photo.class), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(true));
+
+        //テスト実行
+        List<PhotoUploadResult> results = photoService.uploadPhotos(
+                List.of(first, invalid, second), List.of("1枚目", "2枚目"), testEvent, testUser);
+
+        //検証（結果はファイルと同じ順番）
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("1枚目", results.get(0).getPhoto().getCaption());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("note.txt", results.get(1).getOriginalFilename());
+        assertNotNull(results.get(1).getError());
+        assertTrue(results.get(2).isSuccess());
+        assertNull(results.get(2).getPhoto().getCaption());
+        assertEquals(results.get(0).getPhoto().getContentHash(), results.get(2).getPhoto().getContentHash());
+
+        //成功した2件だけを1回でまとめて登録
+        ArgumentCaptor<List<Photo>> saved = ArgumentCaptor.forClass(List.class);
+        verify(photoRepository, times(1)).saveAll(saved.capture());
+        assertEquals(2, saved.getValue().size());
+        verify(photoRepository, never()).save(any(Photo.class));
+        verify(photoDerivativeGenerator, times(2)).generateAsync(any(Photo.class), anyString());
+    }
+
+    //一括アップロード：登録に失敗した場合は書き込んだファイルを削除
+    @Test
+    void testUploadPhotos_SaveFailureRemovesFiles() throws Exception {
+        //モックの設定
+        MockMultipartFile file = new MockMultipartFile("files", "photo.png", "image/png", PNG_HEADER);
+        stubNewBlobs();
+        when(photoRepository.saveAll(anyList())).thenThrow(new RuntimeException("DBエラー"));
+        when(photoBlobRepository.deleteIfUnreferenced(any())).thenReturn(1);
+
+        //テスト実行・検証
+        assertThrows(RuntimeException.class,
+                () -> photoService.uploadPhotos(List.of(file), List.of(), testEvent, testUser));
+        try (Stream<Path> files = Files.walk(uploadDirectory)) {
+            assertEquals(0, files.filter(Files::isRegularFile).count());
+        }
+        verify(photoDerivativeGenerator, never()).generateAsync(any(Photo.class), anyString());
+    }
+
+    //同じ内容のファイルは1つだけ保存し、2枚目以降は参照数を増やす
+    @Test
+    void testUploadPhoto_DeduplicatesContent() throws Exception {
+        //モックの設定（1回目は未登録、2回目は登録済み）
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(PNG_HEADER));
+        PhotoBlob blob = new PhotoBlob(1L, hash, (long) PNG_HEADER.length, "image/png", 1, null);
+        when(photoBlobRepository.incrementRefCount(hash)).thenReturn(0).thenReturn(1);
+        when(photoBlobRepository.saveAndFlush(any(PhotoBlob.class))).thenReturn(blob);
+        when(photoBlobRepository.findByContentHash(hash)).thenReturn(Optional.of(blob));
+        when(photoRepository.save(any(Photo.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(photoDerivativeGenerator.generateAsync(any(Photo.class), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(true));
+
+        //テスト実行
+        Photo first = photoService.uploadPhoto(new MockMultipartFile("file", "a.png", "image/png", PNG_HEADER), null, testEvent, testUser);
+        Photo second = photoService.uploadPhoto(new MockMultipartFile("file", "b.png", "image/png", PNG_HEADER), null, testEvent, testUser);
+
+        //検証（公開ファイル名は写真ごと、保存先のファイルは共有、一時ファイルは残らない）
+        assertNotEquals(first.getFilename(), second.getFilename());
+        assertSame(blob, second.getBlob());
+        Path blobPath = uploadDirectory.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+        try (Stream<Path> files = Files.walk(uploadDirectory)) {
+            assertEquals(List.of(blobPath), files.filter(Files::isRegularFile).toList());
+        }
+        verify(photoBlobRepository, times(1)).saveAndFlush(any(PhotoBlob.class));
+    }
+
+    //写真の削除はトランザクション内で参照数の減算・行の削除のみ行い、ファイルの削除はコミット後に回す
+    @Test
+    void testDeletePhoto_DefersFileDeletion() throws Exception {
+        //モックの設定
+        Path blobPath = uploadDirectory.resolve("ab").resolve("cd").resolve("abcd1234");
+        Files.createDirectories(blobPath.getParent());
+        Files.write(blobPath, PNG_HEADER);
+        PhotoBlob blob = new PhotoBlob(1L, "abcd1234", 10L, "image/png", 1, null);
+        Photo photo = new Photo();
+        photo.setId(1L);
+        photo.setFilename("photo.png");
+        photo.setBlob(blob);
+        photo.setUploadedBy(testUser);
+        PhotoFileInfo info = new PhotoFileInfo("photo.png", "image/png", 10L, "abcd1234", LocalDateTime.now(), true, "abcd1234");
+        when(photoRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(photo));
+        when(photoRepository.findFileInfosByIds(List.of(1L))).thenReturn(List.of(info));
+
+        //テスト実行
+        photoService.deletePhoto(1L, testUser);
+
+        //検証（最後の参照でもファイルはまだ削除しない）
+        verify(photoBlobRepository).decrementRefCountsByPhotoIds(List.of(1L));
+        verify(photoFileDeletionRepository).insertLegacyFilesByPhotoIds(List.of(1L));
+        verify(photoRepository).deleteByIds(List.of(1L));
+        verify(photoBlobRepository, never()).deleteIfUnreferenced(anyLong());
+        assertTrue(Files.exists(blobPath));
+        ArgumentCaptor<PhotoDeletedEvent> captor = ArgumentCaptor.forClass(PhotoDeletedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertEquals(info, captor.getValue().file());
+
+        //コミット後のファイル削除：参照数が0になっていれば削除する
+        when(photoBlobRepository.deleteIfUnreferencedByContentHash("abcd1234")).thenReturn(1);
+        assertEquals(0, photoService.deletePhotoFiles(List.of(captor.getValue().file())));
+        assertFalse(Files.exists(blobPath));
+    }
+
+    //配信用メタ情報は2回目以降キャッシュから返す
+    @Test
+    void testGetPhotoFileInfo_Cached() {
+        //モックの設定
+        PhotoFileInfo info = new PhotoFileInfo("abc.png", "image/png", 100L, "hash", LocalDateTime.now(), false, null);
+        when(photoRepository.findFileInfoByFilename("abc.png")).thenReturn(Optional.of(info));
+
+        //テスト実行
+        PhotoFileInfo first = photoService.getPhotoFileInfo("abc.png");
+        PhotoFileInfo second = photoService.getPhotoFileInfo("abc.png");
+
+        //検証
+        assertEquals("image/png", first.getMimeType());
+        assertSame(first, second);
+        verify(photoRepository, times(1)).findFileInfoByFilename("abc.png");
+    }
+
+    //導入前の写真が移行済みの場合は、キャッシュ済みのメタ情報を読み直して新しい保存先のファイルを返す
+    @Test
+    void testGetPhotoFile_ResolvesMigratedLegacyFile() throws Exception {
+        //モックの設定（1回目は移行前、2回目は移行後のメタ情報）
+        Path blobPath = uploadDirectory.resolve("ab").resolve("cd").resolve("abcd1234");
+        Files.createDirectories(blobPath.getParent());
+        Files.write(blobPath, PNG_HEADER);
+        PhotoFileInfo legacy = new PhotoFileInfo("legacy.png", "image/png", 29L, "abcd1234", LocalDateTime.now(), false, null);
+        PhotoFileInfo migrated = new PhotoFileInfo("legacy.png", "image/png", 29L, "abcd1234", LocalDateTime.now(), false, "abcd1234");
+        when(photoRepository.findFileInfoByFilename("legacy.png"))
+                .thenReturn(Optional.of(legacy))
+                .thenReturn(Optional.of(migrated));
+        photoService.getPhotoFileInfo("legacy.png");
+
+        //テスト実行
+        Resource resource = photoService.getPhotoFile("legacy.png", Photo.Size.ORIGINAL);
+
+        //検証
+        assertEquals(blobPath.toFile(), resource.getFile());
+        assertEquals("abcd1234", photoService.getPhotoFileInfo("legacy.png").getBlobHash());
+        verify(photoRepository, times(2)).findFileInfoByFilename("legacy.png");
+    }
+
+    //導入前の写真のファイルが見つかる場合は、メタ情報を読み直さずにそのまま返す
+    @Test
+    void testGetPhotoFile_ServesLegacyFileWithoutReload() throws Exception {
+        //モックの設定
+        Files.write(uploadDirectory.resolve("legacy.png"), PNG_HEADER);
+        when(photoRepository.findFileInfoByFilename("legacy.png")).thenReturn(Optional.of(
+                new PhotoFileInfo("legacy.png", "image/png", 29L, "abcd1234", LocalDateTime.now(), false, null)));
+
+        //テスト実行
+        photoService.getPhotoFile("legacy.png", Photo.Size.ORIGINAL);
+        Resource resource = photoService.getPhotoFile("legacy.png", Photo.Size.ORIGINAL);
+
+        //検証
+        assertEquals(uploadDirectory.resolve("legacy.png").toFile(), resource.getFile());
+        verify(photoRepository, times(1)).findFileInfoByFilename("legacy.png");
+    }
+
+    //イベントの写真は参照数の減算・行の削除をそれぞれ1文で行い、ファイルの後片付けはコミット後に回す
+    @Test
+    void testDeletePhotosByEvent() {
+        //モックの設定
+        PhotoFileInfo info = new PhotoFileInfo("photo.png", "image/png", 29L, "abcd1234", LocalDateTime.now(), true, "abcd1234");
+        when(photoRepository.findFileInfosByEventId(1L)).thenReturn(List.of(info));
+        when(photoRepository.deleteByEventId(1L)).thenReturn(1);
+
+        //テスト実行
+        int deleted = photoService.deletePhotosByEvent(1L);
+
+        //検証
+        assertEquals(1, deleted);
+        verify(photoBlobRepository).decrementRefCountsByEvent(1L);
+        verify(photoFileDeletionRepository).insertLegacyFilesByEventId(1L);
+        ArgumentCaptor<EventPhotosDeletedEvent> captor = ArgumentCaptor.forClass(EventPhotosDeletedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertEquals(List.of(info), captor.getValue().files());
+        verify(photoRepository, never()).delete(any(Photo.class));
+    }
+
+    //参照がなくなったファイル・導入前のファイルは削除し、他のイベントの写真が参照しているファイルは残す
+    @Test
+    void testCleanUpDeletedPhotoFiles() throws Exception {
+        //モックの設定
+        Path unreferenced = uploadDirectory.resolve("ab").resolve("cd").resolve("abcd1234");
+        Path shared = uploadDirectory.resolve("ef").resolve("gh").resolve("efgh5678");
+        Path legacy = uploadDirectory.resolve("legacy.png");
+        for (Path path : List.of(unreferenced, shared, legacy)) {
+            Files.createDirectories(path.getParent());
+            Files.write(path, PNG_HEADER);
+        }
+        when(photoBlobRepository.deleteIfUnreferencedByContentHash("abcd1234")).thenReturn(1);
+        when(photoBlobRepository.deleteIfUnreferencedByContentHash("efgh5678")).thenReturn(0);
+        List<PhotoFileInfo> files = List.of(
+                new PhotoFileInfo("a.png", "image/png", 29L, "abcd1234", LocalDateTime.now(), true, "abcd1234"),
+                new PhotoFileInfo("b.png", "image/png", 29L, "efgh5678", LocalDateTime.now(), true, "efgh5678"),
+                new PhotoFileInfo("legacy.png", "image/png", 29L, null, LocalDateTime.now(), true, null));
+
+        //テスト実行
+        PhotoCleanupProgress result = photoService.cleanUpDeletedPhotoFiles(1L, files);
+
+        //検証
+        assertEquals(new PhotoCleanupProgress(1L, 3, 3, 0, true), result);
+        assertEquals(Optional.of(result), photoService.getPhotoCleanupProgress(1L));
+        assertFalse(Files.exists(unreferenced));
+        assertTrue(Files.exists(shared));
+        assertFalse(Files.exists(legacy));
+        verify(photoDerivativeGenerator).deleteDerivatives("ab/cd/abcd1234");
+        verify(photoDerivativeGenerator).deleteDerivatives("legacy.png");
+        verify(photoFileDeletionRepository).deleteByFilename("legacy.png");
+    }
+
+    //未登録の内容として新しいファイルを登録する
+    private void stubNewBlobs() {
+        when(photoBlobRepository.saveAndFlush(any(PhotoBlob.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+}
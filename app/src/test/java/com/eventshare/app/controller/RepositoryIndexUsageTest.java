@@ -0,0 +1,239 @@
+package com.eventshare.app.controller;
+
+import com.eventshare.app.entity.Event;
+import com.eventshare.app.entity.EventCategory;
+import com.eventshare.app.entity.EventParticipation;
+import com.eventshare.app.entity.Photo;
+import com.eventshare.app.entity.User;
+import com.eventshare.app.repository.EventCategoryRepository;
+import com.eventshare.app.repository.EventParticipationRepository;
+import com.eventshare.app.repository.EventRepository;
+import com.eventshare.app.repository.PhotoBlobRepository;
+import com.eventshare.app.repository.PhotoFileDeletionRepository;
+import com.eventshare.app.repository.PhotoRepository;
+import com.eventshare.app.repository.UserRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+リポジトリのクエリがインデックスを使うことの確認テスト（PostgreSQL）
+Flywayのマイグレーションで作成したスキーマに対して各クエリを実行し、発行されたSQLの実行計画をEXPLAINで確認する
+テーブルが小さいとインデックスがあっても全件走査が選ばれるため、セッションで enable_seqscan を無効にして
+「使えるインデックスがない場合だけSeq Scanになる」状態で判定する
+Dockerが使えない環境ではスキップする
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.flyway.enabled=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.eventshare.app.controller.RepositoryIndexUsageTest$SqlCapture"
+})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+public class RepositoryIndexUsageTest {
+    //EXPLAIN (GENERIC_PLAN) を使うためPostgreSQL 16以降
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private EventParticipationRepository eventParticipationRepository;
+
+    @Autowired
+    private PhotoRepository photoRepository;
+
+    @Autowired
+    private PhotoBlobRepository photoBlobRepository;
+
+    @Autowired
+    private PhotoFileDeletionRepository photoFileDeletionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EventCategoryRepository eventCategoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private EventCategory category;
+    private Event event;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        user = new User();
+        user.setUsername("index-user-" + suffix);
+        user.setPassword("password");
+        user = userRepository.save(user);
+
+        category = new EventCategory();
+        category.setName("index-category-" + suffix);
+        category = eventCategoryRepository.save(category);
+
+        event = new Event();
+        event.setTitle("インデックス確認");
+        event.setEventDate(LocalDateTime.now().plusDays(7));
+        event.setCategory(category);
+        event.setCreator(user);
+        event.setCapacity(10);
+        event = eventRepository.save(event);
+
+        EventParticipation participation = new EventParticipation();
+        participation.setEvent(event);
+        participation.setUser(user);
+        participation.setStatus(EventParticipation.ParticipationStatus.CONFIRMED);
+        eventParticipationRepository.save(participation);
+
+        Photo photo = new Photo();
+        photo.setFilename(UUID.randomUUID() + ".jpg");
+        photo.setUploadFilename("photo.jpg");
+        photo.setFileSize(1L);
+        photo.setMineType("image/jpeg");
+        photo.setEvent(event);
+        photo.setUploadedBy(user);
+        photoRepository.save(photo);
+    }
+
+    @Test
+    void testEventQueriesUseIndex() {
+        LocalDateTime now = LocalDateTime.now();
+        assertUsesIndex("findDetailById", () -> eventRepository.findDetailById(event.getId()));
+        assertUsesIndex("findByIdIn", () -> eventRepository.findByIdIn(List.of(event.getId())));
+        assertUsesIndex("findByEventDateAfter", () -> eventRepository.findByEventDateAfter(now));
+        assertUsesIndex("findByCategory", () -> eventRepository.findByCategory(category));
+        assertUsesIndex("findByCategoryAndEventDateAfter", () -> eventRepository.findByCategoryAndEventDateAfter(category, now));
+        assertUsesIndex("existsByCategory", () -> eventRepository.existsByCategory(category));
+        assertUsesIndex("findByCreator", () -> eventRepository.findByCreator(user));
+        assertUsesIndex("findFirstPage", () -> eventRepository.findFirstPage(PageRequest.of(0, 21)));
+        assertUsesIndex("findPageAfterCursor", () -> eventRepository.findPageAfterCursor(now, 1L, PageRequest.of(0, 21)));
+        assertUsesIndex("findFirstPageByCategory", () -> eventRepository.findFirstPageByCategory(category, PageRequest.of(0, 21)));
+        assertUsesIndex("findPageByCategoryAfterCursor",
+                () -> eventRepository.findPageByCategoryAfterCursor(category, now, 1L, PageRequest.of(0, 21)));
+        assertUsesIndex("findFirstPageByEventDateAfter", () -> eventRepository.findFirstPageByEventDateAfter(now, PageRequest.of(0, 21)));
+        assertUsesIndex("findPageByEventDateAfterCursor",
+                () -> eventRepository.findPageByEventDateAfterCursor(now, now, 1L, PageRequest.of(0, 21)));
+        assertUsesIndex("findResponsesByIdIn", () -> eventRepository.findResponsesByIdIn(List.of(event.getId())));
+        assertUsesIndex("findSearchDocuments", () -> eventRepository.findSearchDocuments(0L, PageRequest.of(0, 1000)));
+        assertUsesIndex("findSearchDocumentsByCategoryId",
+                () -> eventRepository.findSearchDocumentsByCategoryId(category.getId(), 0L, PageRequest.of(0, 1000)));
+    }
+
+    @Test
+    void testParticipationQueriesUseIndex() {
+        EventParticipation.ParticipationStatus confirmed = EventParticipation.ParticipationStatus.CONFIRMED;
+        assertUsesIndex("findByEvent", () -> eventParticipationRepository.findByEvent(event));
+        assertUsesIndex("findByUser", () -> eventParticipationRepository.findByUser(user));
+        assertUsesIndex("findByEventAndUser", () -> eventParticipationRepository.findByEventAndUser(event, user));
+        assertUsesIndex("existsByEventAndUser", () -> eventParticipationRepository.existsByEventAndUser(event, user));
+        assertUsesIndex("findByEventAndStatus", () -> eventParticipationRepository.findByEventAndStatus(event, confirmed));
+        assertUsesIndex("countByEventAndStatus", () -> eventParticipationRepository.countByEventAndStatus(event, confirmed));
+        assertUsesIndex("countByEventIdsAndStatus",
+                () -> eventParticipationRepository.countByEventIdsAndStatus(List.of(event.getId()), confirmed));
+        assertUsesIndex("findByEventIdAndStatusOrderByCreatedAtAscIdAsc",
+                () -> eventParticipationRepository.findByEventIdAndStatusOrderByCreatedAtAscIdAsc(
+                        event.getId(), EventParticipation.ParticipationStatus.WAITING, PageRequest.of(0, 50)));
+        assertUsesIndex("findParticipantsFirstPage",
+                () -> eventParticipationRepository.findParticipantsFirstPage(event.getId(), PageRequest.of(0, 50)));
+        assertUsesIndex("findParticipantsAfterCursor",
+                () -> eventParticipationRepository.findParticipantsAfterCursor(event.getId(), LocalDateTime.now(), 1L, PageRequest.of(0, 50)));
+        assertUsesIndex("findParticipantsByStatusFirstPage",
+                () -> eventParticipationRepository.findParticipantsByStatusFirstPage(event.getId(), confirmed, PageRequest.of(0, 50)));
+        assertUsesIndex("findUserParticipationsFirstPage",
+                () -> eventParticipationRepository.findUserParticipationsFirstPage(user.getId(), PageRequest.of(0, 20)));
+        assertUsesIndex("findUserParticipationsByStatusFirstPage",
+                () -> eventParticipationRepository.findUserParticipationsByStatusFirstPage(user.getId(), confirmed, PageRequest.of(0, 20)));
+    }
+
+    @Test
+    void testPhotoAndUserQueriesUseIndex() {
+        assertUsesIndex("findByEventOrderByUploadedAtDesc", () -> photoRepository.findByEventOrderByUploadedAtDesc(event));
+        assertUsesIndex("findByUploadedByOrderByUploadedAtDesc", () -> photoRepository.findByUploadedByOrderByUploadedAtDesc(user));
+        assertUsesIndex("findByEventAndUploadedByOrderByUploadedAtDesc",
+                () -> photoRepository.findByEventAndUploadedByOrderByUploadedAtDesc(event, user));
+        assertUsesIndex("countByEvent", () -> photoRepository.countByEvent(event));
+        assertUsesIndex("findFileInfoByFilename", () -> photoRepository.findFileInfoByFilename("none.jpg"));
+        assertUsesIndex("findUnreferencedContentHashes",
+                () -> photoBlobRepository.findUnreferencedContentHashes("", PageRequest.of(0, 100)));
+        assertUsesIndex("findFilenamesAfter", () -> photoFileDeletionRepository.findFilenamesAfter("", PageRequest.of(0, 100)));
+        assertUsesIndex("findByUsername", () -> userRepository.findByUsername(user.getUsername()));
+        assertUsesIndex("existsByUsername", () -> userRepository.existsByUsername(user.getUsername()));
+        assertUsesIndex("findByName", () -> eventCategoryRepository.findByName(category.getName()));
+    }
+
+    //クエリを実行し、発行されたすべてのSQLの実行計画にSeq Scanが含まれないことを確認
+    private void assertUsesIndex(String queryName, Runnable query) {
+        SqlCapture.STATEMENTS.clear();
+        query.run();
+        List<String> statements = new ArrayList<>(SqlCapture.STATEMENTS);
+        assertFalse(statements.isEmpty(), queryName + ": SQLが発行されていません");
+        for (String sql : statements) {
+            String plan = explain(sql);
+            assertFalse(plan.contains("Seq Scan"), queryName + " がインデックスを使用していません\n" + sql + "\n" + plan);
+        }
+    }
+
+    //パラメータ（?）を$1, $2...に置き換え、値を指定せずに汎用の実行計画を取得
+    private String explain(String sql) {
+        StringBuilder numbered = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET enable_seqscan = off");
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet resultSet = statement.executeQuery("EXPLAIN (GENERIC_PLAN) " + numbered)) {
+                    while (resultSet.next()) {
+                        plan.append(resultSet.getString(1)).append('\n');
+                    }
+                }
+                statement.execute("RESET enable_seqscan");
+                return plan.toString();
+            }
+        });
+    }
+
+    //Hibernateが発行したSQLを記録する
+    public static class SqlCapture implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
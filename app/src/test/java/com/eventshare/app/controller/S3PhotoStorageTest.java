@@ -0,0 +1,157 @@
+package com.eventshare.app.controller;
+
+import com.eventshare.app.service.PhotoStorage;
+import com.eventshare.app.service.impl.S3PhotoStorage;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testcontainers.containers.MinIOContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+S3PhotoStorageのテストクラス（MinIO）
+保存・取得・確認・削除、マルチパートアップロード、期限付きURLでの取得をテスト
+Dockerが使えない環境ではスキップする
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class S3PhotoStorageTest {
+    private static final String BUCKET = "photos";
+
+    @Container
+    static MinIOContainer minio = new MinIOContainer("minio/minio:RELEASE.2023-09-04T19-57-37Z");
+
+    private static S3Client s3Client;
+    private static S3Presigner s3Presigner;
+    private static PhotoStorage photoStorage;
+
+    @TempDir
+    Path workDirectory;
+
+    @BeforeAll
+    static void setUp() {
+        StaticCredentialsProvider credentials = StaticCredentialsProvider.create(
+                AwsBasicCredentials.create(minio.getUserName(), minio.getPassword()));
+        S3Configuration pathStyle = S3Configuration.builder().pathStyleAccessEnabled(true).build();
+        s3Client = S3Client.builder()
+                .endpointOverride(URI.create(minio.getS3URL()))
+                .region(Region.AP_NORTHEAST_1)
+                .credentialsProvider(credentials)
+                .serviceConfiguration(pathStyle)
+                .build();
+        s3Presigner = S3Presigner.builder()
+                .endpointOverride(URI.create(minio.getS3URL()))
+                .region(Region.AP_NORTHEAST_1)
+                .credentialsProvider(credentials)
+                .serviceConfiguration(pathStyle)
+                .build();
+        s3Client.createBucket(request -> request.bucket(BUCKET));
+        photoStorage = new S3PhotoStorage(s3Client, s3Presigner, BUCKET);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        s3Presigner.close();
+        s3Client.close();
+    }
+
+    //小さいファイルは1回のPUTで保存され、一時ファイルは削除される
+    @Test
+    void testPutAndGet() throws Exception {
+        //テスト用のファイル
+        byte[] content = randomBytes(1024);
+        Path source = workDirectory.resolve("small.tmp");
+        Files.write(source, content);
+
+        //テスト実行
+        photoStorage.put("ab/cd/small", source, "image/png");
+
+        //検証
+        assertFalse(Files.exists(source));
+        try (InputStream stream = photoStorage.get("ab/cd/small")) {
+            assertArrayEquals(content, stream.readAllBytes());
+        }
+        Optional<PhotoStorage.ObjectInfo> info = photoStorage.stat("ab/cd/small");
+        assertTrue(info.isPresent());
+        assertEquals(content.length, info.get().size());
+    }
+
+    //パートの大きさを超えるファイルはマルチパートアップロードで保存され、内容が一致する
+    @Test
+    void testPut_Multipart() throws Exception {
+        //テスト用のファイル（2パート半）
+        byte[] content = randomBytes((int) (8L * 1024 * 1024 * 5 / 2));
+        Path source = workDirectory.resolve("large.tmp");
+        Files.write(source, content);
+
+        //テスト実行
+        photoStorage.put("ab/cd/large", source, "image/jpeg");
+
+        //検証
+        try (InputStream stream = photoStorage.get("ab/cd/large")) {
+            assertArrayEquals(content, stream.readAllBytes());
+        }
+        assertEquals(content.length, photoStorage.load("ab/cd/large").contentLength());
+    }
+
+    //期限付きURLで認証情報なしにファイルを取得できる
+    @Test
+    void testPresignedUrl() throws Exception {
+        //テスト用のファイル
+        byte[] content = randomBytes(2048);
+        Path source = workDirectory.resolve("presigned.tmp");
+        Files.write(source, content);
+        photoStorage.put("ab/cd/presigned", source, "image/png");
+
+        //テスト実行
+        URI url = photoStorage.presignedUrl("ab/cd/presigned", Duration.ofMinutes(1)).orElseThrow();
+        HttpResponse<byte[]> response = HttpClient.newHttpClient()
+                .send(HttpRequest.newBuilder(url).GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        //検証
+        assertEquals(200, response.statusCode());
+        assertArrayEquals(content, response.body());
+    }
+
+    //削除したファイルは存在しない扱いになる
+    @Test
+    void testDelete() throws Exception {
+        //テスト用のファイル
+        Path source = workDirectory.resolve("delete.tmp");
+        Files.write(source, randomBytes(16));
+        photoStorage.put("ab/cd/delete", source, "image/png");
+
+        //テスト実行
+        photoStorage.delete("ab/cd/delete");
+
+        //検証
+        assertTrue(photoStorage.stat("ab/cd/delete").isEmpty());
+        assertThrows(RuntimeException.class, () -> photoStorage.load("ab/cd/delete"));
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
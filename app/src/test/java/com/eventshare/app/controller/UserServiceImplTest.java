@@ -1,6 +1,9 @@
 package com.eventshare.app.controller;
 
+import com.eventshare.app.entity.AccountPurge;
 import com.eventshare.app.entity.User;
+import com.eventshare.app.listener.AccountPurgeRequestedEvent;
+import com.eventshare.app.repository.AccountPurgeRepository;
 import com.eventshare.app.repository.UserRepository;
 import com.eventshare.app.service.impl.UserServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,6 +12,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -16,6 +20,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
@@ -28,6 +33,12 @@ public class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private AccountPurgeRepository accountPurgeRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -141,4 +152,55 @@ public class UserServiceImplTest {
         verify(userRepository, times(1)).existsByUsername("newuser");
         verify(userRepository, times(1)).save(newUser);
     }
+
+    //ユーザー削除：削除ジョブを登録し、ユーザー・関連データはこの時点では削除しない
+    @Test
+    void testDeleteUser_RegistersPurge() {
+        //モックの設定
+        when(accountPurgeRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(accountPurgeRepository.save(any(AccountPurge.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        //テスト実行
+        AccountPurge result = userService.deleteUser(1L);
+
+        //検証
+        assertEquals(1L, result.getUserId());
+        assertEquals(AccountPurge.Status.PENDING, result.getStatus());
+        verify(eventPublisher, times(1)).publishEvent(new AccountPurgeRequestedEvent(1L));
+        verify(userRepository, never()).delete(any(User.class));
+        verify(userRepository, never()).deleteUserById(any());
+    }
+
+    //ユーザー削除：失敗したジョブは待機中に戻して再実行する
+    @Test
+    void testDeleteUser_RetriesFailedPurge() {
+        //モックの設定
+        AccountPurge failed = new AccountPurge();
+        failed.setUserId(1L);
+        failed.setStatus(AccountPurge.Status.FAILED);
+        failed.setPhase(AccountPurge.Phase.EVENTS);
+        when(accountPurgeRepository.findById(1L)).thenReturn(Optional.of(failed));
+
+        //テスト実行
+        AccountPurge result = userService.deleteUser(1L);
+
+        //検証
+        assertSame(failed, result);
+        assertEquals(AccountPurge.Status.PENDING, result.getStatus());
+        verify(eventPublisher, times(1)).publishEvent(new AccountPurgeRequestedEvent(1L));
+    }
+
+    //ユーザー削除：存在しないユーザーは受け付けない
+    @Test
+    void testDeleteUser_NotFound() {
+        //モックの設定
+        when(accountPurgeRepository.findById(99L)).thenReturn(Optional.empty());
+        when(userRepository.existsById(99L)).thenReturn(false);
+
+        //テスト実行・検証
+        assertThrows(RuntimeException.class, () -> userService.deleteUser(99L));
+        verify(accountPurgeRepository, never()).save(any(AccountPurge.class));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
 }